@@ -17,7 +17,12 @@ import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Created by FlyingHe on 2018/12/20.
@@ -73,6 +78,29 @@ public abstract class AbstractExcelWriter<T> {
      * 默认写入日期格式
      */
     public static final String DATE_PATTERN = "yyyy/MM/dd HH:mm:ss";
+    /**
+     * 单元格值的写入方式,参考{@link #kindOf(Class)}
+     */
+    private static final int KIND_OTHER = 0;
+    private static final int KIND_STRING = 1;
+    private static final int KIND_INTEGER = 2;
+    private static final int KIND_DATE = 3;
+    private static final int KIND_CALENDAR = 4;
+    private static final int KIND_BOOLEAN = 5;
+    private static final int KIND_FLOAT = 6;
+    private static final int KIND_DOUBLE = 7;
+    private static final int KIND_BYTE = 8;
+    private static final int KIND_SHORT = 9;
+    private static final int KIND_LONG = 10;
+    private static final int KIND_LOCAL_DATE = 11;
+    private static final int KIND_LOCAL_DATE_TIME = 12;
+    private static final int KIND_INSTANT = 13;
+    /**
+     * Excel日期序列号为0的日期(1900日期系统,只适用于1900-03-01之后的日期)
+     */
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+    private static final LocalDate EXCEL_EPOCH_VALID = LocalDate.of(1900, 3, 1);
+    private static final double NANOS_PER_DAY = 24 * 3600 * 1000000000D;
     /******************************************************************************************************/
     /**
      * 记录当前sheet的当前行，0-based
@@ -134,7 +162,7 @@ public abstract class AbstractExcelWriter<T> {
     private Map<String, Object> map = null;
 
     /**
-     * 变量池,用于记录一些全局范围内的变量,一般用于向Excel中写入在{@link #datas}数据中不存在的属性值,
+     * 变量池,用于记录一些全局范围内的变量,一般用于向Excel中写入在被写入数据中不存在的属性值,
      * 一般配合{@link #map}使用
      */
     private Map<String, Object> varPool = null;
@@ -150,13 +178,33 @@ public abstract class AbstractExcelWriter<T> {
      */
     protected boolean isSkipBlankRow = true;
     /**
-     * 记录需要被写入Excel文档的属性名(根据此值判断datas里元素的哪些属性会被写入)
+     * 记录需要被写入Excel文档的属性名(根据此值判断被写入数据的哪些属性会被写入)
      */
     private List<String> properties = null;
     /**
-     * 记录不需要被写入Excel文档的属性名(根据此值判断datas里元素的哪些属性不会被写入),若为null表示不排除任何属性写入
+     * 记录不需要被写入Excel文档的属性名(根据此值判断被写入数据的哪些属性不会被写入),若为null表示不排除任何属性写入
      */
     private List<String> excludeProps = null;
+    /**
+     * 写入JavaBean时按{@link #properties}读取属性值的访问器,每个JavaBean类型和属性列表只解析一次,
+     * 写入Map时不使用
+     */
+    private ExcelBeanAccessor beanAccessor = null;
+    /**
+     * 每一列的写入方式,下标即列坐标,根据{@link #properties}和各种映射编译,
+     * 写入过程中修改参数或映射后会在下一次写入前重新编译,即从下一次写入开始生效
+     */
+    private ColumnPlan[] columnPlans = null;
+    /**
+     * 参数的修改次数,与各映射的修改次数一起判断上一次校验之后参数或映射是否被修改过
+     *
+     * @see #settingsVersion()
+     */
+    private int settingsModCount = 0;
+    /**
+     * 上一次校验并编译{@link #columnPlans}时的{@link #settingsVersion()},&lt;0表示还未校验过
+     */
+    private int validatedVersion = -1;
     /**
      * 写入每一页第{@link #startRowIndex}行的标题,指定此属性需要开启标题写入总开关
      * {@link #isWriteTitle}
@@ -164,7 +212,11 @@ public abstract class AbstractExcelWriter<T> {
     private List<String> titles = null;
     /**
      * 需要被写入Excel的数据
+     *
+     * @deprecated 写入数据时不再将数据复制到此集合中,而是逐个写入(参考{@link #write(Iterator)}),此字段始终为null,
+     * 仅为兼容引用了此字段的子类而保留,以后的版本会移除
      */
+    @Deprecated
     protected List<T> datas = null;
     /**
      * 指定一个Sheet里最多能写多少数据行,达到此限定值则换页,&lt;=0表示不限制
@@ -192,16 +244,32 @@ public abstract class AbstractExcelWriter<T> {
      */
     private SimpleDateFormat defaultDateFormat = new SimpleDateFormat(DATE_PATTERN);
     /**
-     * 用于用户设置了{@link #dateFormatMapping}时,临时使用此日期格式对象
+     * 用于用户设置了{@link #dateFormatMapping}时,每种日期格式只创建一个日期格式对象
      */
-    private SimpleDateFormat dateFormatTemp = new SimpleDateFormat(DATE_PATTERN);
+    private Map<String, SimpleDateFormat> dateFormatPool = new HashMap<String, SimpleDateFormat>(16);
     /**
      * 配置属性名到日期格式的映射,若写入的属性值是日期,并且该属性值的日期格式在此配置中
-     * ,则该属性值的日期格式采用此映射值,否则采用默认日期格式
+     * ,则该属性值的日期格式采用此映射值,否则采用默认日期格式。
+     * {@link LocalDate},{@link LocalDateTime},{@link Instant}值以字符串写入时,只有在此配置中的属性才按日期格式格式化,
+     * 否则通过toString()获取
      *
      * @see #defaultDateFormat
      */
-    private Map<String, String> dateFormatMapping = null;
+    private TrackedMap<String, String> dateFormatMapping = null;
+    /**
+     * 为true表示所有属性的日期值(包括{@link LocalDate},{@link LocalDateTime},{@link Instant})
+     * 以Excel日期序列号写入,单元格使用该属性的日期格式(参考{@link #dateFormatMapping}),可在Excel中按日期排序和筛选,
+     * 为false表示日期值格式化成字符串写入
+     */
+    private boolean nativeDate = false;
+    /**
+     * {@link #nativeDate}为false时,日期值仍以Excel日期序列号写入的属性名
+     */
+    private TrackedSet<String> nativeDateProps = null;
+    /**
+     * 以Excel日期序列号写入日期时使用的单元格样式,每种原单元格样式和日期格式只创建一个
+     */
+    private Map<String, CellStyle> dateCellStylePool = new HashMap<String, CellStyle>(16);
 
     /**
      * 属性到boolean值的映射,若写入的属性值是boolean值,并且该属性值在此配置中,则该属性值采用此映射值,
@@ -211,7 +279,7 @@ public abstract class AbstractExcelWriter<T> {
      * @see #TRUE
      * @see #FALSE
      */
-    private Map<String, Map<String, Object>> booleanMapping = null;
+    private TrackedMap<String, Map<String, Object>> booleanMapping = null;
     /**
      * 默认单元格样式,用户可以覆盖此值
      */
@@ -222,7 +290,7 @@ public abstract class AbstractExcelWriter<T> {
      *
      * @see #defaultCellStyle
      */
-    private Map<String, CellStyle> cellStyleMapping = null;
+    private TrackedMap<String, CellStyle> cellStyleMapping = null;
     /**
      * 默认标题单元格样式,用户可以覆盖此值
      */
@@ -448,11 +516,39 @@ public abstract class AbstractExcelWriter<T> {
      */
     public Map<String, String> getDateFormatMapping() {
         if (null == this.dateFormatMapping) {
-            this.dateFormatMapping = new HashMap<String, String>(16);
+            this.dateFormatMapping = new TrackedMap<String, String>(16);
         }
         return dateFormatMapping;
     }
 
+    public boolean isNativeDate() {
+        return nativeDate;
+    }
+
+    /**
+     * 设置是否所有属性的日期值以Excel日期序列号写入
+     *
+     * @param nativeDate 是否以Excel日期序列号写入
+     * @see #nativeDate
+     */
+    public void setNativeDate(boolean nativeDate) {
+        this.nativeDate = nativeDate;
+        this.settingsModCount++;
+    }
+
+    /**
+     * 获取日期值以Excel日期序列号写入的属性名
+     *
+     * @return 返回日期值以Excel日期序列号写入的属性名
+     * @see #nativeDateProps
+     */
+    public Set<String> getNativeDateProps() {
+        if (null == this.nativeDateProps) {
+            this.nativeDateProps = new TrackedSet<String>(16);
+        }
+        return nativeDateProps;
+    }
+
     /**
      * 获取属性到boolean值的映射
      *
@@ -460,7 +556,7 @@ public abstract class AbstractExcelWriter<T> {
      */
     public Map<String, Map<String, Object>> getBooleanMapping() {
         if (null == this.booleanMapping) {
-            this.booleanMapping = new HashMap<String, Map<String, Object>>(16);
+            this.booleanMapping = new TrackedMap<String, Map<String, Object>>(16);
         }
         return booleanMapping;
     }
@@ -523,6 +619,7 @@ public abstract class AbstractExcelWriter<T> {
 
     public void setDefaultCellStyle(CellStyle defaultCellStyle) {
         this.defaultCellStyle = defaultCellStyle;
+        this.settingsModCount++;
     }
 
     /**
@@ -532,7 +629,7 @@ public abstract class AbstractExcelWriter<T> {
      */
     public Map<String, CellStyle> getCellStyleMapping() {
         if (this.cellStyleMapping == null) {
-            this.cellStyleMapping = new HashMap<String, CellStyle>(16);
+            this.cellStyleMapping = new TrackedMap<String, CellStyle>(16);
         }
         return cellStyleMapping;
     }
@@ -553,6 +650,7 @@ public abstract class AbstractExcelWriter<T> {
      */
     public void setDefaultTitleCellStyle(CellStyle defaultTitleCellStyle) {
         this.defaultTitleCellStyle = defaultTitleCellStyle;
+        this.settingsModCount++;
     }
 
     /**
@@ -647,48 +745,40 @@ public abstract class AbstractExcelWriter<T> {
      */
     public void setWriteExcelCallback(WriteExcelCallback<T> writeExcelCallback) {
         this.writeExcelCallback = writeExcelCallback;
+        this.settingsModCount++;
     }
 
     /**
      * 设置properties
      *
-     * @param properties properties
+     * @param properties properties,会被复制一份,之后修改传入的集合不会影响写入,需要修改时应再次调用此方法
      * @see #properties
      */
     public void setProperties(Collection<String> properties) {
-        if (null == this.properties) {
-            this.properties = new ArrayList<>();
-        }
-        this.properties.clear();
-        this.properties.addAll(properties);
+        this.properties = new ArrayList<>(properties);
+        this.settingsModCount++;
     }
 
     /**
      * 设置excludeProps
      *
-     * @param excludeProps excludeProps
+     * @param excludeProps excludeProps,会被复制一份,之后修改传入的集合不会影响写入,需要修改时应再次调用此方法
      * @see #excludeProps
      */
     public void setExcludeProps(Collection<String> excludeProps) {
-        if (null == this.excludeProps) {
-            this.excludeProps = new ArrayList<>();
-        }
-        this.excludeProps.clear();
-        this.excludeProps.addAll(excludeProps);
+        this.excludeProps = new ArrayList<>(excludeProps);
+        this.settingsModCount++;
     }
 
     /**
      * 设置titles
      *
-     * @param titles titles
+     * @param titles titles,会被复制一份,之后修改传入的集合不会影响写入,需要修改时应再次调用此方法
      * @see #titles
      */
     public void setTitles(Collection<String> titles) {
-        if (null == this.titles) {
-            this.titles = new ArrayList<>();
-        }
-        this.titles.clear();
-        this.titles.addAll(titles);
+        this.titles = new ArrayList<>(titles);
+        this.settingsModCount++;
     }
 
     /**
@@ -853,18 +943,45 @@ public abstract class AbstractExcelWriter<T> {
     }
 
     /**
-     * 修正数据并校验,此方法在每次写入数据前都需要校验,因为用户可能修改参数而导致参数非法
+     * 获取参数和各映射的修改次数之和,两次获取的值相同表示期间参数和映射都没有被修改过
+     *
+     * @return
+     */
+    private int settingsVersion() {
+        int version = this.settingsModCount;
+        if (null != this.dateFormatMapping) {
+            version += this.dateFormatMapping.getModCount();
+        }
+        if (null != this.nativeDateProps) {
+            version += this.nativeDateProps.getModCount();
+        }
+        if (null != this.booleanMapping) {
+            version += this.booleanMapping.getModCount();
+        }
+        if (null != this.cellStyleMapping) {
+            version += this.cellStyleMapping.getModCount();
+        }
+        return version;
+    }
+
+    /**
+     * 修正数据并校验,此方法在每次写入数据前都需要调用,因为用户可能修改参数而导致参数非法,
+     * 若上一次校验之后参数和映射都没有被修改过则直接返回,不会重新编译{@link #columnPlans}
      *
+     * @param hasData 此次写入是否含有数据
+     * @param data    此次写入的第一个数据,未指定需要写入的属性时根据它获取
      * @throws WriteExcelException 校验错误异常
      */
-    private void validateDataPerWrite() throws WriteExcelException {
+    private void validateDataPerWrite(boolean hasData, T data) throws WriteExcelException {
+        if (this.validatedVersion == this.settingsVersion()) {
+            return;
+        }
         //修正数据,并校验
         if (CollectionUtils.isEmpty(this.properties)) {
-            if (CollectionUtils.isEmpty(this.datas)) {
-                //此种情况下被写入数据不能为空,因为默认会根据datas去自动获取需要被写入的属性
+            if (!hasData) {
+                //此种情况下被写入数据不能为空,因为默认会根据第一个数据去自动获取需要被写入的属性
                 throw new WriteExcelException("datas为空,请检查数据");
             }
-            T data = this.datas.get(0);
             this.setProperties(data instanceof Map ? ((Map) data).keySet() : CommonUtils.toMap(data).keySet());
         }
         if (CollectionUtils.isNotEmpty(this.excludeProps)) {
@@ -874,6 +991,10 @@ public abstract class AbstractExcelWriter<T> {
         if (CollectionUtils.isEmpty(this.properties)) {
             throw new WriteExcelException("properties为空!");
         }
+        if (this.beanAccessor != null && !this.beanAccessor.hasProperties(this.properties)) {
+            //属性列表已改变,需要重新解析
+            this.beanAccessor = null;
+        }
         if (this.isWriteTitle && CollectionUtils.isEmpty(this.titles)) {
             this.setTitles(this.properties);
         }
@@ -904,100 +1025,363 @@ public abstract class AbstractExcelWriter<T> {
         if (this.writeExcelCallback != null && null == this.map) {
             this.map = new HashMap<>(2);
         }
+        this.compileColumnPlans();
+        this.validatedVersion = this.settingsVersion();
+    }
+
+    /**
+     * 为每一列确定单元格样式,日期格式和boolean映射,写入每一行时不再查找各种映射
+     */
+    private void compileColumnPlans() {
+        ColumnPlan[] columnPlans = new ColumnPlan[this.properties.size()];
+        for (int i = 0; i < columnPlans.length; i++) {
+            String property = this.properties.get(i);
+            CellStyle cellStyle = this.defaultCellStyle;
+            if (MapUtils.isNotEmpty(this.cellStyleMapping) && this.cellStyleMapping.containsKey(property)) {
+                cellStyle = this.cellStyleMapping.get(property);
+            }
+            SimpleDateFormat dateFormat = this.defaultDateFormat;
+            String pattern = MapUtils.isNotEmpty(this.dateFormatMapping) ? this.dateFormatMapping.get(property) : null;
+            if (null != pattern) {
+                //证明设置了该列名到日期格式的映射,日期格式采用映射格式
+                dateFormat = this.dateFormatPool.get(pattern);
+                if (null == dateFormat) {
+                    dateFormat = new SimpleDateFormat(pattern);
+                    this.dateFormatPool.put(pattern, dateFormat);
+                }
+            }
+            Map<String, Object> mapping = MapUtils.isNotEmpty(this.booleanMapping) ?
+                    this.booleanMapping.get(property) : null;
+            ColumnPlan columnPlan = new ColumnPlan(property, cellStyle, dateFormat, mapping);
+            columnPlan.formatTemporal = null != pattern;
+            if (this.nativeDate || (CollectionUtils.isNotEmpty(this.nativeDateProps) &&
+                    this.nativeDateProps.contains(property))) {
+                columnPlan.dateCellStyle = this.getDateCellStyle(cellStyle, dateFormat.toPattern());
+            }
+            if (null != this.columnPlans && i < this.columnPlans.length &&
+                    property.equals(this.columnPlans[i].property)) {
+                //沿用上一次写入时该列的值类型
+                columnPlan.type = this.columnPlans[i].type;
+                columnPlan.kind = this.columnPlans[i].kind;
+            }
+            columnPlans[i] = columnPlan;
+        }
+        this.columnPlans = columnPlans;
+    }
+
+    /**
+     * 获取以Excel日期序列号写入日期时使用的单元格样式,即在原单元格样式的基础上设置日期格式
+     *
+     * @param cellStyle 原单元格样式,为null表示没有样式
+     * @param pattern   {@link SimpleDateFormat}的日期格式
+     * @return 单元格样式, 相同的原单元格样式和日期格式返回同一个对象
+     */
+    private CellStyle getDateCellStyle(CellStyle cellStyle, String pattern) {
+        String key = (null == cellStyle ? -1 : cellStyle.getIndex()) + "|" + pattern;
+        CellStyle dateCellStyle = this.dateCellStylePool.get(key);
+        if (null == dateCellStyle) {
+            dateCellStyle = this.workbook.createCellStyle();
+            if (null != cellStyle) {
+                dateCellStyle.cloneStyleFrom(cellStyle);
+            }
+            dateCellStyle.setDataFormat(this.workbook.createDataFormat().getFormat(toExcelDatePattern(pattern)));
+            this.dateCellStylePool.put(key, dateCellStyle);
+        }
+        return dateCellStyle;
     }
 
     /**
-     * 给一个Cell赋值,若为null则视为"",若不为基本类型及其包装类(日期类型除外),则其值通过toString()获取
+     * 将{@link SimpleDateFormat}的日期格式转换成Excel的日期格式,如"yyyy/MM/dd HH:mm:ss"转换成"yyyy/mm/dd hh:mm:ss",
+     * Excel不支持的字母(时区,星期数等)被忽略
+     *
+     * @param pattern {@link SimpleDateFormat}的日期格式
+     * @return Excel的日期格式
+     */
+    static String toExcelDatePattern(String pattern) {
+        StringBuilder excelPattern = new StringBuilder(pattern.length() + 8);
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                int end = pattern.indexOf('\'', i + 1);
+                if (end < 0) {
+                    end = pattern.length();
+                }
+                if (end == i + 1) {
+                    //两个单引号表示单引号本身
+                    excelPattern.append("\\'");
+                } else {
+                    excelPattern.append('"').append(pattern, i + 1, end).append('"');
+                }
+                i = end;
+                continue;
+            }
+            //同一字母连续出现的次数
+            int count = 1;
+            while (i + 1 < pattern.length() && pattern.charAt(i + 1) == c) {
+                count++;
+                i++;
+            }
+            switch (c) {
+                case 'y':
+                case 'd':
+                case 's':
+                case 'm':
+                    excelPattern.append(StringUtils.repeat(c, count));
+                    break;
+                case 'M':
+                    excelPattern.append(StringUtils.repeat('m', count));
+                    break;
+                case 'H':
+                case 'h':
+                case 'K':
+                case 'k':
+                    excelPattern.append(StringUtils.repeat('h', count));
+                    break;
+                case 'S':
+                    excelPattern.append(StringUtils.repeat('0', Math.min(count, 3)));
+                    break;
+                case 'a':
+                    excelPattern.append("AM/PM");
+                    break;
+                case 'E':
+                    excelPattern.append(count >= 4 ? "dddd" : "ddd");
+                    break;
+                default:
+                    if (!Character.isLetter(c)) {
+                        for (int j = 0; j < count; j++) {
+                            if (" /:-.,".indexOf(c) < 0) {
+                                excelPattern.append('\\');
+                            }
+                            excelPattern.append(c);
+                        }
+                    }
+            }
+        }
+        return excelPattern.toString();
+    }
+
+    /**
+     * 获取{@link LocalDateTime}的Excel日期序列号
+     *
+     * @param dateTime 日期时间
+     * @return Excel日期序列号
+     */
+    private static double getExcelDate(LocalDateTime dateTime) {
+        LocalDate date = dateTime.toLocalDate();
+        if (date.isBefore(EXCEL_EPOCH_VALID)) {
+            //1900-03-01之前的日期由POI处理1900-02-29的问题
+            return DateUtil.getExcelDate(Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()));
+        }
+        return (date.toEpochDay() - EXCEL_EPOCH.toEpochDay()) + dateTime.toLocalTime().toNanoOfDay() / NANOS_PER_DAY;
+    }
+
+    /**
+     * 给一个Cell赋值,若为null则视为"",若不为基本类型及其包装类(日期类型除外),则其值通过toString()获取。
+     * 每一列记录上一个值的类型及其写入方式,类型相同时直接按该方式写入,类型改变时才重新判断
      *
      * @param cell       一个单元格
      * @param value      值
-     * @param property   属性名,即列名
+     * @param column     该列的写入方式
      * @param blankFixed 标志此单元格是否被固定认定为空单元格,true表示该单元格固定为空单元格,false表示该单元格固定为非空单元格,
      *                   若该参数为null,则使用默认的空单元格判定方法来判定该单元格是否为空单元格
+     * @param cellStyle  此单元格已设置的样式,以Excel日期序列号写入日期时在此样式的基础上设置日期格式
      * @return 若此单元格写入空数据则返回true, 否则返回false
      */
-    private boolean setCellValue(Cell cell, Object value, String property, Boolean blankFixed)
-            throws WriteExcelException {
-        boolean isBlankCell = false;
+    private boolean setCellValue(Cell cell, Object value, ColumnPlan column, Boolean blankFixed,
+                                 CellStyle cellStyle) throws WriteExcelException {
+        boolean isBlankCell;
         if (value == null) {
             cell.setCellValue("");
             isBlankCell = true;
-        } else if (value instanceof String) {
-            cell.setCellValue((String) value);
-        } else if (value instanceof Integer) {
-            cell.setCellValue((Integer) value);
-        } else if (value instanceof Date || value instanceof Calendar) {
-            if (MapUtils.isNotEmpty(this.dateFormatMapping) && this.dateFormatMapping.containsKey(property)) {
-                //证明设置了该列名到日期格式的映射,日期格式采用映射格式
-                this.dateFormatTemp.applyPattern(this.dateFormatMapping.get(property));
-                cell.setCellValue(
-                        this.dateFormatTemp.format(value instanceof Date ? value : ((Calendar) value).getTime()));
-            } else {
-                //采用默认的日期格式
-                cell.setCellValue(
-                        this.defaultDateFormat.format(value instanceof Date ? value : ((Calendar) value).getTime()));
+        } else {
+            Class<?> type = value.getClass();
+            if (type != column.type) {
+                column.type = type;
+                column.kind = kindOf(type);
+            }
+            if (null != column.dateCellStyle && isDateKind(column.kind)) {
+                //以Excel日期序列号写入,单元格需要日期格式
+                cell.setCellStyle(cellStyle == column.cellStyle ? column.dateCellStyle :
+                        this.getDateCellStyle(cellStyle, column.dateFormat.toPattern()));
             }
-        } else if (value instanceof Boolean) {
-            if (MapUtils.isNotEmpty(this.booleanMapping) && this.booleanMapping.containsKey(property)) {
+            isBlankCell = this.setCellValue(cell, value, column.kind, column);
+        }
+        return null == blankFixed ? isBlankCell : blankFixed;
+    }
+
+    /**
+     * 按指定的写入方式给一个Cell赋值
+     *
+     * @param cell   一个单元格
+     * @param value  值,不能为null
+     * @param kind   写入方式,参考{@link #kindOf(Class)}
+     * @param column 该列的写入方式
+     * @return 若此单元格写入空数据则返回true, 否则返回false
+     */
+    private boolean setCellValue(Cell cell, Object value, int kind, ColumnPlan column) throws WriteExcelException {
+        switch (kind) {
+            case KIND_STRING:
+                cell.setCellValue((String) value);
+                break;
+            case KIND_INTEGER:
+                cell.setCellValue((Integer) value);
+                break;
+            case KIND_DATE:
+                if (null != column.dateCellStyle) {
+                    cell.setCellValue((Date) value);
+                } else {
+                    cell.setCellValue(column.dateFormat.format((Date) value));
+                }
+                break;
+            case KIND_CALENDAR:
+                if (null != column.dateCellStyle) {
+                    cell.setCellValue((Calendar) value);
+                } else {
+                    cell.setCellValue(column.dateFormat.format(((Calendar) value).getTime()));
+                }
+                break;
+            case KIND_LOCAL_DATE:
+                if (null != column.dateCellStyle) {
+                    cell.setCellValue(getExcelDate(((LocalDate) value).atStartOfDay()));
+                } else if (!column.formatTemporal) {
+                    cell.setCellValue(value.toString());
+                } else {
+                    cell.setCellValue(column.dateFormat.format(
+                            Date.from(((LocalDate) value).atStartOfDay(ZoneId.systemDefault()).toInstant())));
+                }
+                break;
+            case KIND_LOCAL_DATE_TIME:
+                if (null != column.dateCellStyle) {
+                    cell.setCellValue(getExcelDate((LocalDateTime) value));
+                } else if (!column.formatTemporal) {
+                    cell.setCellValue(value.toString());
+                } else {
+                    cell.setCellValue(column.dateFormat.format(
+                            Date.from(((LocalDateTime) value).atZone(ZoneId.systemDefault()).toInstant())));
+                }
+                break;
+            case KIND_INSTANT:
+                if (null != column.dateCellStyle) {
+                    cell.setCellValue(getExcelDate(LocalDateTime.ofInstant((Instant) value, ZoneId.systemDefault())));
+                } else if (!column.formatTemporal) {
+                    cell.setCellValue(value.toString());
+                } else {
+                    cell.setCellValue(column.dateFormat.format(Date.from((Instant) value)));
+                }
+                break;
+            case KIND_BOOLEAN:
+                if (null == column.booleanMapping) {
+                    cell.setCellValue((Boolean) value);
+                    break;
+                }
                 //证明设置了该列名到boolean值的映射,写入cell的值采用映射值
-                Object valueMapping = this.booleanMapping.get(property).get((boolean) value ? TRUE : FALSE);
+                Object valueMapping = column.booleanMapping.get((Boolean) value ? TRUE : FALSE);
+                if (valueMapping == null) {
+                    cell.setCellValue("");
+                    return true;
+                }
                 if (valueMapping instanceof Boolean) {
-                    throw new WriteExcelException(String.format("[%s]属性的boolean映射值类型不能再是boolean", property));
+                    throw new WriteExcelException(String.format("[%s]属性的boolean映射值类型不能再是boolean", column.property));
                 }
-                isBlankCell = this.setCellValue(cell, valueMapping, property, blankFixed);
-            } else {
-                cell.setCellValue((Boolean) value);
-            }
-        } else if (value instanceof Float) {
-            cell.setCellValue((Float) value);
-        } else if (value instanceof Double) {
-            cell.setCellValue((Double) value);
-        } else if (value instanceof Byte) {
-            cell.setCellValue((Byte) value);
-        } else if (value instanceof Short) {
-            cell.setCellValue((Short) value);
-        } else if (value instanceof Long) {
-            cell.setCellValue((Long) value);
-        } else if (value instanceof Character) {
-            cell.setCellValue(((Character) value).toString());
-        } else {
-            cell.setCellValue(value.toString());
+                return this.setCellValue(cell, valueMapping, kindOf(valueMapping.getClass()), column);
+            case KIND_FLOAT:
+                cell.setCellValue((Float) value);
+                break;
+            case KIND_DOUBLE:
+                cell.setCellValue((Double) value);
+                break;
+            case KIND_BYTE:
+                cell.setCellValue((Byte) value);
+                break;
+            case KIND_SHORT:
+                cell.setCellValue((Short) value);
+                break;
+            case KIND_LONG:
+                cell.setCellValue((Long) value);
+                break;
+            default:
+                cell.setCellValue(value.toString());
         }
-        return null == blankFixed ? isBlankCell : blankFixed;
+        return false;
+    }
+
+    /**
+     * 判断一种写入方式是否写入日期
+     *
+     * @param kind 写入方式
+     * @return
+     */
+    private static boolean isDateKind(int kind) {
+        return kind == KIND_DATE || kind == KIND_CALENDAR || kind == KIND_LOCAL_DATE ||
+                kind == KIND_LOCAL_DATE_TIME || kind == KIND_INSTANT;
+    }
+
+    /**
+     * 判断一种类型的值的写入方式
+     *
+     * @param type 值的类型
+     * @return 写入方式
+     */
+    private static int kindOf(Class<?> type) {
+        if (String.class == type) {
+            return KIND_STRING;
+        } else if (Integer.class == type) {
+            return KIND_INTEGER;
+        } else if (Date.class.isAssignableFrom(type)) {
+            return KIND_DATE;
+        } else if (Calendar.class.isAssignableFrom(type)) {
+            return KIND_CALENDAR;
+        } else if (Boolean.class == type) {
+            return KIND_BOOLEAN;
+        } else if (Float.class == type) {
+            return KIND_FLOAT;
+        } else if (Double.class == type) {
+            return KIND_DOUBLE;
+        } else if (Byte.class == type) {
+            return KIND_BYTE;
+        } else if (Short.class == type) {
+            return KIND_SHORT;
+        } else if (Long.class == type) {
+            return KIND_LONG;
+        } else if (LocalDate.class == type) {
+            return KIND_LOCAL_DATE;
+        } else if (LocalDateTime.class == type) {
+            return KIND_LOCAL_DATE_TIME;
+        } else if (Instant.class == type) {
+            return KIND_INSTANT;
+        }
+        //Character及其他类型通过toString()获取
+        return KIND_OTHER;
     }
 
     /**
      * 将数据写入某一行中，data中需要写入的数据由properties决定
      *
-     * @param row  指定行
-     * @param data 指定写入数据
+     * @param row        指定行
+     * @param data       指定写入数据,为null表示originData是JavaBean,通过{@link #beanAccessor}读取属性值
+     * @param originData 原始数据
      * @return 若此行至少有一个非空单元格则返回true, 换言之, 此行写入完毕后仍为空行的话返回false, 非空行返回true
      */
     private boolean writePerRow(Row row, Map<String, Object> data, T originData) throws WriteExcelException {
         boolean isNotBlankRow = false;
-        //标识当前写入的列
-        int currenCol = -1;
-        for (String property : this.properties) {
-            currenCol++;
+        for (int currenCol = 0; currenCol < this.columnPlans.length; currenCol++) {
+            ColumnPlan column = this.columnPlans[currenCol];
             Cell cell = row.createCell(currenCol);
+            Object value = null == data ? this.beanAccessor.get(originData, currenCol) : data.get(column.property);
+            CellStyle cellStyleTemp = column.cellStyle;
             Boolean blankFixed = null;
             if (this.writeExcelCallback != null) {
                 this.map.clear();
-                blankFixed = this.writeExcelCallback.handleCellValue(property, data.get(property), originData, this);
-            }
-            CellStyle cellStyleTemp = this.defaultCellStyle;
-            Object value = data.get(property);
-            if (MapUtils.isNotEmpty(this.cellStyleMapping) && this.cellStyleMapping.containsKey(property)) {
-                cellStyleTemp = this.cellStyleMapping.get(property);
-            }
-            if (MapUtils.isNotEmpty(this.map)) {
-                cellStyleTemp = (CellStyle) this.map.getOrDefault(CELL_STYLE, cellStyleTemp);
-                value = this.map.getOrDefault(CELL_VALUE, value);
+                blankFixed = this.writeExcelCallback.handleCellValue(column.property, value, originData, this);
+                if (!this.map.isEmpty()) {
+                    cellStyleTemp = (CellStyle) this.map.getOrDefault(CELL_STYLE, cellStyleTemp);
+                    value = this.map.getOrDefault(CELL_VALUE, value);
+                }
             }
             if (null != cellStyleTemp) {
                 cell.setCellStyle(cellStyleTemp);
             }
-            if (!this.setCellValue(cell, value, property, blankFixed)) {
+            if (!this.setCellValue(cell, value, column, blankFixed, cellStyleTemp)) {
                 isNotBlankRow = true;
             }
         }
@@ -1102,12 +1486,12 @@ public abstract class AbstractExcelWriter<T> {
                         .beforeWritePerRow(data, this.currentRowInSheet, this.lastRow, this.currentSheet, this)) {
             return;
         }
-        //将data转换成Map数据结构
+        //Map直接按属性名取值,JavaBean通过访问器直接读取需要写入的属性
         Map<String, Object> mapBean = null;
         if (data instanceof Map) {
             mapBean = (Map<String, Object>) data;
-        } else {
-            mapBean = CommonUtils.toMap(data);
+        } else if (null == this.beanAccessor || this.beanAccessor.getBeanClass() != data.getClass()) {
+            this.beanAccessor = new ExcelBeanAccessor(data.getClass(), this.properties);
         }
         Row rowTemp = null;
         if (!this.isBlankLastRow || !this.isSkipBlankRow) {
@@ -1138,17 +1522,34 @@ public abstract class AbstractExcelWriter<T> {
     }
 
     /**
-     * 初始化写入数据
+     * 每写入一个数据后调用,子类可在此将内存中的行刷出
      *
-     * @param datas 被写入的数据
+     * @throws WriteExcelException
      */
-    private void initWrite(List<T> datas) {
-        if (null == this.datas) {
-            this.datas = new ArrayList<T>();
+    protected void afterWritePerData() throws WriteExcelException {}
+
+    /**
+     * 逐个写入迭代器中的数据,数据不会被复制到其他集合中,
+     * 若没有指定需要写入的属性,只根据第一个数据获取需要写入的属性
+     *
+     * @param datas 被写入的数据,为null表示没有数据
+     * @return this
+     * @throws WriteExcelException 校验异常
+     */
+    public AbstractExcelWriter<T> write(Iterator<T> datas) throws WriteExcelException {
+        boolean hasData = null != datas && datas.hasNext();
+        T data = hasData ? datas.next() : null;
+        this.validateDataPerWrite(hasData, data);
+        if (!hasData) {
+            return this;
         }
-        if (null != datas) {
-            this.datas.addAll(datas);
+        this.writePerData(data);
+        this.afterWritePerData();
+        while (datas.hasNext()) {
+            this.writePerData(datas.next());
+            this.afterWritePerData();
         }
+        return this;
     }
 
     /**
@@ -1157,15 +1558,34 @@ public abstract class AbstractExcelWriter<T> {
      * @param datas 被写入的数据
      * @return this
      * @throws WriteExcelException 校验异常
+     * @see #write(Iterator)
+     */
+    public AbstractExcelWriter<T> write(Iterable<T> datas) throws WriteExcelException {
+        return this.write(null == datas ? null : datas.iterator());
+    }
+
+    /**
+     * 写多个数据
+     *
+     * @param datas 被写入的数据
+     * @return this
+     * @throws WriteExcelException 校验异常
+     * @see #write(Iterator)
      */
     public AbstractExcelWriter<T> write(List<T> datas) throws WriteExcelException {
-        this.initWrite(datas);
-        this.validateDataPerWrite();
-        for (T data : this.datas) {
-            this.writePerData(data);
-        }
-        this.datas.clear();
-        return this;
+        return this.write(null == datas ? null : datas.iterator());
+    }
+
+    /**
+     * 写多个数据,数据按需从流中逐个获取,该流需要手动关闭
+     *
+     * @param datas 被写入的数据
+     * @return this
+     * @throws WriteExcelException 校验异常
+     * @see #write(Iterator)
+     */
+    public AbstractExcelWriter<T> write(Stream<T> datas) throws WriteExcelException {
+        return this.write(null == datas ? null : datas.iterator());
     }
 
     /**
@@ -1174,14 +1594,10 @@ public abstract class AbstractExcelWriter<T> {
      * @param data 被写入的数据
      * @return this
      * @throws WriteExcelException 校验异常
-     * @see #write(List)
+     * @see #write(Iterator)
      */
     public AbstractExcelWriter<T> write(T data) throws WriteExcelException {
-        List<T> list = new ArrayList<>(1);
-        if (null != data) {
-            list.add(data);
-        }
-        return this.write(list);
+        return this.write(null == data ? Collections.<T>emptyIterator() : Collections.singleton(data).iterator());
     }
 
     /**
@@ -1221,6 +1637,35 @@ public abstract class AbstractExcelWriter<T> {
 
 
 
+    /**
+     * 一列的写入方式,由{@link #compileColumnPlans()}根据各种映射编译
+     */
+    private static class ColumnPlan {
+        //属性名
+        private final String property;
+        //单元格样式,为null表示不设置样式
+        private final CellStyle cellStyle;
+        //日期格式
+        private final SimpleDateFormat dateFormat;
+        //boolean值的映射,为null表示没有映射
+        private final Map<String, Object> booleanMapping;
+        //以Excel日期序列号写入日期时使用的单元格样式,为null表示日期格式化成字符串写入
+        private CellStyle dateCellStyle;
+        //java.time类型的日期值以字符串写入时是否按日期格式格式化,为false表示通过toString()获取
+        private boolean formatTemporal;
+        //上一个值的类型及其写入方式,为null表示还没有写入过值
+        private Class<?> type;
+        private int kind;
+
+        ColumnPlan(String property, CellStyle cellStyle, SimpleDateFormat dateFormat,
+                   Map<String, Object> booleanMapping) {
+            this.property = property;
+            this.cellStyle = cellStyle;
+            this.dateFormat = dateFormat;
+            this.booleanMapping = booleanMapping;
+        }
+    }
+
     /**
      * 写入Excel时的一些回调方法
      */
@@ -0,0 +1,120 @@
+package com.github.flyinghe.depdcy;
+
+import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 按单元格样式坐标(即&lt;c&gt;的s属性)预先计算的数字格式表,每个Excel文档只需构建一次。
+ * {@link XSSFSheetXMLHandlerPlus}解析数值单元格时只需一次数组查找即可得到格式坐标,格式字符串以及是否是日期格式,
+ * 不再为每个单元格创建{@link XSSFCellStyle}并判断日期格式。
+ * 构建完毕后不可变,可被多个线程共享
+ * </p>
+ */
+public final class CellFormatTable {
+    //下标为样式坐标,值为格式坐标
+    private final short[] formatIndexes;
+    //下标为样式坐标,值为格式字符串,可能为null
+    private final String[] formatStrings;
+    //下标为样式坐标,值为是否是日期格式
+    private final boolean[] dateFormats;
+
+    /**
+     * @param styles 样式表
+     */
+    public CellFormatTable(StylesTable styles) {
+        int size = styles == null ? 0 : styles.getNumCellStyles();
+        this.formatIndexes = new short[size];
+        this.formatStrings = new String[size];
+        this.dateFormats = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            XSSFCellStyle style = styles.getStyleAt(i);
+            if (style == null) {
+                this.formatIndexes[i] = -1;
+                continue;
+            }
+            short formatIndex = style.getDataFormat();
+            String formatString = style.getDataFormatString();
+            if (formatString == null) {
+                formatString = BuiltinFormats.getBuiltinFormat(formatIndex);
+            }
+            this.formatIndexes[i] = formatIndex;
+            this.formatStrings[i] = formatString;
+            this.dateFormats[i] = formatString != null && DateUtil.isADateFormat(formatIndex, formatString);
+        }
+    }
+
+    /**
+     * 样式个数
+     *
+     * @return
+     */
+    public int size() {
+        return this.formatIndexes.length;
+    }
+
+    /**
+     * 判断样式坐标是否存在
+     *
+     * @param styleIndex 样式坐标
+     * @return
+     */
+    public boolean contains(int styleIndex) {
+        return styleIndex >= 0 && styleIndex < this.formatIndexes.length;
+    }
+
+    /**
+     * 获取格式坐标
+     *
+     * @param styleIndex 样式坐标
+     * @return 没有格式时返回-1
+     */
+    public short getFormatIndex(int styleIndex) {
+        return this.formatIndexes[styleIndex];
+    }
+
+    /**
+     * 获取格式字符串
+     *
+     * @param styleIndex 样式坐标
+     * @return 可能为null
+     */
+    public String getFormatString(int styleIndex) {
+        return this.formatStrings[styleIndex];
+    }
+
+    /**
+     * 判断是否是日期格式
+     *
+     * @param styleIndex 样式坐标
+     * @return
+     */
+    public boolean isDateFormat(int styleIndex) {
+        return this.dateFormats[styleIndex];
+    }
+
+    /**
+     * 解析&lt;c&gt;的s属性,不创建任何对象
+     *
+     * @param styleIndex s属性
+     * @return 不是合法的样式坐标时返回-1
+     */
+    public static int parseStyleIndex(String styleIndex) {
+        int len = styleIndex.length();
+        if (len == 0 || len > 9) {
+            return -1;
+        }
+        int index = 0;
+        for (int i = 0; i < len; i++) {
+            char c = styleIndex.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+        return index;
+    }
+}
@@ -0,0 +1,517 @@
+package com.github.flyinghe.depdcy;
+
+import org.apache.poi.POIXMLTypeLoader;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.model.SharedStringsTable;
+import org.apache.poi.xssf.streaming.SXSSFRow;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.streaming.SheetDataWriter;
+import org.apache.poi.xssf.usermodel.XSSFRichTextString;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.xmlbeans.XmlOptions;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCols;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorksheet;
+
+import javax.xml.namespace.QName;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 不使用缓存文件的{@link SXSSFWorkbook}:
+ * 刷出的行不再写入临时文件,而是直接序列化成SheetML写入目标输出流中该Sheet对应的ZIP条目,
+ * 样式、共享字符串、图片等其余部分在{@link #write(OutputStream)}时最后写入。
+ * 因此每个字节只写一次,也不需要额外的硬盘空间。
+ * </p>
+ * <p>
+ * 由于ZIP条目只能顺序写入,所以Sheet也只能顺序写入:
+ * 一个Sheet第一次刷出行时开始写入其条目(此时会写入sheetData之前的部分,如列宽,冻结窗格等),
+ * 另一个Sheet开始刷出行时该Sheet即结束写入(此时写入sheetData之后的部分,如合并单元格,图片等),
+ * 之后不能再向该Sheet刷出行。另外超链接不会被写入。
+ * </p>
+ * <p>
+ * 注意:此类不是线程安全的
+ * </p>
+ *
+ * @see com.github.flyinghe.tools.XLSXDirectWriter
+ */
+public class DirectXLSXWorkbook extends SXSSFWorkbook {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String EMPTY_SHEET_DATA = "<sheetData/>";
+    private static final Writer NULL_WRITER = new Writer() {
+        @Override
+        public void write(char[] cbuf, int off, int len) {}
+
+        @Override
+        public void flush() {}
+
+        @Override
+        public void close() {}
+    };
+
+    //目标输出流
+    private final OutputStream target;
+    private final ZipOutputStream zos;
+    //当前ZIP条目的字符流,刷新后才能切换条目
+    private final Writer out;
+    //为null表示字符串以内联字符串写入
+    private final SharedStringsTable sharedStrings;
+    //正在写入的Sheet
+    private XSSFSheet openSheet = null;
+    //已经写入完毕的Sheet
+    private final Set<XSSFSheet> finishedSheets = new HashSet<XSSFSheet>();
+    //已经写入的ZIP条目名称
+    private final Set<String> writtenEntries = new HashSet<String>();
+    //列坐标对应的列名,如0对应A
+    private String[] columnNames = new String[64];
+    private boolean written = false;
+
+    /**
+     * @param target           目标输出流,需要手动关闭
+     * @param useSharedStrings 是否使用共享字符串,使用共享字符串时相同的字符串只保存一份,
+     *                         但所有不同的字符串都会保存在内存中直到写入完毕
+     */
+    public DirectXLSXWorkbook(OutputStream target, boolean useSharedStrings) {
+        super(null, -1, false, false);
+        this.target = target;
+        this.zos = new ZipOutputStream(target);
+        this.out = new BufferedWriter(new OutputStreamWriter(this.zos, StandardCharsets.UTF_8), DEFAULT_BUFFER_SIZE);
+        this.sharedStrings = useSharedStrings ? this.getXSSFWorkbook().getSharedStringSource() : null;
+    }
+
+    @Override
+    protected SheetDataWriter createSheetDataWriter() throws IOException {
+        //SXSSFSheet在其对应的XSSFSheet创建之后创建,所以最后一个XSSFSheet即该SheetDataWriter对应的Sheet
+        XSSFWorkbook xssfWorkbook = this.getXSSFWorkbook();
+        return new DirectSheetDataWriter(this, xssfWorkbook.getSheetAt(xssfWorkbook.getNumberOfSheets() - 1));
+    }
+
+    /**
+     * 刷出所有Sheet剩余的行,然后写入样式、共享字符串等其余部分,
+     * 该方法仅可调用一次
+     *
+     * @param stream 只能是构造时指定的目标输出流,该流需要手动关闭
+     * @throws IOException
+     */
+    @Override
+    public void write(OutputStream stream) throws IOException {
+        if (stream != this.target) {
+            throw new IOException("只能输出到构造时指定的输出流");
+        }
+        if (this.written) {
+            throw new IOException("Workbook已写入完毕");
+        }
+        this.written = true;
+        XSSFWorkbook xssfWorkbook = this.getXSSFWorkbook();
+        for (int i = 0; i < this.getNumberOfSheets(); i++) {
+            XSSFSheet xssfSheet = xssfWorkbook.getSheetAt(i);
+            if (this.finishedSheets.contains(xssfSheet)) {
+                continue;
+            }
+            this.beginSheet(xssfSheet);
+            this.getSheetAt(i).flushRows();
+            this.endSheet();
+        }
+        //此时XSSFWorkbook中的Sheet都不含行,写入内存后复制除Sheet以外的所有条目
+        ByteArrayOutputStream template = new ByteArrayOutputStream();
+        xssfWorkbook.write(template);
+        ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(template.toByteArray()));
+        try {
+            for (ZipEntry entry = zis.getNextEntry(); entry != null; entry = zis.getNextEntry()) {
+                if (this.writtenEntries.contains(entry.getName())) {
+                    continue;
+                }
+                this.zos.putNextEntry(new ZipEntry(entry.getName()));
+                IOUtils.copy(zis, this.zos);
+                this.zos.closeEntry();
+            }
+        } finally {
+            zis.close();
+        }
+        this.zos.finish();
+        this.target.flush();
+    }
+
+    /**
+     * 没有缓存文件需要删除
+     *
+     * @return true
+     */
+    @Override
+    public boolean dispose() {
+        return true;
+    }
+
+    /**
+     * 开始写入指定Sheet的ZIP条目,并结束正在写入的Sheet
+     *
+     * @param sheet 指定Sheet
+     * @throws IOException 该Sheet已写入完毕时抛出
+     */
+    private void beginSheet(XSSFSheet sheet) throws IOException {
+        if (sheet == this.openSheet) {
+            return;
+        }
+        if (this.finishedSheets.contains(sheet)) {
+            throw new IOException(String.format("Sheet[%s]已写入完毕,不能再写入行", sheet.getSheetName()));
+        }
+        this.endSheet();
+        String entryName = sheet.getPackagePart().getPartName().getName().substring(1);
+        String xml = this.serialize(sheet);
+        this.zos.putNextEntry(new ZipEntry(entryName));
+        this.writtenEntries.add(entryName);
+        this.openSheet = sheet;
+        int index = xml.indexOf(EMPTY_SHEET_DATA);
+        this.out.write(XML_HEADER);
+        this.out.write(xml, 0, index);
+        this.out.write("<sheetData>\n");
+    }
+
+    /**
+     * 结束正在写入的Sheet
+     *
+     * @throws IOException
+     */
+    private void endSheet() throws IOException {
+        if (null == this.openSheet) {
+            return;
+        }
+        String xml = this.serialize(this.openSheet);
+        int index = xml.indexOf(EMPTY_SHEET_DATA) + EMPTY_SHEET_DATA.length();
+        this.out.write("</sheetData>");
+        this.out.write(xml, index, xml.length() - index);
+        this.out.flush();
+        this.zos.closeEntry();
+        this.finishedSheets.add(this.openSheet);
+        this.openSheet = null;
+    }
+
+    /**
+     * 序列化Sheet,此时Sheet中不含行,即sheetData为空
+     *
+     * @param sheet 指定Sheet
+     * @return Sheet的XML, 不含XML声明
+     * @throws IOException
+     */
+    private String serialize(XSSFSheet sheet) throws IOException {
+        CTWorksheet worksheet = sheet.getCTWorksheet();
+        //与XSSFSheet写入时一致,不含任何列的cols元素不符合规范
+        boolean removeCols = false;
+        if (worksheet.sizeOfColsArray() == 1 && worksheet.getColsArray(0).sizeOfColArray() == 0) {
+            removeCols = true;
+            worksheet.setColsArray(null);
+        }
+        XmlOptions options = new XmlOptions(POIXMLTypeLoader.DEFAULT_XML_OPTIONS);
+        options.setSaveSyntheticDocumentElement(new QName(CTWorksheet.type.getName().getNamespaceURI(), "worksheet"));
+        String xml = worksheet.xmlText(options);
+        if (removeCols) {
+            worksheet.setColsArray(new CTCols[]{CTCols.Factory.newInstance()});
+        }
+        if (xml.indexOf(EMPTY_SHEET_DATA) < 0) {
+            throw new IOException(String.format("Sheet[%s]的sheetData不为空", sheet.getSheetName()));
+        }
+        return xml;
+    }
+
+    /**
+     * 获取列名,如0对应A
+     *
+     * @param column 列坐标,0-based
+     * @return 列名
+     */
+    private String getColumnName(int column) {
+        if (column >= this.columnNames.length) {
+            String[] columnNames = new String[Math.max(column + 1, this.columnNames.length * 2)];
+            System.arraycopy(this.columnNames, 0, columnNames, 0, this.columnNames.length);
+            this.columnNames = columnNames;
+        }
+        String columnName = this.columnNames[column];
+        if (null == columnName) {
+            columnName = CellReference.convertNumToColString(column);
+            this.columnNames[column] = columnName;
+        }
+        return columnName;
+    }
+
+    /**
+     * 将一行序列化成SheetML写入当前条目
+     *
+     * @param sheet  该行所在Sheet
+     * @param rownum 行坐标,0-based
+     * @param row    指定行
+     * @throws IOException
+     */
+    private void writeRow(XSSFSheet sheet, int rownum, SXSSFRow row) throws IOException {
+        this.beginSheet(sheet);
+        Writer out = this.out;
+        String r = Integer.toString(rownum + 1);
+        out.write("<row r=\"");
+        out.write(r);
+        out.write('"');
+        if (row.hasCustomHeight()) {
+            out.write(" customHeight=\"true\" ht=\"");
+            out.write(Float.toString(row.getHeightInPoints()));
+            out.write('"');
+        }
+        if (row.getZeroHeight() || Boolean.TRUE.equals(row.getHidden())) {
+            out.write(" hidden=\"true\"");
+        }
+        if (row.isFormatted()) {
+            out.write(" s=\"");
+            out.write(Integer.toString(row.getRowStyle().getIndex() & 0xffff));
+            out.write("\" customFormat=\"1\"");
+        }
+        if (row.getOutlineLevel() != 0) {
+            out.write(" outlineLevel=\"");
+            out.write(Integer.toString(row.getOutlineLevel()));
+            out.write('"');
+        }
+        if (null != row.getCollapsed()) {
+            out.write(row.getCollapsed() ? " collapsed=\"1\"" : " collapsed=\"0\"");
+        }
+        out.write('>');
+        for (Iterator<Cell> it = row.cellIterator(); it.hasNext(); ) {
+            this.writeCell(r, it.next());
+        }
+        out.write("</row>\n");
+    }
+
+    /**
+     * 将一个单元格序列化成SheetML写入当前条目
+     *
+     * @param r    行号,1-based
+     * @param cell 指定单元格
+     * @throws IOException
+     */
+    private void writeCell(String r, Cell cell) throws IOException {
+        Writer out = this.out;
+        out.write("<c r=\"");
+        out.write(this.getColumnName(cell.getColumnIndex()));
+        out.write(r);
+        out.write('"');
+        CellStyle cellStyle = cell.getCellStyle();
+        if (null != cellStyle && cellStyle.getIndex() != 0) {
+            out.write(" s=\"");
+            out.write(Integer.toString(cellStyle.getIndex() & 0xffff));
+            out.write('"');
+        }
+        switch (cell.getCellTypeEnum()) {
+            case BLANK:
+                out.write('>');
+                break;
+            case FORMULA:
+                //写入公式的计算结果,不重新计算公式的读取方也能得到值
+                CellType resultType = cell.getCachedFormulaResultTypeEnum();
+                switch (resultType) {
+                    case STRING:
+                        out.write(" t=\"str\"");
+                        break;
+                    case BOOLEAN:
+                        out.write(" t=\"b\"");
+                        break;
+                    default:
+                        break;
+                }
+                out.write("><f>");
+                this.writeEscaped(cell.getCellFormula());
+                out.write("</f>");
+                switch (resultType) {
+                    case NUMERIC:
+                        double value = cell.getNumericCellValue();
+                        if (!Double.isNaN(value)) {
+                            out.write("<v>");
+                            this.writeNumber(value);
+                            out.write("</v>");
+                        }
+                        break;
+                    case STRING:
+                        out.write("<v>");
+                        this.writeEscaped(cell.getStringCellValue());
+                        out.write("</v>");
+                        break;
+                    case BOOLEAN:
+                        out.write(cell.getBooleanCellValue() ? "<v>1</v>" : "<v>0</v>");
+                        break;
+                    default:
+                        break;
+                }
+                break;
+            case STRING:
+                String text = cell.getStringCellValue();
+                if (null != this.sharedStrings) {
+                    int index = this.sharedStrings.addEntry(new XSSFRichTextString(text).getCTRst());
+                    out.write(" t=\"s\"><v>");
+                    out.write(Integer.toString(index));
+                    out.write("</v>");
+                } else {
+                    out.write(" t=\"inlineStr\"><is><t");
+                    if (!text.isEmpty() &&
+                            (text.charAt(0) <= ' ' || text.charAt(text.length() - 1) <= ' ')) {
+                        out.write(" xml:space=\"preserve\"");
+                    }
+                    out.write('>');
+                    this.writeEscaped(text);
+                    out.write("</t></is>");
+                }
+                break;
+            case NUMERIC:
+                out.write(" t=\"n\"><v>");
+                this.writeNumber(cell.getNumericCellValue());
+                out.write("</v>");
+                break;
+            case BOOLEAN:
+                out.write(cell.getBooleanCellValue() ? " t=\"b\"><v>1</v>" : " t=\"b\"><v>0</v>");
+                break;
+            case ERROR:
+                out.write(" t=\"e\"><v>");
+                out.write(FormulaError.forInt(cell.getErrorCellValue()).getString());
+                out.write("</v>");
+                break;
+            default:
+                throw new IllegalStateException("Invalid cell type: " + cell.getCellTypeEnum());
+        }
+        out.write("</c>");
+    }
+
+    /**
+     * 写入数值,整数不带小数部分
+     *
+     * @param value 数值
+     * @throws IOException
+     */
+    private void writeNumber(double value) throws IOException {
+        long longValue = (long) value;
+        if (longValue == value && Math.abs(value) < 1e15) {
+            this.out.write(Long.toString(longValue));
+        } else {
+            this.out.write(Double.toString(value));
+        }
+    }
+
+    /**
+     * 写入转义后的文本,XML不允许的控制字符以?代替
+     *
+     * @param text 文本
+     * @throws IOException
+     */
+    private void writeEscaped(String text) throws IOException {
+        Writer out = this.out;
+        int last = 0;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            String replacement;
+            switch (c) {
+                case '<':
+                    replacement = "&lt;";
+                    break;
+                case '>':
+                    replacement = "&gt;";
+                    break;
+                case '&':
+                    replacement = "&amp;";
+                    break;
+                case '"':
+                    replacement = "&quot;";
+                    break;
+                case '\n':
+                    replacement = "&#xa;";
+                    break;
+                case '\r':
+                    replacement = "&#xd;";
+                    break;
+                case '\t':
+                    replacement = "&#x9;";
+                    break;
+                default:
+                    if (c >= ' ' && c < '\uFFFE') {
+                        continue;
+                    }
+                    replacement = "?";
+                    break;
+            }
+            if (i > last) {
+                out.write(text, last, i - last);
+            }
+            out.write(replacement);
+            last = i + 1;
+        }
+        if (length > last) {
+            out.write(text, last, length - last);
+        }
+    }
+
+    /**
+     * 不创建缓存文件的SheetDataWriter,刷出的行直接写入{@link DirectXLSXWorkbook}的当前条目
+     */
+    private static class DirectSheetDataWriter extends SheetDataWriter {
+        private final DirectXLSXWorkbook workbook;
+        private final XSSFSheet sheet;
+        private int lastFlushedRow = -1;
+
+        DirectSheetDataWriter(DirectXLSXWorkbook workbook, XSSFSheet sheet) throws IOException {
+            super();
+            this.workbook = workbook;
+            this.sheet = sheet;
+        }
+
+        @Override
+        public File createTempFile() {
+            return null;
+        }
+
+        @Override
+        public Writer createWriter(File fd) {
+            return NULL_WRITER;
+        }
+
+        /**
+         * 没有缓存文件,返回null。
+         * SXSSF只在{@link #getWorksheetXMLInputStream()}中使用缓存文件,而该方法只会被
+         * {@link SXSSFWorkbook#write(OutputStream)}调用,{@link DirectXLSXWorkbook}重写了该方法,不会读取缓存文件
+         *
+         * @return null
+         */
+        @Override
+        protected File getTempFile() {
+            return null;
+        }
+
+        @Override
+        public void writeRow(int rownum, SXSSFRow row) throws IOException {
+            this.workbook.writeRow(this.sheet, rownum, row);
+            this.lastFlushedRow = rownum;
+        }
+
+        @Override
+        public int getLastFlushedRow() {
+            return this.lastFlushedRow;
+        }
+
+        @Override
+        protected void finalize() {
+            //没有缓存文件需要删除
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 在{@link XLSReader}和{@link XLSXReader}解析的过程中对数据行做流式统计(行数,求和,最小值,最大值,可按某一列分组),
+ * 只保留每个Sheet每个分组的统计结果,不保留任何数据行,内存占用只与分组数有关。
+ * 作为{@link ExcelCompactRowHandler}使用,所有数据行复用同一个{@link ReusableExcelRow},不会为每一行创建Map。
+ * 注意:
+ * 1.数值类型的值直接参与统计,字符串类型的值只有是普通的十进制数字(如"-1.5","2E3")时才参与统计,
+ *   含有千分位等区域格式的字符串视为非数值,与解析失败或为空的单元格一样不参与统计;
+ * 2.分组的key为分组列的值,与读取出的数据行中的值相同,该列为空的数据行归入key为null的分组;
+ * 3.此类不是线程安全的。
+ * </p>
+ */
+public class ExcelAggregator implements ExcelCompactRowHandler {
+    //分组的列名,为null表示不分组
+    private final String groupBy;
+    //需要统计的列名
+    private final List<String> columns;
+    //按Sheet坐标记录每个分组的统计结果
+    private final Map<Integer, Map<Object, Group>> sheets = new LinkedHashMap<Integer, Map<Object, Group>>();
+    //当前Sheet的分组,避免每一行都查找sheets
+    private int currentSheet = -1;
+    private Map<Object, Group> currentGroups;
+    //计算列坐标时使用的列结构,列结构改变时重新计算
+    private ExcelRowSchema schema;
+    //分组列的列坐标,<0表示不分组或列不存在
+    private int groupByIndex = -1;
+    //需要统计的列的列坐标,<0表示列不存在
+    private int[] indexes;
+
+    /**
+     * @param groupBy 分组的列名,为null表示不分组
+     * @param columns 需要统计的列名
+     */
+    public ExcelAggregator(String groupBy, String... columns) {
+        this(groupBy, Arrays.asList(columns));
+    }
+
+    /**
+     * @param groupBy 分组的列名,为null表示不分组
+     * @param columns 需要统计的列名
+     */
+    public ExcelAggregator(String groupBy, Collection<String> columns) {
+        this.groupBy = groupBy;
+        this.columns = Collections.unmodifiableList(new ArrayList<String>(columns));
+    }
+
+    public String getGroupBy() {
+        return groupBy;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * 获取统计需要读取的所有列名(分组列和需要统计的列),可用于{@link ExcelReadOptions#setColumns(Collection)}
+     *
+     * @return
+     */
+    public Set<String> getRequiredColumns() {
+        Set<String> required = new LinkedHashSet<String>(this.columns);
+        if (this.groupBy != null) {
+            required.add(this.groupBy);
+        }
+        return required;
+    }
+
+    @Override
+    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+        if (row.getSchema() != this.schema) {
+            this.resolve(row.getSchema());
+        }
+        if (currentSheetInExcel != this.currentSheet || this.currentGroups == null) {
+            this.currentSheet = currentSheetInExcel;
+            this.currentGroups = this.sheets.get(currentSheetInExcel);
+            if (this.currentGroups == null) {
+                this.currentGroups = new LinkedHashMap<Object, Group>();
+                this.sheets.put(currentSheetInExcel, this.currentGroups);
+            }
+        }
+        Object key = this.groupByIndex < 0 ? null : row.get(this.groupByIndex);
+        Group group = this.currentGroups.get(key);
+        if (group == null) {
+            group = new Group(this.columns);
+            this.currentGroups.put(key, group);
+        }
+        group.count++;
+        for (int i = 0; i < this.indexes.length; i++) {
+            if (this.indexes[i] >= 0) {
+                group.add(i, row.get(this.indexes[i]));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 根据列结构计算分组列和需要统计的列的列坐标
+     *
+     * @param schema 列结构
+     */
+    private void resolve(ExcelRowSchema schema) {
+        this.schema = schema;
+        this.groupByIndex = this.groupBy == null ? -1 : schema.indexOf(this.groupBy);
+        this.indexes = new int[this.columns.size()];
+        for (int i = 0; i < this.indexes.length; i++) {
+            this.indexes[i] = schema.indexOf(this.columns.get(i));
+        }
+    }
+
+    /**
+     * 获取有数据行参与统计的Sheet坐标
+     *
+     * @return
+     */
+    public Set<Integer> getSheetIndexes() {
+        return Collections.unmodifiableSet(this.sheets.keySet());
+    }
+
+    /**
+     * 获取指定Sheet中每个分组的统计结果
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @return key为分组列的值(不分组时为null), 该Sheet没有数据行时返回空Map
+     */
+    public Map<Object, Group> getGroups(int sheetIndex) {
+        Map<Object, Group> groups = this.sheets.get(sheetIndex);
+        return groups == null ? Collections.<Object, Group>emptyMap() : Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * 获取所有Sheet合并后每个分组的统计结果
+     *
+     * @return key为分组列的值(不分组时为null)
+     */
+    public Map<Object, Group> getGroups() {
+        Map<Object, Group> merged = new LinkedHashMap<Object, Group>();
+        for (Map<Object, Group> groups : this.sheets.values()) {
+            for (Map.Entry<Object, Group> entry : groups.entrySet()) {
+                Group group = merged.get(entry.getKey());
+                if (group == null) {
+                    group = new Group(this.columns);
+                    merged.put(entry.getKey(), group);
+                }
+                group.merge(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 获取指定Sheet所有数据行的统计结果(不分组)
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @return
+     */
+    public Group getTotal(int sheetIndex) {
+        Group total = new Group(this.columns);
+        for (Group group : this.getGroups(sheetIndex).values()) {
+            total.merge(group);
+        }
+        return total;
+    }
+
+    /**
+     * 获取所有Sheet所有数据行的统计结果(不分组)
+     *
+     * @return
+     */
+    public Group getTotal() {
+        Group total = new Group(this.columns);
+        for (Map<Object, Group> groups : this.sheets.values()) {
+            for (Group group : groups.values()) {
+                total.merge(group);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * 将单元格的值转换成数值
+     *
+     * @param value 单元格的值
+     * @return 不是数值时返回{@link Double#NaN},字符串不按区域格式猜测(如千分位逗号),无法解析时视为非数值
+     */
+    private static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (!(value instanceof String)) {
+            return Double.NaN;
+        }
+        String text = ((String) value).trim();
+        if (text.isEmpty()) {
+            return Double.NaN;
+        }
+        char c = text.charAt(0);
+        if ((c < '0' || c > '9') && c != '-' && c != '+' && c != '.') {
+            //明显不是数字,避免抛出异常的开销
+            return Double.NaN;
+        }
+        try {
+            //与XLSReader判断数字的方式一致,不接受"1d","NaN"等Double.parseDouble特有的写法
+            return new BigDecimal(text).doubleValue();
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * 一个分组的统计结果
+     */
+    public static class Group {
+        //需要统计的列名
+        private final List<String> columns;
+        //数据行数
+        private long count = 0;
+        //下标与columns对应,记录参与统计的值的个数,和,最小值,最大值
+        private final long[] valueCounts;
+        private final double[] sums;
+        private final double[] mins;
+        private final double[] maxs;
+
+        private Group(List<String> columns) {
+            this.columns = columns;
+            this.valueCounts = new long[columns.size()];
+            this.sums = new double[columns.size()];
+            this.mins = new double[columns.size()];
+            this.maxs = new double[columns.size()];
+            Arrays.fill(this.mins, Double.POSITIVE_INFINITY);
+            Arrays.fill(this.maxs, Double.NEGATIVE_INFINITY);
+        }
+
+        private void add(int index, Object value) {
+            double d = toDouble(value);
+            if (Double.isNaN(d)) {
+                return;
+            }
+            this.valueCounts[index]++;
+            this.sums[index] += d;
+            if (d < this.mins[index]) {
+                this.mins[index] = d;
+            }
+            if (d > this.maxs[index]) {
+                this.maxs[index] = d;
+            }
+        }
+
+        private void merge(Group other) {
+            this.count += other.count;
+            for (int i = 0; i < this.valueCounts.length; i++) {
+                this.valueCounts[i] += other.valueCounts[i];
+                this.sums[i] += other.sums[i];
+                this.mins[i] = Math.min(this.mins[i], other.mins[i]);
+                this.maxs[i] = Math.max(this.maxs[i], other.maxs[i]);
+            }
+        }
+
+        private int index(String column) {
+            int index = this.columns.indexOf(column);
+            if (index < 0) {
+                throw new IllegalArgumentException("Column " + column + " is not aggregated");
+            }
+            return index;
+        }
+
+        /**
+         * 获取数据行数
+         *
+         * @return
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * 获取指定列参与统计的值的个数
+         *
+         * @param column 列名
+         * @return
+         */
+        public long getValueCount(String column) {
+            return this.valueCounts[this.index(column)];
+        }
+
+        /**
+         * 获取指定列的和
+         *
+         * @param column 列名
+         * @return 没有值参与统计时返回0
+         */
+        public double getSum(String column) {
+            return this.sums[this.index(column)];
+        }
+
+        /**
+         * 获取指定列的最小值
+         *
+         * @param column 列名
+         * @return 没有值参与统计时返回null
+         */
+        public Double getMin(String column) {
+            int index = this.index(column);
+            return this.valueCounts[index] == 0 ? null : this.mins[index];
+        }
+
+        /**
+         * 获取指定列的最大值
+         *
+         * @param column 列名
+         * @return 没有值参与统计时返回null
+         */
+        public Double getMax(String column) {
+            int index = this.index(column);
+            return this.valueCounts[index] == 0 ? null : this.maxs[index];
+        }
+
+        /**
+         * 获取指定列的平均值
+         *
+         * @param column 列名
+         * @return 没有值参与统计时返回null
+         */
+        public Double getAverage(String column) {
+            int index = this.index(column);
+            return this.valueCounts[index] == 0 ? null : this.sums[index] / this.valueCounts[index];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder("Group{count=").append(this.count);
+            for (int i = 0; i < this.columns.size(); i++) {
+                sb.append(", ").append(this.columns.get(i)).append("={sum=").append(this.sums[i])
+                        .append(", min=").append(this.valueCounts[i] == 0 ? null : this.mins[i])
+                        .append(", max=").append(this.valueCounts[i] == 0 ? null : this.maxs[i]).append('}');
+            }
+            return sb.append('}').toString();
+        }
+    }
+}
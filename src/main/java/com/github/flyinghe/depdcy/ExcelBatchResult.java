@@ -0,0 +1,91 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.ExcelBatchImporter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * {@link ExcelBatchImporter}读取一批文件的结果
+ */
+public class ExcelBatchResult {
+    //每个文件的读取结果,与传入文件的顺序一致
+    private final List<ExcelImportResult> results;
+    //读取整批文件的耗时,单位纳秒
+    private final long elapsedNanos;
+
+    /**
+     * @param results      每个文件的读取结果
+     * @param elapsedNanos 读取整批文件的耗时,单位纳秒
+     */
+    public ExcelBatchResult(List<ExcelImportResult> results, long elapsedNanos) {
+        this.results = Collections.unmodifiableList(new ArrayList<ExcelImportResult>(results));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * 获取每个文件的读取结果,与传入文件的顺序一致
+     *
+     * @return
+     */
+    public List<ExcelImportResult> getResults() {
+        return results;
+    }
+
+    /**
+     * 获取读取失败的文件的结果
+     *
+     * @return
+     */
+    public List<ExcelImportResult> getFailures() {
+        List<ExcelImportResult> failures = new ArrayList<ExcelImportResult>();
+        for (ExcelImportResult result : this.results) {
+            if (!result.isSuccess()) {
+                failures.add(result);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * 判断是否所有文件都读取成功
+     *
+     * @return
+     */
+    public boolean isAllSuccess() {
+        for (ExcelImportResult result : this.results) {
+            if (!result.isSuccess()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取所有文件已交给回调函数处理的数据行数
+     *
+     * @return
+     */
+    public long getRowCount() {
+        long rowCount = 0;
+        for (ExcelImportResult result : this.results) {
+            rowCount += result.getRowCount();
+        }
+        return rowCount;
+    }
+
+    public long getElapsedMillis() {
+        return this.elapsedNanos / 1000000;
+    }
+
+    /**
+     * 获取每秒读取的文件数(包括读取失败的文件)
+     *
+     * @return
+     */
+    public double getFilesPerSecond() {
+        return this.elapsedNanos <= 0 ? 0D : this.results.size() * 1000000000D / this.elapsedNanos;
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.tools.CommonUtils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 写入Excel时直接从JavaBean中读取需要写入的属性值,不再经过{@link CommonUtils#toMap(Object)}。
+ * 每个JavaBean类型和属性列表只解析一次:为每一个需要写入的属性找到getter方法并生成{@link MethodHandle},
+ * 之后每一行只需按列坐标调用getter,不会为每一行创建Map,也不会读取不需要写入的属性。
+ * 没有对应getter方法的属性值为null,与{@link CommonUtils#toMap(Object)}得到的Map中不含该属性时一致。
+ * 注意:此类不是线程安全的
+ *
+ * @see AbstractExcelWriter
+ */
+public class ExcelBeanAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Class<?> clazz;
+    //需要写入的属性名,下标即列坐标
+    private final String[] properties;
+    //下标即列坐标,类型为(Object)Object,为null表示该属性没有getter方法
+    private final MethodHandle[] getters;
+
+    /**
+     * @param clazz      JavaBean类型
+     * @param properties 需要写入的属性名,下标即列坐标
+     * @throws WriteExcelException
+     */
+    public ExcelBeanAccessor(Class<?> clazz, List<String> properties) throws WriteExcelException {
+        this.clazz = clazz;
+        this.properties = properties.toArray(new String[properties.size()]);
+        this.getters = new MethodHandle[this.properties.length];
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(clazz);
+        } catch (IntrospectionException e) {
+            throw new WriteExcelException(e.getMessage());
+        }
+        Map<String, Method> readMethods = new HashMap<String, Method>();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            if (descriptor.getReadMethod() != null && !"class".equals(descriptor.getName())) {
+                readMethods.put(descriptor.getName(), descriptor.getReadMethod());
+            }
+        }
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < this.properties.length; i++) {
+            Method readMethod = readMethods.get(this.properties[i]);
+            if (readMethod == null) {
+                continue;
+            }
+            try {
+                readMethod.setAccessible(true);
+                this.getters[i] = lookup.unreflect(readMethod).asType(GETTER_TYPE);
+            } catch (Exception e) {
+                throw new WriteExcelException(e.getMessage());
+            }
+        }
+    }
+
+    public Class<?> getBeanClass() {
+        return clazz;
+    }
+
+    /**
+     * 判断解析时使用的属性列表是否与properties一致
+     *
+     * @param properties 需要写入的属性名
+     * @return
+     */
+    public boolean hasProperties(List<String> properties) {
+        if (properties.size() != this.properties.length) {
+            return false;
+        }
+        for (int i = 0; i < this.properties.length; i++) {
+            if (!this.properties[i].equals(properties.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取JavaBean中指定列的属性值
+     *
+     * @param bean  JavaBean,类型必须是{@link #getBeanClass()}
+     * @param index 列坐标,0-based
+     * @return 属性值, 该属性没有getter方法时返回null
+     * @throws WriteExcelException getter方法抛出异常时抛出
+     */
+    public Object get(Object bean, int index) throws WriteExcelException {
+        MethodHandle getter = this.getters[index];
+        if (getter == null) {
+            return null;
+        }
+        try {
+            return getter.invokeExact(bean);
+        } catch (Throwable e) {
+            throw new WriteExcelException(
+                    String.format("读取[%s]属性失败:%s", this.properties[index], e.getMessage()));
+        }
+    }
+}
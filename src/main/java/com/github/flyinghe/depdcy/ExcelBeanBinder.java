@@ -0,0 +1,206 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.tools.CommonUtils;
+import org.apache.commons.beanutils.BeanUtilsBean;
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将{@link ExcelRow}直接封装成JavaBean,不再经过{@link java.util.Map}。
+ * 每个{@link ExcelRowSchema}只解析一次:为每一列找到同名属性的setter方法并生成{@link MethodHandle},
+ * 同时确定该属性的类型转换器(与{@link CommonUtils#toBean(java.util.Map, Class)}使用的
+ * {@link ConvertUtilsBean}一致),之后每一行只需按列坐标取值、转换并调用setter。
+ * 没有对应属性(或没有setter方法)的列会被忽略。
+ * 注意:此类不是线程安全的
+ */
+public class ExcelBeanBinder<T> {
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<T> clazz;
+    //无参构造器
+    private final MethodHandle constructor;
+    //最近一次解析的列结构
+    private ExcelRowSchema schema;
+    //需要封装的列
+    private Column[] columns;
+
+    /**
+     * @param clazz 指定封装类型,必须有public无参构造器
+     * @throws ReadExcelException
+     */
+    public ExcelBeanBinder(Class<T> clazz) throws ReadExcelException {
+        this.clazz = clazz;
+        try {
+            this.constructor = MethodHandles.publicLookup().findConstructor(clazz, MethodType.methodType(void.class))
+                    .asType(CONSTRUCTOR_TYPE);
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将一行数据封装成JavaBean
+     *
+     * @param row 数据行
+     * @return 封装好的JavaBean
+     * @throws ReadExcelException
+     */
+    @SuppressWarnings("unchecked")
+    public T bind(ExcelRow row) throws ReadExcelException {
+        if (row.getSchema() != this.schema) {
+            this.resolve(row.getSchema());
+        }
+        try {
+            T bean = (T) this.constructor.invokeExact();
+            for (Column column : this.columns) {
+                Object value = row.get(column.index);
+                if (value != null) {
+                    column.setter.invokeExact((Object) bean, column.convert(value));
+                }
+            }
+            return bean;
+        } catch (ReadExcelException e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new ReadExcelException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 创建分批处理JavaBean的{@link ExcelCompactRowHandler},读取完毕后需调用{@link BatchRowHandler#flush()}
+     * 处理最后一批
+     *
+     * @param batchSize 每批的JavaBean个数,&lt;=0表示1
+     * @param handler   分批处理JavaBean的回调函数
+     * @return
+     */
+    public BatchRowHandler batch(int batchSize, ExcelBeanHandler<T> handler) {
+        return new BatchRowHandler(batchSize, handler);
+    }
+
+    /**
+     * 为列结构中的每一列找到对应的setter方法和类型转换器
+     *
+     * @param schema 列结构
+     * @throws ReadExcelException
+     */
+    private void resolve(ExcelRowSchema schema) throws ReadExcelException {
+        BeanInfo beanInfo;
+        try {
+            beanInfo = Introspector.getBeanInfo(this.clazz);
+        } catch (IntrospectionException e) {
+            throw new ReadExcelException(e.getMessage(), e);
+        }
+        ConvertUtilsBean convertUtils = BeanUtilsBean.getInstance().getConvertUtils();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        List<Column> columns = new ArrayList<Column>();
+        for (PropertyDescriptor descriptor : beanInfo.getPropertyDescriptors()) {
+            Method writeMethod = descriptor.getWriteMethod();
+            int index = schema.indexOf(descriptor.getName());
+            if (writeMethod == null || index < 0) {
+                continue;
+            }
+            try {
+                writeMethod.setAccessible(true);
+                Class<?> type = ClassUtils.primitiveToWrapper(descriptor.getPropertyType());
+                columns.add(new Column(index, lookup.unreflect(writeMethod).asType(SETTER_TYPE), type,
+                        convertUtils.lookup(type)));
+            } catch (Exception e) {
+                throw new ReadExcelException(e.getMessage(), e);
+            }
+        }
+        this.columns = columns.toArray(new Column[columns.size()]);
+        this.schema = schema;
+    }
+
+    /**
+     * 一列与JavaBean属性的对应关系
+     */
+    private static class Column {
+        //列坐标
+        private final int index;
+        //setter方法,类型为(Object,Object)void
+        private final MethodHandle setter;
+        //属性类型,基本类型已转换为包装类型
+        private final Class<?> type;
+        //属性类型的转换器,可能为null
+        private final Converter converter;
+
+        Column(int index, MethodHandle setter, Class<?> type, Converter converter) {
+            this.index = index;
+            this.setter = setter;
+            this.type = type;
+            this.converter = converter;
+        }
+
+        /**
+         * 将单元格的值转换为属性类型,类型相同时直接返回
+         *
+         * @param value
+         * @return
+         * @throws ReadExcelException
+         */
+        private Object convert(Object value) throws ReadExcelException {
+            if (this.type.isInstance(value)) {
+                return value;
+            }
+            if (this.converter == null) {
+                throw new ReadExcelException(
+                        "Cannot convert " + value.getClass().getName() + " to " + this.type.getName());
+            }
+            return this.converter.convert(this.type, value);
+        }
+    }
+
+    /**
+     * 分批处理JavaBean的{@link ExcelCompactRowHandler}
+     */
+    public class BatchRowHandler implements ExcelCompactRowHandler {
+        private final int batchSize;
+        private final ExcelBeanHandler<T> handler;
+        private List<T> beans;
+
+        private BatchRowHandler(int batchSize, ExcelBeanHandler<T> handler) {
+            this.batchSize = batchSize > 0 ? batchSize : 1;
+            this.handler = handler;
+            this.beans = new ArrayList<T>(this.batchSize);
+        }
+
+        @Override
+        public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                throws ReadExcelException {
+            this.beans.add(ExcelBeanBinder.this.bind(row));
+            return this.beans.size() < this.batchSize || this.flush();
+        }
+
+        /**
+         * 将当前批次交给回调函数处理
+         *
+         * @return 回调函数的返回值, 当前批次为空时返回true
+         * @throws ReadExcelException
+         */
+        public boolean flush() throws ReadExcelException {
+            if (this.beans.isEmpty()) {
+                return true;
+            }
+            List<T> beans = this.beans;
+            this.beans = new ArrayList<T>(this.batchSize);
+            return this.handler.handleBeans(beans);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.List;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link XLSReader}和{@link XLSXReader}提供分批处理JavaBean的回调函数
+ *
+ * @see XLSXReader#readExcelToBeans(java.io.File, Integer, Class, int, ExcelBeanHandler)
+ * @see XLSReader#readExcelToBeans(java.io.File, Integer, Class, int, ExcelBeanHandler)
+ */
+public interface ExcelBeanHandler<T> {
+    /**
+     * 每读取一批数据行并封装成JavaBean后调用此函数
+     *
+     * @param beans 该批次的JavaBean,每个批次都是一个新的List,调用者可以直接保留它
+     * @return true表示继续解析, false表示停止解析整个Excel文档
+     * @throws ReadExcelException
+     */
+    public boolean handleBeans(List<T> beans) throws ReadExcelException;
+}
@@ -0,0 +1,17 @@
+package com.github.flyinghe.depdcy;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将单元格的值转换成指定类型的转换器,用于{@link ExcelSchema}
+ */
+public interface ExcelCellConverter {
+    /**
+     * 转换单元格的值,空单元格不会调用此函数
+     *
+     * @param value 单元格的值,按类型生成值时为{@link Double},{@link java.util.Date},{@link Boolean}或{@link String},
+     *              否则为单元格格式化后的字符串
+     * @return 转换后的值
+     * @throws Exception 无法转换时抛出,读取失败
+     */
+    public Object convert(Object value) throws Exception;
+}
@@ -0,0 +1,21 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link XLSReader}和{@link XLSXReader}提供数据行的过滤条件,
+ * 在数据行的Map或{@link ExcelRow}交给调用者之前对单元格的值求值,不满足条件的数据行会被直接丢弃
+ *
+ * @see ExcelReadOptions#addFilter(String, ExcelCellPredicate)
+ */
+public interface ExcelCellPredicate {
+    /**
+     * 判断单元格的值是否满足条件
+     *
+     * @param value 单元格的值,与读取出的数据行中的值相同(如未启用typedValue时数值为字符串),单元格为空时为null
+     * @return true表示满足条件
+     */
+    public boolean test(Object value);
+}
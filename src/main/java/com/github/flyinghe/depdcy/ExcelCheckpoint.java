@@ -0,0 +1,98 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * {@link XLSReader}和{@link XLSXReader}读取时已提交的位置,即回调函数成功处理完一批数据行后的位置,
+ * 此位置及之前的所有数据行均已被处理,从检查点恢复读取时会跳过这些数据行
+ */
+public class ExcelCheckpoint {
+    //已提交的最后一个数据行所在的sheet坐标，0-based
+    private final int sheetIndex;
+    //已提交的最后一个数据行在sheet中的行坐标，0-based
+    private final int rowInSheet;
+    //该sheet已提交的数据的非空行数
+    private final int realRowInSheet;
+    //整个Excel文档已提交的数据的非空行数
+    private final int realRowInExcel;
+
+    /**
+     * @param sheetIndex     已提交的最后一个数据行所在的sheet坐标，0-based
+     * @param rowInSheet     已提交的最后一个数据行在sheet中的行坐标，0-based
+     * @param realRowInSheet 该sheet已提交的数据的非空行数
+     * @param realRowInExcel 整个Excel文档已提交的数据的非空行数
+     */
+    public ExcelCheckpoint(int sheetIndex, int rowInSheet, int realRowInSheet, int realRowInExcel) {
+        this.sheetIndex = sheetIndex;
+        this.rowInSheet = rowInSheet;
+        this.realRowInSheet = realRowInSheet;
+        this.realRowInExcel = realRowInExcel;
+    }
+
+    public int getSheetIndex() {
+        return sheetIndex;
+    }
+
+    public int getRowInSheet() {
+        return rowInSheet;
+    }
+
+    public int getRealRowInSheet() {
+        return realRowInSheet;
+    }
+
+    public int getRealRowInExcel() {
+        return realRowInExcel;
+    }
+
+    /**
+     * 判断指定的Sheet是否已经全部提交(即位于检查点所在的Sheet之前)
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @return
+     */
+    public boolean isCommittedSheet(int sheetIndex) {
+        return sheetIndex < this.sheetIndex;
+    }
+
+    /**
+     * 判断指定的数据行是否已经提交
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @param rowInSheet 行坐标,0-based
+     * @return
+     */
+    public boolean isCommittedRow(int sheetIndex, int rowInSheet) {
+        return sheetIndex < this.sheetIndex || (sheetIndex == this.sheetIndex && rowInSheet <= this.rowInSheet);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExcelCheckpoint)) {
+            return false;
+        }
+        ExcelCheckpoint that = (ExcelCheckpoint) o;
+        return sheetIndex == that.sheetIndex && rowInSheet == that.rowInSheet &&
+                realRowInSheet == that.realRowInSheet && realRowInExcel == that.realRowInExcel;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = sheetIndex;
+        result = 31 * result + rowInSheet;
+        result = 31 * result + realRowInSheet;
+        result = 31 * result + realRowInExcel;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "ExcelCheckpoint{" + "sheetIndex=" + sheetIndex + ", rowInSheet=" + rowInSheet +
+                ", realRowInSheet=" + realRowInSheet + ", realRowInExcel=" + realRowInExcel + '}';
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.io.IOException;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link XLSReader}和{@link XLSXReader}保存读取的检查点({@link ExcelCheckpoint}),
+ * 一个存储只对应一个Excel文件的一次导入
+ */
+public interface ExcelCheckpointStore {
+    /**
+     * 读取上次保存的检查点
+     *
+     * @return 没有检查点时返回null
+     * @throws IOException
+     */
+    public ExcelCheckpoint load() throws IOException;
+
+    /**
+     * 保存检查点,在回调函数成功处理完一批数据行后调用,保存必须是原子的,即崩溃后读到的要么是旧的检查点要么是新的检查点
+     *
+     * @param checkpoint 检查点
+     * @throws IOException
+     */
+    public void save(ExcelCheckpoint checkpoint) throws IOException;
+
+    /**
+     * 清除检查点,在整个Excel文档读取完毕后调用
+     *
+     * @throws IOException
+     */
+    public void clear() throws IOException;
+}
@@ -0,0 +1,680 @@
+package com.github.flyinghe.depdcy;
+
+import org.apache.commons.lang3.time.DateFormatUtils;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * {@link ExcelColumnarTable}中的一列,按{@link ExcelColumnType}以基本类型数组存储值,
+ * 并以有效位图记录每一行的值是否为空(空单元格不占用额外的对象)。
+ * 数组按块(每块{@link #CHUNK_SIZE}行)分配,追加时只分配新的块,不会复制已有的数据。
+ * 各类型的列提供按块遍历的统计方法(如{@link DoubleColumn#sum()}),不会创建包装对象
+ * </p>
+ */
+public abstract class ExcelColumn {
+    //每块的行数为2^CHUNK_SHIFT
+    static final int CHUNK_SHIFT = 12;
+    /**
+     * 每块的行数
+     */
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.S";
+    //列名
+    protected final String name;
+    //行数
+    protected int size = 0;
+    //每一块的有效位图,第i位为1表示该块第i行的值不为空
+    protected long[][] validity = new long[4][];
+
+    protected ExcelColumn(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 获取行数
+     *
+     * @return
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取列的存储类型
+     *
+     * @return
+     */
+    public abstract ExcelColumnType getType();
+
+    /**
+     * 判断指定行的值是否为空
+     *
+     * @param row 行坐标,0-based
+     * @return
+     */
+    public boolean isNull(int row) {
+        long[] bits = this.validity[row >>> CHUNK_SHIFT];
+        int offset = row & CHUNK_MASK;
+        return (bits[offset >>> 6] & (1L << offset)) == 0;
+    }
+
+    /**
+     * 获取不为空的值的个数
+     *
+     * @return
+     */
+    public int count() {
+        int count = 0;
+        for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+            for (long bits : this.validity[chunk]) {
+                count += Long.bitCount(bits);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 以包装类型获取指定行的值
+     *
+     * @param row 行坐标,0-based
+     * @return 值为空时返回null
+     */
+    public abstract Object get(int row);
+
+    /**
+     * 追加一行的值
+     *
+     * @param value 值,为null表示空
+     * @return 值无法以此列的类型存储时返回false, 此时不追加
+     */
+    boolean append(Object value) {
+        int row = this.size;
+        int chunk = row >>> CHUNK_SHIFT;
+        int offset = row & CHUNK_MASK;
+        if (offset == 0) {
+            this.allocate(chunk);
+        }
+        if (value != null) {
+            if (!this.store(chunk, offset, value)) {
+                return false;
+            }
+            this.validity[chunk][offset >>> 6] |= 1L << offset;
+        }
+        this.size++;
+        return true;
+    }
+
+    /**
+     * 分配新的块
+     *
+     * @param chunk 块坐标
+     */
+    private void allocate(int chunk) {
+        if (chunk == this.validity.length) {
+            this.validity = Arrays.copyOf(this.validity, chunk * 2);
+        }
+        this.validity[chunk] = new long[CHUNK_SIZE >>> 6];
+        this.allocateValues(chunk);
+    }
+
+    /**
+     * 块数
+     *
+     * @return
+     */
+    protected int chunks() {
+        return (this.size + CHUNK_MASK) >>> CHUNK_SHIFT;
+    }
+
+    /**
+     * 指定块中的行数
+     *
+     * @param chunk 块坐标
+     * @return
+     */
+    protected int rowsInChunk(int chunk) {
+        return Math.min(CHUNK_SIZE, this.size - (chunk << CHUNK_SHIFT));
+    }
+
+    /**
+     * 判断指定块中指定行的值是否不为空
+     */
+    protected boolean isValid(int chunk, int offset) {
+        return (this.validity[chunk][offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * 为值数组分配新的块
+     *
+     * @param chunk 块坐标
+     */
+    protected abstract void allocateValues(int chunk);
+
+    /**
+     * 在指定块的指定位置存储值
+     *
+     * @return 值无法以此列的类型存储时返回false
+     */
+    protected abstract boolean store(int chunk, int offset, Object value);
+
+    /**
+     * 将单元格的值转换成数值,字符串只有在转换后的数值的字符串形式({@link #text(Object)})与原字符串完全一致时
+     * 才视为数值(如"007","1.50","12d"均不视为数值),以保证以数值存储时不丢失信息
+     *
+     * @param value 单元格的值
+     * @return 不是数值时返回{@link Double#NaN}
+     */
+    static double toDouble(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        if (!(value instanceof String)) {
+            return Double.NaN;
+        }
+        String text = (String) value;
+        if (text.isEmpty()) {
+            return Double.NaN;
+        }
+        char c = text.charAt(0);
+        if ((c < '0' || c > '9') && c != '-' && c != '.') {
+            //明显不是数字,避免抛出异常的开销
+            return Double.NaN;
+        }
+        double d;
+        try {
+            d = Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+        return text.equals(text(d)) ? d : Double.NaN;
+    }
+
+    /**
+     * 判断数值是否可以无损地以long存储
+     *
+     * @param d 数值
+     * @return
+     */
+    static boolean isIntegral(double d) {
+        return d == Math.rint(d) && Math.abs(d) <= (1L << 53);
+    }
+
+    /**
+     * 获取值的字符串形式,数值不带多余的小数位,日期与读取时的日期格式一致
+     *
+     * @param value 值
+     * @return
+     */
+    static String text(Object value) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            return isIntegral(d) ? String.valueOf((long) d) : BigDecimal.valueOf(d).toPlainString();
+        }
+        if (value instanceof Date) {
+            return DateFormatUtils.format((Date) value, DATE_PATTERN);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * 根据存储类型创建空的列
+     *
+     * @param name 列名
+     * @param type 存储类型
+     * @return
+     */
+    static ExcelColumn create(String name, ExcelColumnType type) {
+        switch (type) {
+            case LONG:
+                return new LongColumn(name);
+            case DOUBLE:
+                return new DoubleColumn(name);
+            case BOOLEAN:
+                return new BooleanColumn(name);
+            case DATE:
+                return new DateColumn(name);
+            default:
+                return new StringColumn(name);
+        }
+    }
+
+    /**
+     * 以long存储整数的列
+     */
+    public static final class LongColumn extends ExcelColumn {
+        private long[][] values = new long[4][];
+
+        LongColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        public ExcelColumnType getType() {
+            return ExcelColumnType.LONG;
+        }
+
+        @Override
+        protected void allocateValues(int chunk) {
+            if (chunk == this.values.length) {
+                this.values = Arrays.copyOf(this.values, chunk * 2);
+            }
+            this.values[chunk] = new long[CHUNK_SIZE];
+        }
+
+        @Override
+        protected boolean store(int chunk, int offset, Object value) {
+            long l;
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                l = ((Number) value).longValue();
+            } else {
+                double d = toDouble(value);
+                if (Double.isNaN(d) || !isIntegral(d)) {
+                    return false;
+                }
+                l = (long) d;
+            }
+            this.values[chunk][offset] = l;
+            return true;
+        }
+
+        /**
+         * 获取指定行的值
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回0
+         */
+        public long getLong(int row) {
+            return this.values[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.isNull(row) ? null : this.getLong(row);
+        }
+
+        /**
+         * 求和,忽略空值
+         *
+         * @return
+         */
+        public long sum() {
+            long sum = 0;
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                long[] values = this.values[chunk];
+                for (int i = 0, n = this.rowsInChunk(chunk); i < n; i++) {
+                    //空值存储为0,不影响求和
+                    sum += values[i];
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * 获取最小值,忽略空值
+         *
+         * @return 没有值时返回null
+         */
+        public Long min() {
+            return this.extreme(true);
+        }
+
+        /**
+         * 获取最大值,忽略空值
+         *
+         * @return 没有值时返回null
+         */
+        public Long max() {
+            return this.extreme(false);
+        }
+
+        private Long extreme(boolean min) {
+            boolean found = false;
+            long result = min ? Long.MAX_VALUE : Long.MIN_VALUE;
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                long[] values = this.values[chunk];
+                for (int i = 0, n = this.rowsInChunk(chunk); i < n; i++) {
+                    if (this.isValid(chunk, i)) {
+                        found = true;
+                        result = min ? Math.min(result, values[i]) : Math.max(result, values[i]);
+                    }
+                }
+            }
+            return found ? result : null;
+        }
+    }
+
+    /**
+     * 以double存储小数的列
+     */
+    public static final class DoubleColumn extends ExcelColumn {
+        private double[][] values = new double[4][];
+
+        DoubleColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        public ExcelColumnType getType() {
+            return ExcelColumnType.DOUBLE;
+        }
+
+        @Override
+        protected void allocateValues(int chunk) {
+            if (chunk == this.values.length) {
+                this.values = Arrays.copyOf(this.values, chunk * 2);
+            }
+            this.values[chunk] = new double[CHUNK_SIZE];
+        }
+
+        @Override
+        protected boolean store(int chunk, int offset, Object value) {
+            double d = toDouble(value);
+            if (Double.isNaN(d)) {
+                return false;
+            }
+            this.values[chunk][offset] = d;
+            return true;
+        }
+
+        /**
+         * 获取指定行的值
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回0
+         */
+        public double getDouble(int row) {
+            return this.values[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.isNull(row) ? null : this.getDouble(row);
+        }
+
+        /**
+         * 求和,忽略空值
+         *
+         * @return
+         */
+        public double sum() {
+            double sum = 0;
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                double[] values = this.values[chunk];
+                for (int i = 0, n = this.rowsInChunk(chunk); i < n; i++) {
+                    //空值存储为0,不影响求和
+                    sum += values[i];
+                }
+            }
+            return sum;
+        }
+
+        /**
+         * 获取最小值,忽略空值
+         *
+         * @return 没有值时返回null
+         */
+        public Double min() {
+            return this.extreme(true);
+        }
+
+        /**
+         * 获取最大值,忽略空值
+         *
+         * @return 没有值时返回null
+         */
+        public Double max() {
+            return this.extreme(false);
+        }
+
+        private Double extreme(boolean min) {
+            boolean found = false;
+            double result = min ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                double[] values = this.values[chunk];
+                for (int i = 0, n = this.rowsInChunk(chunk); i < n; i++) {
+                    if (this.isValid(chunk, i)) {
+                        found = true;
+                        result = min ? Math.min(result, values[i]) : Math.max(result, values[i]);
+                    }
+                }
+            }
+            return found ? result : null;
+        }
+    }
+
+    /**
+     * 以位存储布尔值的列
+     */
+    public static final class BooleanColumn extends ExcelColumn {
+        private long[][] values = new long[4][];
+
+        BooleanColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        public ExcelColumnType getType() {
+            return ExcelColumnType.BOOLEAN;
+        }
+
+        @Override
+        protected void allocateValues(int chunk) {
+            if (chunk == this.values.length) {
+                this.values = Arrays.copyOf(this.values, chunk * 2);
+            }
+            this.values[chunk] = new long[CHUNK_SIZE >>> 6];
+        }
+
+        @Override
+        protected boolean store(int chunk, int offset, Object value) {
+            boolean b;
+            if (value instanceof Boolean) {
+                b = (Boolean) value;
+            } else if ("true".equalsIgnoreCase(String.valueOf(value))) {
+                b = true;
+            } else if ("false".equalsIgnoreCase(String.valueOf(value))) {
+                b = false;
+            } else {
+                return false;
+            }
+            if (b) {
+                this.values[chunk][offset >>> 6] |= 1L << offset;
+            }
+            return true;
+        }
+
+        /**
+         * 获取指定行的值
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回false
+         */
+        public boolean getBoolean(int row) {
+            int offset = row & CHUNK_MASK;
+            return (this.values[row >>> CHUNK_SHIFT][offset >>> 6] & (1L << offset)) != 0;
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.isNull(row) ? null : this.getBoolean(row);
+        }
+
+        /**
+         * 获取值为true的行数
+         *
+         * @return
+         */
+        public int countTrue() {
+            int count = 0;
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                for (long bits : this.values[chunk]) {
+                    count += Long.bitCount(bits);
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * 以毫秒数存储日期的列
+     */
+    public static final class DateColumn extends ExcelColumn {
+        private long[][] values = new long[4][];
+
+        DateColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        public ExcelColumnType getType() {
+            return ExcelColumnType.DATE;
+        }
+
+        @Override
+        protected void allocateValues(int chunk) {
+            if (chunk == this.values.length) {
+                this.values = Arrays.copyOf(this.values, chunk * 2);
+            }
+            this.values[chunk] = new long[CHUNK_SIZE];
+        }
+
+        @Override
+        protected boolean store(int chunk, int offset, Object value) {
+            if (!(value instanceof Date)) {
+                return false;
+            }
+            this.values[chunk][offset] = ((Date) value).getTime();
+            return true;
+        }
+
+        /**
+         * 获取指定行的毫秒数
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回0
+         */
+        public long getTime(int row) {
+            return this.values[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.isNull(row) ? null : new Date(this.getTime(row));
+        }
+    }
+
+    /**
+     * 以字典编码存储字符串的列,每个不同的字符串只保存一份,每行只记录其在字典中的编码
+     */
+    public static final class StringColumn extends ExcelColumn {
+        private int[][] codes = new int[4][];
+        //字典,下标即编码
+        private final List<String> dictionary = new ArrayList<String>();
+        private final Map<String, Integer> codesByValue = new HashMap<String, Integer>();
+
+        StringColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        public ExcelColumnType getType() {
+            return ExcelColumnType.STRING;
+        }
+
+        @Override
+        protected void allocateValues(int chunk) {
+            if (chunk == this.codes.length) {
+                this.codes = Arrays.copyOf(this.codes, chunk * 2);
+            }
+            this.codes[chunk] = new int[CHUNK_SIZE];
+        }
+
+        @Override
+        protected boolean store(int chunk, int offset, Object value) {
+            String text = text(value);
+            Integer code = this.codesByValue.get(text);
+            if (code == null) {
+                code = this.dictionary.size();
+                this.dictionary.add(text);
+                this.codesByValue.put(text, code);
+            }
+            this.codes[chunk][offset] = code;
+            return true;
+        }
+
+        /**
+         * 获取指定行的字符串在字典中的编码
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回-1
+         */
+        public int getCode(int row) {
+            return this.isNull(row) ? -1 : this.codes[row >>> CHUNK_SHIFT][row & CHUNK_MASK];
+        }
+
+        /**
+         * 获取指定行的字符串
+         *
+         * @param row 行坐标,0-based
+         * @return 值为空时返回null
+         */
+        public String getString(int row) {
+            int code = this.getCode(row);
+            return code < 0 ? null : this.dictionary.get(code);
+        }
+
+        @Override
+        public Object get(int row) {
+            return this.getString(row);
+        }
+
+        /**
+         * 获取字典,下标即编码
+         *
+         * @return 不可修改的List
+         */
+        public List<String> getDictionary() {
+            return Collections.unmodifiableList(this.dictionary);
+        }
+
+        /**
+         * 获取字符串的编码
+         *
+         * @param value 字符串
+         * @return 不存在时返回-1
+         */
+        public int codeOf(String value) {
+            Integer code = this.codesByValue.get(value);
+            return code == null ? -1 : code;
+        }
+
+        /**
+         * 统计每个编码出现的次数,忽略空值
+         *
+         * @return 下标即编码
+         */
+        public int[] countByCode() {
+            int[] counts = new int[this.dictionary.size()];
+            for (int chunk = 0, chunks = this.chunks(); chunk < chunks; chunk++) {
+                int[] codes = this.codes[chunk];
+                for (int i = 0, n = this.rowsInChunk(chunk); i < n; i++) {
+                    if (this.isValid(chunk, i)) {
+                        counts[codes[i]]++;
+                    }
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.flyinghe.depdcy;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * {@link ExcelColumnarTable}中列的存储类型
+ */
+public enum ExcelColumnType {
+    /**
+     * 整数,以long存储
+     */
+    LONG,
+    /**
+     * 小数,以double存储
+     */
+    DOUBLE,
+    /**
+     * 布尔值,以位存储
+     */
+    BOOLEAN,
+    /**
+     * 日期,以毫秒数(long)存储
+     */
+    DATE,
+    /**
+     * 字符串,以字典编码(int)存储,相同的字符串只保存一份
+     */
+    STRING
+}
@@ -0,0 +1,191 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 在{@link XLSReader}和{@link XLSXReader}解析时构建{@link ExcelColumnarTable}的{@link ExcelCompactRowHandler}。
+ * 先缓存前inferRows个数据行,根据其中不为空的值推断每一列的类型:
+ * 全部为整数时为{@link ExcelColumnType#LONG},全部为数值时为{@link ExcelColumnType#DOUBLE},
+ * 全部为布尔值时为{@link ExcelColumnType#BOOLEAN},全部为日期时为{@link ExcelColumnType#DATE},
+ * 否则为{@link ExcelColumnType#STRING};
+ * 默认情况下字符串形式的数值也视为数值,但只有在转换后能还原出完全相同的字符串时才视为数值(如"007"仍为字符串),
+ * 若数据行来自按单元格类型直接生成的值(如{@link XLSXReader#setTypedValue(boolean)}),应指定不解析字符串,
+ * 此时只根据单元格本身的类型推断,字符串单元格总是视为字符串;
+ * 之后的数据行直接追加到各列中,若遇到无法以推断出的类型存储的值,该列会被提升为
+ * {@link ExcelColumnType#DOUBLE}(整数列遇到小数)或{@link ExcelColumnType#STRING}并复制已有的值。
+ * 注意:此类不是线程安全的,所有数据行需共享同一个列结构(即来自同一个Excel文档)
+ * </p>
+ */
+public class ExcelColumnarBuilder implements ExcelCompactRowHandler {
+    /**
+     * 默认根据前多少个数据行推断列的类型
+     */
+    public static final int DEFAULT_INFER_ROWS = 100;
+    //根据前多少个数据行推断列的类型
+    private final int inferRows;
+    //推断类型之前缓存的数据行
+    private List<ExcelRow> pending = new ArrayList<ExcelRow>();
+    //列结构
+    private ExcelRowSchema schema;
+    //推断类型之后的所有列,下标即列坐标
+    private ExcelColumn[] columns;
+    //是否将字符串形式的数值视为数值
+    private final boolean parseText;
+    //已追加的行数
+    private int rowCount = 0;
+
+    public ExcelColumnarBuilder() {
+        this(DEFAULT_INFER_ROWS);
+    }
+
+    /**
+     * @param inferRows 根据前多少个数据行推断列的类型,&lt;=0表示使用默认值{@link #DEFAULT_INFER_ROWS}
+     */
+    public ExcelColumnarBuilder(int inferRows) {
+        this(inferRows, true);
+    }
+
+    /**
+     * @param inferRows 根据前多少个数据行推断列的类型,&lt;=0表示使用默认值{@link #DEFAULT_INFER_ROWS}
+     * @param parseText 是否将字符串形式的数值视为数值,数据行的值已按单元格类型生成时应指定为false
+     */
+    public ExcelColumnarBuilder(int inferRows, boolean parseText) {
+        this.inferRows = inferRows > 0 ? inferRows : DEFAULT_INFER_ROWS;
+        this.parseText = parseText;
+    }
+
+    @Override
+    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+        if (this.columns != null) {
+            this.append(row);
+            return true;
+        }
+        this.schema = row.getSchema();
+        this.pending.add(row.copy());
+        if (this.pending.size() >= this.inferRows) {
+            this.infer();
+        }
+        return true;
+    }
+
+    /**
+     * 构建读取结果,应在解析完毕后调用
+     *
+     * @return
+     */
+    public ExcelColumnarTable build() {
+        if (this.columns == null) {
+            this.infer();
+        }
+        return new ExcelColumnarTable(this.schema, this.columns, this.rowCount);
+    }
+
+    /**
+     * 根据缓存的数据行推断每一列的类型,并追加缓存的数据行
+     */
+    private void infer() {
+        int size = this.schema == null ? 0 : this.schema.size();
+        this.columns = new ExcelColumn[size];
+        for (int i = 0; i < size; i++) {
+            this.columns[i] = ExcelColumn.create(this.schema.getColumn(i), this.inferType(i));
+        }
+        List<ExcelRow> rows = this.pending;
+        this.pending = null;
+        for (ExcelRow row : rows) {
+            this.append(row);
+        }
+    }
+
+    /**
+     * 根据缓存的数据行中不为空的值推断指定列的类型
+     *
+     * @param index 列坐标
+     * @return
+     */
+    private ExcelColumnType inferType(int index) {
+        ExcelColumnType type = null;
+        for (ExcelRow row : this.pending) {
+            Object value = row.get(index);
+            if (value == null) {
+                continue;
+            }
+            ExcelColumnType valueType = this.typeOf(value);
+            if (type == null || type == valueType) {
+                type = valueType;
+            } else if ((type == ExcelColumnType.LONG && valueType == ExcelColumnType.DOUBLE) ||
+                    (type == ExcelColumnType.DOUBLE && valueType == ExcelColumnType.LONG)) {
+                type = ExcelColumnType.DOUBLE;
+            } else {
+                return ExcelColumnType.STRING;
+            }
+        }
+        return type == null ? ExcelColumnType.STRING : type;
+    }
+
+    /**
+     * 获取单个值最适合的存储类型
+     *
+     * @param value 值
+     * @return
+     */
+    private ExcelColumnType typeOf(Object value) {
+        if (value instanceof String && !this.parseText) {
+            return ExcelColumnType.STRING;
+        }
+        if (value instanceof Boolean) {
+            return ExcelColumnType.BOOLEAN;
+        }
+        if (value instanceof Date) {
+            return ExcelColumnType.DATE;
+        }
+        double d = ExcelColumn.toDouble(value);
+        if (Double.isNaN(d)) {
+            return ExcelColumnType.STRING;
+        }
+        return ExcelColumn.isIntegral(d) ? ExcelColumnType.LONG : ExcelColumnType.DOUBLE;
+    }
+
+    /**
+     * 追加一个数据行,值无法以列的类型存储时提升该列的类型
+     *
+     * @param row 数据行
+     */
+    private void append(ExcelRow row) {
+        for (int i = 0; i < this.columns.length; i++) {
+            Object value = i < row.size() ? row.get(i) : null;
+            //不解析字符串时,字符串单元格只能以字符串存储
+            boolean textOnly = value instanceof String && !this.parseText &&
+                    this.columns[i].getType() != ExcelColumnType.STRING;
+            if (textOnly || !this.columns[i].append(value)) {
+                this.columns[i] = this.promote(this.columns[i], value);
+            }
+        }
+        this.rowCount++;
+    }
+
+    /**
+     * 提升列的类型:整数列遇到小数时提升为{@link ExcelColumnType#DOUBLE},其他情况提升为{@link ExcelColumnType#STRING},
+     * 复制已有的值后追加value
+     *
+     * @param column 原来的列
+     * @param value  无法存储的值
+     * @return 提升后的列
+     */
+    private ExcelColumn promote(ExcelColumn column, Object value) {
+        ExcelColumnType type = column.getType() == ExcelColumnType.LONG && this.typeOf(value) == ExcelColumnType.DOUBLE ?
+                ExcelColumnType.DOUBLE : ExcelColumnType.STRING;
+        ExcelColumn promoted = ExcelColumn.create(column.getName(), type);
+        for (int row = 0; row < column.size(); row++) {
+            promoted.append(column.get(row));
+        }
+        promoted.append(value);
+        return promoted;
+    }
+}
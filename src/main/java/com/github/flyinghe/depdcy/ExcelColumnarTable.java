@@ -0,0 +1,125 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 按列存储的读取结果,由{@link ExcelColumnarBuilder}在{@link XLSReader}或{@link XLSXReader}解析时构建。
+ * 每一列按推断出的类型以基本类型数组存储(参考{@link ExcelColumn}),不再为每个数据行创建Map和包装对象,
+ * 适用于读取后需要按列计算的场景,需要按行访问时可通过{@link #getRow(int)}或{@link #rows()}按需生成行视图
+ * </p>
+ */
+public class ExcelColumnarTable {
+    //列结构
+    private final ExcelRowSchema schema;
+    //下标即列坐标
+    private final ExcelColumn[] columns;
+    //行数
+    private final int rowCount;
+
+    /**
+     * @param schema   列结构
+     * @param columns  所有列,下标即列坐标
+     * @param rowCount 行数
+     */
+    ExcelColumnarTable(ExcelRowSchema schema, ExcelColumn[] columns, int rowCount) {
+        this.schema = schema;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    public ExcelRowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 获取行数
+     *
+     * @return
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 获取列数
+     *
+     * @return
+     */
+    public int getColumnCount() {
+        return this.columns.length;
+    }
+
+    /**
+     * 获取所有列
+     *
+     * @return 不可修改的List, 下标即列坐标
+     */
+    public List<ExcelColumn> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(this.columns));
+    }
+
+    /**
+     * 获取指定列坐标的列
+     *
+     * @param index 列坐标,0-based
+     * @return
+     */
+    public ExcelColumn getColumn(int index) {
+        return this.columns[index];
+    }
+
+    /**
+     * 获取指定列名的列
+     *
+     * @param name 列名
+     * @return 不存在时返回null
+     */
+    public ExcelColumn getColumn(String name) {
+        int index = this.schema == null ? -1 : this.schema.indexOf(name);
+        return index < 0 ? null : this.columns[index];
+    }
+
+    /**
+     * 获取指定行的行视图,每次调用都会生成新的{@link ExcelRow}
+     *
+     * @param row 行坐标,0-based,即第几个数据行
+     * @return
+     */
+    public ExcelRow getRow(int row) {
+        if (row < 0 || row >= this.rowCount) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", Size: " + this.rowCount);
+        }
+        Object[] values = new Object[this.columns.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.columns[i].get(row);
+        }
+        return new ExcelRow(this.schema, values);
+    }
+
+    /**
+     * 以List的形式按行访问,只在访问某一行时才生成该行的行视图
+     *
+     * @return 不可修改的List
+     */
+    public List<ExcelRow> rows() {
+        return new AbstractList<ExcelRow>() {
+            @Override
+            public ExcelRow get(int index) {
+                return ExcelColumnarTable.this.getRow(index);
+            }
+
+            @Override
+            public int size() {
+                return ExcelColumnarTable.this.rowCount;
+            }
+        };
+    }
+}
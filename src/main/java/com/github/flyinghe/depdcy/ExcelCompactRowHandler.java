@@ -0,0 +1,25 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link XLSReader}和{@link XLSXReader}提供以{@link ExcelRow}逐行处理数据行的回调函数,
+ * 设置此回调函数后数据行不会再放入datas中
+ */
+public interface ExcelCompactRowHandler {
+    /**
+     * 每解析完一个非空数据行(即不包括所有sheet的第0行和第一行等标题行以及所有空行)时调用此函数
+     *
+     * @param currentSheetInExcel 当前sheet坐标，0-based
+     * @param currentRowInSheet   当前sheet的当前行坐标，0-based
+     * @param row                 该数据行的数据,所有数据行复用同一个对象,只在此函数执行期间有效,
+     *                            若需要保留数据请调用{@link ReusableExcelRow#copy()}
+     * @return true表示继续解析, false表示停止解析整个Excel文档
+     * @throws ReadExcelException
+     */
+    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+            throws ReadExcelException;
+}
@@ -0,0 +1,21 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.ExcelBatchImporter;
+
+import java.io.File;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link ExcelBatchImporter}的每一个文件创建处理其数据行的回调函数
+ */
+public interface ExcelHandlerFactory {
+    /**
+     * 为一个文件创建回调函数,在读取该文件的线程中调用,
+     * 同一个文件的回调函数只会在一个线程中按顺序调用,不同文件的回调函数会被并发调用
+     *
+     * @param file 被读取的文件
+     * @return 处理该文件每一批数据行的回调函数, 为null表示只读取不处理
+     * @throws Exception 抛出异常时该文件视为读取失败,不影响其他文件
+     */
+    public ExcelHandler createHandler(File file) throws Exception;
+}
@@ -0,0 +1,72 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.ExcelBatchImporter;
+
+import java.io.File;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * {@link ExcelBatchImporter}读取一个文件的结果
+ */
+public class ExcelImportResult {
+    //被读取的文件
+    private final File file;
+    //文件的真实格式,ExcelReader.XLSX或ExcelReader.XLS,未识别时为0
+    private final int format;
+    //已交给回调函数处理的数据行数
+    private final long rowCount;
+    //读取该文件的耗时(不包括等待内存配额的时间),单位毫秒
+    private final long elapsedMillis;
+    //读取失败的原因,为null表示读取成功
+    private final Exception error;
+
+    /**
+     * @param file          被读取的文件
+     * @param format        文件的真实格式,未识别时为0
+     * @param rowCount      已交给回调函数处理的数据行数
+     * @param elapsedMillis 读取该文件的耗时,单位毫秒
+     * @param error         读取失败的原因,为null表示读取成功
+     */
+    public ExcelImportResult(File file, int format, long rowCount, long elapsedMillis, Exception error) {
+        this.file = file;
+        this.format = format;
+        this.rowCount = rowCount;
+        this.elapsedMillis = elapsedMillis;
+        this.error = error;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * 判断是否读取成功
+     *
+     * @return
+     */
+    public boolean isSuccess() {
+        return this.error == null;
+    }
+
+    @Override
+    public String toString() {
+        return "ExcelImportResult{file=" + this.file + ", format=" + this.format + ", rowCount=" + this.rowCount +
+                ", elapsedMillis=" + this.elapsedMillis + ", error=" + this.error + '}';
+    }
+}
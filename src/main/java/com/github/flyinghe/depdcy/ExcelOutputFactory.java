@@ -0,0 +1,20 @@
+package com.github.flyinghe.depdcy;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口为{@link ExcelTextConverter}的每一个Sheet创建输出流,即每个Sheet输出到一个单独的文件
+ */
+public interface ExcelOutputFactory {
+    /**
+     * 在该Sheet的第一个数据行输出前调用,没有数据行的Sheet不会调用,
+     * 返回的输出流在该Sheet输出完毕后由{@link ExcelTextConverter}关闭
+     *
+     * @param currentSheetInExcel Sheet坐标,0-based
+     * @return 该Sheet的输出流
+     * @throws IOException
+     */
+    public OutputStream createOutput(int currentSheetInExcel) throws IOException;
+}
@@ -0,0 +1,192 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 流水线方式处理{@link XLSReader}和{@link XLSXReader}读取的数据行:解析线程每读取limit行,
+ * 就将这一批数据行放入一个有界队列后继续解析,由若干个消费线程从队列中取出并交给consumer处理(如批量插入数据库),
+ * 使解析与处理同时进行。
+ * 注意:
+ * 1.每一批数据行的所有权会交给consumer,读取器不会再清空复用此List,而是为下一批创建新的List;
+ * 2.consumer会被多个消费线程并发调用,必须是线程安全的,且各批的处理顺序不确定;
+ * 3.队列满时解析线程会等待,即解析的速度不会超过处理的速度太多,内存占用最多为(队列大小+消费线程数+1)批;
+ * 4.任意一个consumer抛出异常时,队列中未处理的批次会被丢弃,解析线程在下一次放入时抛出异常从而停止解析;
+ * 5.解析结束(包括抛出异常)后必须调用{@link #finish()}等待所有批次处理完毕。
+ * </p>
+ */
+public class ExcelPipeline implements ExcelHandler {
+    /**
+     * 默认队列大小
+     */
+    public static final int DEFAULT_QUEUE_SIZE = 4;
+    //标识没有更多批次
+    private static final Batch END = new Batch(-1, -1, -1, -1, -1, null, null, null);
+    //处理每一批数据行的回调函数
+    private final ExcelHandler consumer;
+    //解析线程与消费线程之间的队列
+    private final BlockingQueue<Batch> queue;
+    //消费线程
+    private final Thread[] workers;
+    //第一个consumer抛出的异常
+    private volatile Throwable error;
+    //为true表示已取消,消费线程不再处理新的批次
+    private volatile boolean cancelled = false;
+
+    /**
+     * @param consumer  处理每一批数据行的回调函数,必须是线程安全的
+     * @param consumers 消费线程数,&lt;=0表示1
+     * @param queueSize 队列大小,&lt;=0表示使用默认值{@link #DEFAULT_QUEUE_SIZE}
+     */
+    public ExcelPipeline(ExcelHandler consumer, int consumers, int queueSize) {
+        this.consumer = consumer;
+        this.queue = new ArrayBlockingQueue<Batch>(queueSize > 0 ? queueSize : DEFAULT_QUEUE_SIZE);
+        this.workers = new Thread[consumers > 0 ? consumers : 1];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ExcelPipeline.this.consume();
+                }
+            }, "ExcelPipeline-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * 在解析线程中调用,将一批数据行放入队列,队列满时等待
+     */
+    @Override
+    public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet, int realRowInExcel,
+                         int allSheetInExcel, List<String> titles, List<String> columns,
+                         List<Map<String, Object>> datas) throws ReadExcelException {
+        Batch batch = new Batch(currentRowInSheet, currentSheetInExcel, realRowInSheet, realRowInExcel,
+                allSheetInExcel, titles, columns, datas);
+        try {
+            do {
+                this.checkState();
+            } while (!this.queue.offer(batch, 100, TimeUnit.MILLISECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.cancel();
+            throw new ReadExcelException(e.getMessage());
+        }
+    }
+
+    /**
+     * 消费线程:逐个取出批次交给consumer处理,直到取到{@link #END}或已取消
+     */
+    private void consume() {
+        try {
+            while (true) {
+                Batch batch = this.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (this.cancelled || batch == END) {
+                    return;
+                }
+                if (batch != null) {
+                    this.consumer.callback(batch.currentRowInSheet, batch.currentSheetInExcel, batch.realRowInSheet,
+                            batch.realRowInExcel, batch.allSheetInExcel, batch.titles, batch.columns, batch.datas);
+                }
+            }
+        } catch (Throwable e) {
+            this.fail(e);
+        }
+    }
+
+    /**
+     * 记录第一个异常并取消
+     *
+     * @param e
+     */
+    private synchronized void fail(Throwable e) {
+        if (this.error == null) {
+            this.error = e;
+        }
+        this.cancel();
+    }
+
+    /**
+     * 若consumer已抛出异常或已取消则抛出异常,使解析线程停止解析
+     *
+     * @throws ReadExcelException
+     */
+    private void checkState() throws ReadExcelException {
+        if (this.error != null) {
+            throw new ReadExcelException(this.error.getMessage(), this.error);
+        }
+        if (this.cancelled) {
+            throw new ReadExcelException("ExcelPipeline has been cancelled");
+        }
+    }
+
+    /**
+     * 取消处理,丢弃队列中未处理的批次,正在处理的批次不受影响,
+     * 之后解析线程放入批次时会抛出异常
+     */
+    public void cancel() {
+        this.cancelled = true;
+        this.queue.clear();
+    }
+
+    /**
+     * 解析结束后调用,等待队列中所有批次处理完毕并结束所有消费线程
+     *
+     * @throws ReadExcelException 若有consumer抛出了异常则抛出第一个异常
+     */
+    public void finish() throws ReadExcelException {
+        try {
+            for (int i = 0; i < this.workers.length; i++) {
+                while (!this.cancelled && !this.queue.offer(END, 100, TimeUnit.MILLISECONDS)) {
+                    //等待消费线程取出批次
+                }
+            }
+            for (Thread worker : this.workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.cancel();
+            throw new ReadExcelException(e.getMessage());
+        }
+        if (this.error != null) {
+            throw new ReadExcelException(this.error.getMessage(), this.error);
+        }
+    }
+
+    /**
+     * 一批数据行及调用回调函数时的参数
+     */
+    private static class Batch {
+        private final int currentRowInSheet;
+        private final int currentSheetInExcel;
+        private final int realRowInSheet;
+        private final int realRowInExcel;
+        private final int allSheetInExcel;
+        private final List<String> titles;
+        private final List<String> columns;
+        private final List<Map<String, Object>> datas;
+
+        private Batch(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet, int realRowInExcel,
+                      int allSheetInExcel, List<String> titles, List<String> columns,
+                      List<Map<String, Object>> datas) {
+            this.currentRowInSheet = currentRowInSheet;
+            this.currentSheetInExcel = currentSheetInExcel;
+            this.realRowInSheet = realRowInSheet;
+            this.realRowInExcel = realRowInExcel;
+            this.allSheetInExcel = allSheetInExcel;
+            this.titles = titles;
+            this.columns = columns;
+            this.datas = datas;
+        }
+    }
+}
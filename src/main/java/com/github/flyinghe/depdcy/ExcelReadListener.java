@@ -0,0 +1,22 @@
+package com.github.flyinghe.depdcy;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 此接口用于接收{@link ExcelReadMetrics}的读取进度,可将统计数据推送到监控系统
+ */
+public interface ExcelReadListener {
+    /**
+     * 每读取{@link ExcelReadMetrics#getReportInterval()}个数据行调用一次,
+     * 在解析线程中调用,并行解析多个Sheet时可能在不同线程中调用,但不会被并发调用
+     *
+     * @param metrics 读取中的统计数据
+     */
+    public void onProgress(ExcelReadMetrics metrics);
+
+    /**
+     * 读取结束(包括读取失败)时调用一次
+     *
+     * @param metrics 最终的统计数据
+     */
+    public void onFinish(ExcelReadMetrics metrics);
+}
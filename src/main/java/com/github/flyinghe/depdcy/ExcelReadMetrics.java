@@ -0,0 +1,287 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * {@link XLSXReader}和{@link XLSReader}读取时的统计数据:数据行数,单元格数,解压(xls为读取)的字节数,
+ * 各阶段耗时(解析,转换,回调),每秒读取的数据行数以及datas的最大批大小。
+ * 读取过程中可在任意线程中读取实时数据,读取结束后即为最终结果,也可通过{@link ExcelReadListener}定期接收。
+ * 各阶段耗时的含义:
+ * 1.转换:将单元格的值转换成Java对象(类型推断,四舍五入,放入数据行)的耗时;
+ * 2.回调:回调函数(ExcelHandler,ExcelRowHandler,ExcelCompactRowHandler)的耗时;
+ * 3.解析:总耗时减去转换和回调的耗时,即解压,XML或记录解析以及单元格格式化(DataFormatter)的耗时。
+ * 注意:并行解析时转换和回调的耗时是所有线程耗时之和,可能超过总耗时;
+ * 将Sheet切分成块并行解析时转换在解析线程中完成,不计入转换耗时;
+ * 未设置统计数据时读取器不做任何统计,没有额外的开销
+ * </p>
+ *
+ * @see XLSXReader#setMetrics(ExcelReadMetrics)
+ * @see XLSReader#setMetrics(ExcelReadMetrics)
+ */
+public class ExcelReadMetrics {
+    //默认每读取多少个数据行通知一次listener
+    public static final int DEFAULT_REPORT_INTERVAL = 10000;
+    //接收读取进度的listener,为null表示不通知
+    private final ExcelReadListener listener;
+    //每读取多少个数据行通知一次listener
+    private final int reportInterval;
+    //数据行数
+    private final AtomicLong rowCount = new AtomicLong();
+    //数据行中被转换的单元格数
+    private final AtomicLong cellCount = new AtomicLong();
+    //解压(xls为读取)的字节数
+    private final AtomicLong bytesInflated = new AtomicLong();
+    //转换的耗时,单位纳秒
+    private final AtomicLong convertNanos = new AtomicLong();
+    //回调的耗时,单位纳秒
+    private final AtomicLong callbackNanos = new AtomicLong();
+    //datas的最大批大小
+    private final AtomicInteger peakBatchSize = new AtomicInteger();
+    //已开始解析的Sheet数
+    private final AtomicInteger sheetCount = new AtomicInteger();
+    //下一次通知listener时的数据行数
+    private final AtomicLong nextReport = new AtomicLong();
+    //开始和结束读取的时间,单位纳秒
+    private volatile long startNanos;
+    private volatile long endNanos;
+    //0表示未开始,1表示正在读取,2表示读取结束
+    private volatile int state = 0;
+
+    public ExcelReadMetrics() {
+        this(null, DEFAULT_REPORT_INTERVAL);
+    }
+
+    /**
+     * @param listener       接收读取进度的listener,为null表示不通知
+     * @param reportInterval 每读取多少个数据行通知一次listener,必须&gt;0
+     */
+    public ExcelReadMetrics(ExcelReadListener listener, int reportInterval) {
+        if (reportInterval <= 0) {
+            throw new IllegalArgumentException("reportInterval must be greater than 0");
+        }
+        this.listener = listener;
+        this.reportInterval = reportInterval;
+    }
+
+    public ExcelReadListener getListener() {
+        return listener;
+    }
+
+    public int getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * 开始读取时由读取器调用,清空之前的统计数据
+     */
+    public void start() {
+        this.rowCount.set(0);
+        this.cellCount.set(0);
+        this.bytesInflated.set(0);
+        this.convertNanos.set(0);
+        this.callbackNanos.set(0);
+        this.peakBatchSize.set(0);
+        this.sheetCount.set(0);
+        this.nextReport.set(this.reportInterval);
+        this.endNanos = 0;
+        this.startNanos = System.nanoTime();
+        this.state = 1;
+    }
+
+    /**
+     * 读取结束(包括读取失败)时由读取器调用
+     */
+    public void finish() {
+        if (this.state != 1) {
+            return;
+        }
+        this.endNanos = System.nanoTime();
+        this.state = 2;
+        if (this.listener != null) {
+            this.listener.onFinish(this);
+        }
+    }
+
+    /**
+     * 每解析完一行由读取器调用
+     *
+     * @param dataRow      是否是被读取的数据行
+     * @param cells        该行被转换的单元格数
+     * @param convertNanos 该行转换的耗时,单位纳秒
+     */
+    public void recordRow(boolean dataRow, int cells, long convertNanos) {
+        if (cells > 0) {
+            this.cellCount.addAndGet(cells);
+        }
+        if (convertNanos > 0) {
+            this.convertNanos.addAndGet(convertNanos);
+        }
+        if (!dataRow) {
+            return;
+        }
+        long rows = this.rowCount.incrementAndGet();
+        long next = this.nextReport.get();
+        if (this.listener != null && rows >= next && this.nextReport.compareAndSet(next, next + this.reportInterval)) {
+            synchronized (this) {
+                this.listener.onProgress(this);
+            }
+        }
+    }
+
+    /**
+     * 每次调用回调函数后由读取器调用
+     *
+     * @param nanos     回调的耗时,单位纳秒
+     * @param batchSize 交给回调函数的数据行数,逐行处理时为0
+     */
+    public void recordCallback(long nanos, int batchSize) {
+        this.callbackNanos.addAndGet(nanos);
+        this.recordBatchSize(batchSize);
+    }
+
+    /**
+     * 记录datas的批大小,保留最大值
+     *
+     * @param batchSize datas中的数据行数
+     */
+    public void recordBatchSize(int batchSize) {
+        int peak;
+        while (batchSize > (peak = this.peakBatchSize.get())) {
+            if (this.peakBatchSize.compareAndSet(peak, batchSize)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * 每开始解析一个Sheet由读取器调用
+     */
+    public void recordSheet() {
+        this.sheetCount.incrementAndGet();
+    }
+
+    /**
+     * 包装解压后的输入流,统计从中读取的字节数
+     *
+     * @param in 解压后的输入流
+     * @return
+     */
+    public InputStream countBytes(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b >= 0) {
+                    ExcelReadMetrics.this.bytesInflated.incrementAndGet();
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    ExcelReadMetrics.this.bytesInflated.addAndGet(n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                long skipped = super.skip(n);
+                if (skipped > 0) {
+                    ExcelReadMetrics.this.bytesInflated.addAndGet(skipped);
+                }
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * 判断读取是否已结束
+     *
+     * @return
+     */
+    public boolean isFinished() {
+        return this.state == 2;
+    }
+
+    public long getRowCount() {
+        return this.rowCount.get();
+    }
+
+    public long getCellCount() {
+        return this.cellCount.get();
+    }
+
+    public long getBytesInflated() {
+        return this.bytesInflated.get();
+    }
+
+    public int getSheetCount() {
+        return this.sheetCount.get();
+    }
+
+    public int getPeakBatchSize() {
+        return this.peakBatchSize.get();
+    }
+
+    /**
+     * 获取总耗时,读取中为已经过的时间
+     *
+     * @return 单位纳秒, 未开始时返回0
+     */
+    public long getElapsedNanos() {
+        int state = this.state;
+        if (state == 0) {
+            return 0L;
+        }
+        return (state == 2 ? this.endNanos : System.nanoTime()) - this.startNanos;
+    }
+
+    public long getConvertNanos() {
+        return this.convertNanos.get();
+    }
+
+    public long getCallbackNanos() {
+        return this.callbackNanos.get();
+    }
+
+    /**
+     * 获取解析的耗时,即总耗时减去转换和回调的耗时
+     *
+     * @return 单位纳秒
+     */
+    public long getParseNanos() {
+        return Math.max(0L, this.getElapsedNanos() - this.getConvertNanos() - this.getCallbackNanos());
+    }
+
+    /**
+     * 获取每秒读取的数据行数
+     *
+     * @return
+     */
+    public double getRowsPerSecond() {
+        long elapsed = this.getElapsedNanos();
+        return elapsed <= 0 ? 0D : this.getRowCount() * 1000000000D / elapsed;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ExcelReadMetrics{rows=%d, cells=%d, sheets=%d, bytesInflated=%d, elapsed=%dms, " +
+                        "parse=%dms, convert=%dms, callback=%dms, rowsPerSecond=%.1f, peakBatchSize=%d, finished=%s}",
+                this.getRowCount(), this.getCellCount(), this.getSheetCount(), this.getBytesInflated(),
+                this.getElapsedNanos() / 1000000, this.getParseNanos() / 1000000, this.getConvertNanos() / 1000000,
+                this.getCallbackNanos() / 1000000, this.getRowsPerSecond(), this.getPeakBatchSize(),
+                this.isFinished());
+    }
+}
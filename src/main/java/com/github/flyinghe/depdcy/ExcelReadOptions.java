@@ -0,0 +1,259 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * {@link XLSReader}和{@link XLSXReader}的读取选项,用于只读取需要的Sheet,列和行,
+ * 不需要的部分会在解析时尽早跳过(不做任何值的转换),达到最大行数后立即停止解析,
+ * 不满足过滤条件的数据行在交给调用者之前被丢弃。
+ * 注意:标题行和列名行取自第一个被读取的Sheet
+ */
+public class ExcelReadOptions {
+    //需要读取的Sheet坐标,0-based,为null表示不按坐标选择
+    private Set<Integer> sheetIndexes;
+    //需要读取的Sheet名称,为null表示不按名称选择
+    private Set<String> sheetNames;
+    //需要读取的列名,为null表示读取所有列
+    private Set<String> columns;
+    //每个Sheet中从哪一行开始读取(0-based,与currentRowInSheet一致,包括标题行和列名行),<0表示不限制
+    private int startRow = -1;
+    //每个Sheet中读取到哪一行为止(0-based,包含此行),<0表示不限制
+    private int endRow = -1;
+    //整个Excel文档最多读取多少数据行,<=0表示不限制
+    private int maxRows = -1;
+    //数据行的过滤条件,key为列名,所有条件均满足的数据行才会被读取,为null表示不过滤
+    private Map<String, ExcelCellPredicate> filters;
+
+    public Set<Integer> getSheetIndexes() {
+        return sheetIndexes;
+    }
+
+    /**
+     * 设置需要读取的Sheet坐标,与{@link #sheetNames}同时设置时两者满足其一即读取
+     *
+     * @param sheetIndexes Sheet坐标,0-based,为null表示不按坐标选择
+     */
+    public void setSheetIndexes(Collection<Integer> sheetIndexes) {
+        this.sheetIndexes = sheetIndexes == null ? null : new HashSet<Integer>(sheetIndexes);
+    }
+
+    public Set<String> getSheetNames() {
+        return sheetNames;
+    }
+
+    /**
+     * 设置需要读取的Sheet名称,与{@link #sheetIndexes}同时设置时两者满足其一即读取
+     *
+     * @param sheetNames Sheet名称,为null表示不按名称选择
+     */
+    public void setSheetNames(Collection<String> sheetNames) {
+        this.sheetNames = sheetNames == null ? null : new HashSet<String>(sheetNames);
+    }
+
+    public Set<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * 设置需要读取的列名,其他列的单元格会在转换前被丢弃
+     *
+     * @param columns 列名,为null表示读取所有列
+     */
+    public void setColumns(Collection<String> columns) {
+        this.columns = columns == null ? null : new HashSet<String>(columns);
+    }
+
+    public int getStartRow() {
+        return startRow;
+    }
+
+    /**
+     * 设置每个Sheet中从哪一行开始读取,标题行和列名行总是会被读取
+     *
+     * @param startRow 行坐标,0-based,与currentRowInSheet一致,&lt;0表示不限制
+     */
+    public void setStartRow(int startRow) {
+        this.startRow = startRow;
+    }
+
+    public int getEndRow() {
+        return endRow;
+    }
+
+    /**
+     * 设置每个Sheet中读取到哪一行为止,超过此行后立即停止解析该Sheet
+     *
+     * @param endRow 行坐标,0-based,包含此行,&lt;0表示不限制
+     */
+    public void setEndRow(int endRow) {
+        this.endRow = endRow;
+    }
+
+    public int getMaxRows() {
+        return maxRows;
+    }
+
+    /**
+     * 设置整个Excel文档最多读取多少数据行(非空数据行),达到后立即停止解析整个Excel文档
+     *
+     * @param maxRows 最大行数,&lt;=0表示不限制
+     */
+    public void setMaxRows(int maxRows) {
+        this.maxRows = maxRows;
+    }
+
+    public Map<String, ExcelCellPredicate> getFilters() {
+        return filters;
+    }
+
+    /**
+     * 添加数据行的过滤条件,同一列添加多个条件时需全部满足,不同列的条件也需全部满足。
+     * 条件在单元格的值生成后立即求值,不满足时该行剩余的单元格不再转换,
+     * 整行不会被放入datas或交给回调函数,也不计入realRowInSheet和realRowInExcel。
+     * 注意:
+     * 1.过滤条件的列总是会被读取,不受{@link #columns}的限制,但未选择的列仍会出现在数据行中;
+     * 2.列名行中不存在的列视为该列的单元格都为空,即每一行都以null求值;
+     * 3.单元格为空时以null求值。
+     *
+     * @param column    列名
+     * @param predicate 过滤条件
+     */
+    public void addFilter(String column, final ExcelCellPredicate predicate) {
+        if (this.filters == null) {
+            this.filters = new LinkedHashMap<String, ExcelCellPredicate>();
+        }
+        final ExcelCellPredicate existing = this.filters.get(column);
+        if (existing == null) {
+            this.filters.put(column, predicate);
+        } else {
+            this.filters.put(column, new ExcelCellPredicate() {
+                @Override
+                public boolean test(Object value) {
+                    return existing.test(value) && predicate.test(value);
+                }
+            });
+        }
+    }
+
+    /**
+     * 判断是否设置了过滤条件
+     *
+     * @return
+     */
+    public boolean hasFilters() {
+        return this.filters != null && !this.filters.isEmpty();
+    }
+
+    /**
+     * 判断是否需要读取指定的Sheet
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @param sheetName  Sheet名称
+     * @return
+     */
+    public boolean isSheetSelected(int sheetIndex, String sheetName) {
+        if (this.sheetIndexes == null && this.sheetNames == null) {
+            return true;
+        }
+        return (this.sheetIndexes != null && this.sheetIndexes.contains(sheetIndex)) ||
+                (this.sheetNames != null && this.sheetNames.contains(sheetName));
+    }
+
+    /**
+     * 判断是否需要读取指定的列
+     *
+     * @param column 列名
+     * @return
+     */
+    public boolean isColumnSelected(String column) {
+        return this.columns == null || this.columns.contains(column);
+    }
+
+    /**
+     * 判断是否需要读取指定的行,标题行和列名行总是需要读取
+     *
+     * @param rowInSheet 行坐标,0-based
+     * @return
+     */
+    public boolean isRowSelected(int rowInSheet) {
+        return rowInSheet <= 1 ||
+                ((this.startRow < 0 || rowInSheet >= this.startRow) && (this.endRow < 0 || rowInSheet <= this.endRow));
+    }
+
+    /**
+     * 判断指定的行是否已经超过了需要读取的范围
+     *
+     * @param rowInSheet 行坐标,0-based
+     * @return
+     */
+    public boolean isAfterRange(int rowInSheet) {
+        return rowInSheet > 1 && this.endRow >= 0 && rowInSheet > this.endRow;
+    }
+
+    /**
+     * 根据列名行构建列的选择结果
+     *
+     * @param columns 列名行
+     * @return 下标为列坐标, 为true表示需要读取该列, 读取所有列时返回null
+     */
+    public boolean[] projection(List<String> columns) {
+        if (this.columns == null) {
+            return null;
+        }
+        boolean[] projection = new boolean[columns.size()];
+        for (int i = 0; i < projection.length; i++) {
+            projection[i] = this.columns.contains(columns.get(i)) ||
+                    (this.filters != null && this.filters.containsKey(columns.get(i)));
+        }
+        return projection;
+    }
+
+    /**
+     * 根据列名行构建过滤条件
+     *
+     * @param columns 列名行
+     * @return 下标为列坐标, 值为该列的过滤条件(可能为null), 没有过滤条件时返回null。
+     * 列名行中不存在的列的过滤条件合并到第0列的过滤条件中,每一行都以null求值
+     */
+    public ExcelCellPredicate[] filters(List<String> columns) {
+        if (!this.hasFilters()) {
+            return null;
+        }
+        ExcelCellPredicate[] filters = new ExcelCellPredicate[columns.size()];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = this.filters.get(columns.get(i));
+        }
+        final List<ExcelCellPredicate> missing = new ArrayList<ExcelCellPredicate>();
+        for (Map.Entry<String, ExcelCellPredicate> entry : this.filters.entrySet()) {
+            if (!columns.contains(entry.getKey())) {
+                missing.add(entry.getValue());
+            }
+        }
+        if (!missing.isEmpty() && filters.length > 0) {
+            //第0列的过滤条件对每一行都会求值一次(单元格为空时以null求值)
+            final ExcelCellPredicate first = filters[0];
+            filters[0] = new ExcelCellPredicate() {
+                @Override
+                public boolean test(Object value) {
+                    for (ExcelCellPredicate predicate : missing) {
+                        if (!predicate.test(null)) {
+                            return false;
+                        }
+                    }
+                    return first == null || first.test(value);
+                }
+            };
+        }
+        return filters;
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.flyinghe.depdcy;
+
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 紧凑的数据行,只使用一个按列坐标存放值的数组记录数据,列名由共享的{@link ExcelRowSchema}提供,
+ * 值为null表示该单元格为空。
+ * 此类的对象不可修改,可通过{@link #asMap()}以{@link Map}的形式访问
+ *
+ * @see ReusableExcelRow
+ */
+public class ExcelRow {
+    protected final ExcelRowSchema schema;
+    protected final Object[] values;
+
+    /**
+     * @param schema 列结构
+     * @param values 按列坐标存放的值,此数组不会被复制,调用者不应再修改它
+     */
+    public ExcelRow(ExcelRowSchema schema, Object[] values) {
+        this.schema = schema;
+        this.values = values;
+    }
+
+    public ExcelRowSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 获取列数
+     *
+     * @return
+     */
+    public int size() {
+        return this.values.length;
+    }
+
+    /**
+     * 获取指定列坐标的值
+     *
+     * @param index 列坐标,0-based
+     * @return 单元格为空则返回null
+     */
+    public Object get(int index) {
+        return this.values[index];
+    }
+
+    /**
+     * 获取指定列名的值
+     *
+     * @param column 列名
+     * @return 单元格为空或列名不存在则返回null
+     */
+    public Object get(String column) {
+        int index = this.schema.indexOf(column);
+        return index < 0 ? null : this.values[index];
+    }
+
+    /**
+     * 判断此行是否所有单元格均为空
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        for (Object value : this.values) {
+            if (value != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取此行的不可修改的副本,此类的对象本身即不可修改,直接返回自身
+     *
+     * @return
+     */
+    public ExcelRow copy() {
+        return this;
+    }
+
+    /**
+     * 以{@link Map}的形式访问此行,key为列名,只包含不为空的单元格,
+     * 与读取为Map时得到的数据相同。
+     * 返回的Map不可修改,且不会复制数据,对{@link ReusableExcelRow}而言只在该行被重用之前有效
+     *
+     * @return
+     */
+    public Map<String, Object> asMap() {
+        return new MapView();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ExcelRow)) {
+            return false;
+        }
+        ExcelRow other = (ExcelRow) o;
+        return this.schema.getColumns().equals(other.schema.getColumns()) &&
+                Arrays.equals(this.values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(this.values);
+    }
+
+    @Override
+    public String toString() {
+        return this.asMap().toString();
+    }
+
+    /**
+     * {@link ExcelRow}的Map视图
+     */
+    private class MapView extends AbstractMap<String, Object> {
+        @Override
+        public Object get(Object key) {
+            return key instanceof String ? ExcelRow.this.get((String) key) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return this.get(key) != null;
+        }
+
+        @Override
+        public Set<Entry<String, Object>> entrySet() {
+            return new AbstractSet<Entry<String, Object>>() {
+                @Override
+                public Iterator<Entry<String, Object>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (int i = 0; i < ExcelRow.this.values.length; i++) {
+                        if (ExcelRow.this.values[i] != null && !ExcelRow.this.schema.isShadowed(i)) {
+                            size++;
+                        }
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    /**
+     * 遍历不为空的单元格
+     */
+    private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+        private int next = this.advance(0);
+
+        private int advance(int from) {
+            while (from < ExcelRow.this.values.length &&
+                    (ExcelRow.this.values[from] == null || ExcelRow.this.schema.isShadowed(from))) {
+                from++;
+            }
+            return from;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.next < ExcelRow.this.values.length;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int index = this.next;
+            this.next = this.advance(index + 1);
+            return new AbstractMap.SimpleImmutableEntry<String, Object>(
+                    ExcelRow.this.schema.getColumn(index), ExcelRow.this.values[index]);
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.exception.ReadExcelRuntimeException;
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.io.Closeable;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 以拉取方式逐行读取Excel数据行的迭代器,由{@link XLSReader}和{@link XLSXReader}创建,
+ * 数据行可以是{@link Map}或者JavaBean等任意类型。
+ * 解析在指定的{@link Executor}(未指定时为共享的守护线程池)中进行,解析出的数据行放入一个有界缓冲区,
+ * 缓冲区满时解析线程会等待,即解析只会随着调用者的拉取而向前推进,内存占用与文件大小无关。
+ * 注意:使用完毕后应调用{@link #close()}(或关闭{@link #stream()}返回的流)以尽快释放文件;
+ * 若调用者未关闭就丢弃了此迭代器,解析线程会在此迭代器被回收后或等待超过最长空闲时间后停止解析并释放文件
+ * </p>
+ */
+public class ExcelRowIterator<E> implements Iterator<E>, Closeable {
+    /**
+     * 默认缓冲区大小
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 256;
+    /**
+     * 默认最长空闲时间(毫秒),缓冲区已满且调用者超过此时间未拉取数据时解析线程停止解析
+     */
+    public static final long DEFAULT_MAX_IDLE_MILLIS = 10L * 60 * 1000;
+    //标识解析结束
+    private static final Object END = new Object();
+    //未指定Executor时使用的共享线程池,线程为守护线程且空闲时自动回收
+    private static final ExecutorService SHARED_EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "ExcelRowIterator-" + this.count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+    //解析线程与调用者共享的状态,解析线程不持有此迭代器本身
+    private final Channel channel;
+    //下一个数据行,为null表示还未从缓冲区中取出
+    private Object next;
+
+    /**
+     * @param bufferSize 缓冲区大小,&lt;=0表示使用默认值{@link #DEFAULT_BUFFER_SIZE}
+     * @param source     数据行来源,在解析线程中执行
+     */
+    public ExcelRowIterator(int bufferSize, RowSource<E> source) {
+        this(bufferSize, source, null);
+    }
+
+    /**
+     * @param bufferSize 缓冲区大小,&lt;=0表示使用默认值{@link #DEFAULT_BUFFER_SIZE}
+     * @param source     数据行来源,在解析线程中执行
+     * @param executor   执行解析的{@link Executor},为null表示使用共享的守护线程池
+     */
+    public ExcelRowIterator(int bufferSize, RowSource<E> source, Executor executor) {
+        this(bufferSize, source, executor, DEFAULT_MAX_IDLE_MILLIS);
+    }
+
+    /**
+     * @param bufferSize    缓冲区大小,&lt;=0表示使用默认值{@link #DEFAULT_BUFFER_SIZE}
+     * @param source        数据行来源,在解析线程中执行
+     * @param executor      执行解析的{@link Executor},为null表示使用共享的守护线程池
+     * @param maxIdleMillis 最长空闲时间(毫秒),缓冲区已满且调用者超过此时间未拉取数据时解析线程停止解析,
+     *                      此后调用者拉取完缓冲区中的数据时会抛出异常,&lt;=0表示不限制
+     */
+    public ExcelRowIterator(int bufferSize, RowSource<E> source, Executor executor, long maxIdleMillis) {
+        this.channel = new Channel(bufferSize > 0 ? bufferSize : DEFAULT_BUFFER_SIZE);
+        Producer<E> producer = new Producer<E>(this.channel, source, new WeakReference<Object>(this), maxIdleMillis);
+        (executor != null ? executor : SHARED_EXECUTOR).execute(producer);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null) {
+            if (this.channel.closed) {
+                return false;
+            }
+            try {
+                this.next = this.channel.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ReadExcelRuntimeException(e);
+            }
+        }
+        if (this.next == END) {
+            if (this.channel.error != null) {
+                Throwable e = this.channel.error;
+                this.channel.error = null;
+                throw new ReadExcelRuntimeException(e.getMessage(), e);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        E data = (E) this.next;
+        this.next = null;
+        return data;
+    }
+
+    /**
+     * 以{@link Stream}方式读取数据行,关闭此流会同时关闭此迭代器
+     *
+     * @return 数据行组成的流
+     */
+    public Stream<E> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(new Runnable() {
+            @Override
+            public void run() {
+                ExcelRowIterator.this.close();
+            }
+        });
+    }
+
+    /**
+     * 关闭此迭代器,解析线程会尽快停止解析并释放文件
+     */
+    @Override
+    public void close() {
+        this.channel.closed = true;
+        this.channel.buffer.clear();
+        //唤醒可能正在其他线程中等待数据的调用者
+        this.channel.buffer.offer(END);
+    }
+
+    /**
+     * 解析线程与调用者之间共享的状态
+     */
+    private static class Channel {
+        //解析线程与调用者之间的缓冲区
+        private final BlockingQueue<Object> buffer;
+        //调用者是否已关闭迭代器
+        private volatile boolean closed = false;
+        //解析线程中发生的异常
+        private volatile Throwable error;
+
+        private Channel(int bufferSize) {
+            this.buffer = new ArrayBlockingQueue<Object>(bufferSize);
+        }
+
+        /**
+         * 取出下一个数据行,解析结束时返回{@link #END}
+         */
+        private Object take() throws InterruptedException {
+            return this.buffer.take();
+        }
+    }
+
+    /**
+     * 解析任务,只通过弱引用感知迭代器,迭代器被丢弃回收后停止解析
+     */
+    private static class Producer<E> implements Runnable, RowSink<E> {
+        private final Channel channel;
+        private final RowSource<E> source;
+        private final WeakReference<Object> owner;
+        private final long maxIdleMillis;
+        //是否因等待超时或被中断而停止放入数据
+        private boolean aborted = false;
+
+        private Producer(Channel channel, RowSource<E> source, WeakReference<Object> owner, long maxIdleMillis) {
+            this.channel = channel;
+            this.source = source;
+            this.owner = owner;
+            this.maxIdleMillis = maxIdleMillis;
+        }
+
+        @Override
+        public void run() {
+            try {
+                this.source.read(this);
+            } catch (Throwable e) {
+                this.fail(e);
+            } finally {
+                if ((this.aborted || !this.offer(END)) && !this.channel.closed && this.owner.get() != null) {
+                    //等待超时或被中断,调用者之后仍可能拉取,此时已记录异常,丢弃缓冲区中的数据以放入END
+                    this.channel.buffer.clear();
+                    this.channel.buffer.offer(END);
+                }
+            }
+        }
+
+        /**
+         * 将数据放入缓冲区,缓冲区满时等待
+         *
+         * @param row 数据
+         * @return 调用者已关闭或丢弃迭代器, 或等待超过最长空闲时间时返回false
+         */
+        @Override
+        public boolean put(E row) {
+            return this.offer(row);
+        }
+
+        /**
+         * 将数据放入缓冲区,缓冲区满时等待,等待期间定期检查调用者是否已关闭或丢弃迭代器
+         *
+         * @param data 数据行或{@link #END}
+         * @return 调用者已关闭或丢弃迭代器, 或等待超过最长空闲时间, 或被中断时返回false
+         */
+        private boolean offer(Object data) {
+            long start = System.currentTimeMillis();
+            try {
+                while (!this.channel.closed && this.owner.get() != null) {
+                    if (this.channel.buffer.offer(data, 100, TimeUnit.MILLISECONDS)) {
+                        return true;
+                    }
+                    if (this.maxIdleMillis > 0 && System.currentTimeMillis() - start > this.maxIdleMillis) {
+                        this.aborted = true;
+                        this.fail(new ReadExcelException("等待调用者拉取数据超时,已停止解析"));
+                        return false;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                this.aborted = true;
+                this.fail(new ReadExcelException("解析线程被中断"));
+            }
+            return false;
+        }
+
+        /**
+         * 记录解析线程中发生的异常,只保留第一个
+         */
+        private void fail(Throwable e) {
+            if (this.channel.error == null) {
+                this.channel.error = e;
+            }
+        }
+    }
+
+    /**
+     * 数据行来源
+     */
+    public interface RowSource<E> {
+        /**
+         * 开始解析,将每一个数据行放入sink,sink返回false时应停止解析
+         *
+         * @param sink 接收数据行
+         * @throws ReadExcelException
+         */
+        public void read(RowSink<E> sink) throws ReadExcelException;
+    }
+
+    /**
+     * 接收解析出的数据行
+     */
+    public interface RowSink<E> {
+        /**
+         * 放入一个数据行,缓冲区满时等待
+         *
+         * @param row 数据行
+         * @return 调用者已关闭迭代器时返回false, 此时应停止解析
+         */
+        public boolean put(E row);
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 由列名行(第1行,0-based)构建的列结构,记录列名与列坐标的对应关系以及{@link ExcelSchema}中指定的列类型,
+ * 同一个Excel文档读取出的所有{@link ExcelRow}共享同一个此对象
+ *
+ * @see XLSReader
+ * @see XLSXReader
+ */
+public final class ExcelRowSchema {
+    //列名,下标即列坐标,0-based
+    private final String[] columns;
+    //列名到列坐标的映射,列名重复时指向最后一个同名列(与放入Map时后者覆盖前者一致)
+    private final Map<String, Integer> indexes;
+    //为true表示该列与后面的某一列同名,转换成Map时被后者覆盖
+    private final boolean[] shadowed;
+    //下标即列坐标,元素为ExcelSchema中指定的类型,为null表示未指定
+    private final Class<?>[] types;
+
+    /**
+     * @param columns 列名,下标即列坐标,0-based
+     */
+    public ExcelRowSchema(List<String> columns) {
+        this(columns, null);
+    }
+
+    /**
+     * @param columns 列名,下标即列坐标,0-based
+     * @param schema  使用者指定的列类型,为null表示所有列均未指定类型
+     */
+    public ExcelRowSchema(List<String> columns, ExcelSchema schema) {
+        this.columns = columns.toArray(new String[columns.size()]);
+        this.types = new Class<?>[this.columns.length];
+        if (schema != null) {
+            for (int i = 0; i < this.columns.length; i++) {
+                this.types[i] = schema.getType(this.columns[i]);
+            }
+        }
+        this.indexes = new HashMap<String, Integer>(this.columns.length * 4 / 3 + 1);
+        this.shadowed = new boolean[this.columns.length];
+        for (int i = 0; i < this.columns.length; i++) {
+            Integer old = this.indexes.put(this.columns[i], i);
+            if (old != null) {
+                this.shadowed[old] = true;
+            }
+        }
+    }
+
+    /**
+     * 获取列数
+     *
+     * @return
+     */
+    public int size() {
+        return this.columns.length;
+    }
+
+    /**
+     * 获取指定列坐标的列名
+     *
+     * @param index 列坐标,0-based
+     * @return
+     */
+    public String getColumn(int index) {
+        return this.columns[index];
+    }
+
+    /**
+     * 获取指定列名的列坐标
+     *
+     * @param column 列名
+     * @return 列坐标, 0-based, 不存在则返回-1
+     */
+    public int indexOf(String column) {
+        Integer index = this.indexes.get(column);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * 获取指定列坐标在{@link ExcelSchema}中指定的类型
+     *
+     * @param index 列坐标,0-based
+     * @return 未指定时返回null
+     */
+    public Class<?> getType(int index) {
+        return this.types[index];
+    }
+
+    /**
+     * 获取所有列名
+     *
+     * @return 不可修改的列名List
+     */
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(Arrays.asList(this.columns));
+    }
+
+    /**
+     * 判断该列转换成Map时是否被后面的同名列覆盖
+     *
+     * @param index 列坐标,0-based
+     * @return
+     */
+    boolean isShadowed(int index) {
+        return this.shadowed[index];
+    }
+}
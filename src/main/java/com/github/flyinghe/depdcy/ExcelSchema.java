@@ -0,0 +1,184 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+import org.apache.commons.lang3.time.DateFormatUtils;
+import org.apache.commons.lang3.time.DateUtils;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 由使用者指定的列类型,记录列名对应的Java类型和转换器,
+ * 读取时这些列的值直接交给转换器,不再推断类型(尝试解析日期,布尔值,数字),
+ * 没有指定的列仍按原来的方式推断类型。
+ * 内置转换器支持的类型:{@link String},{@link Integer},{@link Long},{@link Double},{@link BigDecimal},
+ * {@link Boolean}(及其基本类型)和{@link Date},数字类型只接受普通的十进制数字,不按区域格式猜测(如千分位逗号),
+ * 无法解析时视为转换失败,整数类型不允许有小数部分。
+ * 注意:转换器收到的值即未指定类型时用于推断类型的值,为格式化后的字符串或按类型生成的值
+ * (此时数值已按{@link XLSXReader#getScale()}四舍五入)
+ * </p>
+ *
+ * @see XLSXReader#setSchema(ExcelSchema)
+ */
+public class ExcelSchema {
+    private static final String[] DATE_PATTERNS = {"yyyy-MM-dd HH:mm:ss.S", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd"};
+    //内置转换器,key为类型
+    private static final Map<Class<?>, ExcelCellConverter> CONVERTERS = new HashMap<Class<?>, ExcelCellConverter>();
+    //列名对应的类型和转换器
+    private final Map<String, Class<?>> types = new LinkedHashMap<String, Class<?>>();
+    private final Map<String, ExcelCellConverter> converters = new HashMap<String, ExcelCellConverter>();
+
+    static {
+        ExcelCellConverter string = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                if (value instanceof Double) {
+                    return NumberToTextConverter.toText((Double) value);
+                } else if (value instanceof Date) {
+                    return DateFormatUtils.format((Date) value, DATE_PATTERNS[0]);
+                }
+                return value.toString();
+            }
+        };
+        ExcelCellConverter integer = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                return toBigDecimal(value).intValueExact();
+            }
+        };
+        ExcelCellConverter longValue = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                return toBigDecimal(value).longValueExact();
+            }
+        };
+        ExcelCellConverter doubleValue = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                return value instanceof Number ? ((Number) value).doubleValue() :
+                        Double.parseDouble(numberText(value));
+            }
+        };
+        ExcelCellConverter bigDecimal = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                return toBigDecimal(value);
+            }
+        };
+        ExcelCellConverter bool = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) {
+                if (value instanceof Boolean) {
+                    return value;
+                }
+                String text = value.toString().trim();
+                if ("true".equalsIgnoreCase(text)) {
+                    return Boolean.TRUE;
+                } else if ("false".equalsIgnoreCase(text)) {
+                    return Boolean.FALSE;
+                }
+                throw new IllegalArgumentException("Can not convert " + text + " to Boolean");
+            }
+        };
+        ExcelCellConverter date = new ExcelCellConverter() {
+            @Override
+            public Object convert(Object value) throws Exception {
+                if (value instanceof Date) {
+                    return value;
+                } else if (value instanceof Double) {
+                    return DateUtil.getJavaDate((Double) value);
+                }
+                return DateUtils.parseDate(value.toString().trim(), DATE_PATTERNS);
+            }
+        };
+        CONVERTERS.put(String.class, string);
+        CONVERTERS.put(Integer.class, integer);
+        CONVERTERS.put(int.class, integer);
+        CONVERTERS.put(Long.class, longValue);
+        CONVERTERS.put(long.class, longValue);
+        CONVERTERS.put(Double.class, doubleValue);
+        CONVERTERS.put(double.class, doubleValue);
+        CONVERTERS.put(BigDecimal.class, bigDecimal);
+        CONVERTERS.put(Boolean.class, bool);
+        CONVERTERS.put(boolean.class, bool);
+        CONVERTERS.put(Date.class, date);
+    }
+
+    /**
+     * 指定列的类型,使用内置转换器
+     *
+     * @param column 列名
+     * @param type   Java类型,必须是内置转换器支持的类型
+     */
+    public void addColumn(String column, Class<?> type) {
+        ExcelCellConverter converter = CONVERTERS.get(type);
+        if (converter == null) {
+            throw new IllegalArgumentException("No built-in converter for " + type.getName());
+        }
+        this.addColumn(column, type, converter);
+    }
+
+    /**
+     * 指定列的类型和转换器,同一列指定多次时后者覆盖前者
+     *
+     * @param column    列名
+     * @param type      Java类型,即转换器返回值的类型
+     * @param converter 转换器
+     */
+    public void addColumn(String column, Class<?> type, ExcelCellConverter converter) {
+        this.types.put(column, type);
+        this.converters.put(column, converter);
+    }
+
+    /**
+     * 获取所有指定了类型的列名
+     *
+     * @return
+     */
+    public Set<String> getColumns() {
+        return Collections.unmodifiableSet(this.types.keySet());
+    }
+
+    /**
+     * 获取指定列的类型
+     *
+     * @param column 列名
+     * @return 未指定时返回null
+     */
+    public Class<?> getType(String column) {
+        return this.types.get(column);
+    }
+
+    /**
+     * 获取指定列的转换器
+     *
+     * @param column 列名
+     * @return 未指定时返回null
+     */
+    public ExcelCellConverter getConverter(String column) {
+        return this.converters.get(column);
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value instanceof Double) {
+            return BigDecimal.valueOf((Double) value);
+        } else if (value instanceof BigDecimal) {
+            return (BigDecimal) value;
+        }
+        return new BigDecimal(numberText(value));
+    }
+
+    /**
+     * 获取数字的字符串形式,去掉空白,逗号等区域格式原样保留,解析时视为非数字
+     *
+     * @param value
+     * @return
+     */
+    private static String numberText(Object value) {
+        return value.toString().trim();
+    }
+}
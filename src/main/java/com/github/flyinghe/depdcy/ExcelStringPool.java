@@ -0,0 +1,91 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 按列划分的有界字符串池,同一列中内容相同的字符串值共享同一个String实例,
+ * 用于减少读取结果中重复出现的字符串(地区,币种,状态等取值很少的列)占用的内存。
+ * 每列最多记录{@link #getMaxSize()}个不同的字符串,超过后该列新出现的字符串不再放入池中而是原样返回,
+ * 因此取值很多的列(编号,名称等)最多只占用有限的内存。
+ * 注意:此类不是线程安全的
+ * </p>
+ *
+ * @see XLSXReader#setInternStrings(boolean)
+ */
+public class ExcelStringPool {
+    //默认每列最多记录的不同字符串个数
+    public static final int DEFAULT_MAX_SIZE = 1024;
+    //每列最多记录的不同字符串个数
+    private final int maxSize;
+    //下标为列坐标,元素为null表示该列还没有字符串
+    private final List<Map<String, String>> pools = new ArrayList<Map<String, String>>();
+
+    public ExcelStringPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize 每列最多记录的不同字符串个数,必须&gt;0
+     */
+    public ExcelStringPool(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be greater than 0");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * 获取指定列中与value内容相同的字符串实例
+     *
+     * @param column 列坐标,0-based
+     * @param value  字符串值
+     * @return 池中已有内容相同的字符串则返回该实例, 否则放入池中(未超过上限时)并返回value
+     */
+    public String intern(int column, String value) {
+        while (this.pools.size() <= column) {
+            this.pools.add(null);
+        }
+        Map<String, String> pool = this.pools.get(column);
+        if (pool == null) {
+            pool = new HashMap<String, String>();
+            this.pools.set(column, pool);
+        }
+        String pooled = pool.get(value);
+        if (pooled != null) {
+            return pooled;
+        }
+        if (pool.size() < this.maxSize) {
+            pool.put(value, value);
+        }
+        return value;
+    }
+
+    /**
+     * 获取指定列中记录的不同字符串个数
+     *
+     * @param column 列坐标,0-based
+     * @return
+     */
+    public int size(int column) {
+        Map<String, String> pool = column < this.pools.size() ? this.pools.get(column) : null;
+        return pool == null ? 0 : pool.size();
+    }
+
+    /**
+     * 清空所有列的字符串
+     */
+    public void clear() {
+        this.pools.clear();
+    }
+}
@@ -0,0 +1,413 @@
+package com.github.flyinghe.depdcy;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.tools.XLSXReader;
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.apache.poi.ss.util.NumberToTextConverter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 在{@link XLSXReader}解析的过程中把数据行直接输出成CSV或JSON Lines(每行一个JSON对象),不保留任何数据行,
+ * 内存占用与数据行数无关。所有Sheet可以输出到同一个输出流,也可以通过{@link ExcelOutputFactory}每个Sheet输出到一个输出流。
+ * 作为{@link ExcelCompactRowHandler}使用,所有数据行复用同一个{@link ReusableExcelRow},不会为每一行创建Map。
+ * 注意:
+ * 1.CSV按RFC 4180输出:含有分隔符,双引号或换行符的值用双引号括起来,值中的双引号写两次,直接写入缓冲区,
+ * 不为转义创建新的字符串;第一行为列名行(可关闭),空单元格输出为空;
+ * 2.JSON Lines使用Jackson的{@link JsonGenerator}流式输出,列名只转义一次,空单元格不输出该列;
+ * 3.整数值输出为不带小数点的整数,日期按{@link #getDatePattern()}格式化,布尔值输出为true或false;
+ * 4.输出到同一个输出流时所有Sheet共用第一个被读取的Sheet的列名行,CSV只输出一次列名行;
+ * 5.此类不是线程安全的,使用完毕后必须调用{@link #close()}把缓冲区中的内容写入输出流。
+ * </p>
+ *
+ * @see XLSXReader#readExcelToText(java.io.File, Integer, ExcelReadOptions, ExcelTextConverter)
+ */
+public class ExcelTextConverter implements ExcelCompactRowHandler, Closeable {
+    //输出CSV
+    public static final int CSV = 0;
+    //输出JSON Lines
+    public static final int JSON_LINES = 1;
+    //默认缓冲区大小,单位字符
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    //默认日期格式
+    public static final String DEFAULT_DATE_PATTERN = "yyyy-MM-dd HH:mm:ss";
+    //线程安全,所有对象共享,每个JSON对象后输出换行符而不是空格
+    private static final JsonFactory JSON_FACTORY = new JsonFactory()
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+    //整数值的上限,超过后double不能精确表示每一个整数
+    private static final double MAX_EXACT_LONG = 1L << 53;
+
+    //输出格式,CSV或JSON_LINES
+    private final int format;
+    //每个Sheet输出到一个输出流时使用,为null表示所有Sheet输出到同一个输出流
+    private final ExcelOutputFactory factory;
+    //所有Sheet输出到同一个输出流时使用,由调用者关闭
+    private final OutputStream stream;
+    private final Writer target;
+    //CSV的分隔符
+    private char delimiter = ',';
+    //CSV的换行符
+    private String lineSeparator = "\r\n";
+    //CSV是否输出列名行
+    private boolean header = true;
+    private String datePattern = DEFAULT_DATE_PATTERN;
+    private FastDateFormat dateFormat = FastDateFormat.getInstance(DEFAULT_DATE_PATTERN);
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    //当前输出的CSV,为null表示当前没有输出
+    private Writer writer;
+    //当前输出的JSON,为null表示当前没有输出
+    private JsonGenerator generator;
+    //当前输出是否需要由此类关闭
+    private Closeable output;
+    //当前输出是否已输出列名行
+    private boolean headerWritten;
+    //当前输出的Sheet坐标
+    private int currentSheet = -1;
+    //计算列名时使用的列结构,列结构改变时重新计算
+    private ExcelRowSchema schema;
+    //JSON的列名,只转义一次
+    private SerializedString[] fieldNames;
+    //已输出的数据行数
+    private long rowCount = 0;
+
+    /**
+     * 所有Sheet以UTF-8编码输出到同一个输出流,输出流由调用者关闭
+     *
+     * @param format 输出格式,{@link #CSV}或{@link #JSON_LINES}
+     * @param stream 输出流
+     */
+    public ExcelTextConverter(int format, OutputStream stream) {
+        this(format, stream, null, null);
+    }
+
+    /**
+     * 所有Sheet输出到同一个字符流,字符流由调用者关闭
+     *
+     * @param format 输出格式,{@link #CSV}或{@link #JSON_LINES}
+     * @param target 字符流
+     */
+    public ExcelTextConverter(int format, Writer target) {
+        this(format, null, target, null);
+    }
+
+    /**
+     * 每个Sheet以UTF-8编码输出到一个输出流
+     *
+     * @param format  输出格式,{@link #CSV}或{@link #JSON_LINES}
+     * @param factory 为每一个Sheet创建输出流
+     */
+    public ExcelTextConverter(int format, ExcelOutputFactory factory) {
+        this(format, null, null, factory);
+    }
+
+    private ExcelTextConverter(int format, OutputStream stream, Writer target, ExcelOutputFactory factory) {
+        if (format != CSV && format != JSON_LINES) {
+            throw new IllegalArgumentException("Unsupported format " + format);
+        }
+        this.format = format;
+        this.stream = stream;
+        this.target = target;
+        this.factory = factory;
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public char getDelimiter() {
+        return delimiter;
+    }
+
+    /**
+     * 设置CSV的分隔符,默认为逗号
+     *
+     * @param delimiter 分隔符,不能是双引号或换行符
+     */
+    public void setDelimiter(char delimiter) {
+        if (delimiter == '"' || delimiter == '\r' || delimiter == '\n') {
+            throw new IllegalArgumentException("Illegal delimiter " + delimiter);
+        }
+        this.delimiter = delimiter;
+    }
+
+    public String getLineSeparator() {
+        return lineSeparator;
+    }
+
+    /**
+     * 设置CSV的换行符,默认为"\r\n"
+     *
+     * @param lineSeparator 换行符
+     */
+    public void setLineSeparator(String lineSeparator) {
+        this.lineSeparator = lineSeparator;
+    }
+
+    public boolean isHeader() {
+        return header;
+    }
+
+    /**
+     * 设置CSV是否输出列名行,默认输出
+     *
+     * @param header 是否输出列名行
+     */
+    public void setHeader(boolean header) {
+        this.header = header;
+    }
+
+    public String getDatePattern() {
+        return datePattern;
+    }
+
+    /**
+     * 设置日期的格式,默认为{@link #DEFAULT_DATE_PATTERN}
+     *
+     * @param datePattern 日期格式
+     */
+    public void setDatePattern(String datePattern) {
+        this.dateFormat = FastDateFormat.getInstance(datePattern);
+        this.datePattern = datePattern;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * 设置CSV输出缓冲区的大小,默认为{@link #DEFAULT_BUFFER_SIZE},JSON使用Jackson自己的缓冲区
+     *
+     * @param bufferSize 缓冲区大小,单位字符,必须&gt;0
+     */
+    public void setBufferSize(int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("bufferSize must be greater than 0");
+        }
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * 获取已输出的数据行数
+     *
+     * @return
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+            throws ReadExcelException {
+        try {
+            if (row.getSchema() != this.schema) {
+                this.resolve(row.getSchema());
+            }
+            if (this.factory != null && currentSheetInExcel != this.currentSheet) {
+                //上一个Sheet输出完毕
+                this.closeOutput();
+            }
+            if (this.writer == null && this.generator == null) {
+                this.openOutput(currentSheetInExcel);
+            }
+            this.currentSheet = currentSheetInExcel;
+            if (this.format == CSV) {
+                this.writeCsvRow(row);
+            } else {
+                this.writeJsonRow(row);
+            }
+            this.rowCount++;
+        } catch (IOException e) {
+            throw new ReadExcelException(e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * 根据列结构计算JSON的列名
+     *
+     * @param schema 列结构
+     */
+    private void resolve(ExcelRowSchema schema) {
+        this.schema = schema;
+        this.fieldNames = new SerializedString[schema.size()];
+        for (int i = 0; i < this.fieldNames.length; i++) {
+            this.fieldNames[i] = new SerializedString(schema.getColumn(i));
+        }
+    }
+
+    /**
+     * 打开当前Sheet的输出,所有Sheet输出到同一个输出流时只打开一次
+     *
+     * @param currentSheetInExcel Sheet坐标,0-based
+     * @throws IOException
+     */
+    private void openOutput(int currentSheetInExcel) throws IOException {
+        OutputStream os = this.stream;
+        Writer w = this.target;
+        this.output = null;
+        if (this.factory != null) {
+            os = this.factory.createOutput(currentSheetInExcel);
+            this.output = os;
+        }
+        if (this.format == JSON_LINES) {
+            this.generator = os != null ? JSON_FACTORY.createGenerator(os, JsonEncoding.UTF8) :
+                    JSON_FACTORY.createGenerator(w);
+        } else if (os != null) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(os, StandardCharsets.UTF_8), this.bufferSize);
+        } else {
+            this.writer = w instanceof BufferedWriter ? w : new BufferedWriter(w, this.bufferSize);
+        }
+        this.headerWritten = false;
+    }
+
+    /**
+     * 把当前输出的缓冲区写入输出流,由{@link #factory}创建的输出流同时关闭
+     *
+     * @throws IOException
+     */
+    private void closeOutput() throws IOException {
+        try {
+            if (this.generator != null) {
+                this.generator.close();
+            } else if (this.writer != null) {
+                this.writer.flush();
+            }
+        } finally {
+            this.generator = null;
+            this.writer = null;
+            if (this.output != null) {
+                Closeable output = this.output;
+                this.output = null;
+                output.close();
+            }
+        }
+    }
+
+    private void writeCsvRow(ReusableExcelRow row) throws IOException {
+        if (this.header && !this.headerWritten) {
+            for (int i = 0; i < this.schema.size(); i++) {
+                if (i > 0) {
+                    this.writer.write(this.delimiter);
+                }
+                this.writeCsvText(this.schema.getColumn(i));
+            }
+            this.writer.write(this.lineSeparator);
+            this.headerWritten = true;
+        }
+        for (int i = 0; i < row.size(); i++) {
+            if (i > 0) {
+                this.writer.write(this.delimiter);
+            }
+            Object value = row.get(i);
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Double) {
+                double d = (Double) value;
+                if (d == Math.rint(d) && Math.abs(d) < MAX_EXACT_LONG) {
+                    this.writer.write(Long.toString((long) d));
+                } else {
+                    this.writer.write(NumberToTextConverter.toText(d));
+                }
+            } else if (value instanceof Date) {
+                this.writeCsvText(this.dateFormat.format((Date) value));
+            } else if (value instanceof BigDecimal) {
+                this.writer.write(((BigDecimal) value).toPlainString());
+            } else if (value instanceof Number || value instanceof Boolean) {
+                this.writer.write(value.toString());
+            } else {
+                this.writeCsvText(value.toString());
+            }
+        }
+        this.writer.write(this.lineSeparator);
+    }
+
+    /**
+     * 输出CSV的一个值,需要时用双引号括起来并把值中的双引号写两次,直接分段写入缓冲区
+     *
+     * @param text 值
+     * @throws IOException
+     */
+    private void writeCsvText(String text) throws IOException {
+        int length = text.length();
+        boolean quote = false;
+        for (int i = 0; i < length && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == this.delimiter || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            this.writer.write(text, 0, length);
+            return;
+        }
+        this.writer.write('"');
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (text.charAt(i) == '"') {
+                //连同双引号一起写入,再补一个双引号
+                this.writer.write(text, start, i + 1 - start);
+                this.writer.write('"');
+                start = i + 1;
+            }
+        }
+        this.writer.write(text, start, length - start);
+        this.writer.write('"');
+    }
+
+    private void writeJsonRow(ReusableExcelRow row) throws IOException {
+        this.generator.writeStartObject();
+        for (int i = 0; i < row.size(); i++) {
+            Object value = row.get(i);
+            if (value == null) {
+                continue;
+            }
+            this.generator.writeFieldName(this.fieldNames[i]);
+            if (value instanceof Double) {
+                double d = (Double) value;
+                if (d == Math.rint(d) && Math.abs(d) < MAX_EXACT_LONG) {
+                    this.generator.writeNumber((long) d);
+                } else {
+                    this.generator.writeNumber(d);
+                }
+            } else if (value instanceof Date) {
+                this.generator.writeString(this.dateFormat.format((Date) value));
+            } else if (value instanceof Boolean) {
+                this.generator.writeBoolean((Boolean) value);
+            } else if (value instanceof BigDecimal) {
+                this.generator.writeNumber((BigDecimal) value);
+            } else if (value instanceof Integer || value instanceof Long) {
+                this.generator.writeNumber(((Number) value).longValue());
+            } else {
+                this.generator.writeString(value.toString());
+            }
+        }
+        this.generator.writeEndObject();
+        this.generator.writeRaw('\n');
+    }
+
+    /**
+     * 把缓冲区中的内容写入输出流,关闭由{@link ExcelOutputFactory}创建的输出流,
+     * 构造时传入的输出流只写入不关闭
+     *
+     * @throws IOException
+     */
+    @Override
+    public void close() throws IOException {
+        this.closeOutput();
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.flyinghe.depdcy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将检查点以Properties格式保存在本地文件中的{@link ExcelCheckpointStore},
+ * 保存时先写入同目录下的临时文件并强制刷入磁盘,再原子地替换原文件并刷新目录,
+ * 进程崩溃或断电时不会留下损坏的检查点
+ */
+public class FileCheckpointStore implements ExcelCheckpointStore {
+    private static final String SHEET_INDEX = "sheetIndex";
+    private static final String ROW_IN_SHEET = "rowInSheet";
+    private static final String REAL_ROW_IN_SHEET = "realRowInSheet";
+    private static final String REAL_ROW_IN_EXCEL = "realRowInExcel";
+    //检查点文件
+    private final Path file;
+
+    /**
+     * @param file 检查点文件,不存在表示没有检查点
+     */
+    public FileCheckpointStore(File file) {
+        this.file = file.toPath();
+    }
+
+    @Override
+    public ExcelCheckpoint load() throws IOException {
+        if (!Files.exists(this.file)) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(this.file)) {
+            properties.load(is);
+        }
+        try {
+            return new ExcelCheckpoint(Integer.parseInt(properties.getProperty(SHEET_INDEX)),
+                    Integer.parseInt(properties.getProperty(ROW_IN_SHEET)),
+                    Integer.parseInt(properties.getProperty(REAL_ROW_IN_SHEET)),
+                    Integer.parseInt(properties.getProperty(REAL_ROW_IN_EXCEL)));
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid checkpoint file " + this.file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void save(ExcelCheckpoint checkpoint) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(SHEET_INDEX, String.valueOf(checkpoint.getSheetIndex()));
+        properties.setProperty(ROW_IN_SHEET, String.valueOf(checkpoint.getRowInSheet()));
+        properties.setProperty(REAL_ROW_IN_SHEET, String.valueOf(checkpoint.getRealRowInSheet()));
+        properties.setProperty(REAL_ROW_IN_EXCEL, String.valueOf(checkpoint.getRealRowInExcel()));
+        Path dir = this.file.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(dir, this.file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                properties.store(Channels.newOutputStream(channel), null);
+                //替换原文件前确保内容已写入磁盘
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, this.file, StandardCopyOption.REPLACE_EXISTING);
+            }
+            forceDirectory(dir);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * 将目录的修改(即文件的替换)刷入磁盘,不支持打开目录的系统(如Windows)忽略
+     *
+     * @param dir 目录
+     */
+    private static void forceDirectory(Path dir) {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            //ignore
+        }
+    }
+
+    @Override
+    public void clear() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.flyinghe.depdcy;
+
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将所有共享字符串读入内存的{@link SharedStringsStore},即直接使用{@link ReadOnlySharedStringsTable}
+ */
+public class InMemorySharedStringsStore implements SharedStringsStore {
+    private final ReadOnlySharedStringsTable table;
+
+    public InMemorySharedStringsStore(ReadOnlySharedStringsTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public int getCount() {
+        return this.table.getUniqueCount();
+    }
+
+    @Override
+    public String getEntryAt(int idx) {
+        return this.table.getEntryAt(idx);
+    }
+
+    @Override
+    public void close() {
+        //do nothing
+    }
+}
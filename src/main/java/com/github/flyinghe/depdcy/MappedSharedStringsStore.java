@@ -0,0 +1,364 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将共享字符串写入临时文件并通过内存映射按需读取的{@link SharedStringsStore},
+ * 内存中只保留每个共享字符串在文件中的位置(偏移量和长度)以及每个线程一个较小的LRU缓存,
+ * 用于共享字符串表很大,全部读入内存会导致内存溢出的Excel文件。
+ * 读取时不加锁,每个线程使用各自的内存映射副本和LRU缓存,因此可以被并行解析的多个Sheet或分段共享。
+ * 解析方式与{@link org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable}一致(包含注音文本)
+ *
+ * @see XLSXReader#setSharedStringsSpillSize(long)
+ */
+public class MappedSharedStringsStore extends DefaultHandler implements SharedStringsStore {
+    //每段内存映射的最大字节数,单个字符串不会跨段存放
+    private static final long SEGMENT_SIZE = 1L << 30;
+    //默认LRU缓存的字符串个数
+    public static final int DEFAULT_CACHE_SIZE = 1024;
+    //按uniqueCount预分配位置数组时的最大长度,uniqueCount可能与实际字符串个数不符,超出部分在读取时按需扩容
+    private static final int MAX_PRESIZE_COUNT = 1 << 16;
+
+    //临时文件
+    private File file;
+    //写入临时文件的输出流,解析完毕后关闭
+    private OutputStream out;
+    //已写入临时文件的字节数
+    private long position = 0;
+    //每个字符串在临时文件中的起始位置
+    private long[] offsets = new long[1024];
+    //每个字符串的UTF-8字节数
+    private int[] lengths = new int[1024];
+    //字符串个数
+    private int count = 0;
+    //临时文件的内存映射,读取时使用每个线程各自的副本
+    private volatile MappedByteBuffer[] segments;
+    //每个线程LRU缓存的字符串个数,&lt;=0表示不缓存
+    private final int cacheSize;
+    //每个线程各自的内存映射副本和LRU缓存
+    private final ThreadLocal<SegmentReader> readers = new ThreadLocal<SegmentReader>() {
+        @Override
+        protected SegmentReader initialValue() {
+            SegmentReader reader =
+                    new SegmentReader(MappedSharedStringsStore.this.segments, MappedSharedStringsStore.this.cacheSize);
+            MappedSharedStringsStore.this.allReaders.add(reader);
+            if (MappedSharedStringsStore.this.segments == null) {
+                //创建期间本对象被关闭
+                MappedSharedStringsStore.this.allReaders.remove(reader);
+                reader.release();
+                throw new IllegalStateException("MappedSharedStringsStore已关闭");
+            }
+            return reader;
+        }
+    };
+    //所有线程创建过的内存映射副本和LRU缓存,关闭时全部释放
+    private final Set<SegmentReader> allReaders =
+            Collections.newSetFromMap(new ConcurrentHashMap<SegmentReader, Boolean>());
+
+    //解析时使用
+    private boolean tIsOpen;
+    private StringBuilder characters = new StringBuilder();
+
+    /**
+     * @param pkg       The XLSX package
+     * @param cacheSize 每个线程LRU缓存的字符串个数,&lt;=0表示不缓存
+     * @throws IOException
+     * @throws SAXException
+     */
+    public MappedSharedStringsStore(OPCPackage pkg, int cacheSize) throws IOException, SAXException {
+        this(firstPart(pkg), cacheSize);
+    }
+
+    /**
+     * @param part      sharedStrings.xml,为null表示没有共享字符串
+     * @param cacheSize 每个线程LRU缓存的字符串个数,&lt;=0表示不缓存
+     * @throws IOException
+     * @throws SAXException
+     */
+    public MappedSharedStringsStore(PackagePart part, int cacheSize) throws IOException, SAXException {
+        this.cacheSize = cacheSize;
+        this.file = File.createTempFile("sst", ".tmp");
+        this.file.deleteOnExit();
+        try {
+            if (part != null) {
+                InputStream is = part.getInputStream();
+                try {
+                    this.readFrom(is);
+                } finally {
+                    is.close();
+                }
+            }
+            this.map();
+        } catch (IOException | SAXException | RuntimeException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    private static PackagePart firstPart(OPCPackage pkg) {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        return parts.isEmpty() ? null : parts.get(0);
+    }
+
+    /**
+     * 解析共享字符串表并写入临时文件
+     *
+     * @param is sharedStrings.xml
+     * @throws IOException
+     * @throws SAXException
+     */
+    private void readFrom(InputStream is) throws IOException, SAXException {
+        this.out = new BufferedOutputStream(new FileOutputStream(this.file), 64 * 1024);
+        try {
+            XMLReader sheetParser = SAXHelper.newXMLReader();
+            sheetParser.setContentHandler(this);
+            sheetParser.parse(new InputSource(is));
+            if (this.offsets.length > this.count) {
+                //uniqueCount大于实际字符串个数时按实际个数收缩
+                this.offsets = Arrays.copyOf(this.offsets, this.count);
+                this.lengths = Arrays.copyOf(this.lengths, this.count);
+            }
+        } catch (ParserConfigurationException e) {
+            throw new RuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        } finally {
+            this.out.close();
+            this.out = null;
+        }
+    }
+
+    /**
+     * 将临时文件分段映射到内存
+     *
+     * @throws IOException
+     */
+    private void map() throws IOException {
+        int segmentCount = (int) ((this.position + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        MappedByteBuffer[] segments = new MappedByteBuffer[segmentCount];
+        RandomAccessFile raf = new RandomAccessFile(this.file, "r");
+        try {
+            FileChannel channel = raf.getChannel();
+            for (int i = 0; i < segmentCount; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] =
+                        channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, this.position - start));
+            }
+        } finally {
+            raf.close();
+        }
+        this.segments = segments;
+    }
+
+    /**
+     * 将一个字符串写入临时文件并记录其位置
+     *
+     * @param str
+     */
+    private void append(String str) throws SAXException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        try {
+            long remaining = SEGMENT_SIZE - this.position % SEGMENT_SIZE;
+            if (bytes.length > remaining) {
+                //不跨段存放,剩余部分填充0
+                for (long i = 0; i < remaining; i++) {
+                    this.out.write(0);
+                }
+                this.position += remaining;
+            }
+            this.out.write(bytes);
+        } catch (IOException e) {
+            throw new SAXException(e);
+        }
+        if (this.count == this.offsets.length) {
+            this.offsets = Arrays.copyOf(this.offsets, this.count * 2);
+            this.lengths = Arrays.copyOf(this.lengths, this.count * 2);
+        }
+        this.offsets[this.count] = this.position;
+        this.lengths[this.count] = bytes.length;
+        this.count++;
+        this.position += bytes.length;
+    }
+
+    @Override
+    public int getCount() {
+        return this.count;
+    }
+
+    @Override
+    public String getEntryAt(int idx) {
+        if (idx < 0 || idx >= this.count) {
+            throw new IndexOutOfBoundsException("Index: " + idx + ", Size: " + this.count);
+        }
+        return this.readers.get().read(idx, this.offsets[idx], this.lengths[idx]);
+    }
+
+    /**
+     * 释放内存映射并删除临时文件
+     */
+    @Override
+    public synchronized void close() {
+        //释放所有线程的内存映射副本和LRU缓存,其他线程之后再读取会抛出IllegalStateException,
+        //映射本身在不再被引用后由垃圾回收解除
+        this.segments = null;
+        for (SegmentReader reader : this.allReaders) {
+            reader.release();
+        }
+        this.allReaders.clear();
+        this.readers.remove();
+        if (this.out != null) {
+            try {
+                this.out.close();
+            } catch (IOException e) {
+                //ignore
+            }
+            this.out = null;
+        }
+        if (this.file != null) {
+            //映射未被回收时部分系统无法删除,此时在虚拟机退出时删除
+            this.file.delete();
+            this.file = null;
+        }
+    }
+
+    //// ContentHandler methods ////
+
+    @Override
+    public void startElement(String uri, String localName, String name, Attributes attributes)
+            throws SAXException {
+        if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+            return;
+        }
+        if ("sst".equals(localName)) {
+            String uniqueCount = attributes.getValue("uniqueCount");
+            if (uniqueCount != null) {
+                int size = Math.min(Integer.parseInt(uniqueCount), MAX_PRESIZE_COUNT);
+                if (size > this.offsets.length) {
+                    this.offsets = new long[size];
+                    this.lengths = new int[size];
+                }
+            }
+        } else if ("si".equals(localName)) {
+            this.characters.setLength(0);
+        } else if ("t".equals(localName)) {
+            this.tIsOpen = true;
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String name) throws SAXException {
+        if (uri != null && !uri.equals(NS_SPREADSHEETML)) {
+            return;
+        }
+        if ("si".equals(localName)) {
+            this.append(this.characters.toString());
+        } else if ("t".equals(localName)) {
+            this.tIsOpen = false;
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (this.tIsOpen) {
+            this.characters.append(ch, start, length);
+        }
+    }
+
+    /**
+     * 一个线程读取共享字符串时使用的内存映射副本和LRU缓存,只能被该线程使用
+     */
+    private static class SegmentReader {
+        //内存映射的副本,与原映射共享内容但有各自的读取位置,为null表示已被释放
+        private volatile ByteBuffer[] segments;
+        //最近使用的字符串,为null表示不缓存
+        private volatile Map<Integer, String> cache;
+
+        SegmentReader(MappedByteBuffer[] segments, int cacheSize) {
+            if (segments == null) {
+                throw new IllegalStateException("MappedSharedStringsStore已关闭");
+            }
+            this.segments = new ByteBuffer[segments.length];
+            for (int i = 0; i < segments.length; i++) {
+                this.segments[i] = segments[i].duplicate();
+            }
+            this.cache = cacheSize > 0 ? new LruCache(cacheSize) : null;
+        }
+
+        /**
+         * 读取指定字符串
+         *
+         * @param idx    字符串坐标
+         * @param offset 字符串在临时文件中的起始位置
+         * @param length 字符串的UTF-8字节数
+         * @return
+         */
+        String read(int idx, long offset, int length) {
+            ByteBuffer[] segments = this.segments;
+            if (segments == null) {
+                throw new IllegalStateException("MappedSharedStringsStore已关闭");
+            }
+            Map<Integer, String> cache = this.cache;
+            if (cache != null) {
+                String str = cache.get(idx);
+                if (str != null) {
+                    return str;
+                }
+            }
+            ByteBuffer segment = segments[(int) (offset / SEGMENT_SIZE)];
+            byte[] bytes = new byte[length];
+            segment.position((int) (offset % SEGMENT_SIZE));
+            segment.get(bytes);
+            String str = new String(bytes, StandardCharsets.UTF_8);
+            if (cache != null) {
+                cache.put(idx, str);
+            }
+            return str;
+        }
+
+        /**
+         * 释放内存映射副本和LRU缓存,可以被其他线程调用
+         */
+        void release() {
+            this.segments = null;
+            this.cache = null;
+        }
+    }
+
+    /**
+     * 按访问顺序淘汰的LRU缓存
+     */
+    private static class LruCache extends LinkedHashMap<Integer, String> {
+        private static final long serialVersionUID = 1L;
+
+        private final int maxSize;
+
+        LruCache(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return this.size() > this.maxSize;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.flyinghe.depdcy;
+
+import java.util.Arrays;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 可重用的{@link ExcelRow},读取时每个数据行都复用同一个此对象,避免为每一行创建新的对象。
+ * 注意:此对象只在回调函数执行期间有效,若需要保留数据请调用{@link #copy()}
+ *
+ * @see ExcelCompactRowHandler
+ */
+public class ReusableExcelRow extends ExcelRow {
+    /**
+     * @param schema 列结构
+     */
+    public ReusableExcelRow(ExcelRowSchema schema) {
+        super(schema, new Object[schema.size()]);
+    }
+
+    /**
+     * 设置指定列坐标的值
+     *
+     * @param index 列坐标,0-based
+     * @param value 值
+     */
+    public void set(int index, Object value) {
+        this.values[index] = value;
+    }
+
+    /**
+     * 清空所有单元格的值以便重用
+     */
+    public void clear() {
+        Arrays.fill(this.values, null);
+    }
+
+    /**
+     * 获取此行当前数据的不可修改的副本
+     *
+     * @return
+     */
+    @Override
+    public ExcelRow copy() {
+        return new ExcelRow(this.schema, this.values.clone());
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.io.Closeable;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 共享字符串表(sharedStrings.xml)的存储方式,{@link XSSFSheetXMLHandlerPlus}通过此接口按坐标获取共享字符串
+ *
+ * @see InMemorySharedStringsStore
+ * @see MappedSharedStringsStore
+ * @see XLSXReader#setSharedStringsStore(SharedStringsStore)
+ */
+public interface SharedStringsStore extends Closeable {
+    /**
+     * 获取共享字符串的个数
+     *
+     * @return
+     */
+    public int getCount();
+
+    /**
+     * 获取指定坐标的共享字符串,并行解析多个Sheet时会被并发调用
+     *
+     * @param idx 共享字符串坐标,0-based
+     * @return
+     */
+    public String getEntryAt(int idx);
+}
@@ -0,0 +1,336 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 将一个Sheet的XML(解压后)按&lt;row边界切分成若干块,每一块都是一个完整的XML文档,可以被独立解析:
+ * 每一块均以Sheet开头到&lt;sheetData&gt;为止的部分作为前缀,中间为若干完整的row元素,
+ * 除最后一块外均以&lt;/sheetData&gt;&lt;/worksheet&gt;结尾,最后一块包含Sheet剩余的全部内容。
+ * 此类只向前读取输入流,同一时间只在内存中保留正在切分的一块。
+ * row元素必须带有r属性(Excel生成的文件均带有此属性),否则切分后的行号不正确:
+ * 第一块中即有row元素不带r属性时{@link #next()}返回null且{@link #isUnnumbered()}为true,
+ * 此时可以通过{@link #remaining()}获取整个Sheet顺序解析;之后的块中才出现时抛出IOException
+ *
+ * @see XLSXReader#setSheetChunkSize(int)
+ */
+public class SheetXMLChunker {
+    private static final int READ_SIZE = 64 * 1024;
+    private static final byte[] SHEET_DATA = "sheetData".getBytes(StandardCharsets.US_ASCII);
+
+    private final InputStream in;
+    //每一块的目标字节数(不包括前缀和后缀)
+    private final int chunkSize;
+    //待切分的字节
+    private byte[] buf;
+    private int len = 0;
+    private boolean eof = false;
+    //Sheet开头到<sheetData>为止的部分
+    private byte[] prefix;
+    //闭合前缀中未闭合的标签
+    private byte[] suffix;
+    //row开始标签,包含命名空间前缀
+    private byte[] rowTag;
+    //为true表示没有可切分的row,整个Sheet作为一块
+    private boolean whole = false;
+    private boolean finished = false;
+    //已返回的块数
+    private int chunkCount = 0;
+    //为true表示第一块中有row元素不带r属性,不能切分
+    private boolean unnumbered = false;
+
+    /**
+     * @param in        Sheet的XML输入流
+     * @param chunkSize 每一块的目标字节数,实际大小会稍大一些以保证在&lt;row边界切分
+     */
+    public SheetXMLChunker(InputStream in, int chunkSize) {
+        this.in = in;
+        this.chunkSize = Math.max(chunkSize, 1);
+        this.buf = new byte[Math.max(this.chunkSize, READ_SIZE) + READ_SIZE];
+    }
+
+    /**
+     * 获取下一块
+     *
+     * @return 下一块的完整XML, 没有更多块时返回null
+     * @throws IOException
+     */
+    public byte[] next() throws IOException {
+        if (this.finished) {
+            return null;
+        }
+        if (this.prefix == null && !this.whole) {
+            this.readPrefix();
+        }
+        if (this.whole) {
+            //整个Sheet作为一块
+            while (this.fill()) {
+                //读取全部内容
+            }
+            this.finished = true;
+            return Arrays.copyOf(this.buf, this.len);
+        }
+        while (true) {
+            if (this.len >= this.chunkSize || this.eof) {
+                int cut = this.eof ? -1 : this.lastRowStart();
+                if ((this.eof || cut > 0) && !this.allRowsNumbered(this.eof ? this.len : cut)) {
+                    if (this.chunkCount > 0) {
+                        throw new IOException("row元素缺少r属性,不能切分Sheet");
+                    }
+                    this.unnumbered = true;
+                    this.finished = true;
+                    return null;
+                }
+                this.chunkCount++;
+                if (this.eof) {
+                    //最后一块包含剩余的全部内容
+                    this.finished = true;
+                    return this.concat(this.len, null);
+                }
+                if (cut > 0) {
+                    byte[] chunk = this.concat(cut, this.suffix);
+                    System.arraycopy(this.buf, cut, this.buf, 0, this.len - cut);
+                    this.len -= cut;
+                    return chunk;
+                }
+            }
+            this.fill();
+        }
+    }
+
+    /**
+     * 第一块中是否有row元素不带r属性,为true时需要通过{@link #remaining()}顺序解析整个Sheet
+     *
+     * @return
+     */
+    public boolean isUnnumbered() {
+        return this.unnumbered;
+    }
+
+    /**
+     * 获取{@link #isUnnumbered()}为true时的整个Sheet,即前缀,未切分的字节以及输入流中剩余的部分
+     *
+     * @return 整个Sheet的XML输入流, 关闭时同时关闭原输入流
+     */
+    public InputStream remaining() {
+        if (!this.unnumbered) {
+            throw new IllegalStateException("Sheet已切分");
+        }
+        return new SequenceInputStream(
+                new SequenceInputStream(new ByteArrayInputStream(this.prefix),
+                        new ByteArrayInputStream(this.buf, 0, this.len)), this.in);
+    }
+
+    /**
+     * 检查待切分字节的前count个字节中的row开始标签是否都带有r属性
+     *
+     * @param count 字节数
+     * @return
+     */
+    private boolean allRowsNumbered(int count) {
+        int i = 0;
+        while ((i = indexOf(this.buf, i, count, this.rowTag)) >= 0) {
+            int from = i + this.rowTag.length;
+            if (from >= count) {
+                return true;
+            }
+            i = from;
+            if (this.buf[from] != '>' && !isSpace(this.buf[from])) {
+                //其他以row开头的元素,如rowBreaks
+                continue;
+            }
+            int end = indexOf(this.buf, from, count, new byte[]{'>'});
+            if (end < 0) {
+                end = count;
+            }
+            if (!this.hasRowNum(from, end)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 开始标签的属性部分中是否有r属性
+     *
+     * @param from 属性部分的起始位置
+     * @param end  开始标签结束位置
+     * @return
+     */
+    private boolean hasRowNum(int from, int end) {
+        for (int j = from; j < end - 1; j++) {
+            if (isSpace(this.buf[j]) && this.buf[j + 1] == 'r') {
+                int k = j + 2;
+                while (k < end && isSpace(this.buf[k])) {
+                    k++;
+                }
+                if (k < end && this.buf[k] == '=') {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 读取前缀,并据此确定后缀和row开始标签
+     *
+     * @throws IOException
+     */
+    private void readPrefix() throws IOException {
+        int from = 0;
+        while (true) {
+            int pos = indexOf(this.buf, from, this.len, SHEET_DATA);
+            if (pos > 0) {
+                int tagStart = pos - 1;
+                while (tagStart >= 0 && this.buf[tagStart] != '<' && this.buf[tagStart] != '/' &&
+                        !isSpace(this.buf[tagStart])) {
+                    tagStart--;
+                }
+                int tagEnd = indexOf(this.buf, pos, this.len, new byte[]{'>'});
+                if (tagStart >= 0 && this.buf[tagStart] == '<' && tagEnd > 0) {
+                    if (this.buf[tagEnd - 1] == '/') {
+                        //空的sheetData
+                        this.whole = true;
+                        return;
+                    }
+                    String sheetData = new String(this.buf, tagStart + 1, pos + SHEET_DATA.length - tagStart - 1,
+                            StandardCharsets.US_ASCII);
+                    String nsPrefix = sheetData.substring(0, sheetData.length() - SHEET_DATA.length);
+                    String root = this.rootTag(tagStart);
+                    if (root == null) {
+                        this.whole = true;
+                        return;
+                    }
+                    this.prefix = Arrays.copyOf(this.buf, tagEnd + 1);
+                    this.suffix = ("</" + sheetData + "></" + root + ">").getBytes(StandardCharsets.UTF_8);
+                    this.rowTag = ("<" + nsPrefix + "row").getBytes(StandardCharsets.UTF_8);
+                    System.arraycopy(this.buf, tagEnd + 1, this.buf, 0, this.len - tagEnd - 1);
+                    this.len -= tagEnd + 1;
+                    return;
+                }
+                if (tagEnd < 0 && !this.eof) {
+                    //开始标签尚未读取完整
+                    this.fill();
+                    continue;
+                }
+                from = pos + SHEET_DATA.length;
+                continue;
+            }
+            if (this.eof) {
+                this.whole = true;
+                return;
+            }
+            from = Math.max(0, this.len - SHEET_DATA.length);
+            this.fill();
+        }
+    }
+
+    /**
+     * 获取根元素的名称
+     *
+     * @param end 在此位置之前查找
+     * @return
+     */
+    private String rootTag(int end) {
+        int i = 0;
+        while (i < end) {
+            i = indexOf(this.buf, i, end, new byte[]{'<'});
+            if (i < 0 || i + 1 >= end) {
+                return null;
+            }
+            byte c = this.buf[i + 1];
+            if (c != '?' && c != '!') {
+                int j = i + 1;
+                while (j < end && this.buf[j] != '>' && this.buf[j] != '/' && !isSpace(this.buf[j])) {
+                    j++;
+                }
+                return new String(this.buf, i + 1, j - i - 1, StandardCharsets.UTF_8);
+            }
+            i++;
+        }
+        return null;
+    }
+
+    /**
+     * 查找最后一个完整的row开始标签的位置
+     *
+     * @return 找不到则返回-1
+     */
+    private int lastRowStart() {
+        for (int i = this.len - this.rowTag.length - 1; i > 0; i--) {
+            if (this.buf[i] == '<' && regionMatches(this.buf, i, this.rowTag)) {
+                byte c = this.buf[i + this.rowTag.length];
+                if (c == '>' || isSpace(c)) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 从输入流中读取更多的字节
+     *
+     * @return 读取到字节返回true, 输入流结束返回false
+     * @throws IOException
+     */
+    private boolean fill() throws IOException {
+        if (this.eof) {
+            return false;
+        }
+        if (this.buf.length - this.len < READ_SIZE) {
+            this.buf = Arrays.copyOf(this.buf, this.buf.length * 2);
+        }
+        int n = this.in.read(this.buf, this.len, this.buf.length - this.len);
+        if (n < 0) {
+            this.eof = true;
+            return false;
+        }
+        this.len += n;
+        return true;
+    }
+
+    /**
+     * 拼接前缀,待切分字节的前count个字节以及后缀
+     */
+    private byte[] concat(int count, byte[] suffix) {
+        int suffixLength = suffix == null ? 0 : suffix.length;
+        byte[] chunk = new byte[this.prefix.length + count + suffixLength];
+        System.arraycopy(this.prefix, 0, chunk, 0, this.prefix.length);
+        System.arraycopy(this.buf, 0, chunk, this.prefix.length, count);
+        if (suffix != null) {
+            System.arraycopy(suffix, 0, chunk, this.prefix.length + count, suffixLength);
+        }
+        return chunk;
+    }
+
+    private static boolean isSpace(byte c) {
+        return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+    }
+
+    private static boolean regionMatches(byte[] src, int offset, byte[] target) {
+        for (int i = 0; i < target.length; i++) {
+            if (src[offset + i] != target[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] src, int from, int to, byte[] target) {
+        for (int i = from; i <= to - target.length; i++) {
+            if (regionMatches(src, i, target)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.flyinghe.depdcy;
+
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 记录修改次数的{@link Map},包括通过视图和迭代器进行的修改,
+ * 用于{@link AbstractExcelWriter}判断用户通过getter拿到的映射在两次写入之间是否被修改过
+ *
+ * @see TrackedSet
+ */
+public class TrackedMap<K, V> extends AbstractMap<K, V> {
+    private final Map<K, V> map;
+    //修改次数,只增不减
+    private int modCount = 0;
+
+    /**
+     * @param initialCapacity 初始容量
+     */
+    public TrackedMap(int initialCapacity) {
+        this.map = new HashMap<K, V>(initialCapacity);
+    }
+
+    /**
+     * 获取修改次数,两次获取的值相同表示期间没有被修改过
+     *
+     * @return
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    @Override
+    public V get(Object key) {
+        return this.map.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return this.map.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+        return this.map.size();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        this.modCount++;
+        return this.map.put(key, value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        if (!this.map.containsKey(key)) {
+            return null;
+        }
+        this.modCount++;
+        return this.map.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.map.clear();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return new AbstractSet<Entry<K, V>>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+                final Iterator<Entry<K, V>> iterator = TrackedMap.this.map.entrySet().iterator();
+                return new Iterator<Entry<K, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<K, V> next() {
+                        return new TrackedEntry(iterator.next());
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        TrackedMap.this.modCount++;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TrackedMap.this.map.size();
+            }
+
+            @Override
+            public void clear() {
+                TrackedMap.this.clear();
+            }
+        };
+    }
+
+    /**
+     * 通过{@link #setValue(Object)}修改值时记录修改次数的{@link Entry}
+     */
+    private class TrackedEntry implements Entry<K, V> {
+        private final Entry<K, V> entry;
+
+        private TrackedEntry(Entry<K, V> entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public K getKey() {
+            return this.entry.getKey();
+        }
+
+        @Override
+        public V getValue() {
+            return this.entry.getValue();
+        }
+
+        @Override
+        public V setValue(V value) {
+            TrackedMap.this.modCount++;
+            return this.entry.setValue(value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this.entry.equals(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.entry.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return this.entry.toString();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.github.flyinghe.depdcy;
+
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 记录修改次数的{@link Set},包括通过迭代器进行的修改,
+ * 用于{@link AbstractExcelWriter}判断用户通过getter拿到的集合在两次写入之间是否被修改过
+ *
+ * @see TrackedMap
+ */
+public class TrackedSet<E> extends AbstractSet<E> {
+    private final Set<E> set;
+    //修改次数,只增不减
+    private int modCount = 0;
+
+    /**
+     * @param initialCapacity 初始容量
+     */
+    public TrackedSet(int initialCapacity) {
+        this.set = new HashSet<E>(initialCapacity);
+    }
+
+    /**
+     * 获取修改次数,两次获取的值相同表示期间没有被修改过
+     *
+     * @return
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.set.contains(o);
+    }
+
+    @Override
+    public int size() {
+        return this.set.size();
+    }
+
+    @Override
+    public boolean add(E e) {
+        if (!this.set.add(e)) {
+            return false;
+        }
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!this.set.remove(o)) {
+            return false;
+        }
+        this.modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.modCount++;
+        this.set.clear();
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        final Iterator<E> iterator = this.set.iterator();
+        return new Iterator<E>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void remove() {
+                iterator.remove();
+                TrackedSet.this.modCount++;
+            }
+        };
+    }
+}
@@ -0,0 +1,212 @@
+package com.github.flyinghe.depdcy;
+
+import com.github.flyinghe.tools.XLSXReader;
+import org.xml.sax.SAXException;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 基于JDK的{@link XMLStreamReader}(StAX拉取模式)解析Sheet的XML,作为SAX解析的替代引擎,
+ * 通过{@link XLSXReader#setStaxParser(boolean)}启用。
+ * 元素的处理完全委托给{@link XSSFSheetXMLHandlerPlus},因此输出的{@link XSSFSheetXMLHandlerPlus.SheetContentsHandler}事件
+ * 与SAX解析完全一致,区别仅在于:不再为每个元素经过SAX的回调链和一长串的元素名比较,
+ * 而是先按元素名长度分派,最频繁的&lt;row&gt;,&lt;c&gt;,&lt;v&gt;只需比较一两个字符,
+ * 且单元格的属性只遍历一次。
+ * 注意:此类不是线程安全的,每个Sheet使用一个新的实例
+ * </p>
+ */
+public class XSSFSheetStaxParser {
+    //禁用DTD和外部实体,与SAXHelper的安全配置一致
+    private static final XMLInputFactory FACTORY = createFactory();
+    //负责处理元素的handler
+    private final XSSFSheetXMLHandlerPlus handler;
+
+    /**
+     * @param handler 负责处理元素的handler,与SAX解析时使用的handler相同
+     */
+    public XSSFSheetStaxParser(XSSFSheetXMLHandlerPlus handler) {
+        this.handler = handler;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * 解析Sheet的XML,解析过程中handler抛出的运行时异常(如提前结束解析)会原样抛出
+     *
+     * @param sheetInputStream 指定sheet流,由调用者关闭
+     * @throws XMLStreamException
+     * @throws SAXException
+     */
+    public void parse(InputStream sheetInputStream) throws XMLStreamException, SAXException {
+        XMLStreamReader reader = FACTORY.createXMLStreamReader(sheetInputStream);
+        try {
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT:
+                        if (NS_SPREADSHEETML.equals(reader.getNamespaceURI())) {
+                            this.startElement(reader);
+                        }
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        if (NS_SPREADSHEETML.equals(reader.getNamespaceURI())) {
+                            this.endElement(reader.getLocalName());
+                        }
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                    case XMLStreamConstants.SPACE:
+                        //handler只在<v>,<t>,<f>及页眉页脚中记录字符
+                        this.handler.characters(reader.getTextCharacters(), reader.getTextStart(),
+                                reader.getTextLength());
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void startElement(XMLStreamReader reader) {
+        String name = reader.getLocalName();
+        switch (name.length()) {
+            case 1:
+                char c = name.charAt(0);
+                if (c == 'c') {
+                    this.cellStarted(reader);
+                } else if (c == 'v' || (c == 't' && this.handler.isInlineStringOpen())) {
+                    this.handler.textStarted();
+                } else if (c == 'f') {
+                    this.handler.formulaStarted(reader.getAttributeValue(null, "t"),
+                            reader.getAttributeValue(null, "ref"));
+                }
+                break;
+            case 2:
+                if ("is".equals(name)) {
+                    this.handler.setInlineStringOpen(true);
+                }
+                break;
+            case 3:
+                if ("row".equals(name)) {
+                    this.handler.rowStarted(this.attribute(reader, 'r'));
+                }
+                break;
+            default:
+                if ("inlineStr".equals(name)) {
+                    this.handler.textStarted();
+                } else if ("dimension".equals(name)) {
+                    this.handler.dimensionStarted(reader.getAttributeValue(null, "ref"));
+                } else if (isHeaderFooter(name)) {
+                    this.handler.headerFooterStarted();
+                }
+                break;
+        }
+    }
+
+    private void endElement(String name) {
+        switch (name.length()) {
+            case 1:
+                char c = name.charAt(0);
+                if (c == 'v' || (c == 't' && this.handler.isInlineStringOpen())) {
+                    this.handler.textEnded();
+                } else if (c == 'f') {
+                    this.handler.formulaEnded();
+                }
+                break;
+            case 2:
+                if ("is".equals(name)) {
+                    this.handler.setInlineStringOpen(false);
+                }
+                break;
+            case 3:
+                if ("row".equals(name)) {
+                    this.handler.rowEnded();
+                }
+                break;
+            default:
+                if ("inlineStr".equals(name)) {
+                    this.handler.textEnded();
+                } else if ("sheetData".equals(name)) {
+                    this.handler.sheetDataEnded();
+                } else if (isHeaderFooter(name)) {
+                    this.handler.headerFooterEnded(name, name.endsWith("Header"));
+                }
+                break;
+        }
+    }
+
+    /**
+     * 遍历一次单元格的属性,取出r,t,s
+     *
+     * @param reader
+     */
+    private void cellStarted(XMLStreamReader reader) {
+        String ref = null;
+        String type = null;
+        String style = null;
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            String name = reader.getAttributeLocalName(i);
+            if (name.length() != 1 || !isNoNamespace(reader.getAttributeNamespace(i))) {
+                continue;
+            }
+            switch (name.charAt(0)) {
+                case 'r':
+                    ref = reader.getAttributeValue(i);
+                    break;
+                case 't':
+                    type = reader.getAttributeValue(i);
+                    break;
+                case 's':
+                    style = reader.getAttributeValue(i);
+                    break;
+                default:
+                    break;
+            }
+        }
+        this.handler.cellStarted(ref, type, style);
+    }
+
+    /**
+     * 获取名称只有一个字符且没有命名空间的属性
+     *
+     * @param reader
+     * @param name   属性名
+     * @return 没有该属性时返回null
+     */
+    private String attribute(XMLStreamReader reader, char name) {
+        for (int i = 0, count = reader.getAttributeCount(); i < count; i++) {
+            String localName = reader.getAttributeLocalName(i);
+            if (localName.length() == 1 && localName.charAt(0) == name &&
+                    isNoNamespace(reader.getAttributeNamespace(i))) {
+                return reader.getAttributeValue(i);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isNoNamespace(String namespace) {
+        return namespace == null || XMLConstants.NULL_NS_URI.equals(namespace);
+    }
+
+    private static boolean isHeaderFooter(String name) {
+        return "oddHeader".equals(name) || "evenHeader".equals(name) || "firstHeader".equals(name) ||
+                "oddFooter".equals(name) || "evenFooter".equals(name) || "firstFooter".equals(name);
+    }
+}
@@ -16,7 +16,7 @@
 ==================================================================== */
 package com.github.flyinghe.depdcy;
 
-import org.apache.poi.ss.usermodel.BuiltinFormats;
+import org.apache.commons.lang3.time.FastDateFormat;
 import org.apache.poi.ss.usermodel.DataFormatter;
 import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.util.CellAddress;
@@ -27,7 +27,6 @@ import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
 import org.apache.poi.xssf.model.CommentsTable;
 import org.apache.poi.xssf.model.StylesTable;
-import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.apache.poi.xssf.usermodel.XSSFComment;
 import org.apache.poi.xssf.usermodel.XSSFRichTextString;
 import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTComment;
@@ -36,7 +35,6 @@ import org.xml.sax.SAXException;
 import org.xml.sax.helpers.DefaultHandler;
 
 import java.math.BigDecimal;
-import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.Queue;
@@ -48,6 +46,8 @@ import static org.apache.poi.xssf.usermodel.XSSFRelation.NS_SPREADSHEETML;
  */
 public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
     private static final POILogger logger = POILogFactory.getLogger(XSSFSheetXMLHandler.class);
+    //日期单元格格式化成字符串时使用的格式,线程安全
+    private static final FastDateFormat DATE_FORMAT = FastDateFormat.getInstance("yyyy-MM-dd HH:mm:ss.S");
 
     /**
      * These are the different kinds of cells we support.
@@ -77,13 +77,18 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
      * Read only access to the shared strings table, for looking
      * up (most) string cell's contents
      */
-    private ReadOnlySharedStringsTable sharedStringsTable;
+    private SharedStringsStore sharedStringsTable;
 
     /**
      * Where our text is going
      */
     private final XSSFSheetXMLHandlerPlus.SheetContentsHandler output;
 
+    /**
+     * Where our typed values are going, null means output formatted values
+     */
+    private XSSFSheetXMLHandlerPlus.TypedSheetContentsHandler typedOutput;
+
     // Set when V start element is seen
     private boolean vIsOpen;
     // Set when F start element is seen
@@ -96,11 +101,21 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
     // Set when cell start element is seen;
     // used when cell close element is seen.
     private XSSFSheetXMLHandlerPlus.xssfDataType nextDataType;
+    // Set when the cell is a formula with a string result (t="str")
+    private boolean formulaString;
+    // Set when the handler does not want the current cell, its value is neither buffered nor converted
+    private boolean skipCell;
 
     // Used to format numeric cell values.
     private short formatIndex;
     private String formatString;
-    private final DataFormatter formatter;
+    // Set when formatString is a date format
+    private boolean dateFormat;
+    // Format of every cell style, built from stylesTable once and shared by the sheets of a workbook
+    private CellFormatTable formatTable;
+    // Shared strings already resolved, indexed by SST index and shared by the sheets of a workbook,
+    // null means the shared string is looked up again for every cell
+    private String[] sharedStringCache;
     private int rowNum;
     private int nextRowNum;
     // some sheets do not have rowNums, Excel can read them so we should try to handle them correctly as well
@@ -119,7 +134,10 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
      *
      * @param styles  Table of styles
      * @param strings Table of shared strings
+     * @deprecated 数字格式由{@link CellFormatTable}处理,dataFormatter不再使用,
+     * 请使用{@link #XSSFSheetXMLHandlerPlus(StylesTable, CommentsTable, SharedStringsStore, SheetContentsHandler, boolean)}
      */
+    @Deprecated
     public XSSFSheetXMLHandlerPlus(
         StylesTable styles,
         CommentsTable comments,
@@ -127,13 +145,30 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
         XSSFSheetXMLHandlerPlus.SheetContentsHandler sheetContentsHandler,
         DataFormatter dataFormatter,
         boolean formulasNotResults) {
+        this(styles, comments, strings == null ? null : new InMemorySharedStringsStore(strings),
+            sheetContentsHandler, formulasNotResults);
+    }
+
+    /**
+     * Accepts objects needed while parsing.
+     * 单元格的值格式化成字符串后输出到{@link SheetContentsHandler#cell},
+     * 注意:静态类型为{@link TypedSheetContentsHandler}的handler会匹配按类型输出的构造方法
+     *
+     * @param styles  Table of styles
+     * @param strings Store of shared strings
+     */
+    public XSSFSheetXMLHandlerPlus(
+        StylesTable styles,
+        CommentsTable comments,
+        SharedStringsStore strings,
+        XSSFSheetXMLHandlerPlus.SheetContentsHandler sheetContentsHandler,
+        boolean formulasNotResults) {
         this.stylesTable = styles;
         this.commentsTable = comments;
         this.sharedStringsTable = strings;
         this.output = sheetContentsHandler;
         this.formulasNotResults = formulasNotResults;
         this.nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.NUMBER;
-        this.formatter = dataFormatter;
         init();
     }
 
@@ -142,14 +177,17 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
      *
      * @param styles  Table of styles
      * @param strings Table of shared strings
+     * @deprecated 数字格式由{@link CellFormatTable}处理,dataFormatter不再使用,
+     * 请使用{@link #XSSFSheetXMLHandlerPlus(StylesTable, ReadOnlySharedStringsTable, SheetContentsHandler, boolean)}
      */
+    @Deprecated
     public XSSFSheetXMLHandlerPlus(
         StylesTable styles,
         ReadOnlySharedStringsTable strings,
         XSSFSheetXMLHandlerPlus.SheetContentsHandler sheetContentsHandler,
         DataFormatter dataFormatter,
         boolean formulasNotResults) {
-        this(styles, null, strings, sheetContentsHandler, dataFormatter, formulasNotResults);
+        this(styles, strings, sheetContentsHandler, formulasNotResults);
     }
 
     /**
@@ -163,7 +201,63 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
         ReadOnlySharedStringsTable strings,
         XSSFSheetXMLHandlerPlus.SheetContentsHandler sheetContentsHandler,
         boolean formulasNotResults) {
-        this(styles, strings, sheetContentsHandler, new DataFormatter(), formulasNotResults);
+        this(styles, null, strings == null ? null : new InMemorySharedStringsStore(strings), sheetContentsHandler,
+            formulasNotResults);
+    }
+
+    /**
+     * Accepts objects needed while parsing.
+     * 单元格的值不再格式化成字符串,而是按类型直接输出到{@link TypedSheetContentsHandler}的对应方法中
+     *
+     * @param styles  Table of styles
+     * @param strings Store of shared strings
+     */
+    public XSSFSheetXMLHandlerPlus(
+        StylesTable styles,
+        CommentsTable comments,
+        SharedStringsStore strings,
+        XSSFSheetXMLHandlerPlus.TypedSheetContentsHandler typedSheetContentsHandler,
+        boolean formulasNotResults) {
+        this(styles, comments, strings, (XSSFSheetXMLHandlerPlus.SheetContentsHandler) typedSheetContentsHandler,
+            formulasNotResults);
+        this.typedOutput = typedSheetContentsHandler;
+    }
+
+    public StylesTable getStylesTable() {
+        return stylesTable;
+    }
+
+    /**
+     * 获取数字格式表,未设置时根据样式表构建
+     *
+     * @return
+     */
+    public CellFormatTable getFormatTable() {
+        if (this.formatTable == null) {
+            this.formatTable = new CellFormatTable(this.stylesTable);
+        }
+        return formatTable;
+    }
+
+    /**
+     * 设置预先构建的数字格式表,解析同一个Excel文档的多个Sheet时共享同一个格式表,
+     * 未设置时在第一次需要时根据样式表构建
+     *
+     * @param formatTable 根据同一个样式表构建的数字格式表
+     */
+    public void setFormatTable(CellFormatTable formatTable) {
+        this.formatTable = formatTable;
+    }
+
+    /**
+     * 设置共享字符串缓存,每个SST坐标的字符串只获取和解码一次,之后引用该坐标的所有单元格共享同一个String实例。
+     * 数组长度应为共享字符串的个数,解析同一个Excel文档的多个Sheet(包括并行解析)时可共享同一个数组,
+     * 并发写入同一个坐标时写入的是内容相同的字符串,不影响结果
+     *
+     * @param sharedStringCache 共享字符串缓存,为null表示每个单元格都重新获取共享字符串
+     */
+    public void setSharedStringCache(String[] sharedStringCache) {
+        this.sharedStringCache = sharedStringCache;
     }
 
     private void init() {
@@ -194,7 +288,6 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
     }
 
     @Override
-    @SuppressWarnings("unused")
     public void startElement(String uri, String localName, String qName,
                              Attributes attributes) throws SAXException {
 
@@ -203,99 +296,24 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
         }
 
         if (isTextTag(localName)) {
-            vIsOpen = true;
-            // Clear contents cache
-            value.setLength(0);
+            this.textStarted();
         } else if ("is".equals(localName)) {
             // Inline string outer tag
-            isIsOpen = true;
+            this.setInlineStringOpen(true);
         } else if ("f".equals(localName)) {
-            // Clear contents cache
-            formula.setLength(0);
-
-            // Mark us as being a formula if not already
-            if (nextDataType == XSSFSheetXMLHandlerPlus.xssfDataType.NUMBER) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.FORMULA;
-            }
-
-            // Decide where to get the formula string from
-            String type = attributes.getValue("t");
-            if (type != null && type.equals("shared")) {
-                // Is it the one that defines the shared, or uses it?
-                String ref = attributes.getValue("ref");
-                String si = attributes.getValue("si");
-
-                if (ref != null) {
-                    // This one defines it
-                    // TODO Save it somewhere
-                    fIsOpen = true;
-                } else {
-                    // This one uses a shared formula
-                    // TODO Retrieve the shared formula and tweak it to
-                    //  match the current cell
-                    if (formulasNotResults) {
-                        logger.log(POILogger.WARN, "shared formulas not yet supported!");
-                    } /*else {
-                   // It's a shared formula, so we can't get at the formula string yet
-                   // However, they don't care about the formula string, so that's ok!
-                }*/
-                }
-            } else {
-                fIsOpen = true;
-            }
+            this.formulaStarted(attributes.getValue("t"), attributes.getValue("ref"));
         } else if ("oddHeader".equals(localName) || "evenHeader".equals(localName) ||
             "firstHeader".equals(localName) || "firstFooter".equals(localName) ||
             "oddFooter".equals(localName) || "evenFooter".equals(localName)) {
-            hfIsOpen = true;
-            // Clear contents cache
-            headerFooter.setLength(0);
+            this.headerFooterStarted();
         } else if ("row".equals(localName)) {
-            String rowNumStr = attributes.getValue("r");
-            if (rowNumStr != null) {
-                rowNum = Integer.parseInt(rowNumStr) - 1;
-            } else {
-                rowNum = nextRowNum;
-            }
-            output.startRow(rowNum);
+            this.rowStarted(attributes.getValue("r"));
+        } else if ("dimension".equals(localName)) {
+            this.dimensionStarted(attributes.getValue("ref"));
         }
         // c => cell
         else if ("c".equals(localName)) {
-            // Set up defaults.
-            this.nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.NUMBER;
-            this.formatIndex = -1;
-            this.formatString = null;
-            cellRef = attributes.getValue("r");
-            String cellType = attributes.getValue("t");
-            String cellStyleStr = attributes.getValue("s");
-            if ("b".equals(cellType)) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.BOOLEAN;
-            } else if ("e".equals(cellType)) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.ERROR;
-            } else if ("inlineStr".equals(cellType)) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.INLINE_STRING;
-            } else if ("s".equals(cellType)) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.SST_STRING;
-            } else if ("str".equals(cellType)) {
-                nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.FORMULA;
-            } else {
-                // Number, but almost certainly with a special style or format
-                XSSFCellStyle style = null;
-                if (stylesTable != null) {
-                    if (cellStyleStr != null) {
-                        int styleIndex = Integer.parseInt(cellStyleStr);
-                        style = stylesTable.getStyleAt(styleIndex);
-                    } else if (stylesTable.getNumCellStyles() > 0) {
-                        style = stylesTable.getStyleAt(0);
-                    }
-                }
-                if (style != null) {
-                    this.formatIndex = style.getDataFormat();
-                    this.formatString = style.getDataFormatString();
-                    if (this.formatString == null) {
-                        this.formatString = BuiltinFormats.getBuiltinFormat(this.formatIndex);
-                    }
-                }
-            }
+            this.cellStarted(attributes.getValue("r"), attributes.getValue("t"), attributes.getValue("s"));
         }
     }
 
@@ -307,128 +325,445 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
             return;
         }
 
-        String thisStr = null;
-
         // v => contents of a cell
         if (isTextTag(localName)) {
-            vIsOpen = false;
-
-            // Process the value contents as required, now we have it all
-            switch (nextDataType) {
-                case BOOLEAN:
-                    char first = value.charAt(0);
-                    thisStr = first == '0' ? "FALSE" : "TRUE";
-                    break;
-
-                case ERROR:
-                    thisStr = "ERROR:" + value.toString();
-                    break;
-
-                case FORMULA:
-                    if (formulasNotResults) {
-                        thisStr = formula.toString();
-                    } else {
-                        String fv = value.toString();
-
-                        if (this.formatString != null) {
-                            try {
-                                // Try to use the value as a formattable number
-                                double d = Double.parseDouble(fv);
-                                thisStr = this.formatRawCellContents(d, this.formatIndex, this.formatString);
-                            } catch (NumberFormatException e) {
-                                // Formula is a String result not a Numeric one
-                                thisStr = fv;
-                            }
-                        } else {
-                            // No formatting applied, just do raw value in all cases
+            this.textEnded();
+        } else if ("f".equals(localName)) {
+            this.formulaEnded();
+        } else if ("is".equals(localName)) {
+            this.setInlineStringOpen(false);
+        } else if ("row".equals(localName)) {
+            this.rowEnded();
+        } else if ("sheetData".equals(localName)) {
+            this.sheetDataEnded();
+        } else if ("oddHeader".equals(localName) || "evenHeader".equals(localName) ||
+            "firstHeader".equals(localName)) {
+            this.headerFooterEnded(localName, true);
+        } else if ("oddFooter".equals(localName) || "evenFooter".equals(localName) ||
+            "firstFooter".equals(localName)) {
+            this.headerFooterEnded(localName, false);
+        }
+    }
+
+    /*
+     * 以下方法由startElement/endElement以及{@link XSSFSheetStaxParser}共同调用,
+     * 保证两种解析引擎输出完全相同的事件
+     */
+
+    /**
+     * 是否在inline string(&lt;is&gt;)中
+     */
+    boolean isInlineStringOpen() {
+        return isIsOpen;
+    }
+
+    /**
+     * 进入或离开inline string(&lt;is&gt;)
+     */
+    void setInlineStringOpen(boolean open) {
+        isIsOpen = open;
+    }
+
+    /**
+     * 离开&lt;f&gt;
+     */
+    void formulaEnded() {
+        fIsOpen = false;
+    }
+
+    /**
+     * 开始单元格的值(&lt;v&gt;或inline string的&lt;t&gt;)
+     */
+    void textStarted() {
+        vIsOpen = !skipCell;
+        // Clear contents cache
+        value.setLength(0);
+    }
+
+    /**
+     * 开始公式(&lt;f&gt;)
+     *
+     * @param type 公式的t属性
+     * @param ref  公式的ref属性
+     */
+    void formulaStarted(String type, String ref) {
+        // Clear contents cache
+        formula.setLength(0);
+
+        // Mark us as being a formula if not already
+        if (nextDataType == XSSFSheetXMLHandlerPlus.xssfDataType.NUMBER) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.FORMULA;
+        }
+
+        // Decide where to get the formula string from
+        if (type != null && type.equals("shared")) {
+            // Is it the one that defines the shared, or uses it?
+            if (ref != null) {
+                // This one defines it
+                // TODO Save it somewhere
+                fIsOpen = true;
+            } else {
+                // This one uses a shared formula
+                // TODO Retrieve the shared formula and tweak it to
+                //  match the current cell
+                if (formulasNotResults) {
+                    logger.log(POILogger.WARN, "shared formulas not yet supported!");
+                } /*else {
+               // It's a shared formula, so we can't get at the formula string yet
+               // However, they don't care about the formula string, so that's ok!
+            }*/
+            }
+        } else {
+            fIsOpen = true;
+        }
+    }
+
+    /**
+     * 开始页眉页脚
+     */
+    void headerFooterStarted() {
+        hfIsOpen = true;
+        // Clear contents cache
+        headerFooter.setLength(0);
+    }
+
+    /**
+     * 遇到Sheet的使用范围(&lt;dimension&gt;),位于所有行之前
+     *
+     * @param ref 使用范围,如"A1:Z120000",可能为null
+     */
+    void dimensionStarted(String ref) {
+        if (ref != null && !ref.isEmpty()) {
+            output.dimension(ref);
+        }
+    }
+
+    /**
+     * 开始一行(&lt;row&gt;)
+     *
+     * @param rowNumStr 行的r属性,1-based,可能为null
+     */
+    void rowStarted(String rowNumStr) {
+        if (rowNumStr != null) {
+            rowNum = Integer.parseInt(rowNumStr) - 1;
+        } else {
+            rowNum = nextRowNum;
+        }
+        output.startRow(rowNum);
+    }
+
+    /**
+     * 开始一个单元格(&lt;c&gt;)
+     *
+     * @param ref          单元格的r属性,可能为null
+     * @param cellType     单元格的t属性
+     * @param cellStyleStr 单元格的s属性
+     */
+    void cellStarted(String ref, String cellType, String cellStyleStr) {
+        // Set up defaults.
+        this.nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.NUMBER;
+        this.formulaString = false;
+        this.formatIndex = -1;
+        this.formatString = null;
+        this.dateFormat = false;
+        cellRef = ref;
+        this.skipCell = !output.acceptCell(cellRef);
+        if (this.skipCell) {
+            return;
+        }
+        if ("b".equals(cellType)) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.BOOLEAN;
+        } else if ("e".equals(cellType)) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.ERROR;
+        } else if ("inlineStr".equals(cellType)) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.INLINE_STRING;
+        } else if ("s".equals(cellType)) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.SST_STRING;
+        } else if ("str".equals(cellType)) {
+            nextDataType = XSSFSheetXMLHandlerPlus.xssfDataType.FORMULA;
+            formulaString = true;
+        } else {
+            // Number, but almost certainly with a special style or format
+            CellFormatTable table = this.getFormatTable();
+            int styleIndex = cellStyleStr != null ? CellFormatTable.parseStyleIndex(cellStyleStr) : 0;
+            if (table.contains(styleIndex)) {
+                this.formatIndex = table.getFormatIndex(styleIndex);
+                this.formatString = table.getFormatString(styleIndex);
+                this.dateFormat = table.isDateFormat(styleIndex);
+            }
+        }
+    }
+
+    /**
+     * 结束单元格的值,输出单元格
+     */
+    void textEnded() {
+        vIsOpen = false;
+        if (skipCell) {
+            return;
+        }
+
+        String thisStr = null;
+
+        if (typedOutput != null) {
+            checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.CELL);
+            this.outputTypedCell(
+                commentsTable != null ? commentsTable.findCellComment(new CellAddress(cellRef)) : null);
+            return;
+        }
+
+        // Process the value contents as required, now we have it all
+        switch (nextDataType) {
+            case BOOLEAN:
+                char first = value.charAt(0);
+                thisStr = first == '0' ? "FALSE" : "TRUE";
+                break;
+
+            case ERROR:
+                thisStr = "ERROR:" + value.toString();
+                break;
+
+            case FORMULA:
+                if (formulasNotResults) {
+                    thisStr = formula.toString();
+                } else {
+                    String fv = value.toString();
+
+                    if (this.formatString != null) {
+                        try {
+                            // Try to use the value as a formattable number
+                            double d = Double.parseDouble(fv);
+                            thisStr = this.formatRawCellContents(d);
+                        } catch (NumberFormatException e) {
+                            // Formula is a String result not a Numeric one
                             thisStr = fv;
                         }
+                    } else {
+                        // No formatting applied, just do raw value in all cases
+                        thisStr = fv;
                     }
-                    break;
-
-                case INLINE_STRING:
-                    // TODO: Can these ever have formatting on them?
-                    XSSFRichTextString rtsi = new XSSFRichTextString(value.toString());
-                    thisStr = rtsi.toString();
-                    break;
-
-                case SST_STRING:
-                    String sstIndex = value.toString();
-                    try {
-                        int idx = Integer.parseInt(sstIndex);
+                }
+                break;
+
+            case INLINE_STRING:
+                // TODO: Can these ever have formatting on them?
+                XSSFRichTextString rtsi = new XSSFRichTextString(value.toString());
+                thisStr = rtsi.toString();
+                break;
+
+            case SST_STRING:
+                String sstIndex = value.toString();
+                try {
+                    int idx = Integer.parseInt(sstIndex);
+                    if (this.sharedStringCache != null) {
+                        thisStr = this.sharedString(idx);
+                    } else {
                         XSSFRichTextString rtss = new XSSFRichTextString(sharedStringsTable.getEntryAt(idx));
                         thisStr = rtss.toString();
-                    } catch (NumberFormatException ex) {
-                        logger.log(POILogger.ERROR, "Failed to parse SST index '" + sstIndex, ex);
                     }
-                    break;
+                } catch (NumberFormatException ex) {
+                    logger.log(POILogger.ERROR, "Failed to parse SST index '" + sstIndex, ex);
+                }
+                break;
 
-                case NUMBER:
-                    String n = value.toString();
-                    if (this.formatString != null && n.length() > 0) {
-                        thisStr =
-                            this.formatRawCellContents(Double.parseDouble(n), this.formatIndex, this.formatString);
-                    } else {
-                        thisStr = n;
-                    }
-                    break;
+            case NUMBER:
+                String n = value.toString();
+                if (this.formatString != null && n.length() > 0) {
+                    thisStr =
+                        this.formatRawCellContents(Double.parseDouble(n));
+                } else {
+                    thisStr = n;
+                }
+                break;
 
-                default:
-                    thisStr = "(TODO: Unexpected type: " + nextDataType + ")";
-                    break;
-            }
+            default:
+                thisStr = "(TODO: Unexpected type: " + nextDataType + ")";
+                break;
+        }
 
-            // Do we have a comment for this cell?
-            checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.CELL);
-            XSSFComment comment =
-                commentsTable != null ? commentsTable.findCellComment(new CellAddress(cellRef)) : null;
+        // Do we have a comment for this cell?
+        checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.CELL);
+        XSSFComment comment =
+            commentsTable != null ? commentsTable.findCellComment(new CellAddress(cellRef)) : null;
 
-            // Output
-            output.cell(cellRef, thisStr, comment);
-        } else if ("f".equals(localName)) {
-            fIsOpen = false;
-        } else if ("is".equals(localName)) {
-            isIsOpen = false;
-        } else if ("row".equals(localName)) {
-            // Handle any "missing" cells which had comments attached
-            checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.END_OF_ROW);
+        // Output
+        output.cell(cellRef, thisStr, comment);
+    }
 
-            // Finish up the row
-            output.endRow(rowNum);
+    /**
+     * 结束一行(&lt;/row&gt;)
+     */
+    void rowEnded() {
+        // Handle any "missing" cells which had comments attached
+        checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.END_OF_ROW);
 
-            // some sheets do not have rowNum set in the XML, Excel can read them so we should try to read them as well
-            nextRowNum = rowNum + 1;
-        } else if ("sheetData".equals(localName)) {
-            // Handle any "missing" cells which had comments attached
-            checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.END_OF_SHEET_DATA);
-        } else if ("oddHeader".equals(localName) || "evenHeader".equals(localName) ||
-            "firstHeader".equals(localName)) {
-            hfIsOpen = false;
-            output.headerFooter(headerFooter.toString(), true, localName);
-        } else if ("oddFooter".equals(localName) || "evenFooter".equals(localName) ||
-            "firstFooter".equals(localName)) {
-            hfIsOpen = false;
-            output.headerFooter(headerFooter.toString(), false, localName);
+        // Finish up the row
+        output.endRow(rowNum);
+
+        // some sheets do not have rowNum set in the XML, Excel can read them so we should try to read them as well
+        nextRowNum = rowNum + 1;
+    }
+
+    /**
+     * 结束&lt;/sheetData&gt;
+     */
+    void sheetDataEnded() {
+        // Handle any "missing" cells which had comments attached
+        checkForEmptyCellComments(XSSFSheetXMLHandlerPlus.EmptyCellCommentsCheckType.END_OF_SHEET_DATA);
+    }
+
+    /**
+     * 结束页眉页脚
+     *
+     * @param localName 页眉页脚的元素名
+     * @param isHeader  是否是页眉
+     */
+    void headerFooterEnded(String localName, boolean isHeader) {
+        hfIsOpen = false;
+        output.headerFooter(headerFooter.toString(), isHeader, localName);
+    }
+
+    /**
+     * 按单元格类型输出单元格的值,不做任何格式化
+     *
+     * @param comment 单元格的批注,可能为null
+     */
+    private void outputTypedCell(XSSFComment comment) {
+        switch (nextDataType) {
+            case BOOLEAN:
+                typedOutput.booleanCell(cellRef, value.length() > 0 && value.charAt(0) != '0', comment);
+                break;
+
+            case ERROR:
+                typedOutput.errorCell(cellRef, value.toString(), comment);
+                break;
+
+            case FORMULA:
+                if (formulasNotResults) {
+                    typedOutput.stringCell(cellRef, formula.toString(), comment);
+                } else if (formulaString) {
+                    typedOutput.stringCell(cellRef, value.toString(), comment);
+                } else {
+                    this.outputTypedNumber(comment);
+                }
+                break;
+
+            case INLINE_STRING:
+                typedOutput.stringCell(cellRef, this.decodeRichText(value.toString()), comment);
+                break;
+
+            case SST_STRING:
+                int idx = this.parseSstIndex();
+                if (idx < 0) {
+                    logger.log(POILogger.ERROR, "Failed to parse SST index '" + value);
+                } else {
+                    typedOutput.sharedStringCell(
+                        cellRef, idx, this.sharedString(idx), comment);
+                }
+                break;
+
+            case NUMBER:
+                this.outputTypedNumber(comment);
+                break;
+
+            default:
+                typedOutput.stringCell(cellRef, "(TODO: Unexpected type: " + nextDataType + ")", comment);
+                break;
         }
     }
 
+    /**
+     * 输出数值单元格,根据单元格样式判断是否是日期
+     *
+     * @param comment 单元格的批注,可能为null
+     */
+    private void outputTypedNumber(XSSFComment comment) {
+        if (value.length() == 0) {
+            typedOutput.stringCell(cellRef, "", comment);
+            return;
+        }
+        double d;
+        try {
+            d = Double.parseDouble(value.toString());
+        } catch (NumberFormatException e) {
+            //不是合法的数值,原样输出
+            typedOutput.stringCell(cellRef, value.toString(), comment);
+            return;
+        }
+        if (this.dateFormat && DateUtil.isValidExcelDate(d)) {
+            typedOutput.dateCell(cellRef, d, comment);
+        } else {
+            typedOutput.numericCell(cellRef, d, this.formatIndex, this.formatString, comment);
+        }
+    }
+
+    /**
+     * 直接从{@link #value}中解析SST坐标,避免创建字符串
+     *
+     * @return SST坐标, 不是合法的坐标则返回-1
+     */
+    private int parseSstIndex() {
+        int len = value.length();
+        if (len == 0 || len > 9) {
+            return -1;
+        }
+        int idx = 0;
+        for (int i = 0; i < len; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            idx = idx * 10 + (c - '0');
+        }
+        return idx;
+    }
+
+    /**
+     * 获取并解码指定坐标的共享字符串,设置了{@link #sharedStringCache}时每个坐标只获取一次
+     *
+     * @param idx SST坐标
+     * @return
+     */
+    private String sharedString(int idx) {
+        String[] cache = this.sharedStringCache;
+        if (cache == null || idx >= cache.length) {
+            return this.decodeRichText(sharedStringsTable.getEntryAt(idx));
+        }
+        String str = cache[idx];
+        if (str == null) {
+            str = this.decodeRichText(sharedStringsTable.getEntryAt(idx));
+            cache[idx] = str;
+        }
+        return str;
+    }
+
+    /**
+     * 解码字符串中形如_xHHHH_的转义字符,不含转义字符时直接返回原字符串
+     *
+     * @param str
+     * @return
+     */
+    private String decodeRichText(String str) {
+        if (str == null || str.indexOf("_x") < 0) {
+            return str;
+        }
+        return new XSSFRichTextString(str).toString();
+    }
+
     /**
      * 判断是否是日期，若是返回日期字符串，否则返回数字字符串
      *
      * @param value
-     * @param formatIndex
-     * @param formatString
      * @return
      */
-    private String formatRawCellContents(double value, int formatIndex, String formatString) {
+    private String formatRawCellContents(double value) {
 
         // Is it a date?
-        if (DateUtil.isADateFormat(formatIndex, formatString)) {
+        if (this.dateFormat) {
             if (DateUtil.isValidExcelDate(value)) {
 
                 Date d = DateUtil.getJavaDate(value);
-                SimpleDateFormat f = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.S");
-                return f.format(d);
+                return DATE_FORMAT.format(d);
             }
         }
         String _value = NumberToTextConverter.toText(value);
@@ -555,6 +890,68 @@ public class XSSFSheetXMLHandlerPlus extends DefaultHandler {
          * A header or footer has been encountered
          */
         public void headerFooter(String text, boolean isHeader, String tagName);
+
+        /**
+         * 在解析单元格的值之前调用,返回false时跳过此单元格,
+         * 不会查找其样式,也不会转换和输出其值
+         *
+         * @param cellReference 单元格坐标,如"A1",可能为null
+         * @return 默认返回true
+         */
+        public default boolean acceptCell(String cellReference) {
+            return true;
+        }
+
+        /**
+         * Sheet的使用范围(&lt;dimension ref="A1:Z120000"/&gt;),在第一行之前调用,
+         * 可据此预先分配存储空间,Sheet没有此元素时不会调用
+         *
+         * @param ref 使用范围,如"A1:Z120000",只有一个单元格时如"A1"
+         */
+        public default void dimension(String ref) {
+        }
+    }
+
+    /**
+     * 按类型接收单元格值的{@link SheetContentsHandler},
+     * 使用此接口时不会调用{@link SheetContentsHandler#cell(String, String, XSSFComment)},
+     * 单元格的值也不会被格式化成字符串
+     */
+    public interface TypedSheetContentsHandler extends SheetContentsHandler {
+        /**
+         * A numeric cell (not a date) was encountered
+         *
+         * @param formatIndex  the format index from the cell style, -1 if none
+         * @param formatString the format string from the cell style, may be null
+         */
+        public void numericCell(String cellReference, double value, int formatIndex, String formatString,
+                                XSSFComment comment);
+
+        /**
+         * A numeric cell whose style is a date format was encountered,
+         * use {@link DateUtil#getJavaDate(double)} to get the date
+         */
+        public void dateCell(String cellReference, double value, XSSFComment comment);
+
+        /**
+         * A boolean cell was encountered
+         */
+        public void booleanCell(String cellReference, boolean value, XSSFComment comment);
+
+        /**
+         * A shared string cell was encountered, the index points into the shared strings table
+         */
+        public void sharedStringCell(String cellReference, int sstIndex, String value, XSSFComment comment);
+
+        /**
+         * An inline string cell, a formula string result or an empty value was encountered
+         */
+        public void stringCell(String cellReference, String value, XSSFComment comment);
+
+        /**
+         * An error cell was encountered
+         */
+        public void errorCell(String cellReference, String error, XSSFComment comment);
     }
 
 }
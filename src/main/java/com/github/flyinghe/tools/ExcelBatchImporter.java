@@ -0,0 +1,270 @@
+package com.github.flyinghe.tools;
+
+import com.github.flyinghe.depdcy.ExcelBatchResult;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelHandlerFactory;
+import com.github.flyinghe.depdcy.ExcelImportResult;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.exception.ReadExcelException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 使用有界线程池并发读取一批Excel文件(xlsx或xls),每个文件由一个线程通过{@link ExcelReader}按真实格式
+ * 选择{@link XLSXReader}或{@link XLSReader}流式读取,每读取{@link #batchSize}个数据行就交给该文件的回调函数处理。
+ * 同时读取的文件占用的内存由{@link #maxInFlightBytes}限制:每个文件开始读取前按文件大小申请配额,读取完毕后归还,
+ * 配额不足时该文件等待其他文件读取完毕(超过总配额的文件申请全部配额,即单独读取)。
+ * 某个文件读取失败(包括回调函数抛出异常)只记录在该文件的{@link ExcelImportResult}中,不影响其他文件。
+ * 可通过测试目录下的ExcelBatchImporterBenchmark对比不同线程数下每秒读取的文件数
+ * </p>
+ */
+public class ExcelBatchImporter implements Closeable {
+    //默认每批数据行的个数
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    //读取文件使用的线程池
+    private final ExecutorService executor;
+    //为true表示executor由此类创建,关闭时一并关闭
+    private final boolean ownExecutor;
+    //每读取多少个数据行交给回调函数处理一次
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    //若有小数则指定保留几位小数,若为Null或者<=0则表示不四舍五入
+    private Integer scale;
+    //读取选项,所有文件共享,为null表示全部读取
+    private ExcelReadOptions options;
+    //为true表示按单元格类型直接生成值,只对xlsx类型有效
+    private boolean typedValue = false;
+    //同时读取的文件的总大小上限,单位字节
+    private long maxInFlightBytes = Runtime.getRuntime().maxMemory() / 4;
+
+    /**
+     * 创建含有指定个数线程的线程池,关闭时一并关闭
+     *
+     * @param workers 同时读取的文件数,必须&gt;0
+     */
+    public ExcelBatchImporter(int workers) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("workers must be greater than 0");
+        }
+        this.executor = Executors.newFixedThreadPool(workers);
+        this.ownExecutor = true;
+    }
+
+    /**
+     * 使用调用者提供的线程池,由调用者关闭
+     *
+     * @param executor 读取文件使用的线程池,同时读取的文件数由其线程数决定
+     */
+    public ExcelBatchImporter(ExecutorService executor) {
+        this.executor = executor;
+        this.ownExecutor = false;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * 设置每读取多少个数据行交给回调函数处理一次,默认{@link #DEFAULT_BATCH_SIZE}
+     *
+     * @param batchSize 每批数据行的个数,必须&gt;0
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("batchSize must be greater than 0");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public Integer getScale() {
+        return scale;
+    }
+
+    /**
+     * 设置若数值中含有小数则保留几位小数,四舍五入
+     *
+     * @param scale null或者&lt;=0表示不四舍五入
+     */
+    public void setScale(Integer scale) {
+        this.scale = scale;
+    }
+
+    public ExcelReadOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 设置所有文件共享的读取选项,读取过程中不能修改
+     *
+     * @param options 读取选项,为null表示全部读取
+     */
+    public void setOptions(ExcelReadOptions options) {
+        this.options = options;
+    }
+
+    public boolean isTypedValue() {
+        return typedValue;
+    }
+
+    /**
+     * 设置是否按单元格类型直接生成值,只对xlsx类型有效,参考{@link XLSXReader#setTypedValue(boolean)}
+     *
+     * @param typedValue 是否按单元格类型直接生成值
+     */
+    public void setTypedValue(boolean typedValue) {
+        this.typedValue = typedValue;
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+
+    /**
+     * 设置同时读取的文件的总大小上限,默认为最大堆内存的1/4。
+     * 流式读取时一个文件占用的内存(共享字符串表,未处理的数据行等)大致与文件大小成正比,
+     * 因此以文件大小作为配额限制同时读取的文件,避免多个大文件同时读取时内存溢出
+     *
+     * @param maxInFlightBytes 总大小上限,单位字节,必须&gt;0
+     */
+    public void setMaxInFlightBytes(long maxInFlightBytes) {
+        if (maxInFlightBytes <= 0) {
+            throw new IllegalArgumentException("maxInFlightBytes must be greater than 0");
+        }
+        this.maxInFlightBytes = maxInFlightBytes;
+    }
+
+    /**
+     * 并发读取目录下所有后缀为xlsx或xls(不区分大小写)的文件,不包括子目录,按文件名顺序提交
+     *
+     * @param directory 目录
+     * @param factory   为每一个文件创建回调函数
+     * @return 所有文件的读取结果
+     * @throws ReadExcelException 目录不存在或读取被中断时抛出
+     */
+    public ExcelBatchResult importDirectory(File directory, ExcelHandlerFactory factory) throws ReadExcelException {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                String name = file.getName().toLowerCase();
+                return file.isFile() && (name.endsWith(".xlsx") || name.endsWith(".xls"));
+            }
+        });
+        if (files == null) {
+            throw new ReadExcelException(directory + " is not a directory");
+        }
+        Arrays.sort(files);
+        return this.importFiles(Arrays.asList(files), factory);
+    }
+
+    /**
+     * 并发读取所有文件,所有文件读取完毕后返回
+     *
+     * @param files   需要读取的文件
+     * @param factory 为每一个文件创建回调函数
+     * @return 所有文件的读取结果, 与files的顺序一致
+     * @throws ReadExcelException 读取被中断时抛出
+     */
+    public ExcelBatchResult importFiles(Collection<File> files, final ExcelHandlerFactory factory)
+            throws ReadExcelException {
+        //配额以KB为单位,避免超过Semaphore的上限
+        final int totalPermits = (int) Math.max(1L, Math.min(Integer.MAX_VALUE, this.maxInFlightBytes / 1024));
+        final Semaphore budget = new Semaphore(totalPermits, true);
+        long start = System.nanoTime();
+        List<Future<ExcelImportResult>> futures = new ArrayList<Future<ExcelImportResult>>(files.size());
+        for (final File file : files) {
+            futures.add(this.executor.submit(new Callable<ExcelImportResult>() {
+                @Override
+                public ExcelImportResult call() throws Exception {
+                    return ExcelBatchImporter.this.importFile(file, factory, budget, totalPermits);
+                }
+            }));
+        }
+        List<ExcelImportResult> results = new ArrayList<ExcelImportResult>(files.size());
+        try {
+            for (Future<ExcelImportResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            for (Future<ExcelImportResult> future : futures) {
+                future.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new ReadExcelException(e.getMessage());
+        } catch (ExecutionException e) {
+            for (Future<ExcelImportResult> future : futures) {
+                future.cancel(true);
+            }
+            throw new ReadExcelException(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        }
+        return new ExcelBatchResult(results, System.nanoTime() - start);
+    }
+
+    /**
+     * 申请配额后读取一个文件,读取失败时记录失败原因
+     *
+     * @param file         需要读取的文件
+     * @param factory      为文件创建回调函数
+     * @param budget       同时读取的文件的配额
+     * @param totalPermits 总配额
+     * @return
+     * @throws InterruptedException 等待配额时被中断
+     */
+    private ExcelImportResult importFile(File file, ExcelHandlerFactory factory, Semaphore budget,
+                                         int totalPermits) throws InterruptedException {
+        int permits = (int) Math.min(totalPermits, Math.max(1L, (file.length() + 1023) / 1024));
+        budget.acquire(permits);
+        long start = System.nanoTime();
+        final long[] rowCount = new long[1];
+        int format = 0;
+        try {
+            ExcelReader reader = new ExcelReader(file);
+            format = reader.getFormat();
+            reader.setScale(this.scale);
+            reader.setOptions(this.options);
+            reader.setTypedValue(this.typedValue);
+            final ExcelHandler handler = factory.createHandler(file);
+            reader.read(this.batchSize, new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas)
+                        throws ReadExcelException {
+                    if (handler != null) {
+                        handler.callback(currentRowInSheet, currentSheetInExcel, realRowInSheet, realRowInExcel,
+                                allSheetInExcel, titles, columns, datas);
+                    }
+                    rowCount[0] += datas.size();
+                }
+            });
+            return new ExcelImportResult(file, format, rowCount[0], (System.nanoTime() - start) / 1000000, null);
+        } catch (Exception e) {
+            return new ExcelImportResult(file, format, rowCount[0], (System.nanoTime() - start) / 1000000, e);
+        } finally {
+            budget.release(permits);
+        }
+    }
+
+    /**
+     * 关闭由此类创建的线程池,调用者提供的线程池不关闭
+     */
+    @Override
+    public void close() {
+        if (this.ownExecutor) {
+            this.executor.shutdown();
+        }
+    }
+}
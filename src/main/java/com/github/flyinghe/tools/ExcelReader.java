@@ -0,0 +1,613 @@
+package com.github.flyinghe.tools;
+
+import com.github.flyinghe.depdcy.AbstractExcelWriter;
+import com.github.flyinghe.depdcy.ExcelBeanBinder;
+import com.github.flyinghe.depdcy.ExcelCellPredicate;
+import com.github.flyinghe.depdcy.ExcelColumnarBuilder;
+import com.github.flyinghe.depdcy.ExcelColumnarTable;
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.depdcy.ExcelRowSchema;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
+import com.github.flyinghe.exception.ReadExcelException;
+import org.apache.commons.lang3.time.DateUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 读取Excel文件的统一入口,支持xlsx和xls类型的Excel文件。
+ * 根据文件头的魔数(OLE2或ZIP)而不是文件后缀判断文件的真实格式,
+ * 然后使用流方式的{@link XLSXReader}或{@link XLSReader}读取,不会将整个Workbook读入内存;
+ * 只有设置了{@link #setEvaluateFormulas(boolean)}时才使用usermodel读取整个Workbook并计算公式。
+ * 可从{@link File},{@link Path},{@link InputStream}或byte[]读取,
+ * 从{@link InputStream}读取时会先将其写入临时文件,使用完毕后应调用{@link #close()}删除临时文件。
+ * 注意:读取的Excel文件格式与{@link XLSXReader}和{@link XLSReader}相同,
+ * 即第0行(0-based)为标题行,第1行为列名行,后面的行为数据行
+ * </p>
+ */
+public class ExcelReader implements Closeable {
+    /**
+     * xlsx类型(OOXML,ZIP格式)
+     */
+    public static final int XLSX = AbstractExcelWriter.XLSX;
+    /**
+     * xls类型(OLE2格式)
+     */
+    public static final int XLS = AbstractExcelWriter.XLS;
+    //Excel文件,从InputStream读取时为暂存其内容的临时文件,从byte[]读取时为null
+    private File file;
+    //从byte[]读取时的文件内容
+    private byte[] bytes;
+    //为true表示file是暂存InputStream的临时文件,关闭时删除
+    private boolean tempFile = false;
+    //文件的真实格式
+    private int format;
+    //若有小数则指定保留几位小数,若为Null或者<=0则表示不四舍五入
+    private Integer scale;
+    //读取选项,为null表示全部读取
+    private ExcelReadOptions options;
+    //为true表示按单元格类型直接生成值,只对xlsx类型有效
+    private boolean typedValue = false;
+    //为true表示使用usermodel读取并计算公式
+    private boolean evaluateFormulas = false;
+
+    /**
+     * @param file Excel文件
+     * @throws ReadExcelException 文件无法读取或不是Excel文件时抛出
+     */
+    public ExcelReader(File file) throws ReadExcelException {
+        this.file = file;
+        this.format = detectFormat(file);
+    }
+
+    /**
+     * @param path Excel文件
+     * @throws ReadExcelException 文件无法读取或不是Excel文件时抛出
+     */
+    public ExcelReader(Path path) throws ReadExcelException {
+        this(path.toFile());
+    }
+
+    /**
+     * @param bytes Excel文件的内容
+     * @throws ReadExcelException 不是Excel文件时抛出
+     */
+    public ExcelReader(byte[] bytes) throws ReadExcelException {
+        this.bytes = bytes;
+        this.format = detectFormat(Arrays.copyOf(bytes, Math.min(bytes.length, 8)));
+    }
+
+    /**
+     * 将输入流写入临时文件后读取,输入流由调用者关闭
+     *
+     * @param inputStream Excel文件的输入流
+     * @throws ReadExcelException 输入流无法读取或不是Excel文件时抛出
+     */
+    public ExcelReader(InputStream inputStream) throws ReadExcelException {
+        try {
+            this.file = File.createTempFile("ExcelReader", ".tmp");
+            this.file.deleteOnExit();
+            this.tempFile = true;
+            Files.copy(inputStream, this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            this.close();
+            throw new ReadExcelException(e.getMessage());
+        }
+        try {
+            this.format = detectFormat(this.file);
+        } catch (ReadExcelException e) {
+            this.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 根据文件头判断Excel文件的真实格式
+     *
+     * @param file Excel文件
+     * @return {@link #XLSX}或{@link #XLS}
+     * @throws ReadExcelException 文件无法读取或不是Excel文件时抛出
+     */
+    public static int detectFormat(File file) throws ReadExcelException {
+        byte[] header = new byte[8];
+        int length = 0;
+        try (InputStream is = new FileInputStream(file)) {
+            int read;
+            while (length < header.length && (read = is.read(header, length, header.length - length)) > 0) {
+                length += read;
+            }
+        } catch (IOException e) {
+            throw new ReadExcelException(e.getMessage());
+        }
+        return detectFormat(Arrays.copyOf(header, length));
+    }
+
+    /**
+     * 根据文件头判断Excel文件的真实格式
+     *
+     * @param header 文件的前8个字节
+     * @return {@link #XLSX}或{@link #XLS}
+     * @throws ReadExcelException 不是Excel文件时抛出
+     */
+    public static int detectFormat(byte[] header) throws ReadExcelException {
+        if (header.length < 8) {
+            //FileMagic需要完整的8个字节,否则会抛出数组越界异常
+            throw new ReadExcelException("无法识别的Excel格式");
+        }
+        FileMagic magic = FileMagic.valueOf(header);
+        if (magic == FileMagic.OOXML) {
+            return XLSX;
+        }
+        if (magic == FileMagic.OLE2) {
+            return XLS;
+        }
+        throw new ReadExcelException("Unsupported file format: " + magic);
+    }
+
+    /**
+     * 获取文件的真实格式
+     *
+     * @return {@link #XLSX}或{@link #XLS}
+     */
+    public int getFormat() {
+        return format;
+    }
+
+    public Integer getScale() {
+        return scale;
+    }
+
+    /**
+     * 设置若数值中含有小数则保留几位小数,四舍五入
+     *
+     * @param scale null或者&lt;=0表示不四舍五入
+     */
+    public void setScale(Integer scale) {
+        this.scale = scale;
+    }
+
+    public ExcelReadOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 设置读取选项,参考{@link XLSXReader#setOptions(ExcelReadOptions)},计算公式时同样适用
+     *
+     * @param options 读取选项,为null表示全部读取
+     */
+    public void setOptions(ExcelReadOptions options) {
+        this.options = options;
+    }
+
+    public boolean isTypedValue() {
+        return typedValue;
+    }
+
+    /**
+     * 设置是否按单元格类型直接生成值,只对xlsx类型有效,参考{@link XLSXReader#setTypedValue(boolean)}
+     *
+     * @param typedValue 是否按单元格类型直接生成值
+     */
+    public void setTypedValue(boolean typedValue) {
+        this.typedValue = typedValue;
+    }
+
+    public boolean isEvaluateFormulas() {
+        return evaluateFormulas;
+    }
+
+    /**
+     * 设置是否计算公式(默认false)。
+     * 为false时使用流方式读取,公式单元格的值为文件中保存的计算结果;
+     * 为true时使用usermodel将整个Workbook读入内存并重新计算所有公式,值的转换方式与{@link ReadExcelUtils}相同,
+     * 只适用于较小的文件,或文件中没有保存公式的计算结果的情况
+     *
+     * @param evaluateFormulas 是否计算公式
+     */
+    public void setEvaluateFormulas(boolean evaluateFormulas) {
+        this.evaluateFormulas = evaluateFormulas;
+    }
+
+    /**
+     * 读取所有数据行,并把读取的数据放入Map中,全部返回
+     *
+     * @return 返回所有数据行, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public List<Map<String, Object>> readToMapList() throws ReadExcelException {
+        return this.process(-1, null, null);
+    }
+
+    /**
+     * 每读取limit个数据行就交给回调函数处理,参考{@link XLSXReader#readExcel(File, Integer, int, ExcelHandler)}
+     *
+     * @param limit    每一批最多含有多少数据行,必须&gt;0
+     * @param callback 处理每一批数据行的回调函数
+     * @throws ReadExcelException
+     */
+    public void read(int limit, ExcelHandler callback) throws ReadExcelException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        this.process(limit, callback, null);
+    }
+
+    /**
+     * 以紧凑行逐行读取所有数据行,参考{@link ExcelCompactRowHandler}
+     *
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数
+     * @throws ReadExcelException
+     */
+    public void readByRow(ExcelCompactRowHandler compactRowHandler) throws ReadExcelException {
+        this.process(-1, null, compactRowHandler);
+    }
+
+    /**
+     * 读取所有数据行并封装成Class的实例,不会创建中间的Map
+     *
+     * @param clazz 指定封装类型
+     * @return 返回所有JavaBean, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public <T> List<T> readToBeans(Class<T> clazz) throws ReadExcelException {
+        final ExcelBeanBinder<T> binder = new ExcelBeanBinder<T>(clazz);
+        final List<T> beans = new ArrayList<T>();
+        this.readByRow(new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                    throws ReadExcelException {
+                beans.add(binder.bind(row));
+                return true;
+            }
+        });
+        return beans;
+    }
+
+    /**
+     * 读取所有数据行,以按列存储的形式返回,参考{@link ExcelColumnarBuilder}
+     *
+     * @param inferRows 根据前多少个数据行推断列的类型,&lt;=0表示使用默认值{@link ExcelColumnarBuilder#DEFAULT_INFER_ROWS}
+     * @return 读取结果
+     * @throws ReadExcelException
+     */
+    public ExcelColumnarTable readToColumnar(int inferRows) throws ReadExcelException {
+        //按单元格类型直接生成值时,字符串单元格不再被解析为数值
+        ExcelColumnarBuilder builder = new ExcelColumnarBuilder(inferRows,
+                !(this.format == XLSX && this.typedValue && !this.evaluateFormulas));
+        this.readByRow(builder);
+        return builder.build();
+    }
+
+    /**
+     * 删除暂存输入流内容的临时文件
+     */
+    @Override
+    public void close() {
+        if (this.tempFile && this.file != null) {
+            this.file.delete();
+            this.file = null;
+        }
+    }
+
+    /**
+     * 读取Excel文件
+     *
+     * @param limit             每一批最多含有多少数据行,&lt;=0表示不限制
+     * @param callback          处理每一批数据行的回调函数
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数
+     * @return 未启用限制且未设置compactRowHandler时返回所有数据行
+     * @throws ReadExcelException
+     */
+    private List<Map<String, Object>> process(int limit, ExcelHandler callback,
+                                              ExcelCompactRowHandler compactRowHandler) throws ReadExcelException {
+        if (this.file == null && this.bytes == null) {
+            throw new ReadExcelException("ExcelReader has been closed");
+        }
+        if (this.evaluateFormulas) {
+            return this.processWithEvaluation(limit, callback, compactRowHandler);
+        }
+        return this.format == XLSX ? this.processXLSX(limit, callback, compactRowHandler) :
+                this.processXLS(limit, callback, compactRowHandler);
+    }
+
+    private List<Map<String, Object>> processXLSX(int limit, ExcelHandler callback,
+                                                  ExcelCompactRowHandler compactRowHandler) throws ReadExcelException {
+        OPCPackage p = null;
+        try {
+            p = this.file != null ? OPCPackage.open(this.file, PackageAccess.READ) :
+                    OPCPackage.open(new ByteArrayInputStream(this.bytes));
+            XLSXReader reader = new XLSXReader(p, this.scale, limit, callback);
+            reader.setTypedValue(this.typedValue);
+            reader.setOptions(this.options);
+            reader.setCompactRowHandler(compactRowHandler);
+            reader.process();
+            return reader.getDatas();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                if (this.file != null) {
+                    try {
+                        p.close();
+                    } catch (IOException e) {
+                        throw new ReadExcelException(e.getMessage());
+                    }
+                } else {
+                    //从内存中读取的包不需要保存
+                    p.revert();
+                }
+            }
+        }
+    }
+
+    private List<Map<String, Object>> processXLS(int limit, ExcelHandler callback,
+                                                 ExcelCompactRowHandler compactRowHandler) throws ReadExcelException {
+        POIFSFileSystem fs = null;
+        try {
+            fs = this.file != null ? new POIFSFileSystem(this.file) :
+                    new POIFSFileSystem(new ByteArrayInputStream(this.bytes));
+            XLSReader reader = new XLSReader(fs, this.scale, limit, callback);
+            reader.setOptions(this.options);
+            reader.setCompactRowHandler(compactRowHandler);
+            reader.process();
+            return reader.getDatas();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (fs != null) {
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 使用usermodel读取整个Workbook并计算所有公式,标题行和列名行取自第一个被读取的Sheet,
+     * 与流方式读取一样应用{@link #options}和{@link #scale}
+     *
+     * @param limit             每一批最多含有多少数据行,&lt;=0表示不限制
+     * @param callback          处理每一批数据行的回调函数
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数
+     * @return 未启用限制且未设置compactRowHandler时返回所有数据行
+     * @throws ReadExcelException
+     */
+    private List<Map<String, Object>> processWithEvaluation(int limit, ExcelHandler callback,
+                                                            ExcelCompactRowHandler compactRowHandler)
+            throws ReadExcelException {
+        List<Map<String, Object>> datas = new ArrayList<Map<String, Object>>();
+        Workbook workbook = null;
+        try {
+            workbook = this.file != null ? WorkbookFactory.create(this.file, null, true) :
+                    WorkbookFactory.create(new ByteArrayInputStream(this.bytes));
+            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            DataFormatter formatter = new DataFormatter();
+            List<String> titles = null;
+            List<String> columns = null;
+            boolean[] projection = null;
+            ExcelCellPredicate[] filters = null;
+            ReusableExcelRow compactRow = null;
+            int maxRows = this.options == null ? -1 : this.options.getMaxRows();
+            //最后一个数据行所在的行坐标,Sheet坐标以及其所在Sheet已读取的数据行数,用于最后一次回调
+            int lastRowInSheet = -1;
+            int lastSheetInExcel = -1;
+            int lastRealRowInSheet = 0;
+            int realRowInExcel = 0;
+            sheets:
+            for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+                Sheet sheet = workbook.getSheetAt(sheetIndex);
+                if (this.options != null && !this.options.isSheetSelected(sheetIndex, sheet.getSheetName())) {
+                    continue;
+                }
+                if (columns == null) {
+                    titles = headerOf(sheet.getRow(0), formatter, evaluator);
+                    columns = headerOf(sheet.getRow(1), formatter, evaluator);
+                    compactRow = new ReusableExcelRow(new ExcelRowSchema(columns));
+                    if (this.options != null) {
+                        projection = this.options.projection(columns);
+                        filters = this.options.filters(columns);
+                    }
+                }
+                int realRowInSheet = 0;
+                for (int rowNum = 2; rowNum <= sheet.getLastRowNum(); rowNum++) {
+                    if (this.options != null && this.options.isAfterRange(rowNum)) {
+                        break;
+                    }
+                    Row row = sheet.getRow(rowNum);
+                    if (row == null || (this.options != null && !this.options.isRowSelected(rowNum))) {
+                        continue;
+                    }
+                    compactRow.clear();
+                    for (int col = 0; col < row.getLastCellNum() && col < columns.size(); col++) {
+                        Cell cell = row.getCell(col);
+                        if (cell == null || (projection != null && !projection[col])) {
+                            continue;
+                        }
+                        if (cell.getCellTypeEnum() == CellType.FORMULA) {
+                            evaluator.evaluateInCell(cell);
+                        }
+                        Object value = this.valueOf(cell);
+                        if (value != null) {
+                            compactRow.set(col, value);
+                        }
+                    }
+                    if (compactRow.isEmpty() || !accept(compactRow, filters)) {
+                        continue;
+                    }
+                    realRowInSheet++;
+                    realRowInExcel++;
+                    lastRowInSheet = rowNum;
+                    lastSheetInExcel = sheetIndex;
+                    lastRealRowInSheet = realRowInSheet;
+                    if (compactRowHandler != null) {
+                        if (!compactRowHandler.handleRow(sheetIndex, rowNum, compactRow)) {
+                            return datas;
+                        }
+                    } else {
+                        Map<String, Object> data = new HashMap<String, Object>();
+                        for (int col = 0; col < compactRow.size(); col++) {
+                            if (compactRow.get(col) != null) {
+                                data.put(columns.get(col), compactRow.get(col));
+                            }
+                        }
+                        datas.add(data);
+                        if (limit > 0 && datas.size() >= limit) {
+                            if (callback != null) {
+                                callback.callback(rowNum, sheetIndex, realRowInSheet, realRowInExcel, sheetIndex + 1,
+                                        titles, columns, datas);
+                            }
+                            datas = new ArrayList<Map<String, Object>>();
+                        }
+                    }
+                    if (maxRows > 0 && realRowInExcel >= maxRows) {
+                        break sheets;
+                    }
+                }
+            }
+            if (limit > 0 && !datas.isEmpty()) {
+                if (callback != null) {
+                    callback.callback(lastRowInSheet, lastSheetInExcel, lastRealRowInSheet, realRowInExcel,
+                            lastSheetInExcel + 1, titles, columns, datas);
+                }
+                datas = new ArrayList<Map<String, Object>>();
+            }
+            return datas;
+        } catch (ReadExcelException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (workbook != null) {
+                try {
+                    workbook.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 获取已计算公式的单元格的值,转换方式与{@link ReadExcelUtils#getCellValue(int, Cell)}相同,
+     * 设置了{@link #scale}时数值按其保留小数位
+     *
+     * @param cell 单元格
+     * @return
+     */
+    private Object valueOf(Cell cell) {
+        switch (cell.getCellTypeEnum()) {
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            case NUMERIC:
+                if (DateUtil.isCellDateFormatted(cell)) {
+                    return DateUtil.getJavaDate(cell.getNumericCellValue());
+                }
+                BigDecimal bd = new BigDecimal(cell.getNumericCellValue());
+                int scale = this.scale == null || this.scale <= 0 ? 2 : this.scale;
+                return bd.toString().contains(".") ? bd.setScale(scale, RoundingMode.HALF_UP).toString() :
+                        bd.toString();
+            case STRING:
+                try {
+                    return DateUtils.parseDate(cell.getStringCellValue(), ReadExcelUtils.PATTERN);
+                } catch (Exception e) {
+                    return cell.getStringCellValue();
+                }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 判断数据行是否满足所有过滤条件(空单元格以null求值)
+     *
+     * @param row     数据行
+     * @param filters 下标为列坐标,值为该列的过滤条件(可能为null),为null表示不过滤
+     * @return
+     */
+    private static boolean accept(ReusableExcelRow row, ExcelCellPredicate[] filters) {
+        if (filters == null) {
+            return true;
+        }
+        for (int i = 0; i < filters.length; i++) {
+            if (filters[i] != null && !filters[i].test(row.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 获取标题行或列名行的字符串,非字符串单元格使用其显示的文本
+     *
+     * @param row       标题行或列名行
+     * @param formatter 获取单元格显示的文本
+     * @param evaluator 计算公式单元格
+     * @return
+     */
+    private static List<String> headerOf(Row row, DataFormatter formatter, FormulaEvaluator evaluator) {
+        List<String> header = new ArrayList<String>();
+        if (row != null) {
+            for (int col = 0; col < row.getLastCellNum(); col++) {
+                Cell cell = row.getCell(col);
+                header.add(cell == null ? null : formatter.formatCellValue(cell, evaluator));
+            }
+        }
+        return header;
+    }
+
+    /**
+     * 读取整个Excel文件(xlsx或xls),并把读取的数据放入Map中,全部返回
+     *
+     * @param file Excel文件
+     * @return 返回所有数据行, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static List<Map<String, Object>> readExcelToMapList(File file) throws ReadExcelException {
+        return new ExcelReader(file).readToMapList();
+    }
+
+    /**
+     * 读取整个Excel文件(xlsx或xls),并把读取的数据封装成Class的实例,全部返回
+     *
+     * @param file  Excel文件
+     * @param clazz 指定封装类型
+     * @return 返回所有JavaBean, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static <T> List<T> readExcelToBeans(File file, Class<T> clazz) throws ReadExcelException {
+        return new ExcelReader(file).readToBeans(clazz);
+    }
+}
@@ -18,7 +18,7 @@ import java.util.Map;
  * @author Flying
  */
 public class ReadExcelUtils {
-    private static String[] PATTERN =
+    static String[] PATTERN =
             new String[]{"yyyy-MM-dd", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.S", "yyyy.MM.dd",
                     "yyyy.MM.dd HH:mm:ss", "yyyy.MM.dd HH:mm:ss.S", "yyyy/MM/dd", "yyyy/MM/dd HH:mm:ss",
                     "yyyy/MM/dd HH:mm:ss.S",};
@@ -1,7 +1,24 @@
 package com.github.flyinghe.tools;
 
+import com.github.flyinghe.depdcy.ExcelBeanBinder;
+import com.github.flyinghe.depdcy.ExcelAggregator;
+import com.github.flyinghe.depdcy.ExcelBeanHandler;
+import com.github.flyinghe.depdcy.ExcelCellPredicate;
+import com.github.flyinghe.depdcy.ExcelCheckpoint;
+import com.github.flyinghe.depdcy.ExcelCheckpointStore;
+import com.github.flyinghe.depdcy.ExcelColumnarBuilder;
+import com.github.flyinghe.depdcy.ExcelColumnarTable;
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
 import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelPipeline;
+import com.github.flyinghe.depdcy.ExcelReadMetrics;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.depdcy.ExcelRow;
+import com.github.flyinghe.depdcy.ExcelRowHandler;
+import com.github.flyinghe.depdcy.ExcelRowIterator;
+import com.github.flyinghe.depdcy.ExcelRowSchema;
 import com.github.flyinghe.depdcy.FormatTrackingHSSFListenerPlus;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
 import com.github.flyinghe.exception.ReadExcelException;
 import com.github.flyinghe.exception.ReadExcelRuntimeException;
 import org.apache.commons.lang3.time.DateUtils;
@@ -15,10 +32,13 @@ import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 
 /**
  * Created by FlyingHe on 2017/8/9.
@@ -62,6 +82,39 @@ public class XLSReader implements HSSFListener {
     private Integer scale;
     //用于记录数据行里的数据（只能记录一行数据行的数据）
     private Map<String, Object> data;
+    //逐行处理数据行的回调函数,设置后数据行不再放入datas中
+    private ExcelRowHandler rowHandler;
+    //以紧凑行逐行处理数据行的回调函数,设置后数据行不再放入datas中,且忽略rowHandler
+    private ExcelCompactRowHandler compactRowHandler;
+    //设置了compactRowHandler时用于记录数据行里的数据,所有数据行复用此对象
+    private ReusableExcelRow row;
+    //读取选项,为null表示读取所有Sheet的所有行和列
+    private ExcelReadOptions options;
+    //标题行和列名行取自哪个Sheet,0-based,即第一个被读取的Sheet
+    private int headerSheet = 0;
+    //是否已确定headerSheet
+    private boolean headerChosen = false;
+    //为true表示跳过当前Sheet剩余的记录(未选择的Sheet或已超过需要读取的行)
+    private boolean skipSheet = false;
+    //按顺序记录所有Sheet的名称
+    private List<String> sheetNames = new ArrayList<String>();
+    //根据options构建的列的选择结果,下标为列坐标,为null表示读取所有列
+    private boolean[] projection;
+    //根据options构建的过滤条件,下标为列坐标,为null表示不过滤
+    private ExcelCellPredicate[] filters;
+    //为true表示当前数据行不满足过滤条件,不再读取其中的单元格
+    private boolean rejectedRow = false;
+    //保存检查点的存储,为null表示不保存检查点
+    private ExcelCheckpointStore checkpointStore;
+    //开始解析时从checkpointStore读取的检查点,为null表示从头开始读取
+    private ExcelCheckpoint resumeFrom;
+    //为true表示当前Sheet已全部提交,只读取标题行和列名行
+    private boolean headerOnly = false;
+    //读取时的统计数据,为null表示不统计
+    private ExcelReadMetrics metrics;
+    //当前行被转换的单元格数和转换耗时,行结束时计入metrics
+    private int pendingCells = 0;
+    private long pendingConvertNanos = 0L;
     /***********************************************************************************/
     private POIFSFileSystem fs;
 
@@ -185,6 +238,85 @@ public class XLSReader implements HSSFListener {
         return limit;
     }
 
+    public ExcelCompactRowHandler getCompactRowHandler() {
+        return compactRowHandler;
+    }
+
+    /**
+     * 设置以紧凑行逐行处理数据行的回调函数,数据行不再为每一行创建{@link Map},
+     * 而是复用同一个{@link ReusableExcelRow},所有行共享由列名行构建的{@link ExcelRowSchema}。
+     * 设置后数据行不再放入{@link #datas}中,且忽略{@link #rowHandler},
+     * 回调函数返回false时停止解析整个Excel文档
+     *
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数
+     */
+    public void setCompactRowHandler(ExcelCompactRowHandler compactRowHandler) {
+        this.compactRowHandler = compactRowHandler;
+    }
+
+    public ExcelRowHandler getRowHandler() {
+        return rowHandler;
+    }
+
+    /**
+     * 设置逐行处理数据行的回调函数,设置后数据行不再放入{@link #datas}中,
+     * 回调函数返回false时停止解析整个Excel文档
+     *
+     * @param rowHandler 逐行处理数据行的回调函数
+     */
+    public void setRowHandler(ExcelRowHandler rowHandler) {
+        this.rowHandler = rowHandler;
+    }
+
+    public ExcelReadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置读取时的统计数据,每次调用{@link #process()}时清空并重新统计,
+     * 读取过程中可在其他线程中读取实时数据,参考{@link ExcelReadMetrics}
+     *
+     * @param metrics 统计数据,为null表示不统计(默认)
+     */
+    public void setMetrics(ExcelReadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ExcelReadOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 设置读取选项,只读取选择的Sheet,行和列,未选择的Sheet中的记录会被直接跳过,未选择的单元格不会被格式化和转换,
+     * 达到{@link ExcelReadOptions#getMaxRows()}或之后没有需要读取的Sheet时立即停止解析整个Excel文档,
+     * 不满足过滤条件({@link ExcelReadOptions#addFilter(String, ExcelCellPredicate)})的数据行在生成Map之前被丢弃,
+     * 为null表示全部读取(默认)
+     *
+     * @param options 读取选项
+     */
+    public void setOptions(ExcelReadOptions options) {
+        this.options = options;
+    }
+
+    public ExcelCheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    /**
+     * 设置保存检查点的存储,为null表示不保存检查点(默认)。
+     * 设置后每当回调函数成功处理完一批数据行,就将当前位置(Sheet坐标,行坐标,realRowInSheet,realRowInExcel)
+     * 作为{@link ExcelCheckpoint}保存到此存储中,整个Excel文档读取完毕后清除检查点。
+     * 开始解析时若此存储中已有检查点则从检查点恢复读取:检查点之前的Sheet中的记录直接跳过
+     * (若其中包含第一个被读取的Sheet,则只读取它的标题行和列名行),检查点所在Sheet中已提交的单元格不会被格式化和转换,
+     * 计数从检查点记录的值继续累加,即回调函数只会收到尚未提交的数据行。
+     * 注意:只在启用限制且设置了回调函数时保存检查点,{@link ExcelPipeline}在放入队列时即返回,不能用于保存检查点
+     *
+     * @param checkpointStore 保存检查点的存储
+     */
+    public void setCheckpointStore(ExcelCheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
     /**
      * Main HSSFListener method, processes events, and outputs the
      * CSV as the file is processed.
@@ -204,21 +336,87 @@ public class XLSReader implements HSSFListener {
             request.addListenerForAllRecords(workbookBuildingListener);
         }
 
-        try {
-            factory.processWorkbookEvents(request, fs);
-        } catch (IOException e) {
-            throw new ReadExcelException(e.getMessage());
+        if (this.metrics != null) {
+            this.metrics.start();
         }
-        //解析完后，判断用户是否设置了limit，若设置了执行以下操作
-        if (this.limit > 0) {
-            if (!this.datas.isEmpty()) {
-                if (this.callback != null) {
-                    //若数据不为空且回调函数被设置，则调用回调函数
-                    this.callback.callback(this.currentRowInSheet, this.currentSheetInExcel, this.realRowInSheet,
-                            this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns, this.datas);
+        try {
+            try {
+                this.resumeFrom = this.checkpointStore == null ? null : this.checkpointStore.load();
+                if (this.resumeFrom != null) {
+                    this.realRowInExcel = this.resumeFrom.getRealRowInExcel();
+                }
+                if (this.metrics == null) {
+                    factory.processWorkbookEvents(request, fs);
+                } else {
+                    //与processWorkbookEvents相同,但统计从Workbook流中读取的字节数
+                    InputStream in = fs.createDocumentInputStream(HSSFWorkbook.getWorkbookDirEntryName(fs.getRoot()));
+                    try {
+                        factory.processEvents(request, this.metrics.countBytes(in));
+                    } finally {
+                        in.close();
+                    }
+                }
+            } catch (StopParseException e) {
+                //提前结束解析
+            } catch (IOException e) {
+                throw new ReadExcelException(e.getMessage());
+            }
+            //解析完后，判断用户是否设置了limit，若设置了执行以下操作
+            if (this.limit > 0) {
+                if (!this.datas.isEmpty()) {
+                    if (this.callback != null) {
+                        //若数据不为空且回调函数被设置，则调用回调函数
+                        long start = this.callbackStarted();
+                        int batchSize = this.datas.size();
+                        this.callback.callback(this.currentRowInSheet, this.currentSheetInExcel, this.realRowInSheet,
+                                this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns, this.datas);
+                        this.callbackEnded(start, batchSize);
+                        try {
+                            this.saveCheckpoint();
+                        } catch (IOException e) {
+                            throw new ReadExcelException(e.getMessage());
+                        }
+                    }
+                    this.releaseDatas();
+                }
+            }
+            if (this.checkpointStore != null) {
+                //读取完毕,清除检查点
+                try {
+                    this.checkpointStore.clear();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
                 }
-                this.datas.clear();
             }
+        } finally {
+            if (this.metrics != null) {
+                if (this.limit <= 0) {
+                    //未启用限制时所有数据行为一批
+                    this.metrics.recordBatchSize(this.datas.size());
+                }
+                this.metrics.finish();
+            }
+        }
+    }
+
+    /**
+     * 设置了{@link #metrics}时返回调用回调函数前的时间
+     *
+     * @return
+     */
+    private long callbackStarted() {
+        return this.metrics == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * 设置了{@link #metrics}时记录回调的耗时和交给回调函数的数据行数
+     *
+     * @param start     调用回调函数前的时间
+     * @param batchSize 交给回调函数的数据行数,逐行处理时为0
+     */
+    private void callbackEnded(long start, int batchSize) {
+        if (this.metrics != null) {
+            this.metrics.recordCallback(System.nanoTime() - start, batchSize);
         }
     }
 
@@ -273,6 +471,9 @@ public class XLSReader implements HSSFListener {
         int thisColumn = -1;
         String thisStr = null;
 
+        if (this.skipSheet && record.getSid() != BOFRecord.sid) {
+            return;
+        }
         switch (record.getSid()) {
             case BOFRecord.sid:
                 BOFRecord br = (BOFRecord) record;
@@ -287,9 +488,37 @@ public class XLSReader implements HSSFListener {
                     this.currentSheetInExcel++;
                     this.currentRowInSheet = -1;
                     this.realRowInSheet = 0;
+                    this.lastRowNumber = -1;
+                    this.skipSheet = !this.isSheetSelected(this.currentSheetInExcel);
+                    if (this.skipSheet && this.currentSheetInExcel > this.lastSelectedSheet()) {
+                        //之后没有需要读取的Sheet
+                        throw new StopParseException();
+                    }
+                    if (!this.skipSheet && !this.headerChosen) {
+                        this.headerSheet = this.currentSheetInExcel;
+                        this.headerChosen = true;
+                    }
+                    this.headerOnly = false;
+                    if (!this.skipSheet && this.resumeFrom != null) {
+                        if (this.resumeFrom.isCommittedSheet(this.currentSheetInExcel)) {
+                            //已提交的Sheet只在是第一个被读取的Sheet时读取标题行和列名行,否则跳过
+                            this.headerOnly = this.currentSheetInExcel == this.headerSheet;
+                            this.skipSheet = !this.headerOnly;
+                        } else if (this.resumeFrom.getSheetIndex() == this.currentSheetInExcel) {
+                            this.realRowInSheet = this.resumeFrom.getRealRowInSheet();
+                        }
+                    }
+                    if (!this.skipSheet && this.metrics != null) {
+                        this.metrics.recordSheet();
+                    }
                 }
                 break;
 
+            case BoundSheetRecord.sid:
+                //工作簿中按顺序记录了所有Sheet的名称,位于所有Sheet之前
+                this.sheetNames.add(((BoundSheetRecord) record).getSheetname());
+                break;
+
             case SSTRecord.sid:
                 sstRecord = (SSTRecord) record;
                 break;
@@ -315,6 +544,9 @@ public class XLSReader implements HSSFListener {
                 thisRow = frec.getRow();
                 thisColumn = frec.getColumn();
 
+                if (!this.acceptCell(thisRow, thisColumn)) {
+                    break;
+                }
                 if (outputFormulaValues) {
                     if (Double.isNaN(frec.getValue())) {
                         // Formula result is a string
@@ -353,7 +585,7 @@ public class XLSReader implements HSSFListener {
 
                 thisRow = lsrec.getRow();
                 thisColumn = lsrec.getColumn();
-                if (sstRecord == null) {
+                if (sstRecord == null || !this.acceptCell(thisRow, thisColumn)) {
                     thisStr = null;
                 } else {
                     thisStr = sstRecord.getString(lsrec.getSSTIndex()).toString();
@@ -373,7 +605,9 @@ public class XLSReader implements HSSFListener {
                 thisColumn = numrec.getColumn();
 
                 // Format
-                thisStr = formatListener.formatNumberDateCell(numrec);
+                if (this.acceptCell(thisRow, thisColumn)) {
+                    thisStr = formatListener.formatNumberDateCell(numrec);
+                }
                 break;
             case RKRecord.sid:
                 RKRecord rkrec = (RKRecord) record;
@@ -394,13 +628,26 @@ public class XLSReader implements HSSFListener {
         }
         // Handle new row
         if (thisRow != -1 && thisRow != lastRowNumber) {
+            if (this.options != null && this.options.isAfterRange(thisRow)) {
+                //超过需要读取的行,跳过该Sheet剩余的记录
+                if (this.currentSheetInExcel >= this.lastSelectedSheet()) {
+                    throw new StopParseException();
+                }
+                this.skipSheet = true;
+                return;
+            }
+            if (this.headerOnly && thisRow > 1) {
+                //已提交的Sheet的标题行和列名行已读取完毕,跳过该Sheet剩余的记录
+                this.skipSheet = true;
+                return;
+            }
             lastColumnNumber = -1;
             this.isNewRow = true;
             this.currentRowInSheet = thisRow;
             this.currentColInRow = -1;
             if (this.currentRowInSheet > 1) {
                 //证明此行是数据行
-                this.data = new HashMap<String, Object>();
+                this.newDataRow();
             }
         }
 
@@ -415,22 +662,26 @@ public class XLSReader implements HSSFListener {
         if (thisStr != null && !thisStr.isEmpty()) {
             if (this.currentRowInSheet == 0) {
                 //标题行
-                if (this.currentSheetInExcel == 0) {
-                    //第0个Sheet则添加标题，0-based
+                if (this.currentSheetInExcel == this.headerSheet) {
+                    //第一个被读取的Sheet则添加标题，0-based
                     this.titles.add(thisStr);
                 }
             } else if (this.currentRowInSheet == 1) {
                 //列名行
-                if (this.currentSheetInExcel == 0) {
-                    //第0个Sheet则添加列名，0-based
+                if (this.currentSheetInExcel == this.headerSheet) {
+                    //第一个被读取的Sheet则添加列名，0-based
                     this.columns.add(thisStr);
                 }
 
-            } else {
+            } else if (this.acceptCell(this.currentRowInSheet, this.currentColInRow)) {
                 //数据行
-                String key = this.columns.get(this.currentColInRow);
-                Object value = this.getValue(thisStr);
-                this.data.put(key, value);
+                if (this.metrics == null) {
+                    this.putValue(this.getValue(thisStr));
+                } else {
+                    long start = System.nanoTime();
+                    this.putValue(this.getValue(thisStr));
+                    this.pendingConvertNanos += System.nanoTime() - start;
+                }
             }
         }
         /******************************************************************************/
@@ -448,11 +699,22 @@ public class XLSReader implements HSSFListener {
             lastColumnNumber = -1;
             /******************************************************************************/
             /******************************************************************************/
-            if (this.currentRowInSheet > 1 && !this.data.isEmpty()) {
-                //证明此行是数据行,且不为空行
-                this.datas.add(this.data);
+            boolean dataRow = this.currentRowInSheet > 1 && !this.isEmptyRow() && this.acceptRow();
+            if (this.metrics != null) {
+                this.metrics.recordRow(dataRow, this.pendingCells, this.pendingConvertNanos);
+                this.pendingCells = 0;
+                this.pendingConvertNanos = 0L;
+            }
+            if (dataRow) {
+                //证明此行是数据行,且不为空行,且满足过滤条件
                 this.realRowInSheet++;
                 this.realRowInExcel++;
+                if (this.compactRowHandler != null || this.rowHandler != null) {
+                    this.handleRow();
+                    this.checkMaxRows();
+                    return;
+                }
+                this.datas.add(this.data);
             }
             //判断用户是否开启限制
             if (this.limit > 0) {
@@ -461,22 +723,214 @@ public class XLSReader implements HSSFListener {
                     if (this.callback != null) {
                         //若设置了回调函数则调用
                         try {
+                            long start = this.callbackStarted();
+                            int batchSize = this.datas.size();
                             this.callback
                                     .callback(this.currentRowInSheet, this.currentSheetInExcel, this.realRowInSheet,
                                             this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns,
                                             this.datas);
+                            this.callbackEnded(start, batchSize);
+                            this.saveCheckpoint();
                         } catch (Exception e) {
                             throw new ReadExcelRuntimeException("SAX parser appears to be broken - " + e.getMessage());
                         }
                     }
                     //超过限制则清空
-                    this.datas.clear();
+                    this.releaseDatas();
                 }
             }
+            this.checkMaxRows();
             /******************************************************************************/
         }
     }
 
+    /**
+     * 回调完毕后释放{@link #datas},若回调函数为{@link ExcelPipeline}则这一批数据行的所有权已交给它,
+     * 此时不清空复用而是为下一批创建新的List,否则清空复用
+     */
+    private void releaseDatas() {
+        if (this.callback instanceof ExcelPipeline) {
+            this.datas = new ArrayList<Map<String, Object>>(this.limit);
+        } else {
+            this.datas.clear();
+        }
+    }
+
+    /**
+     * 判断是否需要读取指定的Sheet
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @return
+     */
+    private boolean isSheetSelected(int sheetIndex) {
+        return this.options == null || this.options.isSheetSelected(sheetIndex,
+                sheetIndex < this.sheetNames.size() ? this.sheetNames.get(sheetIndex) : null);
+    }
+
+    /**
+     * 获取最后一个需要读取的Sheet的坐标
+     *
+     * @return 读取所有Sheet时返回{@link Integer#MAX_VALUE}, 没有需要读取的Sheet时返回-1
+     */
+    private int lastSelectedSheet() {
+        if (this.options == null || this.sheetNames.isEmpty()) {
+            return Integer.MAX_VALUE;
+        }
+        for (int i = this.sheetNames.size() - 1; i >= 0; i--) {
+            if (this.isSheetSelected(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 回调函数成功处理完一批数据行后,将当前位置作为检查点保存到{@link #checkpointStore}
+     *
+     * @throws IOException
+     */
+    private void saveCheckpoint() throws IOException {
+        if (this.checkpointStore != null) {
+            this.checkpointStore.save(new ExcelCheckpoint(this.currentSheetInExcel, this.currentRowInSheet,
+                    this.realRowInSheet, this.realRowInExcel));
+        }
+    }
+
+    /**
+     * 根据{@link #options}判断是否需要读取指定的单元格,标题行和列名行总是需要读取,
+     * 已提交的行和不满足过滤条件的行总是不需要读取
+     *
+     * @param row 行坐标,0-based
+     * @param col 列坐标,0-based
+     * @return
+     */
+    private boolean acceptCell(int row, int col) {
+        if (row <= 1) {
+            return true;
+        }
+        if (this.resumeFrom != null && this.resumeFrom.isCommittedRow(this.currentSheetInExcel, row)) {
+            return false;
+        }
+        if (this.rejectedRow && row == this.currentRowInSheet) {
+            return false;
+        }
+        if (this.options == null) {
+            return true;
+        }
+        if (!this.options.isRowSelected(row)) {
+            return false;
+        }
+        if (this.projection == null) {
+            //此时列名行已读取完毕
+            this.projection = this.options.projection(this.columns);
+        }
+        return this.projection == null || col < 0 || (col < this.projection.length && this.projection[col]);
+    }
+
+    /**
+     * 若达到了{@link ExcelReadOptions#getMaxRows()}则停止解析整个Excel文档
+     */
+    private void checkMaxRows() {
+        if (this.options != null && this.options.getMaxRows() > 0 &&
+                this.realRowInExcel >= this.options.getMaxRows()) {
+            throw new StopParseException();
+        }
+    }
+
+    /**
+     * 开始记录一个新的数据行,设置了{@link #compactRowHandler}时复用{@link #row},否则创建新的{@link #data}
+     */
+    private void newDataRow() {
+        this.rejectedRow = false;
+        if (this.filters == null && this.options != null && this.options.hasFilters()) {
+            //此时列名行已读取完毕
+            this.filters = this.options.filters(this.columns);
+        }
+        if (this.compactRowHandler == null && this.filters == null) {
+            this.data = new HashMap<String, Object>();
+        } else if (this.row == null) {
+            //此时列名行已读取完毕
+            this.row = new ReusableExcelRow(new ExcelRowSchema(this.columns));
+        } else {
+            this.row.clear();
+        }
+    }
+
+    /**
+     * 记录当前数据行当前列的值,若该列有过滤条件则立即求值
+     *
+     * @param value
+     */
+    private void putValue(Object value) {
+        this.pendingCells++;
+        if (this.compactRowHandler == null && this.filters == null) {
+            this.data.put(this.columns.get(this.currentColInRow), value);
+            return;
+        }
+        this.row.set(this.currentColInRow, value);
+        if (this.filters != null && this.currentColInRow < this.filters.length &&
+                this.filters[this.currentColInRow] != null && !this.filters[this.currentColInRow].test(value)) {
+            this.rejectedRow = true;
+        }
+    }
+
+    /**
+     * 判断当前数据行是否为空行
+     *
+     * @return
+     */
+    private boolean isEmptyRow() {
+        return this.compactRowHandler == null && this.filters == null ? this.data.isEmpty() : this.row.isEmpty();
+    }
+
+    /**
+     * 判断当前数据行是否满足所有过滤条件(空单元格以null求值),
+     * 满足且未设置{@link #compactRowHandler}时由{@link #row}生成{@link #data}
+     *
+     * @return
+     */
+    private boolean acceptRow() {
+        if (this.filters == null) {
+            return true;
+        }
+        if (this.rejectedRow) {
+            return false;
+        }
+        for (int i = 0; i < this.filters.length; i++) {
+            if (this.filters[i] != null && this.row.get(i) == null && !this.filters[i].test(null)) {
+                return false;
+            }
+        }
+        if (this.compactRowHandler == null) {
+            this.data = new HashMap<String, Object>();
+            for (int i = 0; i < this.row.size(); i++) {
+                if (this.row.get(i) != null) {
+                    this.data.put(this.columns.get(i), this.row.get(i));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将当前数据行交给{@link #compactRowHandler}或{@link #rowHandler}处理,若其返回false则停止解析整个Excel文档
+     */
+    private void handleRow() {
+        boolean goOn;
+        try {
+            long start = this.callbackStarted();
+            goOn = this.compactRowHandler != null ?
+                    this.compactRowHandler.handleRow(this.currentSheetInExcel, this.currentRowInSheet, this.row) :
+                    this.rowHandler.handleRow(this.currentSheetInExcel, this.currentRowInSheet, this.data);
+            this.callbackEnded(start, 0);
+        } catch (Exception e) {
+            throw new ReadExcelRuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+        if (!goOn) {
+            throw new StopParseException();
+        }
+    }
+
     /**
      * 读取整个Excel文件,并把读取的数据放入beanMap中,全部返回
      *
@@ -522,17 +976,75 @@ public class XLSReader implements HSSFListener {
      * @throws ReadExcelException
      */
     public static <T> List<T> readExcelToBeans(File file, Integer scale, Class<T> clazz) throws ReadExcelException {
-        List<Map<String, Object>> mapList = XLSReader.readExcelToMapList(file, scale);
-        List<T> beans = new ArrayList<T>();
-        for (Map<String, Object> map : mapList) {
-            T bean = CommonUtils.toBean(map, clazz);
-            if (bean != null) {
-                beans.add(bean);
+        final List<T> beans = new ArrayList<T>();
+        final ExcelBeanBinder<T> binder = new ExcelBeanBinder<T>(clazz);
+        XLSReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                    throws ReadExcelException {
+                beans.add(binder.bind(row));
+                return true;
             }
-        }
+        });
         return beans;
     }
 
+    /**
+     * 读取整个Excel文件,边解析边把数据行封装成Class的实例,每封装batchSize个后交给回调函数处理,
+     * 不会创建中间的Map,也不会在内存中保留所有数据
+     *
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param clazz     指定封装类型
+     * @param batchSize 每批的JavaBean个数
+     * @param handler   分批处理JavaBean的回调函数,返回false时停止解析
+     * @throws ReadExcelException
+     */
+    public static <T> void readExcelToBeans(File file, Integer scale, Class<T> clazz, int batchSize,
+                                            ExcelBeanHandler<T> handler) throws ReadExcelException {
+        ExcelBeanBinder<T>.BatchRowHandler batchRowHandler = new ExcelBeanBinder<T>(clazz).batch(batchSize, handler);
+        XLSReader.readExcelByRow(file, scale, batchRowHandler);
+        batchRowHandler.flush();
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件并封装成Class的实例,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param clazz 指定封装类型
+     * @return JavaBean组成的流
+     */
+    public static <T> Stream<T> readExcelToBeanStream(File file, Class<T> clazz) {
+        return XLSReader.readExcelToBeanStream(file, null, clazz);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件并封装成Class的实例,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param clazz 指定封装类型
+     * @return JavaBean组成的流
+     */
+    public static <T> Stream<T> readExcelToBeanStream(final File file, final Integer scale, final Class<T> clazz) {
+        ExcelRowIterator.RowSource<T> source = new ExcelRowIterator.RowSource<T>() {
+            @Override
+            public void read(final ExcelRowIterator.RowSink<T> sink) throws ReadExcelException {
+                final ExcelBeanBinder<T> binder = new ExcelBeanBinder<T>(clazz);
+                XLSReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+                    @Override
+                    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                            throws ReadExcelException {
+                        return sink.put(binder.bind(row));
+                    }
+                });
+            }
+        };
+        return new ExcelRowIterator<T>(ExcelRowIterator.DEFAULT_BUFFER_SIZE, source).stream();
+    }
+
     /**
      * 读取整个Excel文件,并把读取的数据放入beanMap中,
      * 可以通过返回的{@link XLSReader}对象调用{@link XLSReader#getDatas()}方法拿到数据
@@ -555,11 +1067,42 @@ public class XLSReader implements HSSFListener {
      * @throws ReadExcelException
      */
     public static XLSReader readExcel(File file, Integer scale) throws ReadExcelException {
+        return XLSReader.readExcel(file, scale, (ExcelReadOptions) null);
+    }
+
+    /**
+     * 按读取选项读取Excel文件,并把读取的数据放入beanMap中,全部返回,
+     * 例如只预览前100行:options.setMaxRows(100)
+     *
+     * @param file    Excel文件
+     * @param scale   指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options 读取选项,参考{@link #setOptions(ExcelReadOptions)}
+     * @return 返回所有封装好的beanMap数据
+     * @throws ReadExcelException
+     */
+    public static List<Map<String, Object>> readExcelToMapList(File file, Integer scale, ExcelReadOptions options)
+            throws ReadExcelException {
+        return XLSReader.readExcel(file, scale, options).getDatas();
+    }
+
+    /**
+     * 按读取选项读取Excel文件,并把读取的数据放入beanMap中,
+     * 可以通过返回的{@link XLSReader}对象调用{@link XLSReader#getDatas()}方法拿到数据
+     *
+     * @param file    Excel文件
+     * @param scale   指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options 读取选项,参考{@link #setOptions(ExcelReadOptions)}
+     * @return 返回 {@link XLSReader}对象，你可以通过此对象获取你需要的数据
+     * @throws ReadExcelException
+     */
+    public static XLSReader readExcel(File file, Integer scale, ExcelReadOptions options)
+            throws ReadExcelException {
         POIFSFileSystem fs = null;
         XLSReader reader = null;
         try {
             fs = new POIFSFileSystem(file);
             reader = new XLSReader(fs, scale);
+            reader.setOptions(options);
             reader.process();
         } catch (Exception e) {
             throw new ReadExcelException(e.getMessage());
@@ -623,4 +1166,317 @@ public class XLSReader implements HSSFListener {
             }
         }
     }
+
+    /**
+     * 读取整个Excel文件,以按列存储的形式返回所有数据行,参考{@link ExcelColumnarBuilder}
+     *
+     * @param file Excel文件
+     * @return 读取结果
+     * @throws ReadExcelException
+     */
+    public static ExcelColumnarTable readExcelToColumnar(File file) throws ReadExcelException {
+        return XLSReader.readExcelToColumnar(file, null, null, ExcelColumnarBuilder.DEFAULT_INFER_ROWS);
+    }
+
+    /**
+     * 读取整个Excel文件,以按列存储的形式返回所有数据行,
+     * 每一列的类型根据前inferRows个数据行推断,参考{@link ExcelColumnarBuilder}
+     *
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options   读取选项,为null表示全部读取
+     * @param inferRows 根据前多少个数据行推断列的类型,&lt;=0表示使用默认值{@link ExcelColumnarBuilder#DEFAULT_INFER_ROWS}
+     * @return 读取结果
+     * @throws ReadExcelException
+     */
+    public static ExcelColumnarTable readExcelToColumnar(File file, Integer scale, ExcelReadOptions options,
+                                                         int inferRows) throws ReadExcelException {
+        ExcelColumnarBuilder builder = new ExcelColumnarBuilder(inferRows);
+        POIFSFileSystem fs = null;
+        try {
+            fs = new POIFSFileSystem(file);
+            XLSReader reader = new XLSReader(fs, scale);
+            reader.setOptions(options);
+            reader.setCompactRowHandler(builder);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (fs != null) {
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * 读取整个Excel文件,在解析的过程中对数据行做流式统计,不保留任何数据行,参考{@link ExcelAggregator}
+     *
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options    读取选项(可包含过滤条件),为null时只读取统计需要的列
+     * @param aggregator 统计的方式,统计结果也记录在此对象中
+     * @return aggregator
+     * @throws ReadExcelException
+     */
+    public static ExcelAggregator readExcelToAggregator(File file, Integer scale, ExcelReadOptions options,
+                                                        ExcelAggregator aggregator) throws ReadExcelException {
+        if (options == null) {
+            options = new ExcelReadOptions();
+            options.setColumns(aggregator.getRequiredColumns());
+        }
+        POIFSFileSystem fs = null;
+        try {
+            fs = new POIFSFileSystem(file);
+            XLSReader reader = new XLSReader(fs, scale);
+            reader.setOptions(options);
+            reader.setCompactRowHandler(aggregator);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (fs != null) {
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+        return aggregator;
+    }
+
+    /**
+     * 用于读取limit行之后处理读取的数据(通过回调函数处理),并在每一批数据行处理成功后保存检查点,
+     * 若checkpointStore中已有检查点则从检查点恢复读取,参考{@link #setCheckpointStore(ExcelCheckpointStore)}
+     *
+     * @param file            Excel文件
+     * @param scale           指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit           每一批最多含有多少数据行,必须&gt;0
+     * @param callback        处理每一批数据行的回调函数,返回即表示这一批数据行已提交
+     * @param checkpointStore 保存检查点的存储
+     * @throws ReadExcelException
+     */
+    public static void readExcelWithCheckpoint(File file, Integer scale, int limit, ExcelHandler callback,
+                                               ExcelCheckpointStore checkpointStore) throws ReadExcelException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        POIFSFileSystem fs = null;
+        try {
+            fs = new POIFSFileSystem(file);
+            XLSReader reader = new XLSReader(fs, scale, limit, callback);
+            reader.setCheckpointStore(checkpointStore);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (fs != null) {
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 以流水线方式读取整个Excel文件:解析线程每读取limit行就将这一批数据行交给consumer在消费线程中处理,
+     * 解析与处理同时进行,参考{@link ExcelPipeline}
+     *
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit     每一批最多含有多少数据行,必须&gt;0
+     * @param consumer  处理每一批数据行的回调函数,会被多个消费线程并发调用,必须是线程安全的,
+     *                  每一批数据行的List归consumer所有,不会被清空复用
+     * @param consumers 消费线程数
+     * @param queueSize 等待处理的批次最多有多少个,超过时解析线程会等待,&lt;=0表示使用默认值{@link ExcelPipeline#DEFAULT_QUEUE_SIZE}
+     * @throws ReadExcelException 解析失败或任意一批处理失败时抛出,任意一批处理失败时会停止解析
+     */
+    public static void readExcelInPipeline(File file, Integer scale, int limit, ExcelHandler consumer, int consumers,
+                                           int queueSize) throws ReadExcelException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        ExcelPipeline pipeline = new ExcelPipeline(consumer, consumers, queueSize);
+        try {
+            XLSReader.readExcel(file, scale, limit, pipeline);
+        } catch (ReadExcelException e) {
+            pipeline.cancel();
+            //若是consumer抛出异常导致停止解析,则抛出consumer的异常
+            pipeline.finish();
+            throw e;
+        }
+        pipeline.finish();
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入紧凑行{@link ExcelRow}中,全部返回,
+     * 所有行共享同一个{@link ExcelRowSchema},需要{@link Map}时可调用{@link ExcelRow#asMap()}
+     *
+     * @param file Excel文件
+     * @return 返回所有数据行, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static List<ExcelRow> readExcelToRows(File file) throws ReadExcelException {
+        return XLSReader.readExcelToRows(file, null);
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入紧凑行{@link ExcelRow}中,全部返回,
+     * 所有行共享同一个{@link ExcelRowSchema},需要{@link Map}时可调用{@link ExcelRow#asMap()}
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 返回所有数据行, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static List<ExcelRow> readExcelToRows(File file, Integer scale) throws ReadExcelException {
+        final List<ExcelRow> rows = new ArrayList<ExcelRow>();
+        XLSReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                rows.add(row.copy());
+                return true;
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * 以紧凑行逐行读取整个Excel文件,所有数据行复用同一个{@link ReusableExcelRow}
+     *
+     * @param file              Excel文件
+     * @param scale             指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数,参考{@link #setCompactRowHandler(ExcelCompactRowHandler)}
+     * @throws ReadExcelException
+     */
+    public static void readExcelByRow(File file, Integer scale, ExcelCompactRowHandler compactRowHandler)
+            throws ReadExcelException {
+        POIFSFileSystem fs = null;
+        try {
+            fs = new POIFSFileSystem(file);
+            XLSReader reader = new XLSReader(fs, scale);
+            reader.setCompactRowHandler(compactRowHandler);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (fs != null) {
+                try {
+                    fs.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file Excel文件
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(File file) {
+        return XLSReader.readExcelToIterator(file, null, ExcelRowIterator.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param bufferSize 解析线程与调用者之间的缓冲区大小,&lt;=0表示使用默认值
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(File file, Integer scale, int bufferSize) {
+        return XLSReader.readExcelToIterator(file, scale, bufferSize, null);
+    }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param bufferSize 解析线程与调用者之间的缓冲区大小,&lt;=0表示使用默认值
+     * @param executor   执行解析的{@link Executor},为null表示使用共享的守护线程池
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(final File file, final Integer scale,
+                                                                           int bufferSize, Executor executor) {
+        ExcelRowIterator.RowSource<Map<String, Object>> source = new ExcelRowIterator.RowSource<Map<String, Object>>() {
+            @Override
+            public void read(final ExcelRowIterator.RowSink<Map<String, Object>> sink) throws ReadExcelException {
+                POIFSFileSystem fs = null;
+                try {
+                    fs = new POIFSFileSystem(file);
+                    XLSReader reader = new XLSReader(fs, scale);
+                    reader.setRowHandler(new ExcelRowHandler() {
+                        @Override
+                        public boolean handleRow(int currentSheetInExcel, int currentRowInSheet,
+                                                 Map<String, Object> data) {
+                            return sink.put(data);
+                        }
+                    });
+                    reader.process();
+                } catch (ReadExcelException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ReadExcelException(e.getMessage());
+                } finally {
+                    if (fs != null) {
+                        try {
+                            fs.close();
+                        } catch (IOException e) {
+                            throw new ReadExcelException(e.getMessage());
+                        }
+                    }
+                }
+            }
+        };
+        return new ExcelRowIterator<Map<String, Object>>(bufferSize, source, executor);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file Excel文件
+     * @return 数据行组成的流
+     */
+    public static Stream<Map<String, Object>> readExcelToStream(File file) {
+        return XLSReader.readExcelToStream(file, null);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 数据行组成的流
+     */
+    public static Stream<Map<String, Object>> readExcelToStream(File file, Integer scale) {
+        return XLSReader.readExcelToIterator(file, scale, ExcelRowIterator.DEFAULT_BUFFER_SIZE).stream();
+    }
+
+    /**
+     * 用于提前结束解析
+     */
+    private static class StopParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public StopParseException() {
+            super(null, null, false, false);
+        }
+    }
 }
@@ -0,0 +1,203 @@
+package com.github.flyinghe.tools;
+
+import com.github.flyinghe.depdcy.AbstractExcelWriter;
+import com.github.flyinghe.depdcy.DirectXLSXWorkbook;
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.exception.WriteExcelRuntimeException;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * <p>
+ * 支持写入大数据量的需求,但仅支持xlsx类型的Excel文件。
+ * 与{@link XLSXWriter}不同的是,刷出的行直接写入构造时指定的输出流,不会产生任何缓存文件,
+ * 因此Sheet只能顺序写入,详见{@link DirectXLSXWorkbook}。
+ * </p>
+ */
+public class XLSXDirectWriter<T> extends AbstractExcelWriter<T> {
+    public static final int DEFAULT_FLUSH_SIZE = 1000;
+    /**
+     * 每写入多少个数据将内存中的行刷入输出流,&lt;=0表示只在每次调用write方法结束时刷入
+     */
+    private int flushSize = DEFAULT_FLUSH_SIZE;
+    //上次刷入之后写入的数据数
+    private int unflushedData = 0;
+    //目标输出流
+    private OutputStream os;
+
+    /**
+     * @param os 目标输出流,在{@link #endWrite()}时关闭
+     * @throws WriteExcelException 异常
+     */
+    public XLSXDirectWriter(OutputStream os) throws WriteExcelException {
+        this(os, -1);
+    }
+
+    /**
+     * @param os    目标输出流,在{@link #endWrite()}时关闭
+     * @param limit {@link #limit}
+     * @throws WriteExcelException 异常
+     */
+    public XLSXDirectWriter(OutputStream os, int limit) throws WriteExcelException {
+        this(os, limit, DATE_PATTERN);
+    }
+
+    /**
+     * @param os         目标输出流,在{@link #endWrite()}时关闭
+     * @param limit      {@link #limit}
+     * @param dateFormat 指定默认日期格式,若为空则使用默认日期格式
+     * @throws WriteExcelException 异常
+     * @see #DATE_PATTERN
+     */
+    public XLSXDirectWriter(OutputStream os, int limit, String dateFormat) throws WriteExcelException {
+        this(os, true, limit, 0, false, dateFormat);
+    }
+
+    /**
+     * @param os               目标输出流,在{@link #endWrite()}时关闭
+     * @param isWriteTitle     {@link #isWriteTitle}
+     * @param limit            {@link #limit}
+     * @param rowNumReserved   {@link #rowNumReserved}
+     * @param useSharedStrings 指定是否使用共享字符串,使用共享字符串时重复的字符串只保存一份,
+     *                         但所有不同的字符串都会保存在内存中直到写入完毕
+     * @param dateFormat       指定默认日期格式,若为空则使用默认日期格式
+     * @throws WriteExcelException 异常
+     * @see #DATE_PATTERN
+     */
+    public XLSXDirectWriter(OutputStream os, boolean isWriteTitle, int limit, int rowNumReserved,
+                            boolean useSharedStrings, String dateFormat)
+            throws WriteExcelException {
+        this(os, isWriteTitle, true, limit, rowNumReserved, useSharedStrings, dateFormat);
+    }
+
+    /**
+     * @param os               目标输出流,在{@link #endWrite()}时关闭
+     * @param isWriteTitle     {@link #isWriteTitle}
+     * @param isSkipBlankRow   {@link #isSkipBlankRow}
+     * @param limit            {@link #limit}
+     * @param rowNumReserved   {@link #rowNumReserved}
+     * @param useSharedStrings 指定是否使用共享字符串,使用共享字符串时重复的字符串只保存一份,
+     *                         但所有不同的字符串都会保存在内存中直到写入完毕
+     * @param dateFormat       指定默认日期格式,若为空则使用默认日期格式
+     * @throws WriteExcelException 异常
+     * @see #DATE_PATTERN
+     */
+    public XLSXDirectWriter(OutputStream os, boolean isWriteTitle, boolean isSkipBlankRow, int limit,
+                            int rowNumReserved, boolean useSharedStrings, String dateFormat)
+            throws WriteExcelException {
+        super(isWriteTitle, isSkipBlankRow, limit, rowNumReserved, XLSX, dateFormat);
+        if (null == os) {
+            throw new WriteExcelException("输出流不能为空");
+        }
+        this.os = os;
+        this.workbook = new DirectXLSXWorkbook(os, useSharedStrings);
+        this.validateDataWhenConstruct();
+    }
+
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    /**
+     * @param flushSize {@link #flushSize}
+     */
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
+    /**
+     * 将内存中的Excel数据刷入输出流
+     *
+     * @param all 是否刷出所有行,为false时若不需要写入空行且上一行为空行则保留上一行
+     */
+    private void flush(boolean all) {
+        this.unflushedData = 0;
+        if (null == this.currentSheet) {
+            return;
+        }
+        try {
+            if (!all && this.isSkipBlankRow && this.isBlankLastRow) {
+                //若不需要写入空行,且上一行为空行的话则保留上一行不被刷出
+                ((SXSSFSheet) this.currentSheet).flushRows(1);
+            } else {
+                ((SXSSFSheet) this.currentSheet).flushRows();
+            }
+        } catch (Exception e) {
+            throw new WriteExcelRuntimeException("Flush Error:" + e.getMessage());
+        }
+    }
+
+    @Override
+    protected void initSheet() throws WriteExcelException {
+        //在开始新的一页之前(第一页除外)会把上一页的数据全部刷出,之后上一页不能再写入
+        if (this.allSheetInExcel > 0) {
+            this.flush(true);
+        }
+        super.initSheet();
+    }
+
+    @Override
+    protected void afterWritePerData() {
+        if (this.flushSize > 0 && ++this.unflushedData >= this.flushSize) {
+            this.flush(false);
+        }
+    }
+
+    @Override
+    public AbstractExcelWriter<T> write(Iterator<T> datas) throws WriteExcelException {
+        super.write(datas);
+        this.flush(false);
+        return this;
+    }
+
+    /**
+     * 结束写入并将剩余数据输出到构造时指定的输出流,然后关闭该流,
+     * 该方法仅可调用一次
+     *
+     * @return 写入成功返回true, 失败返回false
+     */
+    public boolean endWrite() {
+        return this.endWrite(this.os);
+    }
+
+    /**
+     * 不支持,数据只能输出到构造时指定的输出流
+     *
+     * @throws WriteExcelRuntimeException
+     * @see #endWrite()
+     */
+    @Override
+    public boolean endWrite(File file) {
+        throw new WriteExcelRuntimeException("XLSXDirectWriter只能输出到构造时指定的输出流,请使用endWrite()");
+    }
+
+    /**
+     * 结束写入并将剩余数据输出到构造时指定的输出流,然后关闭该流,
+     * 该方法仅可调用一次
+     *
+     * @param os 只能是构造时指定的输出流
+     * @return 写入成功返回true, 失败返回false
+     */
+    @Override
+    public boolean endWrite(OutputStream os) {
+        if (os != this.os) {
+            throw new WriteExcelRuntimeException("XLSXDirectWriter只能输出到构造时指定的输出流,请使用endWrite()");
+        }
+        super.endWrite(os);
+        boolean flag = false;
+        try {
+            this.workbook.write(os);
+            flag = true;
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            CommonUtils.closeIOStream(null, os);
+        }
+        return flag;
+    }
+}
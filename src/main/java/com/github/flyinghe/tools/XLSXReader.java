@@ -1,33 +1,73 @@
 package com.github.flyinghe.tools;
 
+import com.github.flyinghe.depdcy.CellFormatTable;
+import com.github.flyinghe.depdcy.ExcelBeanBinder;
+import com.github.flyinghe.depdcy.ExcelAggregator;
+import com.github.flyinghe.depdcy.ExcelBeanHandler;
+import com.github.flyinghe.depdcy.ExcelCellConverter;
+import com.github.flyinghe.depdcy.ExcelCellPredicate;
+import com.github.flyinghe.depdcy.ExcelCheckpoint;
+import com.github.flyinghe.depdcy.ExcelCheckpointStore;
+import com.github.flyinghe.depdcy.ExcelColumnarBuilder;
+import com.github.flyinghe.depdcy.ExcelColumnarTable;
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
 import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelPipeline;
+import com.github.flyinghe.depdcy.ExcelReadMetrics;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.depdcy.ExcelRow;
+import com.github.flyinghe.depdcy.ExcelRowHandler;
+import com.github.flyinghe.depdcy.ExcelRowIterator;
+import com.github.flyinghe.depdcy.ExcelRowSchema;
+import com.github.flyinghe.depdcy.ExcelSchema;
+import com.github.flyinghe.depdcy.ExcelStringPool;
+import com.github.flyinghe.depdcy.ExcelTextConverter;
+import com.github.flyinghe.depdcy.InMemorySharedStringsStore;
+import com.github.flyinghe.depdcy.MappedSharedStringsStore;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
+import com.github.flyinghe.depdcy.SharedStringsStore;
+import com.github.flyinghe.depdcy.SheetXMLChunker;
+import com.github.flyinghe.depdcy.XSSFSheetStaxParser;
 import com.github.flyinghe.depdcy.XSSFSheetXMLHandlerPlus;
 import com.github.flyinghe.depdcy.XSSFSheetXMLHandlerPlus.SheetContentsHandler;
+import com.github.flyinghe.depdcy.XSSFSheetXMLHandlerPlus.TypedSheetContentsHandler;
 import com.github.flyinghe.exception.ReadExcelException;
 import com.github.flyinghe.exception.ReadExcelRuntimeException;
+import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.openxml4j.opc.PackageAccess;
-import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.DateUtil;
 import org.apache.poi.ss.util.CellAddress;
 import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.ss.util.NumberToTextConverter;
 import org.apache.poi.util.SAXHelper;
 import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
 import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.apache.poi.xssf.model.StylesTable;
 import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
 import org.xml.sax.ContentHandler;
 import org.xml.sax.InputSource;
 import org.xml.sax.XMLReader;
 
 import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.text.ParseException;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
 
 /**
  * Created by FlyingHe on 2017/8/9.
@@ -39,8 +79,14 @@ import java.util.*;
  * Excel文件中每一个Sheet的格式均是这样
  * </p>
  */
-public class XLSXReader implements SheetContentsHandler {
+public class XLSXReader implements TypedSheetContentsHandler {
     private static final String[] DATE_PATTERN = new String[]{"yyyy-MM-dd HH:mm:ss.S"};
+    //默认共享字符串表(解压后)超过64MB时写入临时文件
+    public static final long DEFAULT_SHARED_STRINGS_SPILL_SIZE = 64L * 1024 * 1024;
+    //Sheet内并行解析时最多同时解析多少块
+    private static final int MAX_PENDING_CHUNKS = Runtime.getRuntime().availableProcessors() * 2;
+    //根据Sheet的使用范围预先分配datas时最多预留多少个数据行,避免使用范围异常时分配过多内存
+    private static final int MAX_PRESIZE_ROWS = 1 << 17;
     private OPCPackage xlsxPackage;
     //是否是新的一行
     private boolean isNewRow = false;
@@ -68,6 +114,77 @@ public class XLSXReader implements SheetContentsHandler {
     private ExcelHandler callback;
     //若有小数则指定保留几位小数,若为Null或者<=0则表示不四舍五入
     private Integer scale;
+    //为true表示按单元格类型直接生成值,不再先格式化成字符串再解析
+    private boolean typedValue = false;
+    //指定的共享字符串表存储方式,为null表示根据sharedStringsSpillSize自动选择
+    private SharedStringsStore sharedStringsStore;
+    //共享字符串表(解压后)超过此字节数时写入临时文件并通过内存映射按需读取,<=0表示始终读入内存
+    private long sharedStringsSpillSize = DEFAULT_SHARED_STRINGS_SPILL_SIZE;
+    //共享字符串表写入临时文件时LRU缓存的字符串个数,<=0表示不缓存
+    private int sharedStringsCacheSize = MappedSharedStringsStore.DEFAULT_CACHE_SIZE;
+    //逐行处理数据行的回调函数,设置后数据行不再放入datas中
+    private ExcelRowHandler rowHandler;
+    //以紧凑行逐行处理数据行的回调函数,设置后数据行不再放入datas中,且忽略rowHandler
+    private ExcelCompactRowHandler compactRowHandler;
+    //设置了compactRowHandler时用于记录数据行里的数据,所有数据行复用此对象
+    private ReusableExcelRow row;
+    //为true表示已停止解析整个Excel文档
+    private boolean stopped = false;
+    //并行解析多个Sheet时使用的线程池,为null表示按顺序逐个解析Sheet
+    private ExecutorService executor;
+    //>0表示将每个Sheet按此字节数切分成若干块并使用executor并行解析(实验性),<=0表示不切分
+    private int sheetChunkSize = 0;
+    //根据formatTableStyles构建的数字格式表,解析同一个Excel文档的所有Sheet时共享
+    private CellFormatTable formatTable;
+    private StylesTable formatTableStyles;
+    //为true表示使用StAX引擎(XSSFSheetStaxParser)解析Sheet的XML,否则使用SAX
+    private boolean staxParser = false;
+    //并行解析时,每个Sheet由一个独立的XLSXReader解析,此字段指向发起解析的XLSXReader,顺序解析时为null
+    private XLSXReader parent;
+    //为true表示标题行和列名行已经预先读取完毕,解析时不再记录标题和列名
+    private boolean headerReady = false;
+    //并行解析时若有Sheet解析失败则置为true,其他正在解析的Sheet会尽快停止解析
+    private volatile boolean aborted = false;
+    //读取选项,为null表示读取所有Sheet的所有行和列
+    private ExcelReadOptions options;
+    //标题行和列名行取自哪个Sheet,0-based,即第一个被读取的Sheet
+    private int headerSheet = 0;
+    //根据options构建的列的选择结果,下标为列坐标,为null表示读取所有列
+    private boolean[] projection;
+    //根据options构建的过滤条件,下标为列坐标,为null表示不过滤
+    private ExcelCellPredicate[] filters;
+    //为true表示当前数据行不满足过滤条件,不再读取其中的单元格
+    private boolean rejectedRow = false;
+    //保存检查点的存储,为null表示不保存检查点
+    private ExcelCheckpointStore checkpointStore;
+    //开始解析时从checkpointStore读取的检查点,为null表示从头开始读取
+    private ExcelCheckpoint resumeFrom;
+    //为true表示当前Sheet已全部提交,只读取标题行和列名行
+    private boolean headerOnly = false;
+    //为true表示当前行已提交,不再读取其中的单元格
+    private boolean committedRow = false;
+    //为true表示内容相同的字符串值尽量共享同一个String实例
+    private boolean internStrings = false;
+    //设置了internStrings时每列最多记录的不同字符串个数
+    private int internPoolSize = ExcelStringPool.DEFAULT_MAX_SIZE;
+    //设置了internStrings时按列共享字符串值的字符串池,第一次使用时创建
+    private ExcelStringPool stringPool;
+    //设置了internStrings时按SST坐标缓存已解析的共享字符串,解析同一个Excel文档的所有Sheet时共享,
+    //共享字符串表写入临时文件时为null
+    private String[] sharedStringCache;
+    //读取时的统计数据,为null表示不统计
+    private ExcelReadMetrics metrics;
+    //当前行被转换的单元格数和转换耗时,行结束时计入metrics
+    private int pendingCells = 0;
+    private long pendingConvertNanos = 0L;
+    //使用者指定的列类型,为null表示所有列均推断类型
+    private ExcelSchema schema;
+    //由列名行和schema构建的列结构,读取到第一个数据行时构建,之后所有数据行复用
+    private ExcelRowSchema headerSchema;
+    //下标即列坐标,元素为schema中指定的转换器,为null表示推断该列的类型
+    private ExcelCellConverter[] converters;
+    //根据列数计算的数据行Map的初始容量,避免放入单元格时扩容
+    private int rowCapacity = 16;
 
     /**
      * @param p The XLSX package to process
@@ -112,10 +229,292 @@ public class XLSXReader implements SheetContentsHandler {
         this.scale = scale;
     }
 
+    /**
+     * 并行解析时用于构造解析单个Sheet的XLSXReader
+     *
+     * @param parent      发起解析的XLSXReader
+     * @param sheetIndex  被解析的Sheet坐标,0-based
+     * @param headerReady 标题行和列名行是否已经预先读取完毕
+     */
+    private XLSXReader(XLSXReader parent, int sheetIndex, boolean headerReady) {
+        this(parent.xlsxPackage, parent.scale, parent.limit, parent.callback);
+        this.typedValue = parent.typedValue;
+        this.staxParser = parent.staxParser;
+        this.internStrings = parent.internStrings;
+        this.internPoolSize = parent.internPoolSize;
+        this.metrics = parent.metrics;
+        this.schema = parent.schema;
+        this.options = parent.options;
+        this.headerSheet = sheetIndex;
+        this.parent = parent;
+        this.headerReady = headerReady;
+        this.titles = parent.titles;
+        this.columns = parent.columns;
+        this.currentSheetInExcel = sheetIndex;
+        this.allSheetInExcel = sheetIndex + 1;
+    }
+
     public Integer getScale() {
         return scale;
     }
 
+    public boolean isTypedValue() {
+        return typedValue;
+    }
+
+    /**
+     * 设置是否按单元格类型直接生成值(默认false)。
+     * 为true时数值单元格为{@link Double}(指定了{@link #scale}则四舍五入),日期格式的数值单元格为{@link Date},
+     * 布尔单元格为{@link Boolean},其他为{@link String},
+     * 不再将单元格格式化成字符串后通过{@link #getValue(String)}尝试解析,省去了格式化和解析失败抛出异常的开销。
+     * 注意:为false时数值均以字符串形式返回,两种模式下数值的类型不同
+     *
+     * @param typedValue 是否按单元格类型直接生成值
+     */
+    public void setTypedValue(boolean typedValue) {
+        this.typedValue = typedValue;
+    }
+
+    public SharedStringsStore getSharedStringsStore() {
+        return sharedStringsStore;
+    }
+
+    /**
+     * 指定共享字符串表的存储方式,为null表示根据{@link #sharedStringsSpillSize}自动选择(默认)。
+     * 注意:指定的存储方式由调用者创建和关闭,且必须与被解析的Excel文档对应
+     *
+     * @param sharedStringsStore 共享字符串表的存储方式
+     */
+    public void setSharedStringsStore(SharedStringsStore sharedStringsStore) {
+        this.sharedStringsStore = sharedStringsStore;
+    }
+
+    public long getSharedStringsSpillSize() {
+        return sharedStringsSpillSize;
+    }
+
+    /**
+     * 设置共享字符串表(解压后)超过多少字节时写入临时文件,并通过内存映射按需读取({@link MappedSharedStringsStore}),
+     * 否则全部读入内存({@link InMemorySharedStringsStore}),&lt;=0表示始终读入内存,
+     * 默认为{@link #DEFAULT_SHARED_STRINGS_SPILL_SIZE}
+     *
+     * @param sharedStringsSpillSize 字节数
+     */
+    public void setSharedStringsSpillSize(long sharedStringsSpillSize) {
+        this.sharedStringsSpillSize = sharedStringsSpillSize;
+    }
+
+    public int getSharedStringsCacheSize() {
+        return sharedStringsCacheSize;
+    }
+
+    /**
+     * 设置共享字符串表写入临时文件时LRU缓存的字符串个数,&lt;=0表示不缓存,
+     * 默认为{@link MappedSharedStringsStore#DEFAULT_CACHE_SIZE}
+     *
+     * @param sharedStringsCacheSize 缓存的字符串个数
+     */
+    public void setSharedStringsCacheSize(int sharedStringsCacheSize) {
+        this.sharedStringsCacheSize = sharedStringsCacheSize;
+    }
+
+    public ExcelCompactRowHandler getCompactRowHandler() {
+        return compactRowHandler;
+    }
+
+    /**
+     * 设置以紧凑行逐行处理数据行的回调函数,数据行不再为每一行创建{@link Map},
+     * 而是复用同一个{@link ReusableExcelRow},所有行共享由列名行构建的{@link ExcelRowSchema}。
+     * 设置后数据行不再放入{@link #datas}中,且忽略{@link #rowHandler},
+     * 回调函数返回false时停止解析整个Excel文档。
+     * 注意:设置此回调函数后会忽略{@link #executor},按顺序解析Sheet
+     *
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数
+     */
+    public void setCompactRowHandler(ExcelCompactRowHandler compactRowHandler) {
+        this.compactRowHandler = compactRowHandler;
+    }
+
+    public ExcelRowHandler getRowHandler() {
+        return rowHandler;
+    }
+
+    /**
+     * 设置逐行处理数据行的回调函数,设置后数据行不再放入{@link #datas}中,
+     * 回调函数返回false时停止解析整个Excel文档。
+     * 注意:设置此回调函数后会忽略{@link #executor},按顺序解析Sheet
+     *
+     * @param rowHandler 逐行处理数据行的回调函数
+     */
+    public void setRowHandler(ExcelRowHandler rowHandler) {
+        this.rowHandler = rowHandler;
+    }
+
+    public boolean isStaxParser() {
+        return staxParser;
+    }
+
+    /**
+     * 设置是否使用StAX引擎({@link XSSFSheetStaxParser})解析Sheet的XML,默认false即使用SAX。
+     * 两种引擎输出的事件完全一致,StAX引擎按元素名长度分派元素,省去了SAX的回调链和逐个比较元素名的开销,
+     * 适用于单元格很多的Sheet,可通过测试目录下的XLSXSheetParserBenchmark对比两种引擎的耗时
+     *
+     * @param staxParser 是否使用StAX引擎
+     */
+    public void setStaxParser(boolean staxParser) {
+        this.staxParser = staxParser;
+    }
+
+    public boolean isInternStrings() {
+        return internStrings;
+    }
+
+    /**
+     * 设置是否共享重复的字符串值(默认false),适用于地区,币种,状态等取值很少的文本列:
+     * 1.共享字符串表中的字符串每个SST坐标只获取和解码一次,引用同一坐标的所有单元格共享同一个String实例;
+     * 2.其他字符串值(内联字符串,公式结果等)放入按列划分的有界字符串池({@link ExcelStringPool}),
+     * 同一列中内容相同的值共享同一个String实例,每列最多记录{@link #internPoolSize}个不同的值。
+     * 读取结果全部保留在内存中(如{@link #readExcelToMapList(File)})时可大幅减少其占用的内存
+     *
+     * @param internStrings 是否共享重复的字符串值
+     */
+    public void setInternStrings(boolean internStrings) {
+        this.internStrings = internStrings;
+    }
+
+    public int getInternPoolSize() {
+        return internPoolSize;
+    }
+
+    /**
+     * 设置{@link #internStrings}为true时每列最多记录多少个不同的字符串值,
+     * 超过后该列新出现的值不再共享,默认{@link ExcelStringPool#DEFAULT_MAX_SIZE}
+     *
+     * @param internPoolSize 每列最多记录的不同字符串个数,必须&gt;0
+     */
+    public void setInternPoolSize(int internPoolSize) {
+        if (internPoolSize <= 0) {
+            throw new IllegalArgumentException("internPoolSize must be greater than 0");
+        }
+        this.internPoolSize = internPoolSize;
+    }
+
+    public ExcelSchema getSchema() {
+        return schema;
+    }
+
+    /**
+     * 指定列的类型和转换器,指定了类型的列不再推断类型(尝试解析日期,布尔值,数字),直接交给转换器,
+     * 为null表示所有列均推断类型(默认),参考{@link ExcelSchema}
+     *
+     * @param schema 使用者指定的列类型
+     */
+    public void setSchema(ExcelSchema schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * 获取由列名行和{@link #schema}构建的列结构,即列坐标,列名与指定类型的对应关系
+     *
+     * @return 读取到第一个数据行之前返回null
+     */
+    public ExcelRowSchema getHeaderSchema() {
+        return headerSchema;
+    }
+
+    public ExcelReadMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * 设置读取时的统计数据,每次调用{@link #process()}时清空并重新统计,
+     * 读取过程中可在其他线程中读取实时数据,参考{@link ExcelReadMetrics}
+     *
+     * @param metrics 统计数据,为null表示不统计(默认)
+     */
+    public void setMetrics(ExcelReadMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ExcelReadOptions getOptions() {
+        return options;
+    }
+
+    /**
+     * 设置读取选项,只读取选择的Sheet,行和列,未选择的Sheet不会被解析,未选择的单元格不会被转换,
+     * 达到{@link ExcelReadOptions#getMaxRows()}后立即停止解析整个Excel文档,
+     * 不满足过滤条件({@link ExcelReadOptions#addFilter(String, ExcelCellPredicate)})的数据行在生成Map之前被丢弃,
+     * 为null表示全部读取(默认)。
+     * 注意:设置了最大行数时会忽略{@link #executor}的按Sheet并行解析
+     *
+     * @param options 读取选项
+     */
+    public void setOptions(ExcelReadOptions options) {
+        this.options = options;
+    }
+
+    public ExcelCheckpointStore getCheckpointStore() {
+        return checkpointStore;
+    }
+
+    /**
+     * 设置保存检查点的存储,为null表示不保存检查点(默认)。
+     * 设置后每当回调函数成功处理完一批数据行,就将当前位置(Sheet坐标,行坐标,realRowInSheet,realRowInExcel)
+     * 作为{@link ExcelCheckpoint}保存到此存储中,整个Excel文档读取完毕后清除检查点。
+     * 开始解析时若此存储中已有检查点(如上次导入时进程崩溃)则从检查点恢复读取:检查点之前的Sheet不再解析
+     * (若其中包含第一个被读取的Sheet,则只读取它的标题行和列名行),检查点所在Sheet中已提交的行直接跳过,不转换其中的单元格,
+     * 计数从检查点记录的值继续累加,即回调函数只会收到尚未提交的数据行。
+     * 注意:
+     * 1.只在启用限制且设置了回调函数时保存检查点,且会忽略{@link #executor}的按Sheet并行解析;
+     * 2.{@link ExcelPipeline}在放入队列时即返回,此时这一批数据行尚未被处理,不能用于保存检查点;
+     * 3.检查点只对应同一个Excel文件及同样的读取选项,文件改变后需先清除检查点。
+     *
+     * @param checkpointStore 保存检查点的存储
+     */
+    public void setCheckpointStore(ExcelCheckpointStore checkpointStore) {
+        this.checkpointStore = checkpointStore;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * 设置并行解析Sheet时使用的线程池,设置后{@link #process()}会将每个Sheet作为一个独立的任务提交到此线程池中并行解析,
+     * 为null表示按顺序逐个解析Sheet(默认)。
+     * 注意:
+     * 1.线程池由调用者管理,解析完毕后不会被关闭;
+     * 2.并行解析时回调函数不会被并发调用,但每次回调的datas只包含同一个Sheet的数据行,
+     * 回调参数currentRowInSheet,currentSheetInExcel,realRowInSheet均为该Sheet的值,
+     * 各Sheet的回调顺序不确定,可通过currentSheetInExcel区分数据所属的Sheet;
+     * 3.未启用限制时(即{@link #limit} &lt;=0),{@link #getDatas()}中的数据仍按Sheet顺序排列。
+     *
+     * @param executor 线程池
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    public int getSheetChunkSize() {
+        return sheetChunkSize;
+    }
+
+    /**
+     * 实验性功能:设置Sheet内并行解析时每一块的字节数(解压后的XML),&lt;=0表示不切分(默认)。
+     * 设置为&gt;0且设置了{@link #executor}时,按顺序逐个解析Sheet,但每个Sheet的XML会在&lt;row边界被切分成若干块,
+     * 每一块提交到{@link #executor}中独立解析(包括单元格值的转换),再按行的顺序交给回调函数等处理,
+     * 因此回调函数,{@link #rowHandler}等的调用方式与顺序解析时完全一致,适用于只有一个很大的Sheet的Excel文件。
+     * 注意:
+     * 1.row元素必须带有r属性(Excel生成的文件均带有此属性);
+     * 2.块太小时切分和调度的开销会超过并行带来的收益,一般设置为1MB以上。
+     *
+     * @param sheetChunkSize 每一块的字节数
+     * @see SheetXMLChunker
+     */
+    public void setSheetChunkSize(int sheetChunkSize) {
+        this.sheetChunkSize = sheetChunkSize;
+    }
+
     /**
      * 获取数据，一般用于没有添加限制且需要将Excel中所有非空数据行(即不包括所有sheet的第0行和第一行等标题行以及所有空行)转换成beanMap时使用
      *
@@ -189,16 +588,8 @@ public class XLSXReader implements SheetContentsHandler {
             ReadOnlySharedStringsTable strings,
             SheetContentsHandler sheetHandler,
             InputStream sheetInputStream) throws ReadExcelException {
-
-        DataFormatter formatter = new DataFormatter();
-        InputSource sheetSource = new InputSource(sheetInputStream);
         try {
-            XMLReader sheetParser = SAXHelper.newXMLReader();
-            ContentHandler handler = new XSSFSheetXMLHandlerPlus(
-                    styles, null, strings, sheetHandler, formatter, false);
-            sheetParser.setContentHandler(handler);
-            //开始解析
-            sheetParser.parse(sheetSource);
+            this.parseSheet(styles, new InMemorySharedStringsStore(strings), sheetHandler, sheetInputStream);
         } catch (ParserConfigurationException e) {
             throw new ReadExcelException("SAX parser appears to be broken - " + e.getMessage());
         } catch (Exception e) {
@@ -206,118 +597,854 @@ public class XLSXReader implements SheetContentsHandler {
         }
     }
 
+    /**
+     * 解析指定Sheet里的内容,解析过程中抛出{@link StopParseException}表示提前结束解析,不视为异常
+     *
+     * @param styles
+     * @param strings
+     * @param sheetHandler
+     * @param sheetInputStream 指定sheet流
+     * @throws Exception
+     */
+    private void parseSheet(
+            StylesTable styles,
+            SharedStringsStore strings,
+            SheetContentsHandler sheetHandler,
+            InputStream sheetInputStream) throws Exception {
+        XSSFSheetXMLHandlerPlus handler;
+        if (this.typedValue && sheetHandler instanceof TypedSheetContentsHandler) {
+            handler = new XSSFSheetXMLHandlerPlus(
+                    styles, null, strings, (TypedSheetContentsHandler) sheetHandler, false);
+        } else {
+            handler = new XSSFSheetXMLHandlerPlus(
+                    styles, null, strings, sheetHandler, false);
+        }
+        try {
+            //开始解析
+            this.parseXml(handler, sheetInputStream);
+        } catch (StopParseException e) {
+            //提前结束解析
+        }
+    }
+
+    /**
+     * 获取样式表对应的数字格式表,同一个样式表只构建一次,所有Sheet(包括并行解析的Sheet和块)共享
+     *
+     * @param styles 样式表
+     * @return
+     */
+    private synchronized CellFormatTable getFormatTable(StylesTable styles) {
+        if (this.formatTable == null || this.formatTableStyles != styles) {
+            this.formatTable = new CellFormatTable(styles);
+            this.formatTableStyles = styles;
+        }
+        return this.formatTable;
+    }
+
+    /**
+     * 使用SAX或StAX(设置了{@link #staxParser}时)解析Sheet的XML
+     *
+     * @param handler          处理XML元素的handler
+     * @param sheetInputStream 指定sheet流
+     * @throws Exception
+     */
+    private void parseXml(XSSFSheetXMLHandlerPlus handler, InputStream sheetInputStream) throws Exception {
+        handler.setFormatTable(this.getFormatTable(handler.getStylesTable()));
+        handler.setSharedStringCache(this.sharedStringCache);
+        if (this.staxParser) {
+            new XSSFSheetStaxParser(handler).parse(sheetInputStream);
+        } else {
+            XMLReader sheetParser = SAXHelper.newXMLReader();
+            sheetParser.setContentHandler(handler);
+            sheetParser.parse(new InputSource(sheetInputStream));
+        }
+    }
+
+    /**
+     * 将Sheet切分成若干块,使用{@link #executor}并行解析,再按顺序重放解析结果,
+     * 同时最多有{@link #MAX_PENDING_CHUNKS}块正在解析或等待重放
+     *
+     * @param styles
+     * @param strings
+     * @param sheetInputStream 指定sheet流
+     * @throws Exception
+     */
+    private void parseSheetInChunks(final StylesTable styles, final SharedStringsStore strings,
+                                    InputStream sheetInputStream) throws Exception {
+        SheetXMLChunker chunker = new SheetXMLChunker(sheetInputStream, this.sheetChunkSize);
+        Deque<Future<SheetChunk>> pending = new ArrayDeque<Future<SheetChunk>>();
+        try {
+            byte[] bytes;
+            while ((bytes = chunker.next()) != null) {
+                final byte[] xml = bytes;
+                //列名行之后提交的块可以按列的选择结果跳过单元格
+                final int sheetIndex = this.currentSheetInExcel;
+                final boolean[] projection = this.projection;
+                pending.add(this.executor.submit(new Callable<SheetChunk>() {
+                    @Override
+                    public SheetChunk call() throws Exception {
+                        SheetChunk chunk = new SheetChunk(sheetIndex, projection);
+                        XSSFSheetXMLHandlerPlus handler;
+                        if (XLSXReader.this.typedValue) {
+                            handler = new XSSFSheetXMLHandlerPlus(
+                                    styles, null, strings, (TypedSheetContentsHandler) chunk, false);
+                        } else {
+                            handler = new XSSFSheetXMLHandlerPlus(
+                                    styles, null, strings, (SheetContentsHandler) chunk, false);
+                        }
+                        XLSXReader.this.parseXml(handler, new ByteArrayInputStream(xml));
+                        return chunk;
+                    }
+                }));
+                if (pending.size() >= MAX_PENDING_CHUNKS) {
+                    this.replay(pending.poll());
+                }
+            }
+            while (!pending.isEmpty()) {
+                this.replay(pending.poll());
+            }
+            if (chunker.isUnnumbered()) {
+                //row元素不带r属性时切分后行号不正确,顺序解析整个Sheet
+                this.parseSheet(styles, strings, this, chunker.remaining());
+            }
+        } catch (StopParseException e) {
+            //提前结束解析
+        } finally {
+            for (Future<SheetChunk> future : pending) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 按行的顺序将一块的解析结果交给当前XLSXReader处理
+     *
+     * @param future 一块的解析结果
+     * @throws Exception
+     */
+    private void replay(Future<SheetChunk> future) throws Exception {
+        SheetChunk chunk;
+        try {
+            chunk = future.get();
+        } catch (ExecutionException e) {
+            throw new ReadExcelException(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        }
+        int cell = 0;
+        for (int row = 0; row < chunk.rowCount; row++) {
+            this.startRow(chunk.rowNums[row]);
+            for (; cell < chunk.rowEnds[row]; cell++) {
+                this.currentColInRow = chunk.cols[cell];
+                if (this.currentRowInSheet <= 1) {
+                    this.headerCell((String) chunk.values[cell]);
+                } else if (this.acceptColumn(this.currentColInRow)) {
+                    //指定了列类型时块中保存的是未转换的值
+                    this.putValue(this.schema == null ? chunk.values[cell] :
+                            this.convert(chunk.values[cell], !this.typedValue));
+                }
+            }
+            this.endRow(chunk.rowNums[row]);
+        }
+    }
+
     /**
      * 开始解析Excel文档
      *
      * @throws ReadExcelException
      */
     public void process() throws ReadExcelException {
+        SharedStringsStore strings = null;
+        if (this.metrics != null) {
+            this.metrics.start();
+        }
         try {
-            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(this.xlsxPackage);
+            strings = this.openSharedStringsStore();
+            //共享字符串表写入临时文件时不缓存,否则缓存会把所有共享字符串重新读入内存
+            this.sharedStringCache = this.internStrings && strings != null &&
+                    !(strings instanceof MappedSharedStringsStore) ? new String[strings.getCount()] : null;
+            this.loadCheckpoint();
             XSSFReader xssfReader = new XSSFReader(this.xlsxPackage);
             StylesTable styles = xssfReader.getStylesTable();
-            XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
-            while (iter.hasNext()) {
-                //初始化数据
-                this.initDataPerSheet();
-                InputStream stream = iter.next();
-                this.processSheet(styles, strings, this, stream);
-                stream.close();
+            boolean splitSheet = this.executor != null && this.sheetChunkSize > 0;
+            if (this.executor != null && !splitSheet && this.rowHandler == null && this.compactRowHandler == null &&
+                    this.checkpointStore == null && (this.options == null || this.options.getMaxRows() <= 0)) {
+                this.processInParallel(xssfReader, styles, strings);
+            } else {
+                XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+                boolean headerChosen = false;
+                while (!this.stopped && iter.hasNext()) {
+                    //初始化数据
+                    this.initDataPerSheet();
+                    InputStream stream = this.countBytes(iter.next());
+                    try {
+                        if (!this.isSheetSelected(this.currentSheetInExcel, iter.getSheetName())) {
+                            //未选择的Sheet不解析
+                            continue;
+                        }
+                        if (this.metrics != null) {
+                            this.metrics.recordSheet();
+                        }
+                        if (!headerChosen) {
+                            this.headerSheet = this.currentSheetInExcel;
+                            headerChosen = true;
+                        }
+                        if (this.resumeFrom != null) {
+                            if (this.resumeFrom.isCommittedSheet(this.currentSheetInExcel)) {
+                                if (this.currentSheetInExcel != this.headerSheet) {
+                                    //已提交的Sheet不解析
+                                    continue;
+                                }
+                                //已提交的Sheet是第一个被读取的Sheet时只读取标题行和列名行
+                                this.headerOnly = true;
+                            } else if (this.resumeFrom.getSheetIndex() == this.currentSheetInExcel) {
+                                this.realRowInSheet = this.resumeFrom.getRealRowInSheet();
+                            }
+                        }
+                        if (splitSheet && !this.headerOnly) {
+                            this.parseSheetInChunks(styles, strings, stream);
+                        } else {
+                            this.parseSheet(styles, strings, this, stream);
+                        }
+                    } finally {
+                        this.headerOnly = false;
+                        stream.close();
+                    }
+                }
             }
             //解析完后，判断用户是否设置了limit，若设置了执行以下操作
             if (this.limit > 0) {
                 if (!this.datas.isEmpty()) {
                     if (this.callback != null) {
                         //若数据不为空且回调函数被设置，则调用回调函数
+                        long start = this.callbackStarted();
+                        int batchSize = this.datas.size();
                         this.callback.callback(this.currentRowInSheet, this.currentSheetInExcel, this.realRowInSheet,
                                 this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns, this.datas);
+                        this.callbackEnded(start, batchSize);
+                        this.saveCheckpoint();
                     }
-                    this.datas.clear();
+                    this.releaseDatas();
                 }
             }
+            if (this.checkpointStore != null) {
+                //读取完毕,清除检查点
+                this.checkpointStore.clear();
+            }
+        } catch (ParserConfigurationException e) {
+            throw new ReadExcelException("SAX parser appears to be broken - " + e.getMessage());
         } catch (Exception e) {
             throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (this.metrics != null) {
+                if (this.limit <= 0) {
+                    //未启用限制时所有数据行为一批
+                    this.metrics.recordBatchSize(this.datas.size());
+                }
+                this.metrics.finish();
+            }
+            if (strings != null && strings != this.sharedStringsStore) {
+                //关闭自动创建的共享字符串表
+                try {
+                    strings.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
         }
     }
 
-
     /**
-     * 判断data的类型，尝试解析成日期类型(返回{@link Date})，其次布尔类型(返回{@link Boolean})，
-     * 然后数字类型(转变成字符串输出)，
-     * 前三种均解析失败则直接返回字符串data
+     * 获取共享字符串表,未指定{@link #sharedStringsStore}时,
+     * 若共享字符串表超过{@link #sharedStringsSpillSize}则写入临时文件,否则读入内存
      *
-     * @param data
-     * @return 解析后的值
+     * @return
+     * @throws Exception
      */
-    private Object getValue(String data) {
-        Object value = null;
-        try {
-            //判断是否是日期类型
-            Date date = DateUtils.parseDate(data, DATE_PATTERN);
-            value = date;
-        } catch (ParseException e) {
-            //抛异常证明非日期类型
-            if ("true".equalsIgnoreCase(data)) {
-                value = Boolean.TRUE;
-            } else if ("false".equalsIgnoreCase(data)) {
-                value = Boolean.FALSE;
-            } else {
-                //判断是否数字
-                try {
-                    BigDecimal bd = new BigDecimal(data);
-                    if (this.scale == null || this.scale <= 0) {
-                        //不四舍五入，直接输出
-                        value = data;
-                    } else {
-                        value = bd.toString().contains(".") ? bd.setScale(this.scale, RoundingMode.HALF_UP).toString() :
-                                data;
-                    }
-                } catch (NumberFormatException e1) {
-                    //证明不是数字,直接输出
-                    value = data;
-                }
+    private SharedStringsStore openSharedStringsStore() throws Exception {
+        if (this.sharedStringsStore != null) {
+            return this.sharedStringsStore;
+        }
+        if (this.sharedStringsSpillSize > 0) {
+            List<PackagePart> parts =
+                    this.xlsxPackage.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty() && parts.get(0).getSize() > this.sharedStringsSpillSize) {
+                return new MappedSharedStringsStore(parts.get(0), this.sharedStringsCacheSize);
             }
         }
-
-        return value;
+        return new InMemorySharedStringsStore(new ReadOnlySharedStringsTable(this.xlsxPackage));
     }
 
-    @Override
-    public void startRow(int rowNum) {
-        this.isNewRow = true;
-        this.currentRowInSheet = rowNum;
-        this.currentColInRow = -1;
-        if (this.currentRowInSheet > 1) {
-            //证明此行是数据行
-            this.data = new HashMap<String, Object>();
+    /**
+     * 从{@link #checkpointStore}读取检查点,有检查点时从检查点记录的值继续累加计数
+     *
+     * @throws IOException
+     */
+    private void loadCheckpoint() throws IOException {
+        this.resumeFrom = this.checkpointStore == null ? null : this.checkpointStore.load();
+        if (this.resumeFrom != null) {
+            this.realRowInExcel = this.resumeFrom.getRealRowInExcel();
         }
     }
 
-    @Override
-    public void endRow(int rowNum) {
-        if (this.currentRowInSheet > 1 && !this.data.isEmpty()) {
-            //证明此行是数据行,且不为空行
-            this.datas.add(this.data);
-            this.realRowInSheet++;
-            this.realRowInExcel++;
+    /**
+     * 回调函数成功处理完一批数据行后,将当前位置作为检查点保存到{@link #checkpointStore}
+     *
+     * @throws IOException
+     */
+    private void saveCheckpoint() throws IOException {
+        if (this.checkpointStore != null) {
+            this.checkpointStore.save(new ExcelCheckpoint(this.currentSheetInExcel, this.currentRowInSheet,
+                    this.realRowInSheet, this.realRowInExcel));
         }
-        //判断用户是否开启限制
-        if (this.limit > 0) {
-            //开启限制
-            if (this.datas.size() >= this.limit) {
-                if (this.callback != null) {
-                    //若设置了回调函数则调用
+    }
+
+    /**
+     * 判断是否需要读取指定的Sheet
+     *
+     * @param sheetIndex Sheet坐标,0-based
+     * @param sheetName  Sheet名称
+     * @return
+     */
+    private boolean isSheetSelected(int sheetIndex, String sheetName) {
+        return this.options == null || this.options.isSheetSelected(sheetIndex, sheetName);
+    }
+
+    /**
+     * 使用{@link #executor}并行解析所有Sheet。
+     * 先读取第一个被读取的Sheet的标题行和列名行,然后每个Sheet由一个独立的XLSXReader(拥有独立的{@link XSSFSheetXMLHandlerPlus})解析,
+     * 解析完毕后按Sheet顺序合并数据和计数
+     *
+     * @param xssfReader
+     * @param styles
+     * @param strings
+     * @throws Exception
+     */
+    private void processInParallel(XSSFReader xssfReader, final StylesTable styles,
+                                   final SharedStringsStore strings) throws Exception {
+        XSSFReader.SheetIterator headerIter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        int headerSheet = -1;
+        InputStream headerStream = null;
+        while (headerStream == null && headerIter.hasNext()) {
+            InputStream stream = headerIter.next();
+            if (this.isSheetSelected(++headerSheet, headerIter.getSheetName())) {
+                headerStream = stream;
+            } else {
+                stream.close();
+            }
+        }
+        if (headerStream == null) {
+            return;
+        }
+        //预先读取标题行和列名行,读取到数据行时即停止解析
+        this.headerSheet = headerSheet;
+        try {
+            this.parseSheet(styles, strings, new XLSXReader(this, headerSheet, false), headerStream);
+        } finally {
+            headerStream.close();
+        }
+
+        //先确定需要解析的Sheet及Sheet总数,回调时的Sheet总数不受各Sheet开始解析的先后顺序影响
+        List<PackagePart> sheetParts = new ArrayList<PackagePart>();
+        List<Integer> sheetIndexes = new ArrayList<Integer>();
+        XSSFReader.SheetIterator iter = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+        int sheetCount = 0;
+        while (iter.hasNext()) {
+            //Sheet的输入流在任务中打开,未开始即被取消的任务不会留下未关闭的输入流
+            iter.next().close();
+            if (this.isSheetSelected(sheetCount, iter.getSheetName())) {
+                sheetParts.add(iter.getSheetPart());
+                sheetIndexes.add(sheetCount);
+            }
+            sheetCount++;
+        }
+        this.allSheetInExcel = sheetCount;
+
+        List<Future<XLSXReader>> futures = new ArrayList<Future<XLSXReader>>();
+        try {
+            for (int i = 0; i < sheetParts.size(); i++) {
+                final PackagePart sheetPart = sheetParts.get(i);
+                final XLSXReader worker = new XLSXReader(this, sheetIndexes.get(i), true);
+                futures.add(this.executor.submit(new Callable<XLSXReader>() {
+                    @Override
+                    public XLSXReader call() throws Exception {
+                        InputStream stream = XLSXReader.this.countBytes(sheetPart.getInputStream());
+                        try {
+                            if (XLSXReader.this.metrics != null) {
+                                XLSXReader.this.metrics.recordSheet();
+                            }
+                            XLSXReader.this.parseSheet(styles, strings, worker, stream);
+                            worker.flushSheet();
+                            return worker;
+                        } finally {
+                            stream.close();
+                        }
+                    }
+                }));
+            }
+            //按Sheet顺序合并结果
+            int realRowInExcel = 0;
+            for (Future<XLSXReader> future : futures) {
+                XLSXReader worker = future.get();
+                if (this.limit <= 0) {
+                    this.datas.addAll(worker.datas);
+                }
+                realRowInExcel += worker.realRowInSheet;
+                this.currentSheetInExcel = worker.currentSheetInExcel;
+                this.currentRowInSheet = worker.currentRowInSheet;
+                this.realRowInSheet = worker.realRowInSheet;
+            }
+            this.realRowInExcel = realRowInExcel;
+        } catch (ExecutionException e) {
+            this.cancelSheets(futures);
+            throw new ReadExcelException(e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            this.cancelSheets(futures);
+            Thread.currentThread().interrupt();
+            throw new ReadExcelException("并行解析被中断");
+        }
+    }
+
+    /**
+     * 并行解析失败或被中断时,通知正在解析的Sheet结束解析并取消还未开始的Sheet
+     *
+     * @param futures
+     */
+    private void cancelSheets(List<Future<XLSXReader>> futures) {
+        this.aborted = true;
+        for (Future<XLSXReader> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * 并行解析时,Sheet解析完毕后将未达到限制的剩余数据交给回调函数处理
+     *
+     * @throws ReadExcelException
+     */
+    private void flushSheet() throws ReadExcelException {
+        if (this.limit > 0 && !this.datas.isEmpty()) {
+            if (this.callback != null) {
+                this.parent.callback(this);
+            }
+            this.releaseDatas();
+        }
+    }
+
+    /**
+     * 回调完毕后释放{@link #datas},若回调函数为{@link ExcelPipeline}则这一批数据行的所有权已交给它,
+     * 此时不清空复用而是为下一批创建新的List,否则清空复用
+     */
+    private void releaseDatas() {
+        if (this.callback instanceof ExcelPipeline) {
+            this.datas = new ArrayList<Map<String, Object>>(this.limit);
+        } else {
+            this.datas.clear();
+        }
+    }
+
+    /**
+     * 并行解析时调用回调函数,保证回调函数不会被并发调用
+     *
+     * @param worker 解析某个Sheet的XLSXReader
+     * @throws ReadExcelException
+     */
+    private synchronized void callback(XLSXReader worker) throws ReadExcelException {
+        this.realRowInExcel += worker.datas.size();
+        long start = this.callbackStarted();
+        int batchSize = worker.datas.size();
+        this.callback.callback(worker.currentRowInSheet, worker.currentSheetInExcel, worker.realRowInSheet,
+                this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns, worker.datas);
+        this.callbackEnded(start, batchSize);
+    }
+
+    /**
+     * 设置了{@link #metrics}时统计从输入流中读取的字节数
+     *
+     * @param stream 解压后的Sheet流
+     * @return
+     */
+    private InputStream countBytes(InputStream stream) {
+        return this.metrics == null ? stream : this.metrics.countBytes(stream);
+    }
+
+    /**
+     * 设置了{@link #metrics}时返回调用回调函数前的时间
+     *
+     * @return
+     */
+    private long callbackStarted() {
+        return this.metrics == null ? 0L : System.nanoTime();
+    }
+
+    /**
+     * 设置了{@link #metrics}时记录回调的耗时和交给回调函数的数据行数
+     *
+     * @param start     调用回调函数前的时间
+     * @param batchSize 交给回调函数的数据行数,逐行处理时为0
+     */
+    private void callbackEnded(long start, int batchSize) {
+        if (this.metrics != null) {
+            this.metrics.recordCallback(System.nanoTime() - start, batchSize);
+        }
+    }
+
+    /**
+     * 判断data的类型，尝试解析成日期类型(返回{@link Date})，其次布尔类型(返回{@link Boolean})，
+     * 然后数字类型(转变成字符串输出)，
+     * 前三种均解析失败则直接返回字符串data
+     *
+     * @param data
+     * @return 解析后的值
+     */
+    private Object getValue(String data) {
+        Object value = null;
+        try {
+            //判断是否是日期类型
+            Date date = DateUtils.parseDate(data, DATE_PATTERN);
+            value = date;
+        } catch (ParseException e) {
+            //抛异常证明非日期类型
+            if ("true".equalsIgnoreCase(data)) {
+                value = Boolean.TRUE;
+            } else if ("false".equalsIgnoreCase(data)) {
+                value = Boolean.FALSE;
+            } else {
+                //判断是否数字
+                try {
+                    BigDecimal bd = new BigDecimal(data);
+                    if (this.scale == null || this.scale <= 0) {
+                        //不四舍五入，直接输出
+                        value = data;
+                    } else {
+                        value = bd.toString().contains(".") ? bd.setScale(this.scale, RoundingMode.HALF_UP).toString() :
+                                data;
+                    }
+                } catch (NumberFormatException e1) {
+                    //证明不是数字,直接输出
+                    value = data;
+                }
+            }
+        }
+
+        return value;
+    }
+
+    @Override
+    public void startRow(int rowNum) {
+        if (this.parent != null) {
+            if (!this.headerReady && rowNum > 1) {
+                //标题行和列名行已读取完毕
+                throw new StopParseException();
+            }
+            if (this.parent.aborted) {
+                throw new StopParseException();
+            }
+        }
+        if (this.headerOnly && rowNum > 1) {
+            //已提交的Sheet的标题行和列名行已读取完毕
+            throw new StopParseException();
+        }
+        if (this.options != null && this.options.isAfterRange(rowNum)) {
+            //超过需要读取的行,停止解析该Sheet
+            throw new StopParseException();
+        }
+        this.isNewRow = true;
+        this.currentRowInSheet = rowNum;
+        this.currentColInRow = -1;
+        this.committedRow = rowNum > 1 && this.resumeFrom != null &&
+                this.resumeFrom.isCommittedRow(this.currentSheetInExcel, rowNum);
+        if (this.currentRowInSheet > 1) {
+            //证明此行是数据行
+            if (this.projection == null && this.options != null) {
+                //此时列名行已读取完毕
+                this.projection = this.options.projection(this.columns);
+            }
+            if (this.filters == null && this.options != null && this.options.hasFilters()) {
+                this.filters = this.options.filters(this.columns);
+            }
+            this.newDataRow();
+        }
+    }
+
+    @Override
+    public boolean acceptCell(String cellReference) {
+        return this.acceptColumn(cellReference == null ? -1 : columnIndex(cellReference));
+    }
+
+    /**
+     * 根据{@link #options}判断是否需要读取当前行的指定列,标题行和列名行总是需要读取,
+     * 已提交的行和不满足过滤条件的行总是不需要读取
+     *
+     * @param col 列坐标,0-based,&lt;0表示未知
+     * @return
+     */
+    private boolean acceptColumn(int col) {
+        if (this.currentRowInSheet <= 1) {
+            return true;
+        }
+        if (this.committedRow || this.rejectedRow) {
+            return false;
+        }
+        return this.isColumnSelected(this.currentRowInSheet, this.projection, col);
+    }
+
+    /**
+     * 根据{@link #options}判断是否需要读取指定数据行的指定列
+     *
+     * @param rowNum     数据行的行坐标,0-based
+     * @param projection 列的选择结果,参考{@link ExcelReadOptions#projection(List)},为null表示读取所有列
+     * @param col        列坐标,0-based,&lt;0表示未知
+     * @return
+     */
+    private boolean isColumnSelected(int rowNum, boolean[] projection, int col) {
+        if (this.options == null) {
+            return true;
+        }
+        if (!this.options.isRowSelected(rowNum)) {
+            return false;
+        }
+        return projection == null || col < 0 || (col < projection.length && projection[col]);
+    }
+
+    /**
+     * 获取单元格坐标指向的列坐标,不创建{@link CellReference}
+     *
+     * @param cellReference 单元格坐标,如"AB12"
+     * @return 列坐标, 0-based
+     */
+    private static int columnIndex(String cellReference) {
+        int col = 0;
+        for (int i = 0; i < cellReference.length(); i++) {
+            char c = cellReference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            col = col * 26 + (c - 'A' + 1);
+        }
+        return col - 1;
+    }
+
+    /**
+     * 若达到了{@link ExcelReadOptions#getMaxRows()}则停止解析整个Excel文档
+     */
+    private void checkMaxRows() {
+        if (this.options != null && this.options.getMaxRows() > 0 &&
+                this.realRowInExcel >= this.options.getMaxRows()) {
+            this.stopped = true;
+            throw new StopParseException();
+        }
+    }
+
+    @Override
+    public void endRow(int rowNum) {
+        boolean dataRow = this.currentRowInSheet > 1 && !this.isEmptyRow() && this.acceptRow();
+        if (this.metrics != null) {
+            this.metrics.recordRow(dataRow, this.pendingCells, this.pendingConvertNanos);
+            this.pendingCells = 0;
+            this.pendingConvertNanos = 0L;
+        }
+        if (dataRow) {
+            //证明此行是数据行,且不为空行,且满足过滤条件
+            this.realRowInSheet++;
+            this.realRowInExcel++;
+            if (this.compactRowHandler != null || this.rowHandler != null) {
+                this.handleRow();
+                this.checkMaxRows();
+                return;
+            }
+            this.datas.add(this.data);
+        }
+        //判断用户是否开启限制
+        if (this.limit > 0) {
+            //开启限制
+            if (this.datas.size() >= this.limit) {
+                if (this.callback != null) {
+                    //若设置了回调函数则调用
                     try {
-                        this.callback.callback(this.currentRowInSheet, this.currentSheetInExcel, this.realRowInSheet,
-                                this.realRowInExcel, this.allSheetInExcel, this.titles, this.columns, this.datas);
+                        if (this.parent != null) {
+                            this.parent.callback(this);
+                        } else {
+                            long start = this.callbackStarted();
+                            int batchSize = this.datas.size();
+                            this.callback.callback(this.currentRowInSheet, this.currentSheetInExcel,
+                                    this.realRowInSheet, this.realRowInExcel, this.allSheetInExcel, this.titles,
+                                    this.columns, this.datas);
+                            this.callbackEnded(start, batchSize);
+                            this.saveCheckpoint();
+                        }
                     } catch (Exception e) {
                         throw new ReadExcelRuntimeException("SAX parser appears to be broken - " + e.getMessage());
                     }
                 }
                 //超过限制则清空
-                this.datas.clear();
+                this.releaseDatas();
             }
         }
+        this.checkMaxRows();
+    }
+
+    /**
+     * 开始记录一个新的数据行,设置了{@link #compactRowHandler}或过滤条件时复用{@link #row},否则创建新的{@link #data}
+     */
+    private void newDataRow() {
+        this.rejectedRow = false;
+        if (this.headerSchema == null) {
+            //此时列名行已读取完毕
+            this.buildHeaderSchema();
+        }
+        if (this.compactRowHandler == null && this.filters == null) {
+            this.data = new HashMap<String, Object>(this.rowCapacity);
+        } else if (this.row == null) {
+            this.row = new ReusableExcelRow(this.headerSchema);
+        } else {
+            this.row.clear();
+        }
+    }
+
+    /**
+     * 根据列名行和{@link #schema}构建列结构,转换器和数据行Map的初始容量
+     */
+    private void buildHeaderSchema() {
+        this.headerSchema = new ExcelRowSchema(this.columns, this.schema);
+        this.rowCapacity = (int) (this.columns.size() / 0.75F) + 1;
+        if (this.schema != null) {
+            this.converters = new ExcelCellConverter[this.columns.size()];
+            for (int i = 0; i < this.converters.length; i++) {
+                this.converters[i] = this.schema.getConverter(this.columns.get(i));
+            }
+        }
+    }
+
+    /**
+     * 转换数据行中当前列的值:{@link #schema}中指定了转换器的列交给转换器,
+     * 否则格式化后的字符串通过{@link #getValue(String)}推断类型,按类型生成的值原样返回
+     *
+     * @param value     单元格的值
+     * @param formatted 是否是格式化后的字符串
+     * @return
+     */
+    private Object convert(Object value, boolean formatted) {
+        ExcelCellConverter converter = this.converters != null && this.currentColInRow < this.converters.length ?
+                this.converters[this.currentColInRow] : null;
+        if (converter != null) {
+            try {
+                return converter.convert(value);
+            } catch (Exception e) {
+                throw new ReadExcelRuntimeException(String.format("Can not convert %s in column %s: %s", value,
+                        this.columns.get(this.currentColInRow), e.getMessage()));
+            }
+        }
+        return formatted ? this.getValue((String) value) : value;
+    }
+
+    @Override
+    public void dimension(String ref) {
+        if (this.compactRowHandler != null || this.rowHandler != null || !(this.datas instanceof ArrayList)) {
+            //数据行不放入datas中
+            return;
+        }
+        int lastRow;
+        try {
+            int colon = ref.lastIndexOf(':');
+            lastRow = new CellReference(colon < 0 ? ref : ref.substring(colon + 1)).getRow();
+        } catch (RuntimeException e) {
+            //使用范围不合法时不预先分配
+            return;
+        }
+        //除去标题行和列名行
+        int rows = lastRow - 1;
+        if (rows <= 0) {
+            return;
+        }
+        int presize = Math.min(rows, MAX_PRESIZE_ROWS);
+        if (this.options != null && this.options.getMaxRows() > 0) {
+            //最多还会读取的数据行数
+            presize = Math.min(presize, Math.max(0, this.options.getMaxRows() - this.realRowInExcel));
+        }
+        //设置了limit时datas只存放一批数据行
+        int capacity = this.limit > 0 ? Math.min(this.limit, presize) : this.datas.size() + presize;
+        ((ArrayList<Map<String, Object>>) this.datas).ensureCapacity(capacity);
+    }
+
+    /**
+     * 记录当前数据行当前列的值,若该列有过滤条件则立即求值
+     *
+     * @param value
+     */
+    private void putValue(Object value) {
+        this.pendingCells++;
+        if (this.internStrings && value instanceof String) {
+            if (this.stringPool == null) {
+                this.stringPool = new ExcelStringPool(this.internPoolSize);
+            }
+            value = this.stringPool.intern(this.currentColInRow, (String) value);
+        }
+        if (this.compactRowHandler == null && this.filters == null) {
+            this.data.put(this.columns.get(this.currentColInRow), value);
+            return;
+        }
+        this.row.set(this.currentColInRow, value);
+        if (this.filters != null && this.currentColInRow < this.filters.length &&
+                this.filters[this.currentColInRow] != null && !this.filters[this.currentColInRow].test(value)) {
+            this.rejectedRow = true;
+        }
+    }
+
+    /**
+     * 判断当前数据行是否为空行
+     *
+     * @return
+     */
+    private boolean isEmptyRow() {
+        return this.compactRowHandler == null && this.filters == null ? this.data.isEmpty() : this.row.isEmpty();
+    }
+
+    /**
+     * 判断当前数据行是否满足所有过滤条件(空单元格以null求值),
+     * 满足且未设置{@link #compactRowHandler}时由{@link #row}生成{@link #data}
+     *
+     * @return
+     */
+    private boolean acceptRow() {
+        if (this.filters == null) {
+            return true;
+        }
+        if (this.rejectedRow) {
+            return false;
+        }
+        for (int i = 0; i < this.filters.length; i++) {
+            if (this.filters[i] != null && this.row.get(i) == null && !this.filters[i].test(null)) {
+                return false;
+            }
+        }
+        if (this.compactRowHandler == null) {
+            this.data = new HashMap<String, Object>(this.rowCapacity);
+            for (int i = 0; i < this.row.size(); i++) {
+                if (this.row.get(i) != null) {
+                    this.data.put(this.columns.get(i), this.row.get(i));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 将当前数据行交给{@link #compactRowHandler}或{@link #rowHandler}处理,若其返回false则停止解析整个Excel文档
+     */
+    private void handleRow() {
+        boolean goOn;
+        try {
+            long start = this.callbackStarted();
+            goOn = this.compactRowHandler != null ?
+                    this.compactRowHandler.handleRow(this.currentSheetInExcel, this.currentRowInSheet, this.row) :
+                    this.rowHandler.handleRow(this.currentSheetInExcel, this.currentRowInSheet, this.data);
+            this.callbackEnded(start, 0);
+        } catch (Exception e) {
+            throw new ReadExcelRuntimeException("SAX parser appears to be broken - " + e.getMessage());
+        }
+        if (!goOn) {
+            this.stopped = true;
+            throw new StopParseException();
+        }
     }
 
     //用于记录数据行里的数据（只能记录一行数据行的数据）
@@ -325,6 +1452,29 @@ public class XLSXReader implements SheetContentsHandler {
 
     @Override
     public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+        this.locateCell(cellReference);
+        if (formattedValue == null || formattedValue.isEmpty()) {
+            return;
+        }
+        if (this.headerCell(formattedValue)) {
+            return;
+        }
+        //数据行
+        if (this.metrics == null) {
+            this.putValue(this.convert(formattedValue, true));
+        } else {
+            long start = System.nanoTime();
+            this.putValue(this.convert(formattedValue, true));
+            this.pendingConvertNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 记录cellReference指向的列
+     *
+     * @param cellReference
+     */
+    private void locateCell(String cellReference) {
         if (this.isNewRow) {
             this.isNewRow = false;
         }
@@ -335,119 +1485,585 @@ public class XLSXReader implements SheetContentsHandler {
         // 获取cellReference指向的列数,0-based
         int thisCol = (new CellReference(cellReference)).getCol();
         this.currentColInRow = thisCol;
-        if (formattedValue == null || formattedValue.isEmpty()) {
-            return;
-        }
+    }
+
+    /**
+     * 若当前行是标题行或列名行则记录标题或列名
+     *
+     * @param text 单元格的字符串值
+     * @return 当前行是标题行或列名行返回true, 数据行返回false
+     */
+    private boolean headerCell(String text) {
         if (this.currentRowInSheet == 0) {
             //标题行
-            if (this.currentSheetInExcel == 0) {
-                //若是第0个Sheet则添加标题，0-based
-                this.titles.add(formattedValue);
+            if (this.currentSheetInExcel == this.headerSheet && !this.headerReady) {
+                //若是第一个被读取的Sheet则添加标题，0-based
+                this.titles.add(text);
             }
-            return;
+            return true;
         }
         if (this.currentRowInSheet == 1) {
             //列名行
-            if (this.currentSheetInExcel == 0) {
-                //若是第0个Sheet则添加列名，0-based
-                this.columns.add(formattedValue);
+            if (this.currentSheetInExcel == this.headerSheet && !this.headerReady) {
+                //若是第一个被读取的Sheet则添加列名，0-based
+                this.columns.add(text);
             }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * 按类型记录单元格的值,标题行和列名行记录其字符串形式
+     *
+     * @param cellReference
+     * @param value 单元格的值
+     */
+    private void typedCell(String cellReference, Object value) {
+        this.locateCell(cellReference);
+        if (this.currentRowInSheet <= 1) {
+            this.headerCell(headerText(value));
             return;
         }
-        //数据行
-        String key = this.columns.get(this.currentColInRow);
-        Object value = this.getValue(formattedValue);
-        this.data.put(key, value);
+        if (this.metrics == null) {
+            this.putValue(this.convert(value, false));
+        } else {
+            long start = System.nanoTime();
+            this.putValue(this.convert(value, false));
+            this.pendingConvertNanos += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * 获取标题行和列名行中按类型生成的值的字符串形式,与非类型模式下标题和列名的字符串形式保持一致
+     *
+     * @param value 按类型生成的值
+     * @return
+     */
+    private static String headerText(Object value) {
+        if (value instanceof Double) {
+            return NumberToTextConverter.toText((Double) value);
+        } else if (value instanceof Date) {
+            return DateFormatUtils.format((Date) value, DATE_PATTERN[0]);
+        } else if (value instanceof Boolean) {
+            return (Boolean) value ? "TRUE" : "FALSE";
+        }
+        return value.toString();
+    }
+
+    /**
+     * 若指定了{@link #scale}则对数据行中的数值四舍五入
+     *
+     * @param value
+     * @param rowNum 行坐标,0-based
+     * @return
+     */
+    private double roundValue(double value, int rowNum) {
+        if (this.scale != null && this.scale > 0 && rowNum > 1) {
+            return BigDecimal.valueOf(value).setScale(this.scale, RoundingMode.HALF_UP).doubleValue();
+        }
+        return value;
+    }
+
+    @Override
+    public void numericCell(String cellReference, double value, int formatIndex, String formatString,
+                            XSSFComment comment) {
+        this.typedCell(cellReference, this.roundValue(value, this.currentRowInSheet));
+    }
+
+    @Override
+    public void dateCell(String cellReference, double value, XSSFComment comment) {
+        this.typedCell(cellReference, DateUtil.getJavaDate(value));
+    }
+
+    @Override
+    public void booleanCell(String cellReference, boolean value, XSSFComment comment) {
+        this.typedCell(cellReference, value);
+    }
+
+    @Override
+    public void sharedStringCell(String cellReference, int sstIndex, String value, XSSFComment comment) {
+        this.stringCell(cellReference, value, comment);
+    }
+
+    @Override
+    public void stringCell(String cellReference, String value, XSSFComment comment) {
+        if (value == null || value.isEmpty()) {
+            this.locateCell(cellReference);
+            return;
+        }
+        this.typedCell(cellReference, value);
+    }
+
+    @Override
+    public void errorCell(String cellReference, String error, XSSFComment comment) {
+        this.typedCell(cellReference, "ERROR:" + error);
+    }
+
+    @Override
+    public void headerFooter(String text, boolean isHeader, String tagName) {
+        //do nothing
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入beanMap中,全部返回
+     *
+     * @param file Excel文件
+     * @return 返回所有封装好的beanMap数据
+     * @throws ReadExcelException
+     */
+    public static List<Map<String, Object>> readExcelToMapList(File file) throws ReadExcelException {
+        return XLSXReader.readExcelToMapList(file, null);
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入beanMap中,全部返回
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 返回所有封装好的beanMap数据
+     * @throws ReadExcelException
+     */
+    public static List<Map<String, Object>> readExcelToMapList(File file, Integer scale) throws ReadExcelException {
+        return XLSXReader.readExcel(file, scale).getDatas();
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入Class的实例中,全部返回
+     *
+     * @param file  Excel文件
+     * @param clazz 指定封装类型
+     * @return 返回所有封装好的javabean数据, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static <T> List<T> readExcelToBeans(File file, Class<T> clazz) throws ReadExcelException {
+        return XLSXReader.readExcelToBeans(file, null, clazz);
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入Class的实例中,全部返回
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param clazz 指定封装类型
+     * @return 返回所有封装好的javabean数据, 没有则返回空List
+     * @throws ReadExcelException
+     */
+    public static <T> List<T> readExcelToBeans(File file, Integer scale, Class<T> clazz) throws ReadExcelException {
+        final List<T> beans = new ArrayList<T>();
+        final ExcelBeanBinder<T> binder = new ExcelBeanBinder<T>(clazz);
+        XLSXReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                    throws ReadExcelException {
+                beans.add(binder.bind(row));
+                return true;
+            }
+        });
+        return beans;
+    }
+
+    /**
+     * 读取整个Excel文件,边解析边把数据行封装成Class的实例,每封装batchSize个后交给回调函数处理,
+     * 不会创建中间的Map,也不会在内存中保留所有数据
+     *
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param clazz     指定封装类型
+     * @param batchSize 每批的JavaBean个数
+     * @param handler   分批处理JavaBean的回调函数,返回false时停止解析
+     * @throws ReadExcelException
+     */
+    public static <T> void readExcelToBeans(File file, Integer scale, Class<T> clazz, int batchSize,
+                                            ExcelBeanHandler<T> handler) throws ReadExcelException {
+        ExcelBeanBinder<T>.BatchRowHandler batchRowHandler = new ExcelBeanBinder<T>(clazz).batch(batchSize, handler);
+        XLSXReader.readExcelByRow(file, scale, batchRowHandler);
+        batchRowHandler.flush();
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件并封装成Class的实例,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param clazz 指定封装类型
+     * @return JavaBean组成的流
+     */
+    public static <T> Stream<T> readExcelToBeanStream(File file, Class<T> clazz) {
+        return XLSXReader.readExcelToBeanStream(file, null, clazz);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件并封装成Class的实例,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param clazz 指定封装类型
+     * @return JavaBean组成的流
+     */
+    public static <T> Stream<T> readExcelToBeanStream(final File file, final Integer scale, final Class<T> clazz) {
+        ExcelRowIterator.RowSource<T> source = new ExcelRowIterator.RowSource<T>() {
+            @Override
+            public void read(final ExcelRowIterator.RowSink<T> sink) throws ReadExcelException {
+                final ExcelBeanBinder<T> binder = new ExcelBeanBinder<T>(clazz);
+                XLSXReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+                    @Override
+                    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row)
+                            throws ReadExcelException {
+                        return sink.put(binder.bind(row));
+                    }
+                });
+            }
+        };
+        return new ExcelRowIterator<T>(ExcelRowIterator.DEFAULT_BUFFER_SIZE, source).stream();
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入beanMap中,
+     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     *
+     * @param file Excel文件
+     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @throws ReadExcelException
+     */
+    public static XLSXReader readExcel(File file) throws ReadExcelException {
+        return XLSXReader.readExcel(file, null);
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入beanMap中,
+     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @throws ReadExcelException
+     */
+    public static XLSXReader readExcel(File file, Integer scale) throws ReadExcelException {
+        return XLSXReader.readExcel(file, scale, (ExecutorService) null);
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入beanMap中,
+     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     *
+     * @param file     Excel文件
+     * @param scale    指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param executor 并行解析Sheet时使用的线程池,为null表示按顺序解析,参考{@link #setExecutor(ExecutorService)}
+     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @throws ReadExcelException
+     */
+    public static XLSXReader readExcel(File file, Integer scale, ExecutorService executor)
+            throws ReadExcelException {
+        OPCPackage p = null;
+        XLSXReader reader = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            reader = new XLSXReader(p, scale);
+            reader.setExecutor(executor);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                try {
+                    p.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * 按读取选项读取Excel文件,并把读取的数据放入beanMap中,全部返回,
+     * 例如只预览前100行:options.setMaxRows(100)
+     *
+     * @param file    Excel文件
+     * @param scale   指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options 读取选项,参考{@link #setOptions(ExcelReadOptions)}
+     * @return 返回所有封装好的beanMap数据
+     * @throws ReadExcelException
+     */
+    public static List<Map<String, Object>> readExcelToMapList(File file, Integer scale, ExcelReadOptions options)
+            throws ReadExcelException {
+        return XLSXReader.readExcel(file, scale, options).getDatas();
+    }
+
+    /**
+     * 按读取选项读取Excel文件,并把读取的数据放入beanMap中,
+     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     *
+     * @param file    Excel文件
+     * @param scale   指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options 读取选项,参考{@link #setOptions(ExcelReadOptions)}
+     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @throws ReadExcelException
+     */
+    public static XLSXReader readExcel(File file, Integer scale, ExcelReadOptions options)
+            throws ReadExcelException {
+        OPCPackage p = null;
+        XLSXReader reader = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            reader = new XLSXReader(p, scale);
+            reader.setOptions(options);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                try {
+                    p.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+        return reader;
+    }
+
+    /**
+     * 用于读取limit行之后处理读取的数据(通过回调函数处理)
+     *
+     * @param file     Excel文件
+     * @param limit    指定最多读取多少数据行，&lt;= 0表示不限制,若指定了limit则在达到限制后会移除旧元素再放入新的元素
+     * @param callback 指定{@link #datas}达到{@link #limit}限制时执行的回调函数,
+     *                 若为null则表示不执行回调函数。
+     *                 注意：在{@link #datas}未达到指定限制而文件数据已经完全读取完毕的情况下也会调用回调函数(若有回调函数),
+     *                 回调函数在datas被清空之前调用(若需要回调则必须启用限制,即{@link #limit} &gt;0)。
+     * @throws ReadExcelException
+     */
+    public static void readExcel(File file, int limit, ExcelHandler callback)
+            throws ReadExcelException {
+        XLSXReader.readExcel(file, null, limit, callback);
     }
 
-    @Override
-    public void headerFooter(String text, boolean isHeader, String tagName) {
-        //do nothing
+    /**
+     * 用于读取limit行之后处理读取的数据(通过回调函数处理)
+     *
+     * @param file     Excel文件
+     * @param scale    指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit    指定最多读取多少数据行，&lt;= 0表示不限制,若指定了limit则在达到限制后会移除旧元素再放入新的元素
+     * @param callback 指定{@link #datas}达到{@link #limit}限制时执行的回调函数,
+     *                 若为null则表示不执行回调函数。
+     *                 注意：在{@link #datas}未达到指定限制而文件数据已经完全读取完毕的情况下也会调用回调函数(若有回调函数),
+     *                 回调函数在datas被清空之前调用(若需要回调则必须启用限制,即{@link #limit} &gt;0)。
+     * @throws ReadExcelException
+     */
+    public static void readExcel(File file, Integer scale, int limit, ExcelHandler callback)
+            throws ReadExcelException {
+        XLSXReader.readExcel(file, scale, limit, callback, (ExecutorService) null);
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入beanMap中,全部返回
+     * 用于读取limit行之后处理读取的数据(通过回调函数处理)
      *
-     * @param file Excel文件
-     * @return 返回所有封装好的beanMap数据
+     * @param file     Excel文件
+     * @param scale    指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit    指定最多读取多少数据行，&lt;= 0表示不限制,若指定了limit则在达到限制后会移除旧元素再放入新的元素
+     * @param callback 指定{@link #datas}达到{@link #limit}限制时执行的回调函数,
+     *                 若为null则表示不执行回调函数。
+     *                 注意：在{@link #datas}未达到指定限制而文件数据已经完全读取完毕的情况下也会调用回调函数(若有回调函数),
+     *                 回调函数在datas被清空之前调用(若需要回调则必须启用限制,即{@link #limit} &gt;0)。
+     * @param executor 并行解析Sheet时使用的线程池,为null表示按顺序解析,参考{@link #setExecutor(ExecutorService)}
      * @throws ReadExcelException
      */
-    public static List<Map<String, Object>> readExcelToMapList(File file) throws ReadExcelException {
-        return XLSXReader.readExcelToMapList(file, null);
+    public static void readExcel(File file, Integer scale, int limit, ExcelHandler callback,
+                                 ExecutorService executor) throws ReadExcelException {
+        OPCPackage p = null;
+        XLSXReader reader = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            reader = new XLSXReader(p, scale, limit, callback);
+            reader.setExecutor(executor);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                try {
+                    p.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入beanMap中,全部返回
+     * 读取整个Excel文件,以按列存储的形式返回所有数据行,参考{@link ExcelColumnarBuilder}
      *
-     * @param file  Excel文件
-     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
-     * @return 返回所有封装好的beanMap数据
+     * @param file Excel文件
+     * @return 读取结果
      * @throws ReadExcelException
      */
-    public static List<Map<String, Object>> readExcelToMapList(File file, Integer scale) throws ReadExcelException {
-        return XLSXReader.readExcel(file, scale).getDatas();
+    public static ExcelColumnarTable readExcelToColumnar(File file) throws ReadExcelException {
+        return XLSXReader.readExcelToColumnar(file, null, null, ExcelColumnarBuilder.DEFAULT_INFER_ROWS);
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入Class的实例中,全部返回
+     * 读取整个Excel文件,以按列存储的形式返回所有数据行,
+     * 每一列的类型根据前inferRows个数据行推断,参考{@link ExcelColumnarBuilder},
+     * 按单元格类型直接生成值({@link #setTypedValue(boolean)}),数值不再经过格式化和解析
      *
-     * @param file  Excel文件
-     * @param clazz 指定封装类型
-     * @return 返回所有封装好的javabean数据, 没有则返回空List
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options   读取选项,为null表示全部读取
+     * @param inferRows 根据前多少个数据行推断列的类型,&lt;=0表示使用默认值{@link ExcelColumnarBuilder#DEFAULT_INFER_ROWS}
+     * @return 读取结果
      * @throws ReadExcelException
      */
-    public static <T> List<T> readExcelToBeans(File file, Class<T> clazz) throws ReadExcelException {
-        return XLSXReader.readExcelToBeans(file, null, clazz);
+    public static ExcelColumnarTable readExcelToColumnar(File file, Integer scale, ExcelReadOptions options,
+                                                         int inferRows) throws ReadExcelException {
+        //按单元格类型直接生成值,字符串单元格不再被解析为数值
+        ExcelColumnarBuilder builder = new ExcelColumnarBuilder(inferRows, false);
+        OPCPackage p = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            XLSXReader reader = new XLSXReader(p, scale);
+            reader.setTypedValue(true);
+            reader.setOptions(options);
+            reader.setCompactRowHandler(builder);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                try {
+                    p.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
+            }
+        }
+        return builder.build();
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入Class的实例中,全部返回
+     * 读取整个Excel文件,在解析的过程中对数据行做流式统计,不保留任何数据行,参考{@link ExcelAggregator},
+     * 按单元格类型直接生成值({@link #setTypedValue(boolean)}),数值不再经过格式化和解析
      *
-     * @param file  Excel文件
-     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
-     * @param clazz 指定封装类型
-     * @return 返回所有封装好的javabean数据, 没有则返回空List
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options    读取选项(可包含过滤条件),为null时只读取统计需要的列
+     * @param aggregator 统计的方式,统计结果也记录在此对象中
+     * @return aggregator
      * @throws ReadExcelException
      */
-    public static <T> List<T> readExcelToBeans(File file, Integer scale, Class<T> clazz) throws ReadExcelException {
-        List<Map<String, Object>> mapList = XLSXReader.readExcelToMapList(file, scale);
-        List<T> beans = new ArrayList<T>();
-        for (Map<String, Object> map : mapList) {
-            T bean = CommonUtils.toBean(map, clazz);
-            if (bean != null) {
-                beans.add(bean);
+    public static ExcelAggregator readExcelToAggregator(File file, Integer scale, ExcelReadOptions options,
+                                                        ExcelAggregator aggregator) throws ReadExcelException {
+        if (options == null) {
+            options = new ExcelReadOptions();
+            options.setColumns(aggregator.getRequiredColumns());
+        }
+        OPCPackage p = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            XLSXReader reader = new XLSXReader(p, scale);
+            reader.setTypedValue(true);
+            reader.setOptions(options);
+            reader.setCompactRowHandler(aggregator);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            if (p != null) {
+                try {
+                    p.close();
+                } catch (IOException e) {
+                    throw new ReadExcelException(e.getMessage());
+                }
             }
         }
-        return beans;
+        return aggregator;
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入beanMap中,
-     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     * 读取整个Excel文件,所有Sheet的数据行以UTF-8编码输出成CSV,参考{@link ExcelTextConverter}
      *
      * @param file Excel文件
-     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @param os   输出流,由调用者关闭
+     * @return 输出的数据行数
      * @throws ReadExcelException
      */
-    public static XLSXReader readExcel(File file) throws ReadExcelException {
-        return XLSXReader.readExcel(file, null);
+    public static long readExcelToCsv(File file, OutputStream os) throws ReadExcelException {
+        return XLSXReader.readExcelToText(file, null, null, new ExcelTextConverter(ExcelTextConverter.CSV, os));
     }
 
     /**
-     * 读取整个Excel文件,并把读取的数据放入beanMap中,
-     * 可以通过返回的{@link XLSXReader}对象调用{@link XLSXReader#getDatas()}方法拿到数据
+     * 读取整个Excel文件,所有Sheet的数据行以UTF-8编码输出成JSON Lines(每行一个JSON对象),参考{@link ExcelTextConverter}
      *
-     * @param file  Excel文件
-     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
-     * @return 返回 {@link XLSXReader}对象，你可以通过此对象获取你需要的数据
+     * @param file Excel文件
+     * @param os   输出流,由调用者关闭
+     * @return 输出的数据行数
      * @throws ReadExcelException
      */
-    public static XLSXReader readExcel(File file, Integer scale) throws ReadExcelException {
+    public static long readExcelToJsonLines(File file, OutputStream os) throws ReadExcelException {
+        return XLSXReader.readExcelToText(file, null, null,
+                new ExcelTextConverter(ExcelTextConverter.JSON_LINES, os));
+    }
+
+    /**
+     * 读取整个Excel文件,在解析的过程中把数据行直接输出成文本,不保留任何数据行,
+     * 按单元格类型直接生成值({@link #setTypedValue(boolean)}),数值不再经过格式化和解析,
+     * 读取完毕(包括读取失败)后关闭converter
+     *
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param options   读取选项,为null表示全部读取
+     * @param converter 输出的格式和目标
+     * @return 输出的数据行数
+     * @throws ReadExcelException
+     */
+    public static long readExcelToText(File file, Integer scale, ExcelReadOptions options,
+                                       ExcelTextConverter converter) throws ReadExcelException {
         OPCPackage p = null;
-        XLSXReader reader = null;
         try {
             p = OPCPackage.open(file, PackageAccess.READ);
-            reader = new XLSXReader(p, scale);
+            XLSXReader reader = new XLSXReader(p, scale);
+            reader.setTypedValue(true);
+            reader.setOptions(options);
+            reader.setCompactRowHandler(converter);
+            reader.process();
+        } catch (Exception e) {
+            throw new ReadExcelException(e.getMessage());
+        } finally {
+            try {
+                converter.close();
+                if (p != null) {
+                    p.close();
+                }
+            } catch (IOException e) {
+                throw new ReadExcelException(e.getMessage());
+            }
+        }
+        return converter.getRowCount();
+    }
+
+    /**
+     * 用于读取limit行之后处理读取的数据(通过回调函数处理),并在每一批数据行处理成功后保存检查点,
+     * 若checkpointStore中已有检查点则从检查点恢复读取,参考{@link #setCheckpointStore(ExcelCheckpointStore)}
+     *
+     * @param file            Excel文件
+     * @param scale           指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit           每一批最多含有多少数据行,必须&gt;0
+     * @param callback        处理每一批数据行的回调函数,返回即表示这一批数据行已提交
+     * @param checkpointStore 保存检查点的存储
+     * @throws ReadExcelException
+     */
+    public static void readExcelWithCheckpoint(File file, Integer scale, int limit, ExcelHandler callback,
+                                               ExcelCheckpointStore checkpointStore) throws ReadExcelException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        OPCPackage p = null;
+        try {
+            p = OPCPackage.open(file, PackageAccess.READ);
+            XLSXReader reader = new XLSXReader(p, scale, limit, callback);
+            reader.setCheckpointStore(checkpointStore);
             reader.process();
         } catch (Exception e) {
             throw new ReadExcelException(e.getMessage());
@@ -460,44 +2076,86 @@ public class XLSXReader implements SheetContentsHandler {
                 }
             }
         }
-        return reader;
     }
 
     /**
-     * 用于读取limit行之后处理读取的数据(通过回调函数处理)
+     * 以流水线方式读取整个Excel文件:解析线程每读取limit行就将这一批数据行交给consumer在消费线程中处理,
+     * 解析与处理同时进行,参考{@link ExcelPipeline}
      *
-     * @param file     Excel文件
-     * @param limit    指定最多读取多少数据行，&lt;= 0表示不限制,若指定了limit则在达到限制后会移除旧元素再放入新的元素
-     * @param callback 指定{@link #datas}达到{@link #limit}限制时执行的回调函数,
-     *                 若为null则表示不执行回调函数。
-     *                 注意：在{@link #datas}未达到指定限制而文件数据已经完全读取完毕的情况下也会调用回调函数(若有回调函数),
-     *                 回调函数在datas被清空之前调用(若需要回调则必须启用限制,即{@link #limit} &gt;0)。
+     * @param file      Excel文件
+     * @param scale     指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param limit     每一批最多含有多少数据行,必须&gt;0
+     * @param consumer  处理每一批数据行的回调函数,会被多个消费线程并发调用,必须是线程安全的,
+     *                  每一批数据行的List归consumer所有,不会被清空复用
+     * @param consumers 消费线程数
+     * @param queueSize 等待处理的批次最多有多少个,超过时解析线程会等待,&lt;=0表示使用默认值{@link ExcelPipeline#DEFAULT_QUEUE_SIZE}
+     * @throws ReadExcelException 解析失败或任意一批处理失败时抛出,任意一批处理失败时会停止解析
+     */
+    public static void readExcelInPipeline(File file, Integer scale, int limit, ExcelHandler consumer, int consumers,
+                                           int queueSize) throws ReadExcelException {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be greater than 0");
+        }
+        ExcelPipeline pipeline = new ExcelPipeline(consumer, consumers, queueSize);
+        try {
+            XLSXReader.readExcel(file, scale, limit, pipeline, (ExecutorService) null);
+        } catch (ReadExcelException e) {
+            pipeline.cancel();
+            //若是consumer抛出异常导致停止解析,则抛出consumer的异常
+            pipeline.finish();
+            throw e;
+        }
+        pipeline.finish();
+    }
+
+    /**
+     * 读取整个Excel文件,并把读取的数据放入紧凑行{@link ExcelRow}中,全部返回,
+     * 所有行共享同一个{@link ExcelRowSchema},需要{@link Map}时可调用{@link ExcelRow#asMap()}
+     *
+     * @param file Excel文件
+     * @return 返回所有数据行, 没有则返回空List
      * @throws ReadExcelException
      */
-    public static void readExcel(File file, int limit, ExcelHandler callback)
-            throws ReadExcelException {
-        XLSXReader.readExcel(file, null, limit, callback);
+    public static List<ExcelRow> readExcelToRows(File file) throws ReadExcelException {
+        return XLSXReader.readExcelToRows(file, null);
     }
 
     /**
-     * 用于读取limit行之后处理读取的数据(通过回调函数处理)
+     * 读取整个Excel文件,并把读取的数据放入紧凑行{@link ExcelRow}中,全部返回,
+     * 所有行共享同一个{@link ExcelRowSchema},需要{@link Map}时可调用{@link ExcelRow#asMap()}
      *
-     * @param file     Excel文件
-     * @param scale    指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
-     * @param limit    指定最多读取多少数据行，&lt;= 0表示不限制,若指定了limit则在达到限制后会移除旧元素再放入新的元素
-     * @param callback 指定{@link #datas}达到{@link #limit}限制时执行的回调函数,
-     *                 若为null则表示不执行回调函数。
-     *                 注意：在{@link #datas}未达到指定限制而文件数据已经完全读取完毕的情况下也会调用回调函数(若有回调函数),
-     *                 回调函数在datas被清空之前调用(若需要回调则必须启用限制,即{@link #limit} &gt;0)。
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 返回所有数据行, 没有则返回空List
      * @throws ReadExcelException
      */
-    public static void readExcel(File file, Integer scale, int limit, ExcelHandler callback)
+    public static List<ExcelRow> readExcelToRows(File file, Integer scale) throws ReadExcelException {
+        final List<ExcelRow> rows = new ArrayList<ExcelRow>();
+        XLSXReader.readExcelByRow(file, scale, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                rows.add(row.copy());
+                return true;
+            }
+        });
+        return rows;
+    }
+
+    /**
+     * 以紧凑行逐行读取整个Excel文件,所有数据行复用同一个{@link ReusableExcelRow}
+     *
+     * @param file              Excel文件
+     * @param scale             指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param compactRowHandler 以紧凑行逐行处理数据行的回调函数,参考{@link #setCompactRowHandler(ExcelCompactRowHandler)}
+     * @throws ReadExcelException
+     */
+    public static void readExcelByRow(File file, Integer scale, ExcelCompactRowHandler compactRowHandler)
             throws ReadExcelException {
         OPCPackage p = null;
-        XLSXReader reader = null;
         try {
             p = OPCPackage.open(file, PackageAccess.READ);
-            reader = new XLSXReader(p, scale, limit, callback);
+            XLSXReader reader = new XLSXReader(p, scale);
+            reader.setCompactRowHandler(compactRowHandler);
             reader.process();
         } catch (Exception e) {
             throw new ReadExcelException(e.getMessage());
@@ -511,4 +2169,243 @@ public class XLSXReader implements SheetContentsHandler {
             }
         }
     }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file Excel文件
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(File file) {
+        return XLSXReader.readExcelToIterator(file, null, ExcelRowIterator.DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param bufferSize 解析线程与调用者之间的缓冲区大小,&lt;=0表示使用默认值
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(File file, Integer scale, int bufferSize) {
+        return XLSXReader.readExcelToIterator(file, scale, bufferSize, null);
+    }
+
+    /**
+     * 以拉取方式逐行读取整个Excel文件,解析只会随着调用者的拉取而向前推进,
+     * 使用完毕后必须调用{@link ExcelRowIterator#close()}
+     *
+     * @param file       Excel文件
+     * @param scale      指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @param bufferSize 解析线程与调用者之间的缓冲区大小,&lt;=0表示使用默认值
+     * @param executor   执行解析的{@link Executor},为null表示使用共享的守护线程池
+     * @return 数据行迭代器
+     */
+    public static ExcelRowIterator<Map<String, Object>> readExcelToIterator(final File file, final Integer scale,
+                                                                           int bufferSize, Executor executor) {
+        ExcelRowIterator.RowSource<Map<String, Object>> source = new ExcelRowIterator.RowSource<Map<String, Object>>() {
+            @Override
+            public void read(final ExcelRowIterator.RowSink<Map<String, Object>> sink) throws ReadExcelException {
+                OPCPackage p = null;
+                try {
+                    p = OPCPackage.open(file, PackageAccess.READ);
+                    XLSXReader reader = new XLSXReader(p, scale);
+                    reader.setRowHandler(new ExcelRowHandler() {
+                        @Override
+                        public boolean handleRow(int currentSheetInExcel, int currentRowInSheet,
+                                                 Map<String, Object> data) {
+                            return sink.put(data);
+                        }
+                    });
+                    reader.process();
+                } catch (ReadExcelException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new ReadExcelException(e.getMessage());
+                } finally {
+                    if (p != null) {
+                        try {
+                            p.close();
+                        } catch (IOException e) {
+                            throw new ReadExcelException(e.getMessage());
+                        }
+                    }
+                }
+            }
+        };
+        return new ExcelRowIterator<Map<String, Object>>(bufferSize, source, executor);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file Excel文件
+     * @return 数据行组成的流
+     */
+    public static Stream<Map<String, Object>> readExcelToStream(File file) {
+        return XLSXReader.readExcelToStream(file, null);
+    }
+
+    /**
+     * 以{@link Stream}方式逐行读取整个Excel文件,解析只会随着流的消费而向前推进,
+     * 使用完毕后必须关闭此流(例如使用try-with-resources)
+     *
+     * @param file  Excel文件
+     * @param scale 指定若数值中含有小数则保留几位小数，四舍五入,null或者&lt;=0表示不四舍五入
+     * @return 数据行组成的流
+     */
+    public static Stream<Map<String, Object>> readExcelToStream(File file, Integer scale) {
+        return XLSXReader.readExcelToIterator(file, scale, ExcelRowIterator.DEFAULT_BUFFER_SIZE).stream();
+    }
+
+    /**
+     * Sheet内并行解析时一块的解析结果,解析时即完成单元格值的转换,
+     * 标题行和列名行记录单元格的字符串形式,数据行记录转换后的值
+     */
+    private class SheetChunk implements TypedSheetContentsHandler {
+        //每一行的行坐标
+        private int[] rowNums = new int[64];
+        //每一行最后一个单元格之后的单元格坐标
+        private int[] rowEnds = new int[64];
+        private int rowCount = 0;
+        //每一个单元格的列坐标和值
+        private int[] cols = new int[256];
+        private Object[] values = new Object[256];
+        private int cellCount = 0;
+        private int rowNum;
+        private int col = -1;
+        //块所在的Sheet坐标
+        private final int sheetIndex;
+        //提交此块时列的选择结果,为null表示列名行还未读取或读取所有列
+        private final boolean[] projection;
+        //当前行是否已在检查点之前提交
+        private boolean committedRow;
+
+        SheetChunk(int sheetIndex, boolean[] projection) {
+            this.sheetIndex = sheetIndex;
+            this.projection = projection;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            this.rowNum = rowNum;
+            this.col = -1;
+            this.committedRow = rowNum > 1 && XLSXReader.this.resumeFrom != null &&
+                    XLSXReader.this.resumeFrom.isCommittedRow(this.sheetIndex, rowNum);
+        }
+
+        /**
+         * 与{@link XLSXReader#acceptColumn(int)}相同,跳过不需要读取的单元格,不再转换其值,
+         * 过滤条件在重放时求值
+         *
+         * @param cellReference
+         * @return
+         */
+        @Override
+        public boolean acceptCell(String cellReference) {
+            if (this.rowNum <= 1) {
+                return true;
+            }
+            return !this.committedRow && XLSXReader.this.isColumnSelected(this.rowNum, this.projection,
+                    cellReference == null ? -1 : columnIndex(cellReference));
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (this.rowCount == this.rowNums.length) {
+                this.rowNums = Arrays.copyOf(this.rowNums, this.rowCount * 2);
+                this.rowEnds = Arrays.copyOf(this.rowEnds, this.rowCount * 2);
+            }
+            this.rowNums[this.rowCount] = rowNum;
+            this.rowEnds[this.rowCount] = this.cellCount;
+            this.rowCount++;
+        }
+
+        /**
+         * 记录单元格
+         *
+         * @param cellReference
+         * @param value         数据行为转换后的值,标题行和列名行为字符串形式
+         */
+        private void add(String cellReference, Object value) {
+            if (cellReference != null) {
+                this.col = columnIndex(cellReference);
+            }
+            if (this.cellCount == this.cols.length) {
+                this.cols = Arrays.copyOf(this.cols, this.cellCount * 2);
+                this.values = Arrays.copyOf(this.values, this.cellCount * 2);
+            }
+            this.cols[this.cellCount] = this.col;
+            this.values[this.cellCount] = value;
+            this.cellCount++;
+        }
+
+        private void typedCell(String cellReference, Object value) {
+            this.add(cellReference, this.rowNum <= 1 ? headerText(value) : value);
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            if (formattedValue == null || formattedValue.isEmpty()) {
+                return;
+            }
+            //指定了列类型时在重放时转换
+            this.add(cellReference, this.rowNum <= 1 || XLSXReader.this.schema != null ? formattedValue :
+                    XLSXReader.this.getValue(formattedValue));
+        }
+
+        @Override
+        public void numericCell(String cellReference, double value, int formatIndex, String formatString,
+                                XSSFComment comment) {
+            this.typedCell(cellReference, XLSXReader.this.roundValue(value, this.rowNum));
+        }
+
+        @Override
+        public void dateCell(String cellReference, double value, XSSFComment comment) {
+            this.typedCell(cellReference, DateUtil.getJavaDate(value));
+        }
+
+        @Override
+        public void booleanCell(String cellReference, boolean value, XSSFComment comment) {
+            this.typedCell(cellReference, value);
+        }
+
+        @Override
+        public void sharedStringCell(String cellReference, int sstIndex, String value, XSSFComment comment) {
+            this.stringCell(cellReference, value, comment);
+        }
+
+        @Override
+        public void stringCell(String cellReference, String value, XSSFComment comment) {
+            if (value == null || value.isEmpty()) {
+                return;
+            }
+            this.typedCell(cellReference, value);
+        }
+
+        @Override
+        public void errorCell(String cellReference, String error, XSSFComment comment) {
+            this.typedCell(cellReference, "ERROR:" + error);
+        }
+
+        @Override
+        public void headerFooter(String text, boolean isHeader, String tagName) {
+            //do nothing
+        }
+    }
+
+    /**
+     * 用于提前结束Sheet的解析
+     */
+    private static class StopParseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public StopParseException() {
+            super(null, null, false, false);
+        }
+    }
 }
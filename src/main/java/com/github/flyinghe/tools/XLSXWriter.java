@@ -8,7 +8,7 @@ import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.util.List;
+import java.util.Iterator;
 
 /**
  * Created by FlyingHe on 2018/12/18.
@@ -17,6 +17,13 @@ import java.util.List;
  * </p>
  */
 public class XLSXWriter<T> extends AbstractExcelWriter<T> {
+    public static final int DEFAULT_FLUSH_SIZE = 1000;
+    /**
+     * 每写入多少个数据将内存中的行刷入缓存,&lt;=0表示只在每次调用write方法结束时刷入
+     */
+    private int flushSize = DEFAULT_FLUSH_SIZE;
+    //上次刷入之后写入的数据数
+    private int unflushedData = 0;
 
     /**
      * @throws WriteExcelException 异常
@@ -78,10 +85,22 @@ public class XLSXWriter<T> extends AbstractExcelWriter<T> {
         this.validateDataWhenConstruct();
     }
 
+    public int getFlushSize() {
+        return flushSize;
+    }
+
+    /**
+     * @param flushSize {@link #flushSize}
+     */
+    public void setFlushSize(int flushSize) {
+        this.flushSize = flushSize;
+    }
+
     /**
      * 将内存中的Excel数据刷入缓存
      */
     private void flush() {
+        this.unflushedData = 0;
         if (null == this.currentSheet) {
             return;
         }
@@ -107,7 +126,14 @@ public class XLSXWriter<T> extends AbstractExcelWriter<T> {
     }
 
     @Override
-    public AbstractExcelWriter<T> write(List<T> datas) throws WriteExcelException {
+    protected void afterWritePerData() {
+        if (this.flushSize > 0 && ++this.unflushedData >= this.flushSize) {
+            this.flush();
+        }
+    }
+
+    @Override
+    public AbstractExcelWriter<T> write(Iterator<T> datas) throws WriteExcelException {
         super.write(datas);
         this.flush();
         return this;
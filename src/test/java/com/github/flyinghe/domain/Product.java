@@ -0,0 +1,43 @@
+package com.github.flyinghe.domain;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ */
+public class Product {
+    private int id;
+    private String name;
+    private double price;
+    private Boolean flag;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public void setPrice(double price) {
+        this.price = price;
+    }
+
+    public Boolean getFlag() {
+        return flag;
+    }
+
+    public void setFlag(Boolean flag) {
+        this.flag = flag;
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelBatchResult;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelHandlerFactory;
+import com.github.flyinghe.tools.ExcelBatchImporter;
+import com.github.flyinghe.tools.ExcelWriter;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 对比{@link ExcelBatchImporter}在1,4,16个线程下每秒读取的文件数,测试文件为xlsx和xls各占一半的中小文件。
+ * 运行方式:直接运行main函数,可通过参数指定文件数和每个文件的行数,默认64个文件,每个文件5000行
+ */
+public class ExcelBatchImporterBenchmark {
+    private static final int[] WORKERS = {1, 4, 16};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int fileCount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : 5000;
+        File directory = Files.createTempDirectory("ExcelBatchImporterBenchmark").toFile();
+        try {
+            for (int i = 0; i < fileCount; i++) {
+                boolean xlsx = i % 2 == 0;
+                produceExcel(new File(directory, "file" + i + (xlsx ? ".xlsx" : ".xls")), rows,
+                        xlsx ? ExcelWriter.XLSX : ExcelWriter.XLS);
+            }
+            System.out.println("files: " + fileCount + ", rows per file: " + rows + ", cores: " +
+                    Runtime.getRuntime().availableProcessors());
+            System.out.printf("%8s %12s %12s%n", "workers", "elapsed(ms)", "files/s");
+            for (int workers : WORKERS) {
+                ExcelBatchResult best = null;
+                try (ExcelBatchImporter importer = new ExcelBatchImporter(workers)) {
+                    for (int i = 0; i < ROUNDS; i++) {
+                        ExcelBatchResult result = importer.importDirectory(directory, new ExcelHandlerFactory() {
+                            @Override
+                            public ExcelHandler createHandler(File file) {
+                                return null;
+                            }
+                        });
+                        if (!result.isAllSuccess()) {
+                            throw new IllegalStateException(result.getFailures().toString());
+                        }
+                        if (best == null || result.getElapsedMillis() < best.getElapsedMillis()) {
+                            best = result;
+                        }
+                    }
+                }
+                System.out.printf("%8d %12d %12.1f%n", workers, best.getElapsedMillis(), best.getFilesPerSecond());
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+
+    private static void produceExcel(File file, int rows, int type) throws Exception {
+        List<Map<String, Object>> datas = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            data.put("price", i * 1.5D);
+            data.put("flag", i % 2 == 0);
+            data.put("remark", "remark" + (i % 100));
+            datas.add(data);
+        }
+        new ExcelWriter<Map<String, Object>>(true, rows, 1, type, null).write(datas).endWrite(file);
+    }
+}
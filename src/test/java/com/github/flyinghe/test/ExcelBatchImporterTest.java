@@ -0,0 +1,148 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelBatchResult;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelImportResult;
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.tools.ExcelBatchImporter;
+import com.github.flyinghe.tools.ExcelReader;
+import com.github.flyinghe.tools.ExcelWriter;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ */
+public class ExcelBatchImporterTest {
+    private File directory;
+
+    private void produceExcel(String name, int num, int type) throws IOException, WriteExcelException {
+        List<Map<String, Object>> datas = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, 100, 1, type, null);
+        writer.write(datas).endWrite(new File(this.directory, name));
+    }
+
+    @Before
+    public void before() throws Exception {
+        this.directory = Files.createTempDirectory("ExcelBatchImporterTest").toFile();
+        for (int i = 0; i < 4; i++) {
+            this.produceExcel("file" + i + ".xlsx", 200 + i, ExcelWriter.XLSX);
+            this.produceExcel("file" + (i + 4) + ".XLS", 200 + i, ExcelWriter.XLS);
+        }
+        Files.write(new File(this.directory, "broken.xlsx").toPath(), "id,name\n1,a\n".getBytes("UTF-8"));
+        Files.write(new File(this.directory, "readme.txt").toPath(), "ignored".getBytes("UTF-8"));
+    }
+
+    @After
+    public void after() {
+        for (File file : this.directory.listFiles()) {
+            file.delete();
+        }
+        this.directory.delete();
+    }
+
+    /**
+     * 功能测试:
+     * 并发读取目录下的所有Excel文件,按格式选择读取器,损坏的文件和回调函数抛出异常的文件单独记录失败,不影响其他文件
+     */
+    @Test
+    public void test1() throws Exception {
+        Map<String, AtomicInteger> rows = new ConcurrentHashMap<>();
+        ExcelBatchResult result;
+        try (ExcelBatchImporter importer = new ExcelBatchImporter(4)) {
+            importer.setBatchSize(50);
+            result = importer.importDirectory(this.directory, file -> {
+                AtomicInteger count = new AtomicInteger();
+                rows.put(file.getName(), count);
+                if ("file7.XLS".equals(file.getName())) {
+                    return (currentRowInSheet, currentSheetInExcel, realRowInSheet, realRowInExcel, allSheetInExcel,
+                            titles, columns, datas) -> {
+                        throw new ReadExcelException("handler failed");
+                    };
+                }
+                return (currentRowInSheet, currentSheetInExcel, realRowInSheet, realRowInExcel, allSheetInExcel,
+                        titles, columns, datas) -> {
+                    Assert.assertTrue(datas.size() <= 50);
+                    count.addAndGet(datas.size());
+                };
+            });
+        }
+        Assert.assertEquals(9, result.getResults().size());
+        Assert.assertEquals("broken.xlsx", result.getResults().get(0).getFile().getName());
+        Assert.assertFalse(result.isAllSuccess());
+        List<ExcelImportResult> failures = result.getFailures();
+        Assert.assertEquals(2, failures.size());
+        Assert.assertEquals("broken.xlsx", failures.get(0).getFile().getName());
+        Assert.assertEquals(0, failures.get(0).getFormat());
+        Assert.assertEquals("file7.XLS", failures.get(1).getFile().getName());
+        Assert.assertEquals(ExcelReader.XLS, failures.get(1).getFormat());
+        Assert.assertTrue(failures.get(1).getError().getMessage().endsWith("handler failed"));
+        for (ExcelImportResult fileResult : result.getResults()) {
+            if (!fileResult.isSuccess()) {
+                continue;
+            }
+            int i = fileResult.getFile().getName().charAt(4) - '0';
+            Assert.assertEquals(i < 4 ? ExcelReader.XLSX : ExcelReader.XLS, fileResult.getFormat());
+            Assert.assertEquals(200 + i % 4, fileResult.getRowCount());
+            Assert.assertEquals(200 + i % 4, rows.get(fileResult.getFile().getName()).get());
+        }
+        Assert.assertEquals(4 * 200 + 6 + 3 * 200 + 3, result.getRowCount());
+    }
+
+    /**
+     * 功能测试:
+     * 内存配额只够一个文件时,即使有多个线程也逐个读取文件
+     */
+    @Test
+    public void test2() throws Exception {
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        Set<String> files = ConcurrentHashMap.newKeySet();
+        List<File> list = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            list.add(new File(this.directory, "file" + i + (i < 4 ? ".xlsx" : ".XLS")));
+        }
+        ExcelBatchResult result;
+        try (ExcelBatchImporter importer = new ExcelBatchImporter(4)) {
+            importer.setBatchSize(10);
+            importer.setMaxInFlightBytes(1);
+            result = importer.importFiles(list, file -> new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas) {
+                    files.add(file.getName());
+                    maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        active.decrementAndGet();
+                    }
+                }
+            });
+        }
+        Assert.assertTrue(result.isAllSuccess());
+        Assert.assertEquals(8, files.size());
+        Assert.assertEquals(1, maxActive.get());
+        Assert.assertEquals(8, result.getResults().size());
+        Assert.assertEquals(list.get(5), result.getResults().get(5).getFile());
+    }
+}
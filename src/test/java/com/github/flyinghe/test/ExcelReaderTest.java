@@ -0,0 +1,257 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.domain.Product;
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.tools.ExcelReader;
+import com.github.flyinghe.tools.ExcelWriter;
+import com.github.flyinghe.tools.XLSReader;
+import com.github.flyinghe.tools.XLSXReader;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ */
+public class ExcelReaderTest {
+    private File xlsx;
+    private File xls;
+
+    /**
+     * 生成测试文件:每个Sheet第0行为空的预留行,第1行为列名行,后面为数据行
+     */
+    private File produceExcel(int num, int limit, int type, String suffix) throws IOException, WriteExcelException {
+        File file = File.createTempFile("ExcelReaderTest", suffix);
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            data.put("price", i * 1.5D);
+            data.put("flag", i % 2 == 0);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, limit, 1, type, null);
+        writer.write(datas).endWrite(file);
+        return file;
+    }
+
+    @Before
+    public void before() throws Exception {
+        //故意使用错误的后缀,格式只能从文件头判断
+        this.xlsx = this.produceExcel(1000, 100, ExcelWriter.XLSX, ".xls");
+        this.xls = this.produceExcel(1000, 100, ExcelWriter.XLS, ".xlsx");
+    }
+
+    /**
+     * 功能测试:
+     * 从File,Path,InputStream,byte[]读取时根据文件头识别格式,结果与对应的流式读取器一致
+     */
+    @Test
+    public void test1() throws Exception {
+        List<Map<String, Object>> expectedXLSX = XLSXReader.readExcelToMapList(this.xlsx);
+        List<Map<String, Object>> expectedXLS = XLSReader.readExcelToMapList(this.xls);
+        Assert.assertEquals(1000, expectedXLSX.size());
+        Assert.assertEquals(1000, expectedXLS.size());
+
+        Assert.assertEquals(ExcelReader.XLSX, ExcelReader.detectFormat(this.xlsx));
+        Assert.assertEquals(ExcelReader.XLS, ExcelReader.detectFormat(this.xls));
+        Assert.assertEquals(expectedXLSX, ExcelReader.readExcelToMapList(this.xlsx));
+        Assert.assertEquals(expectedXLS, new ExcelReader(this.xls.toPath()).readToMapList());
+
+        ExcelReader bytesReader = new ExcelReader(Files.readAllBytes(this.xlsx.toPath()));
+        Assert.assertEquals(ExcelReader.XLSX, bytesReader.getFormat());
+        Assert.assertEquals(expectedXLSX, bytesReader.readToMapList());
+        bytesReader = new ExcelReader(Files.readAllBytes(this.xls.toPath()));
+        Assert.assertEquals(ExcelReader.XLS, bytesReader.getFormat());
+        Assert.assertEquals(expectedXLS, bytesReader.readToMapList());
+
+        try (InputStream is = new FileInputStream(this.xls); ExcelReader reader = new ExcelReader(is)) {
+            Assert.assertEquals(ExcelReader.XLS, reader.getFormat());
+            Assert.assertEquals(expectedXLS, reader.readToMapList());
+        }
+        try (InputStream is = new FileInputStream(this.xlsx); ExcelReader reader = new ExcelReader(is)) {
+            Assert.assertEquals(ExcelReader.XLSX, reader.getFormat());
+            Assert.assertEquals(expectedXLSX, reader.readToMapList());
+        }
+
+        List<Product> beans = ExcelReader.readExcelToBeans(this.xls, Product.class);
+        Assert.assertEquals(XLSReader.readExcelToBeans(this.xls, Product.class).size(), beans.size());
+        Assert.assertEquals(999, beans.get(999).getId());
+
+        int[] total = new int[1];
+        new ExcelReader(this.xlsx).read(300, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles, List<String> columns,
+                                 List<Map<String, Object>> datas) throws ReadExcelException {
+                Assert.assertTrue(datas.size() <= 300);
+                total[0] += datas.size();
+            }
+        });
+        Assert.assertEquals(1000, total[0]);
+
+        try {
+            new ExcelReader("id,name\n1,a\n".getBytes("UTF-8"));
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Unsupported file format"));
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 公式没有保存计算结果时,流式读取得不到值,设置计算公式后使用usermodel计算出值
+     */
+    @Test
+    public void test2() throws Exception {
+        File file = File.createTempFile("ExcelReaderTest", ".xlsx");
+        file.deleteOnExit();
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream os = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("title");
+            Row columns = sheet.createRow(1);
+            columns.createCell(0).setCellValue("a");
+            columns.createCell(1).setCellValue("b");
+            columns.createCell(2).setCellValue("sum");
+            for (int i = 0; i < 10; i++) {
+                Row row = sheet.createRow(i + 2);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue(i * 10);
+                row.createCell(2).setCellFormula(String.format("A%d+B%d", i + 3, i + 3));
+            }
+            workbook.write(os);
+        }
+
+        ExcelReader reader = new ExcelReader(file);
+        List<Map<String, Object>> datas = reader.readToMapList();
+        Assert.assertEquals(10, datas.size());
+        Assert.assertNull(datas.get(3).get("sum"));
+
+        reader.setEvaluateFormulas(true);
+        datas = reader.readToMapList();
+        Assert.assertEquals(10, datas.size());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(String.valueOf(i * 11), datas.get(i).get("sum"));
+        }
+        List<Integer> rows = new ArrayList<>();
+        reader.readByRow((sheet, rowInSheet, row) -> {
+            rows.add(rowInSheet);
+            Assert.assertEquals(String.valueOf((rowInSheet - 2) * 11), row.get("sum"));
+            return true;
+        });
+        Assert.assertEquals(10, rows.size());
+        Assert.assertEquals(2, rows.get(0).intValue());
+
+        try (ExcelReader bytesReader = new ExcelReader(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+            bytesReader.setEvaluateFormulas(true);
+            Assert.assertEquals(datas, bytesReader.readToMapList());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 计算公式时同样应用读取选项和scale,最后一次回调的参数为最后一个数据行的位置,非字符串的列名也能读取
+     */
+    @Test
+    public void test3() throws Exception {
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setSheetIndexes(Arrays.asList(0, 1, 3));
+        options.setColumns(Arrays.asList("id", "price"));
+        options.setStartRow(10);
+        options.setEndRow(80);
+        options.setMaxRows(100);
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value) || "true".equals(value));
+        ExcelReader reader = new ExcelReader(this.xlsx);
+        reader.setOptions(options);
+        reader.setScale(1);
+        List<Map<String, Object>> expected = reader.readToMapList();
+        Assert.assertEquals(100, expected.size());
+        reader.setEvaluateFormulas(true);
+        List<Map<String, Object>> actual = reader.readToMapList();
+        Assert.assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).get("id"), actual.get(i).get("id"));
+            Assert.assertEquals(expected.get(i).get("price"), actual.get(i).get("price"));
+            Assert.assertNull(actual.get(i).get("name"));
+        }
+
+        List<int[]> calls = new ArrayList<>();
+        options.setMaxRows(-1);
+        reader.read(7, (currentRowInSheet, currentSheetInExcel, realRowInSheet, realRowInExcel, allSheetInExcel,
+                        titles, columns, datas) -> calls.add(new int[]{currentRowInSheet, currentSheetInExcel,
+                realRowInSheet, realRowInExcel, allSheetInExcel}));
+        //每个Sheet第10~80行中flag为true的行有36行,最后一个数据行为第3个Sheet的第80行
+        Assert.assertArrayEquals(new int[]{80, 3, 36, 108, 4}, calls.get(calls.size() - 1));
+
+        File file = File.createTempFile("ExcelReaderTest", ".xlsx");
+        file.deleteOnExit();
+        try (Workbook workbook = new XSSFWorkbook(); OutputStream os = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue(2019);
+            Row columns = sheet.createRow(1);
+            columns.createCell(0).setCellValue("a");
+            columns.createCell(1).setCellValue(2020);
+            columns.createCell(2).setCellFormula("\"s\"&\"um\"");
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue("x");
+            row.createCell(1).setCellValue(1);
+            row.createCell(2).setCellFormula("B3+1");
+            workbook.write(os);
+        }
+        reader = new ExcelReader(file);
+        reader.setEvaluateFormulas(true);
+        List<Map<String, Object>> datas = reader.readToMapList();
+        Assert.assertEquals(1, datas.size());
+        Assert.assertEquals("1", datas.get(0).get("2020"));
+        Assert.assertEquals("2", datas.get(0).get("sum"));
+    }
+
+    /**
+     * 功能测试:
+     * 空的或过短的输入无法识别格式时抛出ReadExcelException
+     */
+    @Test
+    public void test4() throws Exception {
+        File empty = File.createTempFile("ExcelReaderTest", ".xlsx");
+        empty.deleteOnExit();
+        for (int length : new int[]{0, 3}) {
+            try {
+                new ExcelReader(new byte[length]);
+                Assert.fail();
+            } catch (ReadExcelException e) {
+                Assert.assertEquals("无法识别的Excel格式", e.getMessage());
+            }
+        }
+        try {
+            new ExcelReader(empty);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertEquals("无法识别的Excel格式", e.getMessage());
+        }
+        try (InputStream is = new ByteArrayInputStream(new byte[0])) {
+            new ExcelReader(is);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertEquals("无法识别的Excel格式", e.getMessage());
+        }
+    }
+}
@@ -4,13 +4,18 @@ import com.github.flyinghe.depdcy.AbstractExcelWriter;
 import com.github.flyinghe.domain.TestObj;
 import com.github.flyinghe.exception.WriteExcelException;
 import com.github.flyinghe.tools.CommonUtils;
+import com.github.flyinghe.tools.ExcelReader;
 import com.github.flyinghe.tools.ExcelWriter;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.File;
+import java.lang.reflect.Field;
 import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.*;
 
 /**
@@ -386,4 +391,276 @@ public class ExcelWriterTest {
         System.out.println(excelWriter1.getRealRowInExcel());
 
     }
+
+    /**
+     * 功能测试:
+     * 写入JavaBean时直接读取需要写入的属性,结果与先转换成Map再写入一致,没有getter方法的属性写入空单元格
+     */
+    @Test
+    public void test6() throws Exception {
+        List<TestObj> beans = this.getDomainDatas(100, true);
+        List<String> excludeProps = Arrays.asList("listType", "arrayType", "mapType", "userType");
+        List<Map<String, Object>> maps = new ArrayList<>(beans.size());
+        for (TestObj bean : beans) {
+            maps.add(CommonUtils.toMap(bean));
+        }
+        for (int excelType : new int[]{ExcelWriter.XLSX, ExcelWriter.XLS}) {
+            File beanFile = File.createTempFile("ExcelWriterTest", ".tmp");
+            File mapFile = File.createTempFile("ExcelWriterTest", ".tmp");
+            beanFile.deleteOnExit();
+            mapFile.deleteOnExit();
+            ExcelWriter<TestObj> beanWriter = new ExcelWriter<>(true, 30, 1, excelType, null);
+            beanWriter.setExcludeProps(excludeProps);
+            Assert.assertTrue(beanWriter.write(beans).endWrite(beanFile));
+            ExcelWriter<Map<String, Object>> mapWriter = new ExcelWriter<>(true, 30, 1, excelType, null);
+            mapWriter.setExcludeProps(excludeProps);
+            Assert.assertTrue(mapWriter.write(maps).endWrite(mapFile));
+            List<Map<String, Object>> expected = new ExcelReader(mapFile).readToMapList();
+            Assert.assertEquals(10, expected.size());
+            Assert.assertEquals(expected, new ExcelReader(beanFile).readToMapList());
+        }
+
+        File file = File.createTempFile("ExcelWriterTest", ".xlsx");
+        file.deleteOnExit();
+        List<Object> values = new ArrayList<>();
+        ExcelWriter<TestObj> writer = new ExcelWriter<>(true, -1, 1, ExcelWriter.XLSX, null);
+        writer.setProperties(Arrays.asList("integerType", "missing", "stringType"));
+        writer.setWriteExcelCallback(new AbstractExcelWriter.WriteExcelCallback<TestObj>() {
+            @Override
+            public Boolean handleCellValue(String property, Object value, TestObj data,
+                                           AbstractExcelWriter<TestObj> writer) {
+                values.add(value);
+                return null;
+            }
+        });
+        for (TestObj bean : beans.subList(0, 10)) {
+            writer.write(bean);
+        }
+        Assert.assertTrue(writer.endWrite(file));
+        Assert.assertEquals(Arrays.asList(null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, 9, null,
+                "StringType9"), values);
+        List<Map<String, Object>> datas = new ExcelReader(file).readToMapList();
+        Assert.assertEquals(1, datas.size());
+        Assert.assertEquals("9", datas.get(0).get("integerType"));
+        Assert.assertFalse(datas.get(0).containsKey("missing"));
+        Assert.assertEquals("StringType9", datas.get(0).get("stringType"));
+    }
+
+    /**
+     * 功能测试:
+     * 每一列的样式,日期格式和boolean映射在写入前编译一次,同一列的值类型改变时仍按实际类型写入
+     */
+    @Test
+    public void test7() throws Exception {
+        File file = File.createTempFile("ExcelWriterTest", ".xlsx");
+        file.deleteOnExit();
+        Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2019-12-20 08:30:00");
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        Object[] mixed = {1, "text", date, calendar, true, 1.5F, 2.5D, (byte) 3, (short) 4, 5L, 'c', null};
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (int i = 0; i < mixed.length; i++) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("mixed", mixed[i]);
+            data.put("day", i % 2 == 0 ? date : calendar);
+            data.put("flag", i % 3 == 0 ? null : i % 3 == 1);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 0, ExcelWriter.XLSX, null);
+        writer.setProperties(Arrays.asList("mixed", "day", "flag"));
+        writer.getDateFormatMapping().put("day", "yyyy-MM-dd");
+        writer.putBooleanMapping("flag", "是", null);
+        CellStyle style = writer.createCellStyle();
+        writer.getCellStyleMapping().put("flag", style);
+        writer.write(datas.subList(0, 6)).write(datas.subList(6, datas.size()));
+        Assert.assertTrue(writer.endWrite(file));
+
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            DataFormatter formatter = new DataFormatter();
+            String[] expected = {"1", "text", "2019/12/20 08:30:00", "2019/12/20 08:30:00", "TRUE", "1.5", "2.5",
+                    "3", "4", "5", "c", ""};
+            for (int i = 0; i < mixed.length; i++) {
+                Row row = sheet.getRow(i + 1);
+                Assert.assertEquals(expected[i], formatter.formatCellValue(row.getCell(0)));
+                Assert.assertEquals("2019-12-20", row.getCell(1).getStringCellValue());
+                Assert.assertEquals(i % 3 == 1 ? "是" : "", row.getCell(2).getStringCellValue());
+                Assert.assertEquals(style.getIndex(), row.getCell(2).getCellStyle().getIndex());
+                Assert.assertEquals(writer.getDefaultCellStyle().getIndex(), row.getCell(0).getCellStyle().getIndex());
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 日期值(包括java.time类型)以Excel日期序列号写入,单元格使用该列的日期格式,未开启的列仍写入字符串
+     */
+    @Test
+    public void test8() throws Exception {
+        Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2019-12-20 08:30:15");
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        LocalDateTime localDateTime = LocalDateTime.of(2019, 12, 20, 8, 30, 15);
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("date", date);
+        data.put("calendar", calendar);
+        data.put("localDate", localDateTime.toLocalDate());
+        data.put("localDateTime", localDateTime);
+        data.put("instant", date.toInstant());
+        data.put("text", localDateTime);
+        for (int excelType : new int[]{ExcelWriter.XLSX, ExcelWriter.XLS}) {
+            File file = File.createTempFile("ExcelWriterTest", ".tmp");
+            file.deleteOnExit();
+            ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 0, excelType, null);
+            writer.getNativeDateProps().addAll(Arrays.asList("date", "calendar", "localDate", "localDateTime",
+                    "instant"));
+            writer.getDateFormatMapping().put("localDate", "yyyy-MM-dd");
+            writer.getDateFormatMapping().put("instant", "yyyy-MM-dd HH:mm");
+            Assert.assertTrue(writer.write(data).write(data).endWrite(file));
+
+            try (Workbook workbook = WorkbookFactory.create(file)) {
+                DataFormatter formatter = new DataFormatter();
+                for (int i = 1; i <= 2; i++) {
+                    Row row = workbook.getSheetAt(0).getRow(i);
+                    String[] expected = {"2019/12/20 08:30:15", "2019/12/20 08:30:15", "2019-12-20",
+                            "2019/12/20 08:30:15", "2019-12-20 08:30"};
+                    for (int j = 0; j < expected.length; j++) {
+                        Cell cell = row.getCell(j);
+                        Assert.assertEquals(CellType.NUMERIC, cell.getCellTypeEnum());
+                        Assert.assertTrue(DateUtil.isCellDateFormatted(cell));
+                        Assert.assertEquals(expected[j], formatter.formatCellValue(cell));
+                    }
+                    Assert.assertEquals(date, row.getCell(0).getDateCellValue());
+                    Assert.assertEquals(date, row.getCell(3).getDateCellValue());
+                    Assert.assertEquals(CellType.STRING, row.getCell(5).getCellTypeEnum());
+                    Assert.assertEquals("2019-12-20T08:30:15", row.getCell(5).getStringCellValue());
+                }
+                Assert.assertEquals(workbook.getSheetAt(0).getRow(1).getCell(0).getCellStyle().getIndex(),
+                        workbook.getSheetAt(0).getRow(2).getCell(1).getCellStyle().getIndex());
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 逐个写入数据时,参数和映射没有改变则不重新编译每一列的写入方式,
+     * 通过之前拿到的映射(包括其视图和迭代器)修改后从下一次写入开始生效
+     */
+    @Test
+    public void test9() throws Exception {
+        File file = File.createTempFile("ExcelWriterTest", ".xlsx");
+        file.deleteOnExit();
+        Date date = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss").parse("2019-12-20 08:30:00");
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 0, ExcelWriter.XLSX, null);
+        Map<String, CellStyle> styles = writer.getCellStyleMapping();
+        Map<String, String> formats = writer.getDateFormatMapping();
+        formats.put("day", "yyyy-MM-dd");
+        Field field = AbstractExcelWriter.class.getDeclaredField("columnPlans");
+        field.setAccessible(true);
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("name", "name" + i);
+            data.put("day", date);
+            datas.add(data);
+        }
+
+        writer.write(datas.get(0));
+        Object plans = field.get(writer);
+        writer.write(datas.get(1));
+        Assert.assertSame(plans, field.get(writer));
+        CellStyle style = writer.createCellStyle();
+        styles.put("name", style);
+        writer.write(datas.get(2));
+        Assert.assertNotSame(plans, field.get(writer));
+        plans = field.get(writer);
+        for (Map.Entry<String, String> entry : formats.entrySet()) {
+            entry.setValue("yyyy/MM/dd");
+        }
+        writer.write(datas.get(3));
+        Assert.assertNotSame(plans, field.get(writer));
+        styles.keySet().removeIf("name"::equals);
+        writer.write(datas.get(4));
+        Assert.assertTrue(writer.endWrite(file));
+
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            String[] days = {"2019-12-20", "2019-12-20", "2019-12-20", "2019/12/20", "2019/12/20"};
+            for (int i = 0; i < days.length; i++) {
+                Row row = sheet.getRow(i + 1);
+                Assert.assertEquals(days[i], row.getCell(1).getStringCellValue());
+                Assert.assertEquals(i == 2 || i == 3 ? style.getIndex() : writer.getDefaultCellStyle().getIndex(),
+                        row.getCell(0).getCellStyle().getIndex());
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 未开启以Excel日期序列号写入时,java.time类型的日期值默认通过toString()写入,
+     * 只有设置了该属性的日期格式映射才按日期格式格式化
+     */
+    @Test
+    public void test10() throws Exception {
+        LocalDateTime localDateTime = LocalDateTime.of(2020, 1, 1, 8, 30, 15);
+        Instant instant = Instant.parse("2020-01-01T00:30:15Z");
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("localDate", localDateTime.toLocalDate());
+        data.put("localDateTime", localDateTime);
+        data.put("instant", instant);
+        data.put("formatted", localDateTime);
+        for (int excelType : new int[]{ExcelWriter.XLSX, ExcelWriter.XLS}) {
+            File file = File.createTempFile("ExcelWriterTest", ".tmp");
+            file.deleteOnExit();
+            ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 0, excelType, null);
+            writer.getDateFormatMapping().put("formatted", "yyyy-MM-dd HH:mm");
+            Assert.assertTrue(writer.write(data).endWrite(file));
+
+            try (Workbook workbook = WorkbookFactory.create(file)) {
+                Row row = workbook.getSheetAt(0).getRow(1);
+                String[] expected = {"2020-01-01", "2020-01-01T08:30:15", "2020-01-01T00:30:15Z", "2020-01-01 08:30"};
+                for (int j = 0; j < expected.length; j++) {
+                    Assert.assertEquals(CellType.STRING, row.getCell(j).getCellTypeEnum());
+                    Assert.assertEquals(expected[j], row.getCell(j).getStringCellValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 设置属性和标题时复制传入的集合,之后修改传入的集合不影响写入,再次设置后从下一次写入开始生效
+     */
+    @Test
+    public void test11() throws Exception {
+        File file = File.createTempFile("ExcelWriterTest", ".xlsx");
+        file.deleteOnExit();
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("a", "a");
+        data.put("b", "b");
+        List<String> properties = new ArrayList<>(Arrays.asList("a", "b"));
+        List<String> titles = new ArrayList<>(Arrays.asList("A", "B"));
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 0, ExcelWriter.XLSX, null);
+        writer.setProperties(properties);
+        writer.setTitles(titles);
+        writer.write(data);
+        properties.remove("a");
+        titles.remove("A");
+        writer.write(data);
+        writer.setProperties(properties);
+        writer.setTitles(titles);
+        writer.write(data);
+        Assert.assertTrue(writer.endWrite(file));
+
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Assert.assertEquals("A", sheet.getRow(0).getCell(0).getStringCellValue());
+            String[] expected = {"a", "a", "b"};
+            for (int i = 0; i < expected.length; i++) {
+                Assert.assertEquals(expected[i], sheet.getRow(i + 1).getCell(0).getStringCellValue());
+            }
+            Assert.assertNull(sheet.getRow(3).getCell(1));
+        }
+    }
 }
@@ -0,0 +1,497 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelAggregator;
+import com.github.flyinghe.depdcy.ExcelBeanHandler;
+import com.github.flyinghe.depdcy.ExcelCheckpoint;
+import com.github.flyinghe.depdcy.ExcelCheckpointStore;
+import com.github.flyinghe.depdcy.ExcelColumn;
+import com.github.flyinghe.depdcy.ExcelColumnType;
+import com.github.flyinghe.depdcy.ExcelColumnarTable;
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelReadListener;
+import com.github.flyinghe.depdcy.ExcelReadMetrics;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.depdcy.ExcelRow;
+import com.github.flyinghe.depdcy.FileCheckpointStore;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
+import com.github.flyinghe.domain.Product;
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.tools.CommonUtils;
+import com.github.flyinghe.tools.ExcelWriter;
+import com.github.flyinghe.tools.XLSReader;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ */
+public class XLSReaderTest {
+    private File file1;
+
+    /**
+     * 生成测试文件:每个Sheet第0行为空的预留行,第1行为列名行,后面为数据行
+     */
+    private File produceExcel(int num, int limit) throws IOException, WriteExcelException {
+        File file = File.createTempFile("XLSReaderTest", ".xls");
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            data.put("price", i * 1.5D);
+            data.put("flag", i % 2 == 0);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, limit, 1, ExcelWriter.XLS, null);
+        writer.write(datas).endWrite(file);
+        return file;
+    }
+
+    @Before
+    public void before() throws Exception {
+        this.file1 = this.produceExcel(1000, 100);
+    }
+
+    /**
+     * 功能测试:
+     * 以流的方式读取,结果与一次性读取一致,提前关闭时停止解析
+     */
+    @Test
+    public void test1() throws ReadExcelException {
+        List<Map<String, Object>> expected = XLSReader.readExcelToMapList(this.file1);
+        Assert.assertEquals(1000, expected.size());
+        try (Stream<Map<String, Object>> stream = XLSReader.readExcelToStream(this.file1)) {
+            Assert.assertEquals(expected, stream.collect(Collectors.toList()));
+        }
+        try (Stream<Map<String, Object>> stream = XLSReader.readExcelToStream(this.file1)) {
+            Assert.assertEquals(expected.subList(0, 10), stream.limit(10).collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 紧凑行与Map读取结果一致,逐行读取时复用同一个行对象
+     */
+    @Test
+    public void test2() throws ReadExcelException {
+        List<Map<String, Object>> expected = XLSReader.readExcelToMapList(this.file1);
+        List<ExcelRow> rows = XLSReader.readExcelToRows(this.file1);
+        Assert.assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertEquals(expected.get(i), rows.get(i).asMap());
+            Assert.assertEquals(expected.get(i).get("name"), rows.get(i).get("name"));
+            Assert.assertSame(rows.get(0).getSchema(), rows.get(i).getSchema());
+        }
+
+        final Set<ReusableExcelRow> instances = Collections.newSetFromMap(new IdentityHashMap<ReusableExcelRow, Boolean>());
+        final int[] count = new int[1];
+        XLSReader.readExcelByRow(this.file1, null, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                instances.add(row);
+                return ++count[0] < 50;
+            }
+        });
+        Assert.assertEquals(50, count[0]);
+        Assert.assertEquals(1, instances.size());
+    }
+
+    /**
+     * 功能测试:
+     * 直接封装JavaBean与通过Map封装结果一致,分批处理和流式读取
+     */
+    @Test
+    public void test3() throws ReadExcelException {
+        List<Map<String, Object>> maps = XLSReader.readExcelToMapList(this.file1);
+        List<Product> beans = XLSReader.readExcelToBeans(this.file1, Product.class);
+        Assert.assertEquals(maps.size(), beans.size());
+        for (int i = 0; i < beans.size(); i++) {
+            Product expected = CommonUtils.toBean(maps.get(i), Product.class);
+            Product actual = beans.get(i);
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getPrice(), actual.getPrice(), 0);
+            Assert.assertEquals(expected.getFlag(), actual.getFlag());
+        }
+
+        final List<Integer> batchSizes = new ArrayList<>();
+        XLSReader.readExcelToBeans(this.file1, null, Product.class, 300, new ExcelBeanHandler<Product>() {
+            @Override
+            public boolean handleBeans(List<Product> beans) {
+                batchSizes.add(beans.size());
+                return true;
+            }
+        });
+        Assert.assertEquals(Arrays.asList(300, 300, 300, 100), batchSizes);
+
+        try (Stream<Product> stream = XLSReader.readExcelToBeanStream(this.file1, Product.class)) {
+            Assert.assertEquals(999, stream.mapToInt(Product::getId).max().getAsInt());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 按读取选项只读取选择的Sheet,行和列,达到最大行数后停止解析
+     */
+    @Test
+    public void test4() throws ReadExcelException {
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setSheetIndexes(Collections.singleton(3));
+        options.setSheetNames(Collections.singleton("Sheet5"));
+        options.setColumns(Arrays.asList("id", "name"));
+        options.setStartRow(10);
+        options.setEndRow(19);
+        XLSReader reader = XLSReader.readExcel(this.file1, null, options);
+        List<Map<String, Object>> datas = reader.getDatas();
+        Assert.assertEquals(20, datas.size());
+        for (int i = 0; i < datas.size(); i++) {
+            Map<String, Object> data = datas.get(i);
+            int id = (i < 10 ? 308 : 498) + i;
+            Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name")), data.keySet());
+            Assert.assertEquals(String.valueOf(id), data.get("id"));
+            Assert.assertEquals("name" + id, data.get("name"));
+        }
+        Assert.assertEquals(Arrays.asList("id", "name", "price", "flag"), reader.getColumns());
+        //Sheet5之后没有需要读取的Sheet,立即停止解析
+        Assert.assertEquals(6, reader.getAllSheetInExcel());
+
+        //预览前25行,标题行和列名行取自第一个被读取的Sheet
+        ExcelReadOptions preview = new ExcelReadOptions();
+        preview.setSheetIndexes(Arrays.asList(2, 3));
+        preview.setMaxRows(25);
+        final List<Integer> ids = new ArrayList<>();
+        XLSReader.readExcelToMapList(this.file1, null, preview).forEach(data -> ids.add(
+                Integer.valueOf(String.valueOf(data.get("id")))));
+        Assert.assertEquals(25, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            Assert.assertEquals(200 + i, ids.get(i).intValue());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 流水线方式读取,每一批数据行的所有权交给consumer,consumer抛出异常时停止解析并抛出该异常
+     */
+    @Test
+    public void test5() throws ReadExcelException {
+        final Set<List<Map<String, Object>>> batches =
+                Collections.newSetFromMap(new IdentityHashMap<List<Map<String, Object>>, Boolean>());
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        XLSReader.readExcelInPipeline(this.file1, null, 100, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles, List<String> columns,
+                                 List<Map<String, Object>> datas) throws ReadExcelException {
+                synchronized (batches) {
+                    batches.add(datas);
+                }
+                for (Map<String, Object> data : datas) {
+                    ids.add(String.valueOf(data.get("id")));
+                }
+            }
+        }, 4, 2);
+        Assert.assertEquals(10, batches.size());
+        Assert.assertEquals(1000, ids.size());
+        for (List<Map<String, Object>> batch : batches) {
+            Assert.assertEquals(100, batch.size());
+        }
+
+        try {
+            XLSReader.readExcelInPipeline(this.file1, null, 10, new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas)
+                        throws ReadExcelException {
+                    throw new ReadExcelException("insert failed");
+                }
+            }, 2, 1);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertEquals("insert failed", e.getMessage());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 回调函数在第12批时失败(模拟进程崩溃),从检查点恢复读取后只收到未提交的数据行,计数继续累加,读取完毕后清除检查点
+     */
+    @Test
+    public void test6() throws Exception {
+        File checkpointFile = File.createTempFile("XLSReaderTest", ".checkpoint");
+        checkpointFile.delete();
+        final ExcelCheckpointStore store = new FileCheckpointStore(checkpointFile);
+        final List<String> ids = new ArrayList<>();
+        final int[] calls = new int[1];
+        try {
+            XLSReader.readExcelWithCheckpoint(this.file1, null, 30, new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas)
+                        throws ReadExcelException {
+                    if (++calls[0] == 12) {
+                        throw new ReadExcelException("crash");
+                    }
+                    for (Map<String, Object> data : datas) {
+                        ids.add(String.valueOf(data.get("id")));
+                    }
+                }
+            }, store);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertTrue(e.getMessage().endsWith("crash"));
+        }
+        Assert.assertEquals(330, ids.size());
+        ExcelCheckpoint checkpoint = store.load();
+        Assert.assertEquals(new ExcelCheckpoint(3, 31, 30, 330), checkpoint);
+
+        final List<Integer> realRows = new ArrayList<>();
+        XLSReader.readExcelWithCheckpoint(this.file1, null, 30, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                 List<String> columns, List<Map<String, Object>> datas) throws ReadExcelException {
+                Assert.assertEquals(4, columns.size());
+                realRows.add(realRowInExcel);
+                for (Map<String, Object> data : datas) {
+                    ids.add(String.valueOf(data.get("id")));
+                }
+            }
+        }, store);
+        Assert.assertEquals(Integer.valueOf(360), realRows.get(0));
+        Assert.assertEquals(Integer.valueOf(1000), realRows.get(realRows.size() - 1));
+        Assert.assertEquals(1000, ids.size());
+        Assert.assertEquals(1000, new HashSet<>(ids).size());
+        Assert.assertNull(store.load());
+        Assert.assertFalse(checkpointFile.exists());
+
+        //最后一批处理完毕后在清除检查点之前崩溃,恢复读取时不会重复收到最后一批
+        ExcelCheckpointStore crashBeforeClear = new FileCheckpointStore(checkpointFile) {
+            @Override
+            public void clear() throws IOException {
+                throw new IOException("crash");
+            }
+        };
+        final int[] batches = new int[1];
+        ExcelHandler counter = new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                 List<String> columns, List<Map<String, Object>> datas) {
+                batches[0]++;
+            }
+        };
+        try {
+            XLSReader.readExcelWithCheckpoint(this.file1, null, 30, counter, crashBeforeClear);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertEquals("crash", e.getMessage());
+        }
+        Assert.assertEquals(1000, store.load().getRealRowInExcel());
+        batches[0] = 0;
+        XLSReader.readExcelWithCheckpoint(this.file1, null, 30, counter, store);
+        Assert.assertEquals(0, batches[0]);
+        Assert.assertFalse(checkpointFile.exists());
+    }
+
+    /**
+     * 功能测试:
+     * 过滤条件在生成数据行之前求值,流式统计(分组,求和,最小值,最大值)的结果与读取全部数据行后计算的结果一致
+     */
+    @Test
+    public void test7() throws ReadExcelException {
+        List<Map<String, Object>> all = XLSReader.readExcelToMapList(this.file1);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value));
+        options.addFilter("id", value -> value != null && Double.parseDouble(value.toString()) < 500);
+        List<Map<String, Object>> filtered = XLSReader.readExcelToMapList(this.file1, null, options);
+        Assert.assertEquals(all.stream().filter(data -> Boolean.TRUE.equals(data.get("flag")) &&
+                Double.parseDouble(data.get("id").toString()) < 500).collect(Collectors.toList()), filtered);
+        Assert.assertEquals(250, filtered.size());
+
+        ExcelAggregator aggregator = XLSReader.readExcelToAggregator(this.file1, null, null,
+                new ExcelAggregator("flag", "id", "price"));
+        Map<Object, ExcelAggregator.Group> groups = aggregator.getGroups();
+        Assert.assertEquals(2, groups.size());
+        ExcelAggregator.Group even = groups.get(Boolean.TRUE);
+        Assert.assertEquals(500, even.getCount());
+        Assert.assertEquals(374250D, even.getSum("price"), 0.000001D);
+        Assert.assertEquals(Double.valueOf(0), even.getMin("id"));
+        Assert.assertEquals(Double.valueOf(998), even.getMax("id"));
+        Assert.assertEquals(1000, aggregator.getTotal().getCount());
+        Assert.assertEquals(749250D, aggregator.getTotal().getSum("price"), 0.000001D);
+        Assert.assertEquals(10, aggregator.getSheetIndexes().size());
+        Assert.assertEquals(100, aggregator.getTotal(3).getCount());
+        Assert.assertEquals(34950D, aggregator.getTotal(3).getSum("id"), 0.000001D);
+
+        ExcelReadOptions odd = new ExcelReadOptions();
+        odd.addFilter("flag", value -> Boolean.FALSE.equals(value));
+        aggregator = XLSReader.readExcelToAggregator(this.file1, null, odd, new ExcelAggregator(null, "price"));
+        Assert.assertEquals(1, aggregator.getGroups().size());
+        Assert.assertEquals(500, aggregator.getTotal().getCount());
+        Assert.assertEquals(749250D - 374250D, aggregator.getTotal().getSum("price"), 0.000001D);
+    }
+
+    /**
+     * 功能测试:
+     * 按列存储的读取结果:推断列的类型,按列统计,按需生成行视图,推断的类型不适用时提升列的类型
+     */
+    @Test
+    public void test8() throws ReadExcelException {
+        ExcelColumnarTable table = XLSReader.readExcelToColumnar(this.file1);
+        Assert.assertEquals(1000, table.getRowCount());
+        Assert.assertEquals(ExcelColumnType.LONG, table.getColumn("id").getType());
+        Assert.assertEquals(ExcelColumnType.DOUBLE, table.getColumn("price").getType());
+        Assert.assertEquals(ExcelColumnType.BOOLEAN, table.getColumn("flag").getType());
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("name").getType());
+        Assert.assertEquals(499500L, ((ExcelColumn.LongColumn) table.getColumn("id")).sum());
+        Assert.assertEquals(749250D, ((ExcelColumn.DoubleColumn) table.getColumn("price")).sum(), 0.000001D);
+        Assert.assertEquals(Double.valueOf(1498.5D), ((ExcelColumn.DoubleColumn) table.getColumn("price")).max());
+        Assert.assertEquals(500, ((ExcelColumn.BooleanColumn) table.getColumn("flag")).countTrue());
+        ExcelColumn.StringColumn names = (ExcelColumn.StringColumn) table.getColumn("name");
+        Assert.assertEquals(1000, names.getDictionary().size());
+        Assert.assertEquals("name5", names.getString(5));
+        ExcelRow row = table.rows().get(5);
+        Assert.assertEquals(5L, row.get("id"));
+        Assert.assertEquals("name5", row.get("name"));
+        Assert.assertEquals(Boolean.FALSE, row.get("flag"));
+
+        //根据第一行推断price为整数列,第二行时提升为小数列
+        table = XLSReader.readExcelToColumnar(this.file1, null, null, 1);
+        Assert.assertEquals(ExcelColumnType.DOUBLE, table.getColumn("price").getType());
+        Assert.assertEquals(749250D, ((ExcelColumn.DoubleColumn) table.getColumn("price")).sum(), 0.000001D);
+        Assert.assertEquals(1000, table.getColumn("price").count());
+    }
+
+    /**
+     * 功能测试:
+     * 统计数据:读取中可读取实时数据,每读取100行通知一次进度,读取结束后为最终结果
+     */
+    @Test
+    public void test9() throws Exception {
+        List<Long> progress = new ArrayList<>();
+        List<ExcelReadMetrics> finished = new ArrayList<>();
+        ExcelReadMetrics metrics = new ExcelReadMetrics(new ExcelReadListener() {
+            @Override
+            public void onProgress(ExcelReadMetrics metrics) {
+                progress.add(metrics.getRowCount());
+            }
+
+            @Override
+            public void onFinish(ExcelReadMetrics metrics) {
+                finished.add(metrics);
+            }
+        }, 100);
+        POIFSFileSystem fs = new POIFSFileSystem(this.file1);
+        try {
+            XLSReader reader = new XLSReader(fs, null, 30, (currentRowInSheet, currentSheetInExcel, realRowInSheet,
+                                                         realRowInExcel, allSheetInExcel, titles, columns, datas) -> {
+                Assert.assertFalse(metrics.isFinished());
+                Assert.assertEquals(realRowInExcel, metrics.getRowCount());
+                Assert.assertTrue(metrics.getElapsedNanos() > 0);
+            });
+            reader.setMetrics(metrics);
+            reader.process();
+        } finally {
+            fs.close();
+        }
+        Assert.assertTrue(metrics.isFinished());
+        Assert.assertEquals(1, finished.size());
+        Assert.assertEquals(1000, metrics.getRowCount());
+        Assert.assertEquals(4000, metrics.getCellCount());
+        Assert.assertEquals(10, metrics.getSheetCount());
+        Assert.assertEquals(30, metrics.getPeakBatchSize());
+        Assert.assertTrue(metrics.getBytesInflated() > 0);
+        Assert.assertTrue(metrics.getConvertNanos() > 0);
+        Assert.assertTrue(metrics.getCallbackNanos() > 0);
+        Assert.assertEquals(metrics.getElapsedNanos() - metrics.getConvertNanos() - metrics.getCallbackNanos(),
+                metrics.getParseNanos());
+        Assert.assertTrue(metrics.getRowsPerSecond() > 0);
+        Assert.assertEquals(10, progress.size());
+        Assert.assertEquals(100L, progress.get(0).longValue());
+        Assert.assertEquals(1000L, progress.get(9).longValue());
+
+        //未启用限制时所有数据行为一批
+        ExcelReadMetrics all = new ExcelReadMetrics();
+        fs = new POIFSFileSystem(this.file1);
+        try {
+            XLSReader reader = new XLSReader(fs);
+            reader.setMetrics(all);
+            reader.process();
+            Assert.assertEquals(1000, reader.getDatas().size());
+        } finally {
+            fs.close();
+        }
+        Assert.assertEquals(1000, all.getPeakBatchSize());
+        Assert.assertEquals(metrics.getBytesInflated(), all.getBytesInflated());
+        Assert.assertEquals(0, all.getCallbackNanos());
+    }
+
+    /**
+     * 功能测试:
+     * 按列存储时,形如数值但转换后无法还原的字符串(前导零,多余的小数位,后缀)保持为字符串
+     */
+    @Test
+    public void test10() throws Exception {
+        File file = File.createTempFile("XLSReaderTest", ".xls");
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("code", String.format("%03d", i + 6));
+            data.put("amount", i == 0 ? "2" : i == 1 ? "12d" : i + ".50");
+            data.put("text", String.valueOf(i));
+            datas.add(data);
+        }
+        new ExcelWriter<Map<String, Object>>(true, -1, 1, ExcelWriter.XLS, null).write(datas).endWrite(file);
+        ExcelColumnarTable table = XLSReader.readExcelToColumnar(file);
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("code").getType());
+        Assert.assertEquals("007", ((ExcelColumn.StringColumn) table.getColumn("code")).getString(1));
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("amount").getType());
+        Assert.assertEquals("12d", ((ExcelColumn.StringColumn) table.getColumn("amount")).getString(1));
+        Assert.assertEquals("2.50", ((ExcelColumn.StringColumn) table.getColumn("amount")).getString(2));
+        //能还原出相同文本的字符串仍视为数值
+        Assert.assertEquals(ExcelColumnType.LONG, table.getColumn("text").getType());
+        Assert.assertEquals(10L, ((ExcelColumn.LongColumn) table.getColumn("text")).sum());
+
+        //推断为整数列后遇到无法还原的字符串,提升为字符串列且已有的值不变
+        table = XLSReader.readExcelToColumnar(file, null, null, 1);
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("amount").getType());
+        Assert.assertEquals("2", table.rows().get(0).get("amount"));
+        Assert.assertEquals("12d", table.rows().get(1).get("amount"));
+    }
+
+    /**
+     * 功能测试:
+     * 列名行中不存在的列的过滤条件以null求值,与其他列的过滤条件同时生效
+     */
+    @Test
+    public void test11() throws ReadExcelException {
+        List<Map<String, Object>> all = XLSReader.readExcelToMapList(this.file1);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.addFilter("missing", value -> value == null);
+        Assert.assertEquals(all, XLSReader.readExcelToMapList(this.file1, null, options));
+
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value));
+        Assert.assertEquals(all.stream().filter(data -> Boolean.TRUE.equals(data.get("flag")))
+                .collect(Collectors.toList()), XLSReader.readExcelToMapList(this.file1, null, options));
+
+        ExcelReadOptions none = new ExcelReadOptions();
+        none.setColumns(Collections.singletonList("name"));
+        none.addFilter("missing", value -> value != null);
+        Assert.assertTrue(XLSReader.readExcelToMapList(this.file1, null, none).isEmpty());
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelRowHandler;
+import com.github.flyinghe.tools.XLSXReader;
+import com.github.flyinghe.tools.XLSXWriter;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 对比只有一个Sheet时顺序解析与Sheet内切分成块并行解析({@link XLSXReader#setSheetChunkSize(int)})的耗时,
+ * 用于确定在多少行以上并行解析开始占优。
+ * 运行方式:直接运行main函数,可通过参数指定线程数,默认为CPU核数
+ */
+public class XLSXReaderBenchmark {
+    private static final int[] ROWS = {10000, 50000, 200000, 800000};
+    private static final int[] CHUNK_SIZES = {256 * 1024, 1024 * 1024, 4 * 1024 * 1024};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.println("threads: " + threads);
+            System.out.printf("%10s %12s %14s %10s%n", "rows", "chunkSize", "sequential(ms)", "chunked(ms)");
+            for (int rows : ROWS) {
+                File file = produceExcel(rows);
+                long sequential = best(file, null, 0);
+                for (int chunkSize : CHUNK_SIZES) {
+                    long chunked = best(file, executor, chunkSize);
+                    System.out.printf("%10d %12d %14d %10d%n", rows, chunkSize, sequential, chunked);
+                }
+                file.delete();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * 生成只有一个Sheet的测试文件
+     */
+    private static File produceExcel(int rows) throws Exception {
+        File file = File.createTempFile("XLSXReaderBenchmark", ".xlsx");
+        file.deleteOnExit();
+        XLSXWriter<Map<String, Object>> writer = new XLSXWriter<>(true, rows, 1, true, null);
+        List<Map<String, Object>> datas = new ArrayList<>(10000);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            data.put("price", i * 1.5D);
+            data.put("flag", i % 2 == 0);
+            data.put("remark", "remark" + (i % 100));
+            datas.add(data);
+            if (datas.size() == 10000) {
+                writer.write(datas);
+                datas.clear();
+            }
+        }
+        if (!datas.isEmpty()) {
+            writer.write(datas);
+        }
+        writer.endWrite(file);
+        return file;
+    }
+
+    /**
+     * 多次读取取最短耗时
+     */
+    private static long best(File file, ExecutorService executor, int chunkSize) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            final int[] count = new int[1];
+            long start = System.nanoTime();
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setExecutor(executor);
+                reader.setSheetChunkSize(chunkSize);
+                reader.setRowHandler(new ExcelRowHandler() {
+                    @Override
+                    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet,
+                                             Map<String, Object> data) {
+                        count[0]++;
+                        return true;
+                    }
+                });
+                reader.process();
+            } finally {
+                p.close();
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1000000);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,1482 @@
+package com.github.flyinghe.test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.flyinghe.depdcy.CellFormatTable;
+import com.github.flyinghe.depdcy.ExcelAggregator;
+import com.github.flyinghe.depdcy.ExcelBeanHandler;
+import com.github.flyinghe.depdcy.ExcelCheckpoint;
+import com.github.flyinghe.depdcy.ExcelCheckpointStore;
+import com.github.flyinghe.depdcy.ExcelColumn;
+import com.github.flyinghe.depdcy.ExcelColumnType;
+import com.github.flyinghe.depdcy.ExcelColumnarTable;
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
+import com.github.flyinghe.depdcy.ExcelHandler;
+import com.github.flyinghe.depdcy.ExcelReadListener;
+import com.github.flyinghe.depdcy.ExcelReadMetrics;
+import com.github.flyinghe.depdcy.ExcelReadOptions;
+import com.github.flyinghe.depdcy.ExcelRow;
+import com.github.flyinghe.depdcy.ExcelRowHandler;
+import com.github.flyinghe.depdcy.ExcelRowIterator;
+import com.github.flyinghe.depdcy.ExcelRowSchema;
+import com.github.flyinghe.depdcy.ExcelSchema;
+import com.github.flyinghe.depdcy.ExcelTextConverter;
+import com.github.flyinghe.depdcy.ExcelStringPool;
+import com.github.flyinghe.depdcy.FileCheckpointStore;
+import com.github.flyinghe.depdcy.MappedSharedStringsStore;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
+import com.github.flyinghe.depdcy.XSSFSheetStaxParser;
+import com.github.flyinghe.depdcy.XSSFSheetXMLHandlerPlus;
+import com.github.flyinghe.domain.Product;
+import com.github.flyinghe.exception.ReadExcelException;
+import com.github.flyinghe.exception.ReadExcelRuntimeException;
+import com.github.flyinghe.exception.WriteExcelException;
+import com.github.flyinghe.tools.CommonUtils;
+import com.github.flyinghe.tools.ExcelWriter;
+import com.github.flyinghe.tools.XLSXReader;
+import org.apache.commons.lang3.time.DateUtils;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.util.IOUtils;
+import org.apache.poi.util.SAXHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ */
+public class XLSXReaderTest {
+    private File file1;
+    private ExecutorService executor;
+
+    /**
+     * 生成测试文件:每个Sheet第0行为空的预留行,第1行为列名行,后面为数据行
+     */
+    private File produceExcel(int num, int limit) throws IOException, WriteExcelException {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>(num);
+        for (int i = 0; i < num; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("id", i);
+            data.put("name", "name" + i);
+            data.put("price", i * 1.5D);
+            data.put("flag", i % 2 == 0);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, limit, 1, ExcelWriter.XLSX, null);
+        writer.write(datas).endWrite(file);
+        return file;
+    }
+
+    @Before
+    public void before() throws Exception {
+        this.file1 = this.produceExcel(1000, 100);
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void after() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * 功能测试:
+     * 并行解析Sheet与顺序解析Sheet读取结果一致
+     */
+    @Test
+    public void test1() throws ReadExcelException {
+        XLSXReader sequential = XLSXReader.readExcel(this.file1, null);
+        XLSXReader parallel = XLSXReader.readExcel(this.file1, null, this.executor);
+        Assert.assertEquals(1000, sequential.getDatas().size());
+        Assert.assertEquals(sequential.getDatas(), parallel.getDatas());
+        Assert.assertEquals(sequential.getColumns(), parallel.getColumns());
+        Assert.assertEquals(sequential.getRealRowInExcel(), parallel.getRealRowInExcel());
+        Assert.assertEquals(sequential.getAllSheetInExcel(), parallel.getAllSheetInExcel());
+    }
+
+    /**
+     * 功能测试:
+     * 并行解析Sheet时回调函数的每个批次只包含同一个Sheet的数据,且Sheet内计数和Sheet总数正确
+     */
+    @Test
+    public void test2() throws ReadExcelException {
+        final Map<Integer, Integer> rowsPerSheet = new TreeMap<>();
+        final int[] total = new int[1];
+        XLSXReader.readExcel(this.file1, null, 30, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                 List<String> columns, List<Map<String, Object>> datas) {
+                int before = rowsPerSheet.containsKey(currentSheetInExcel) ? rowsPerSheet.get(currentSheetInExcel) : 0;
+                Assert.assertEquals(before + datas.size(), realRowInSheet);
+                rowsPerSheet.put(currentSheetInExcel, realRowInSheet);
+                total[0] += datas.size();
+                Assert.assertEquals(total[0], realRowInExcel);
+                //Sheet总数在分派之前确定,不受各Sheet开始解析的先后顺序影响
+                Assert.assertEquals(10, allSheetInExcel);
+            }
+        }, this.executor);
+        Assert.assertEquals(10, rowsPerSheet.size());
+        for (Integer rows : rowsPerSheet.values()) {
+            Assert.assertEquals(100, rows.intValue());
+        }
+        Assert.assertEquals(1000, total[0]);
+    }
+
+    /**
+     * 功能测试:
+     * 以迭代器和流的方式读取,结果与一次性读取一致,提前关闭时停止解析
+     */
+    @Test
+    public void test3() throws ReadExcelException {
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(this.file1);
+        List<Map<String, Object>> actual = new ArrayList<>();
+        try (ExcelRowIterator<Map<String, Object>> iterator = XLSXReader.readExcelToIterator(this.file1, null, 16)) {
+            while (iterator.hasNext()) {
+                actual.add(iterator.next());
+            }
+        }
+        Assert.assertEquals(expected, actual);
+
+        try (Stream<Map<String, Object>> stream = XLSXReader.readExcelToStream(this.file1)) {
+            List<Map<String, Object>> first = stream.limit(10).collect(Collectors.toList());
+            Assert.assertEquals(expected.subList(0, 10), first);
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 按单元格类型直接生成值
+     */
+    @Test
+    public void test4() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        Date date = new Date(1500000000000L);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-MM-dd HH:mm:ss"));
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("title");
+            Row columns = sheet.createRow(1);
+            String[] names = {"num", "date", "flag", "str", "formula"};
+            for (int i = 0; i < names.length; i++) {
+                columns.createCell(i).setCellValue(names[i]);
+            }
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue(1.23456D);
+            row.createCell(1).setCellValue(date);
+            row.getCell(1).setCellStyle(dateStyle);
+            row.createCell(2).setCellValue(true);
+            row.createCell(3).setCellValue("abc");
+            row.createCell(4).setCellFormula("A3*2");
+            row.getCell(4).setCellValue(2.46912D);
+            workbook.write(os);
+        }
+
+        OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            XLSXReader reader = new XLSXReader(p, 2);
+            reader.setTypedValue(true);
+            reader.process();
+            Assert.assertEquals(Arrays.asList("title"), reader.getTitles());
+            Assert.assertEquals(Arrays.asList("num", "date", "flag", "str", "formula"), reader.getColumns());
+            Assert.assertEquals(1, reader.getDatas().size());
+            Map<String, Object> data = reader.getDatas().get(0);
+            Assert.assertEquals(1.23D, data.get("num"));
+            Assert.assertEquals(date, data.get("date"));
+            Assert.assertEquals(Boolean.TRUE, data.get("flag"));
+            Assert.assertEquals("abc", data.get("str"));
+            Assert.assertEquals(2.47D, data.get("formula"));
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 紧凑行与Map读取结果一致,逐行读取时复用同一个行对象
+     */
+    @Test
+    public void test5() throws ReadExcelException {
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(this.file1);
+        List<ExcelRow> rows = XLSXReader.readExcelToRows(this.file1);
+        Assert.assertEquals(expected.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertEquals(expected.get(i), rows.get(i).asMap());
+            Assert.assertEquals(expected.get(i).get("name"), rows.get(i).get("name"));
+            Assert.assertSame(rows.get(0).getSchema(), rows.get(i).getSchema());
+        }
+
+        final Set<ReusableExcelRow> instances = Collections.newSetFromMap(new IdentityHashMap<ReusableExcelRow, Boolean>());
+        final int[] count = new int[1];
+        XLSXReader.readExcelByRow(this.file1, null, new ExcelCompactRowHandler() {
+            @Override
+            public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                instances.add(row);
+                return ++count[0] < 50;
+            }
+        });
+        Assert.assertEquals(50, count[0]);
+        Assert.assertEquals(1, instances.size());
+    }
+
+    /**
+     * 功能测试:
+     * 共享字符串表写入临时文件后读取结果与读入内存一致
+     */
+    @Test
+    public void test6() throws Exception {
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(this.file1);
+        OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            ReadOnlySharedStringsTable table = new ReadOnlySharedStringsTable(p);
+            try (MappedSharedStringsStore store = new MappedSharedStringsStore(p, 2)) {
+                Assert.assertEquals(table.getUniqueCount(), store.getCount());
+                for (int i = store.getCount() - 1; i >= 0; i--) {
+                    Assert.assertEquals(table.getEntryAt(i), store.getEntryAt(i));
+                }
+                //多个线程同时读取
+                List<Future<Boolean>> futures = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    futures.add(this.executor.submit(() -> {
+                        for (int i = 0; i < store.getCount(); i++) {
+                            if (!table.getEntryAt(i).equals(store.getEntryAt(i))) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }));
+                }
+                for (Future<Boolean> future : futures) {
+                    Assert.assertTrue(future.get());
+                }
+            }
+
+            XLSXReader reader = new XLSXReader(p);
+            reader.setSharedStringsSpillSize(1);
+            reader.setSharedStringsCacheSize(2);
+            reader.process();
+            Assert.assertEquals(expected, reader.getDatas());
+
+            reader = new XLSXReader(p);
+            reader.setSharedStringsSpillSize(1);
+            reader.setExecutor(this.executor);
+            reader.process();
+            Assert.assertEquals(expected, reader.getDatas());
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * Sheet内切分成块并行解析与顺序解析读取结果一致
+     */
+    @Test
+    public void test7() throws Exception {
+        File single = this.produceExcel(5000, 5000);
+        for (File file : Arrays.asList(single, this.file1)) {
+            for (boolean typedValue : new boolean[]{false, true}) {
+                OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+                try {
+                    XLSXReader sequential = new XLSXReader(p, 2);
+                    sequential.setTypedValue(typedValue);
+                    sequential.process();
+
+                    XLSXReader chunked = new XLSXReader(p, 2);
+                    chunked.setTypedValue(typedValue);
+                    chunked.setExecutor(this.executor);
+                    chunked.setSheetChunkSize(4096);
+                    chunked.process();
+
+                    Assert.assertFalse(sequential.getDatas().isEmpty());
+                    Assert.assertEquals(sequential.getDatas(), chunked.getDatas());
+                    Assert.assertEquals(sequential.getColumns(), chunked.getColumns());
+                    Assert.assertEquals(sequential.getRealRowInExcel(), chunked.getRealRowInExcel());
+                    Assert.assertEquals(sequential.getAllSheetInExcel(), chunked.getAllSheetInExcel());
+                } finally {
+                    p.close();
+                }
+            }
+        }
+
+        //逐行处理时提前停止
+        OPCPackage p = OPCPackage.open(single, PackageAccess.READ);
+        try {
+            final List<Integer> rowNums = new ArrayList<>();
+            XLSXReader chunked = new XLSXReader(p);
+            chunked.setExecutor(this.executor);
+            chunked.setSheetChunkSize(4096);
+            chunked.setRowHandler(new ExcelRowHandler() {
+                @Override
+                public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, Map<String, Object> data) {
+                    rowNums.add(currentRowInSheet);
+                    return rowNums.size() < 3000;
+                }
+            });
+            chunked.process();
+            Assert.assertEquals(3000, rowNums.size());
+            for (int i = 0; i < rowNums.size(); i++) {
+                Assert.assertEquals(i + 2, rowNums.get(i).intValue());
+            }
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 直接封装JavaBean与通过Map封装结果一致,分批处理和流式读取
+     */
+    @Test
+    public void test8() throws ReadExcelException {
+        List<Map<String, Object>> maps = XLSXReader.readExcelToMapList(this.file1);
+        List<Product> beans = XLSXReader.readExcelToBeans(this.file1, Product.class);
+        Assert.assertEquals(maps.size(), beans.size());
+        for (int i = 0; i < beans.size(); i++) {
+            Product expected = CommonUtils.toBean(maps.get(i), Product.class);
+            Product actual = beans.get(i);
+            Assert.assertEquals(expected.getId(), actual.getId());
+            Assert.assertEquals(expected.getName(), actual.getName());
+            Assert.assertEquals(expected.getPrice(), actual.getPrice(), 0);
+            Assert.assertEquals(expected.getFlag(), actual.getFlag());
+        }
+
+        final List<Integer> batchSizes = new ArrayList<>();
+        XLSXReader.readExcelToBeans(this.file1, null, Product.class, 300, new ExcelBeanHandler<Product>() {
+            @Override
+            public boolean handleBeans(List<Product> beans) {
+                batchSizes.add(beans.size());
+                return true;
+            }
+        });
+        Assert.assertEquals(Arrays.asList(300, 300, 300, 100), batchSizes);
+
+        try (Stream<Product> stream = XLSXReader.readExcelToBeanStream(this.file1, Product.class)) {
+            Assert.assertEquals(999, stream.mapToInt(Product::getId).max().getAsInt());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 按读取选项只读取选择的Sheet,行和列,达到最大行数后停止解析,
+     * 顺序解析,按Sheet并行解析和Sheet内并行解析结果一致
+     */
+    @Test
+    public void test9() throws Exception {
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setSheetIndexes(Collections.singleton(3));
+        options.setSheetNames(Collections.singleton("Sheet5"));
+        options.setColumns(Arrays.asList("id", "name"));
+        options.setStartRow(10);
+        options.setEndRow(19);
+        List<Map<String, Object>> datas = XLSXReader.readExcelToMapList(this.file1, null, options);
+        Assert.assertEquals(20, datas.size());
+        for (int i = 0; i < datas.size(); i++) {
+            Map<String, Object> data = datas.get(i);
+            int id = (i < 10 ? 308 : 498) + i;
+            Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name")), data.keySet());
+            Assert.assertEquals(String.valueOf(id), data.get("id"));
+            Assert.assertEquals("name" + id, data.get("name"));
+        }
+
+        OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            XLSXReader parallel = new XLSXReader(p);
+            parallel.setOptions(options);
+            parallel.setExecutor(this.executor);
+            parallel.process();
+            Assert.assertEquals(datas, parallel.getDatas());
+            Assert.assertEquals(Arrays.asList("id", "name", "price", "flag"), parallel.getColumns());
+
+            XLSXReader chunked = new XLSXReader(p);
+            chunked.setOptions(options);
+            chunked.setExecutor(this.executor);
+            chunked.setSheetChunkSize(1024);
+            chunked.process();
+            Assert.assertEquals(datas, chunked.getDatas());
+        } finally {
+            p.close();
+        }
+
+        //预览前25行,标题行和列名行取自第一个被读取的Sheet
+        ExcelReadOptions preview = new ExcelReadOptions();
+        preview.setSheetIndexes(Arrays.asList(2, 3));
+        preview.setMaxRows(25);
+        for (boolean typedValue : new boolean[]{false, true}) {
+            final List<Integer> ids = new ArrayList<>();
+            p = OPCPackage.open(this.file1, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setTypedValue(typedValue);
+                reader.setOptions(preview);
+                reader.setExecutor(this.executor);
+                reader.setCompactRowHandler(new ExcelCompactRowHandler() {
+                    @Override
+                    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                        ids.add(Double.valueOf(String.valueOf(row.get("id"))).intValue());
+                        return true;
+                    }
+                });
+                reader.process();
+                Assert.assertEquals(Arrays.asList("id", "name", "price", "flag"), reader.getColumns());
+                Assert.assertEquals(25, reader.getRealRowInExcel());
+            } finally {
+                p.close();
+            }
+            Assert.assertEquals(25, ids.size());
+            for (int i = 0; i < ids.size(); i++) {
+                Assert.assertEquals(200 + i, ids.get(i).intValue());
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 流水线方式读取,每一批数据行的所有权交给consumer,consumer抛出异常时停止解析并抛出该异常
+     */
+    @Test
+    public void test10() throws ReadExcelException {
+        final Set<List<Map<String, Object>>> batches =
+                Collections.newSetFromMap(new IdentityHashMap<List<Map<String, Object>>, Boolean>());
+        final Set<String> ids = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        XLSXReader.readExcelInPipeline(this.file1, null, 100, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles, List<String> columns,
+                                 List<Map<String, Object>> datas) throws ReadExcelException {
+                synchronized (batches) {
+                    batches.add(datas);
+                }
+                for (Map<String, Object> data : datas) {
+                    ids.add(String.valueOf(data.get("id")));
+                }
+            }
+        }, 4, 2);
+        Assert.assertEquals(10, batches.size());
+        Assert.assertEquals(1000, ids.size());
+        for (List<Map<String, Object>> batch : batches) {
+            Assert.assertEquals(100, batch.size());
+        }
+
+        try {
+            XLSXReader.readExcelInPipeline(this.file1, null, 10, new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas)
+                        throws ReadExcelException {
+                    throw new ReadExcelException("insert failed");
+                }
+            }, 2, 1);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertEquals("insert failed", e.getMessage());
+        }
+    }
+
+    /**
+     * 功能测试:
+     * StAX引擎与SAX引擎读取结果一致,包括按类型生成值,读取选项和Sheet内并行解析
+     */
+    @Test
+    public void test11() throws Exception {
+        File single = this.produceExcel(3000, 3000);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setColumns(Arrays.asList("id", "flag"));
+        options.setEndRow(50);
+        for (File file : Arrays.asList(single, this.file1)) {
+            for (boolean typedValue : new boolean[]{false, true}) {
+                for (ExcelReadOptions readOptions : Arrays.asList(null, options)) {
+                    OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+                    try {
+                        XLSXReader sax = new XLSXReader(p, 2);
+                        sax.setTypedValue(typedValue);
+                        sax.setOptions(readOptions);
+                        sax.process();
+
+                        XLSXReader stax = new XLSXReader(p, 2);
+                        stax.setTypedValue(typedValue);
+                        stax.setOptions(readOptions);
+                        stax.setStaxParser(true);
+                        stax.process();
+
+                        XLSXReader chunked = new XLSXReader(p, 2);
+                        chunked.setTypedValue(typedValue);
+                        chunked.setOptions(readOptions);
+                        chunked.setStaxParser(true);
+                        chunked.setExecutor(this.executor);
+                        chunked.setSheetChunkSize(4096);
+                        chunked.process();
+
+                        Assert.assertFalse(sax.getDatas().isEmpty());
+                        Assert.assertEquals(sax.getTitles(), stax.getTitles());
+                        Assert.assertEquals(sax.getColumns(), stax.getColumns());
+                        Assert.assertEquals(sax.getDatas(), stax.getDatas());
+                        Assert.assertEquals(sax.getRealRowInExcel(), stax.getRealRowInExcel());
+                        Assert.assertEquals(sax.getDatas(), chunked.getDatas());
+                    } finally {
+                        p.close();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 数字格式表按样式坐标预先计算格式和日期标识,字符串模式下日期单元格仍被识别为日期
+     */
+    @Test
+    public void test12() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        Date date = new Date(1500000000000L);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-MM-dd HH:mm:ss"));
+            CellStyle builtinDateStyle = workbook.createCellStyle();
+            builtinDateStyle.setDataFormat((short) 14);
+            CellStyle numberStyle = workbook.createCellStyle();
+            numberStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("0.00"));
+
+            CellFormatTable table = new CellFormatTable(workbook.getStylesSource());
+            Assert.assertEquals(4, table.size());
+            Assert.assertFalse(table.isDateFormat(0));
+            Assert.assertTrue(table.isDateFormat(dateStyle.getIndex()));
+            Assert.assertEquals("yyyy-MM-dd HH:mm:ss", table.getFormatString(dateStyle.getIndex()));
+            Assert.assertTrue(table.isDateFormat(builtinDateStyle.getIndex()));
+            Assert.assertEquals(14, table.getFormatIndex(builtinDateStyle.getIndex()));
+            Assert.assertFalse(table.isDateFormat(numberStyle.getIndex()));
+            Assert.assertFalse(table.contains(4));
+            Assert.assertEquals(12, CellFormatTable.parseStyleIndex("12"));
+            Assert.assertEquals(-1, CellFormatTable.parseStyleIndex("1x"));
+
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("title");
+            Row columns = sheet.createRow(1);
+            String[] names = {"date", "day", "num"};
+            for (int i = 0; i < names.length; i++) {
+                columns.createCell(i).setCellValue(names[i]);
+            }
+            for (int i = 2; i < 5; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(date);
+                row.getCell(0).setCellStyle(dateStyle);
+                row.createCell(1).setCellValue(DateUtils.truncate(date, Calendar.DATE));
+                row.getCell(1).setCellStyle(builtinDateStyle);
+                row.createCell(2).setCellValue(i + 0.5D);
+                row.getCell(2).setCellStyle(numberStyle);
+            }
+            workbook.write(os);
+        }
+
+        for (boolean staxParser : new boolean[]{false, true}) {
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setStaxParser(staxParser);
+                reader.process();
+                Assert.assertEquals(3, reader.getDatas().size());
+                for (int i = 0; i < 3; i++) {
+                    Map<String, Object> data = reader.getDatas().get(i);
+                    Assert.assertEquals(date, data.get("date"));
+                    Assert.assertEquals(DateUtils.truncate(date, Calendar.DATE), data.get("day"));
+                    Assert.assertEquals(String.valueOf(i + 2.5D), data.get("num"));
+                }
+            } finally {
+                p.close();
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 回调函数在第12批时失败(模拟进程崩溃),从检查点恢复读取后只收到未提交的数据行,计数继续累加,读取完毕后清除检查点
+     */
+    @Test
+    public void test13() throws Exception {
+        File checkpointFile = File.createTempFile("XLSXReaderTest", ".checkpoint");
+        checkpointFile.delete();
+        final ExcelCheckpointStore store = new FileCheckpointStore(checkpointFile);
+        final List<String> ids = new ArrayList<>();
+        final int[] calls = new int[1];
+        try {
+            XLSXReader.readExcelWithCheckpoint(this.file1, null, 30, new ExcelHandler() {
+                @Override
+                public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                     int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                     List<String> columns, List<Map<String, Object>> datas)
+                        throws ReadExcelException {
+                    if (++calls[0] == 12) {
+                        throw new ReadExcelException("crash");
+                    }
+                    for (Map<String, Object> data : datas) {
+                        ids.add(String.valueOf(data.get("id")));
+                    }
+                }
+            }, store);
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertTrue(e.getMessage().endsWith("crash"));
+        }
+        Assert.assertEquals(330, ids.size());
+        ExcelCheckpoint checkpoint = store.load();
+        Assert.assertEquals(new ExcelCheckpoint(3, 31, 30, 330), checkpoint);
+
+        final List<Integer> realRows = new ArrayList<>();
+        XLSXReader.readExcelWithCheckpoint(this.file1, null, 30, new ExcelHandler() {
+            @Override
+            public void callback(int currentRowInSheet, int currentSheetInExcel, int realRowInSheet,
+                                 int realRowInExcel, int allSheetInExcel, List<String> titles,
+                                 List<String> columns, List<Map<String, Object>> datas) throws ReadExcelException {
+                Assert.assertEquals(4, columns.size());
+                realRows.add(realRowInExcel);
+                for (Map<String, Object> data : datas) {
+                    ids.add(String.valueOf(data.get("id")));
+                }
+            }
+        }, store);
+        Assert.assertEquals(Integer.valueOf(360), realRows.get(0));
+        Assert.assertEquals(Integer.valueOf(1000), realRows.get(realRows.size() - 1));
+        Assert.assertEquals(1000, ids.size());
+        Assert.assertEquals(1000, new HashSet<>(ids).size());
+        Assert.assertNull(store.load());
+        Assert.assertFalse(checkpointFile.exists());
+    }
+
+    /**
+     * 功能测试:
+     * 过滤条件在生成数据行之前求值,流式统计(分组,求和,最小值,最大值)的结果与读取全部数据行后计算的结果一致
+     */
+    @Test
+    public void test14() throws ReadExcelException {
+        List<Map<String, Object>> all = XLSXReader.readExcelToMapList(this.file1);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value));
+        options.addFilter("id", value -> value != null && Double.parseDouble(value.toString()) < 500);
+        List<Map<String, Object>> filtered = XLSXReader.readExcelToMapList(this.file1, null, options);
+        Assert.assertEquals(all.stream().filter(data -> Boolean.TRUE.equals(data.get("flag")) &&
+                Double.parseDouble(data.get("id").toString()) < 500).collect(Collectors.toList()), filtered);
+        Assert.assertEquals(250, filtered.size());
+
+        ExcelAggregator aggregator = XLSXReader.readExcelToAggregator(this.file1, null, null,
+                new ExcelAggregator("flag", "id", "price"));
+        Map<Object, ExcelAggregator.Group> groups = aggregator.getGroups();
+        Assert.assertEquals(2, groups.size());
+        ExcelAggregator.Group even = groups.get(Boolean.TRUE);
+        Assert.assertEquals(500, even.getCount());
+        Assert.assertEquals(374250D, even.getSum("price"), 0.000001D);
+        Assert.assertEquals(Double.valueOf(0), even.getMin("id"));
+        Assert.assertEquals(Double.valueOf(998), even.getMax("id"));
+        Assert.assertEquals(1000, aggregator.getTotal().getCount());
+        Assert.assertEquals(749250D, aggregator.getTotal().getSum("price"), 0.000001D);
+        Assert.assertEquals(10, aggregator.getSheetIndexes().size());
+        Assert.assertEquals(100, aggregator.getTotal(3).getCount());
+        Assert.assertEquals(34950D, aggregator.getTotal(3).getSum("id"), 0.000001D);
+
+        ExcelReadOptions odd = new ExcelReadOptions();
+        odd.addFilter("flag", value -> Boolean.FALSE.equals(value));
+        aggregator = XLSXReader.readExcelToAggregator(this.file1, null, odd, new ExcelAggregator(null, "price"));
+        Assert.assertEquals(1, aggregator.getGroups().size());
+        Assert.assertEquals(500, aggregator.getTotal().getCount());
+        Assert.assertEquals(749250D - 374250D, aggregator.getTotal().getSum("price"), 0.000001D);
+    }
+
+    /**
+     * 功能测试:
+     * 按列存储的读取结果:推断列的类型,按列统计,按需生成行视图,推断的类型不适用时提升列的类型
+     */
+    @Test
+    public void test15() throws ReadExcelException {
+        ExcelColumnarTable table = XLSXReader.readExcelToColumnar(this.file1);
+        Assert.assertEquals(1000, table.getRowCount());
+        Assert.assertEquals(ExcelColumnType.LONG, table.getColumn("id").getType());
+        Assert.assertEquals(ExcelColumnType.DOUBLE, table.getColumn("price").getType());
+        Assert.assertEquals(ExcelColumnType.BOOLEAN, table.getColumn("flag").getType());
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("name").getType());
+        Assert.assertEquals(499500L, ((ExcelColumn.LongColumn) table.getColumn("id")).sum());
+        Assert.assertEquals(749250D, ((ExcelColumn.DoubleColumn) table.getColumn("price")).sum(), 0.000001D);
+        Assert.assertEquals(Double.valueOf(1498.5D), ((ExcelColumn.DoubleColumn) table.getColumn("price")).max());
+        Assert.assertEquals(500, ((ExcelColumn.BooleanColumn) table.getColumn("flag")).countTrue());
+        ExcelColumn.StringColumn names = (ExcelColumn.StringColumn) table.getColumn("name");
+        Assert.assertEquals(1000, names.getDictionary().size());
+        Assert.assertEquals("name5", names.getString(5));
+        ExcelRow row = table.rows().get(5);
+        Assert.assertEquals(5L, row.get("id"));
+        Assert.assertEquals("name5", row.get("name"));
+        Assert.assertEquals(Boolean.FALSE, row.get("flag"));
+
+        //根据第一行推断price为整数列,第二行时提升为小数列
+        table = XLSXReader.readExcelToColumnar(this.file1, null, null, 1);
+        Assert.assertEquals(ExcelColumnType.DOUBLE, table.getColumn("price").getType());
+        Assert.assertEquals(749250D, ((ExcelColumn.DoubleColumn) table.getColumn("price")).sum(), 0.000001D);
+        Assert.assertEquals(1000, table.getColumn("price").count());
+    }
+
+    private List<Map<String, Object>> readInterned(File file, boolean typedValue, int poolSize) throws Exception {
+        OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            XLSXReader reader = new XLSXReader(p);
+            reader.setTypedValue(typedValue);
+            reader.setInternStrings(true);
+            reader.setInternPoolSize(poolSize);
+            reader.process();
+            return reader.getDatas();
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 共享重复的字符串值:共享字符串按SST坐标共享同一实例,内联字符串按列共享同一实例,超过字符串池上限的值不再放入池中
+     */
+    @Test
+    public void test16() throws Exception {
+        String[] regions = {"east", "west", "north"};
+        File sst = File.createTempFile("XLSXReaderTest", ".xlsx");
+        sst.deleteOnExit();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(sst)) {
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0);
+            Row columns = sheet.createRow(1);
+            columns.createCell(0).setCellValue("id");
+            columns.createCell(1).setCellValue("region");
+            for (int i = 0; i < 300; i++) {
+                Row row = sheet.createRow(i + 2);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue(regions[i % 3]);
+            }
+            workbook.write(os);
+        }
+        for (boolean typedValue : new boolean[]{false, true}) {
+            List<Map<String, Object>> datas = this.readInterned(sst, typedValue, ExcelStringPool.DEFAULT_MAX_SIZE);
+            Assert.assertEquals(300, datas.size());
+            for (int i = 3; i < 300; i++) {
+                Assert.assertEquals(regions[i % 3], datas.get(i).get("region"));
+                Assert.assertSame(datas.get(i % 3).get("region"), datas.get(i).get("region"));
+            }
+        }
+
+        //ExcelWriter生成的xlsx文件使用内联字符串
+        File inline = File.createTempFile("XLSXReaderTest", ".xlsx");
+        inline.deleteOnExit();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("status", "status" + i % 3);
+            data.put("name", "name" + i);
+            rows.add(data);
+        }
+        new ExcelWriter<Map<String, Object>>(true, 300, 1, ExcelWriter.XLSX, null).write(rows).endWrite(inline);
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(inline);
+        for (boolean typedValue : new boolean[]{false, true}) {
+            List<Map<String, Object>> datas = this.readInterned(inline, typedValue, 10);
+            Assert.assertEquals(expected, datas);
+            for (int i = 3; i < 300; i++) {
+                Assert.assertSame(datas.get(i % 3).get("status"), datas.get(i).get("status"));
+            }
+        }
+
+        ExcelStringPool pool = new ExcelStringPool(2);
+        String a = pool.intern(0, new String("a"));
+        Assert.assertSame(a, pool.intern(0, new String("a")));
+        pool.intern(0, "b");
+        String c = new String("c");
+        Assert.assertSame(c, pool.intern(0, c));
+        Assert.assertNotSame(c, pool.intern(0, new String("c")));
+        Assert.assertEquals(2, pool.size(0));
+        Assert.assertEquals(0, pool.size(1));
+    }
+
+    /**
+     * 功能测试:
+     * 统计数据:读取中可读取实时数据,每读取100行通知一次进度,读取结束后为最终结果
+     */
+    @Test
+    public void test17() throws Exception {
+        List<Long> progress = new ArrayList<>();
+        List<ExcelReadMetrics> finished = new ArrayList<>();
+        ExcelReadMetrics metrics = new ExcelReadMetrics(new ExcelReadListener() {
+            @Override
+            public void onProgress(ExcelReadMetrics metrics) {
+                progress.add(metrics.getRowCount());
+            }
+
+            @Override
+            public void onFinish(ExcelReadMetrics metrics) {
+                finished.add(metrics);
+            }
+        }, 100);
+        OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            XLSXReader reader = new XLSXReader(p, null, 30, (currentRowInSheet, currentSheetInExcel, realRowInSheet,
+                                                         realRowInExcel, allSheetInExcel, titles, columns, datas) -> {
+                Assert.assertFalse(metrics.isFinished());
+                Assert.assertEquals(realRowInExcel, metrics.getRowCount());
+                Assert.assertTrue(metrics.getElapsedNanos() > 0);
+            });
+            reader.setMetrics(metrics);
+            reader.process();
+        } finally {
+            p.close();
+        }
+        Assert.assertTrue(metrics.isFinished());
+        Assert.assertEquals(1, finished.size());
+        Assert.assertEquals(1000, metrics.getRowCount());
+        Assert.assertEquals(4000, metrics.getCellCount());
+        Assert.assertEquals(10, metrics.getSheetCount());
+        Assert.assertEquals(30, metrics.getPeakBatchSize());
+        Assert.assertTrue(metrics.getBytesInflated() > 0);
+        Assert.assertTrue(metrics.getConvertNanos() > 0);
+        Assert.assertTrue(metrics.getCallbackNanos() > 0);
+        Assert.assertEquals(metrics.getElapsedNanos() - metrics.getConvertNanos() - metrics.getCallbackNanos(),
+                metrics.getParseNanos());
+        Assert.assertTrue(metrics.getRowsPerSecond() > 0);
+        Assert.assertEquals(10, progress.size());
+        Assert.assertEquals(100L, progress.get(0).longValue());
+        Assert.assertEquals(1000L, progress.get(9).longValue());
+
+        //未启用限制时所有数据行为一批
+        ExcelReadMetrics all = new ExcelReadMetrics();
+        p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            XLSXReader reader = new XLSXReader(p);
+            reader.setMetrics(all);
+            reader.process();
+            Assert.assertEquals(1000, reader.getDatas().size());
+        } finally {
+            p.close();
+        }
+        Assert.assertEquals(1000, all.getPeakBatchSize());
+        Assert.assertEquals(metrics.getBytesInflated(), all.getBytesInflated());
+        Assert.assertEquals(0, all.getCallbackNanos());
+    }
+
+    /**
+     * 功能测试:
+     * 指定列类型时直接使用转换器生成值(包括Sheet内切分成块并行解析),列结构记录列名和指定的类型,转换失败时读取失败
+     */
+    @Test
+    public void test18() throws Exception {
+        ExcelSchema schema = new ExcelSchema();
+        schema.addColumn("id", Long.class);
+        schema.addColumn("price", BigDecimal.class);
+        schema.addColumn("flag", boolean.class);
+        schema.addColumn("name", String.class, value -> value.toString().toUpperCase());
+        for (int mode = 0; mode < 3; mode++) {
+            OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setTypedValue(mode == 1);
+                if (mode == 2) {
+                    reader.setExecutor(this.executor);
+                    reader.setSheetChunkSize(1024);
+                }
+                reader.setSchema(schema);
+                reader.process();
+                List<Map<String, Object>> datas = reader.getDatas();
+                Assert.assertEquals(1000, datas.size());
+                for (int i = 0; i < 1000; i++) {
+                    Map<String, Object> data = datas.get(i);
+                    Assert.assertEquals((long) i, data.get("id"));
+                    Assert.assertEquals("NAME" + i, data.get("name"));
+                    Assert.assertEquals(0, BigDecimal.valueOf(i * 1.5D).compareTo((BigDecimal) data.get("price")));
+                    Assert.assertEquals(i % 2 == 0, data.get("flag"));
+                }
+                ExcelRowSchema header = reader.getHeaderSchema();
+                Assert.assertEquals(Arrays.asList("id", "name", "price", "flag"), header.getColumns());
+                Assert.assertEquals(Long.class, header.getType(0));
+                Assert.assertEquals(BigDecimal.class, header.getType(header.indexOf("price")));
+            } finally {
+                p.close();
+            }
+        }
+
+        ExcelSchema invalid = new ExcelSchema();
+        invalid.addColumn("name", Long.class);
+        OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            XLSXReader reader = new XLSXReader(p);
+            reader.setSchema(invalid);
+            reader.process();
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Can not convert name0 in column name"));
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 两种解析引擎都在第一行之前输出Sheet的使用范围
+     */
+    @Test
+    public void test19() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(file)) {
+            Sheet sheet = workbook.createSheet();
+            for (int i = 0; i < 7; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue("v" + i);
+            }
+            workbook.write(os);
+        }
+        List<List<String>> results = new ArrayList<>();
+        for (boolean stax : new boolean[]{false, true}) {
+            List<String> events = new ArrayList<>();
+            results.add(events);
+            XSSFSheetXMLHandlerPlus.SheetContentsHandler handler = new XSSFSheetXMLHandlerPlus.SheetContentsHandler() {
+                @Override
+                public void startRow(int rowNum) {
+                    events.add("row" + rowNum);
+                }
+
+                @Override
+                public void endRow(int rowNum) {
+                }
+
+                @Override
+                public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+                }
+
+                @Override
+                public void headerFooter(String text, boolean isHeader, String tagName) {
+                }
+
+                @Override
+                public void dimension(String ref) {
+                    events.add(ref);
+                }
+            };
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try (InputStream stream = new XSSFReader(p).getSheetsData().next()) {
+                XSSFSheetXMLHandlerPlus sheetHandler = new XSSFSheetXMLHandlerPlus(new XSSFReader(p).getStylesTable(),
+                        new ReadOnlySharedStringsTable(p), handler, false);
+                if (stax) {
+                    new XSSFSheetStaxParser(sheetHandler).parse(stream);
+                } else {
+                    XMLReader parser = SAXHelper.newXMLReader();
+                    parser.setContentHandler(sheetHandler);
+                    parser.parse(new InputSource(stream));
+                }
+            } finally {
+                p.close();
+            }
+            Assert.assertEquals(8, events.size());
+            Assert.assertTrue(events.get(0).startsWith("A1:"));
+            Assert.assertEquals("row0", events.get(1));
+        }
+        Assert.assertEquals(results.get(0), results.get(1));
+        List<Map<String, Object>> datas = XLSXReader.readExcelToMapList(file);
+        Assert.assertEquals(5, datas.size());
+        Assert.assertEquals("v6", datas.get(4).get("v1"));
+    }
+
+    /**
+     * 功能测试:
+     * 数据行直接输出成CSV(需要时加双引号转义)和JSON Lines,可输出到同一个输出流或每个Sheet一个输出流
+     */
+    @Test
+    public void test20() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        String[] names = {"a,b", "say \"hi\"", "line\nbreak", "plain"};
+        try (XSSFWorkbook workbook = new XSSFWorkbook(); FileOutputStream os = new FileOutputStream(file)) {
+            CellStyle dateStyle = workbook.createCellStyle();
+            dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+            for (int s = 0; s < 2; s++) {
+                Sheet sheet = workbook.createSheet();
+                sheet.createRow(0).createCell(0).setCellValue("title");
+                Row columns = sheet.createRow(1);
+                columns.createCell(0).setCellValue("id");
+                columns.createCell(1).setCellValue("name");
+                columns.createCell(2).setCellValue("price");
+                columns.createCell(3).setCellValue("day");
+                for (int i = 0; i < names.length; i++) {
+                    Row row = sheet.createRow(i + 2);
+                    row.createCell(0).setCellValue(s * 10 + i);
+                    row.createCell(1).setCellValue(names[i]);
+                    if (i % 2 == 0) {
+                        row.createCell(2).setCellValue(i * 1.5D);
+                    }
+                    row.createCell(3).setCellValue(DateUtils.parseDate("2019-12-2" + i, "yyyy-MM-dd"));
+                    row.getCell(3).setCellStyle(dateStyle);
+                }
+            }
+            workbook.write(os);
+        }
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        Assert.assertEquals(8L, XLSXReader.readExcelToCsv(file, csv));
+        String[] lines = new String(csv.toByteArray(), "UTF-8").split("\r\n", -1);
+        Assert.assertEquals(10, lines.length);
+        Assert.assertEquals("id,name,price,day", lines[0]);
+        Assert.assertEquals("0,\"a,b\",0,2019-12-20 00:00:00", lines[1]);
+        Assert.assertEquals("1,\"say \"\"hi\"\"\",,2019-12-21 00:00:00", lines[2]);
+        Assert.assertEquals("2,\"line\nbreak\",3,2019-12-22 00:00:00", lines[3]);
+        Assert.assertEquals("13,plain,,2019-12-23 00:00:00", lines[8]);
+        Assert.assertEquals("", lines[9]);
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        Assert.assertEquals(8L, XLSXReader.readExcelToJsonLines(file, json));
+        lines = new String(json.toByteArray(), "UTF-8").split("\n");
+        Assert.assertEquals(8, lines.length);
+        ObjectMapper mapper = new ObjectMapper();
+        for (int i = 0; i < lines.length; i++) {
+            Map<?, ?> data = mapper.readValue(lines[i], Map.class);
+            Assert.assertEquals((i / 4) * 10 + i % 4, data.get("id"));
+            Assert.assertEquals(names[i % 4], data.get("name"));
+            Assert.assertEquals(i % 2 == 0, data.containsKey("price"));
+        }
+        Assert.assertEquals(3.0D, ((Number) mapper.readValue(lines[2], Map.class).get("price")).doubleValue(), 0D);
+
+        Map<Integer, ByteArrayOutputStream> sheets = new TreeMap<>();
+        ExcelTextConverter converter = new ExcelTextConverter(ExcelTextConverter.CSV, sheet -> {
+            ByteArrayOutputStream os = new ByteArrayOutputStream();
+            sheets.put(sheet, os);
+            return os;
+        });
+        converter.setDelimiter(';');
+        converter.setDatePattern("yyyy-MM-dd");
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setColumns(Arrays.asList("id", "name"));
+        Assert.assertEquals(8L, XLSXReader.readExcelToText(file, null, options, converter));
+        Assert.assertEquals(2, sheets.size());
+        for (int s = 0; s < 2; s++) {
+            lines = new String(sheets.get(s).toByteArray(), "UTF-8").split("\r\n");
+            Assert.assertEquals(5, lines.length);
+            Assert.assertEquals("id;name;price;day", lines[0]);
+            Assert.assertEquals((s * 10 + 3) + ";plain;;", lines[4]);
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 并行解析时调用线程被中断,取消还未开始的Sheet并保留中断状态,Sheet的输入流在任务开始后才打开
+     */
+    @Test
+    public void test21() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            //占用唯一的线程,使Sheet的解析任务都不会开始
+            single.submit(() -> {
+                release.await();
+                return null;
+            });
+            Thread.currentThread().interrupt();
+            try {
+                XLSXReader.readExcel(this.file1, null, single);
+                Assert.fail();
+            } catch (ReadExcelException e) {
+                Assert.assertEquals("并行解析被中断", e.getMessage());
+            }
+            Assert.assertTrue(Thread.interrupted());
+        } finally {
+            release.countDown();
+            single.shutdown();
+        }
+        Assert.assertTrue(single.awaitTermination(10, TimeUnit.SECONDS));
+        Assert.assertEquals(1000, XLSXReader.readExcel(this.file1, null, this.executor).getDatas().size());
+    }
+
+    /**
+     * 复制Excel文件,去掉行号不小于from的row元素的r属性
+     */
+    private File removeRowNums(File file, int from) throws IOException {
+        File target = File.createTempFile("XLSXReaderTest", ".xlsx");
+        target.deleteOnExit();
+        Pattern rowNum = Pattern.compile("<row r=\"(\\d+)\"");
+        try (ZipFile zip = new ZipFile(file);
+             ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(target))) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                zos.putNextEntry(new ZipEntry(entry.getName()));
+                byte[] bytes = IOUtils.toByteArray(zip.getInputStream(entry));
+                if (entry.getName().startsWith("xl/worksheets/")) {
+                    Matcher matcher = rowNum.matcher(new String(bytes, "UTF-8"));
+                    StringBuffer xml = new StringBuffer();
+                    while (matcher.find()) {
+                        matcher.appendReplacement(xml,
+                                Integer.parseInt(matcher.group(1)) >= from ? "<row" : matcher.group());
+                    }
+                    matcher.appendTail(xml);
+                    bytes = xml.toString().getBytes("UTF-8");
+                }
+                zos.write(bytes);
+                zos.closeEntry();
+            }
+        }
+        return target;
+    }
+
+    /**
+     * 功能测试:
+     * row元素不带r属性时不切分Sheet而是顺序解析,结果一致;切分后才出现不带r属性的row元素时抛出异常
+     */
+    @Test
+    public void test22() throws Exception {
+        File single = this.produceExcel(5000, 5000);
+        File unnumbered = this.removeRowNums(single, 0);
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(unnumbered);
+        Assert.assertFalse(expected.isEmpty());
+        OPCPackage p = OPCPackage.open(unnumbered, PackageAccess.READ);
+        try {
+            XLSXReader chunked = new XLSXReader(p);
+            chunked.setExecutor(this.executor);
+            chunked.setSheetChunkSize(4096);
+            chunked.process();
+            Assert.assertEquals(expected, chunked.getDatas());
+        } finally {
+            p.close();
+        }
+
+        p = OPCPackage.open(this.removeRowNums(single, 2000), PackageAccess.READ);
+        try {
+            XLSXReader chunked = new XLSXReader(p);
+            chunked.setExecutor(this.executor);
+            chunked.setSheetChunkSize(4096);
+            chunked.process();
+            Assert.fail();
+        } catch (ReadExcelException e) {
+            Assert.assertTrue(e.getMessage().contains("r属性"));
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 调用者长时间不拉取或丢弃迭代器时,解析任务停止,不会一直占用线程
+     */
+    @Test
+    public void test23() throws Exception {
+        ExcelRowIterator.RowSource<Integer> source = sink -> {
+            for (int i = 0; i < 100000; i++) {
+                if (!sink.put(i)) {
+                    return;
+                }
+            }
+        };
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        ExcelRowIterator<Integer> idle = new ExcelRowIterator<>(4, source, executor, 300);
+        Assert.assertEquals(Integer.valueOf(0), idle.next());
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        try {
+            while (idle.hasNext()) {
+                idle.next();
+            }
+            Assert.fail();
+        } catch (ReadExcelRuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("超时"));
+        }
+
+        executor = Executors.newSingleThreadExecutor();
+        ExcelRowIterator<Integer> abandoned = new ExcelRowIterator<>(4, source, executor, 0);
+        Assert.assertEquals(Integer.valueOf(0), abandoned.next());
+        abandoned = null;
+        executor.shutdown();
+        for (int i = 0; i < 100 && !executor.awaitTermination(100, TimeUnit.MILLISECONDS); i++) {
+            System.gc();
+        }
+        Assert.assertTrue(executor.isTerminated());
+
+        //解析线程被中断时,调用者拉取完缓冲区中的数据后得到异常,而不是正常结束
+        executor = Executors.newSingleThreadExecutor();
+        ExcelRowIterator<Integer> interrupted = new ExcelRowIterator<>(4, source, executor, 0);
+        Assert.assertEquals(Integer.valueOf(0), interrupted.next());
+        executor.shutdownNow();
+        Assert.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        try {
+            while (interrupted.hasNext()) {
+                interrupted.next();
+            }
+            Assert.fail();
+        } catch (ReadExcelRuntimeException e) {
+            Assert.assertTrue(e.getMessage().contains("中断"));
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 按列存储时,形如数值但转换后无法还原的字符串(前导零,多余的小数位,后缀)保持为字符串
+     */
+    @Test
+    public void test24() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("code", String.format("%03d", i + 6));
+            data.put("amount", i == 0 ? "2" : i == 1 ? "12d" : i + ".50");
+            data.put("text", String.valueOf(i));
+            datas.add(data);
+        }
+        new ExcelWriter<Map<String, Object>>(true, -1, 1, ExcelWriter.XLSX, null).write(datas).endWrite(file);
+        ExcelColumnarTable table = XLSXReader.readExcelToColumnar(file);
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("code").getType());
+        Assert.assertEquals("007", ((ExcelColumn.StringColumn) table.getColumn("code")).getString(1));
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("amount").getType());
+        Assert.assertEquals("12d", ((ExcelColumn.StringColumn) table.getColumn("amount")).getString(1));
+        Assert.assertEquals("2.50", ((ExcelColumn.StringColumn) table.getColumn("amount")).getString(2));
+        //按单元格类型生成值时,文本单元格总是视为字符串
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("text").getType());
+        Assert.assertEquals("3", ((ExcelColumn.StringColumn) table.getColumn("text")).getString(3));
+
+        //推断为整数列后遇到无法还原的字符串,提升为字符串列且已有的值不变
+        table = XLSXReader.readExcelToColumnar(file, null, null, 1);
+        Assert.assertEquals(ExcelColumnType.STRING, table.getColumn("amount").getType());
+        Assert.assertEquals("2", table.rows().get(0).get("amount"));
+        Assert.assertEquals("12d", table.rows().get(1).get("amount"));
+    }
+
+    /**
+     * 功能测试:
+     * 以流的方式读取小文件时,读取完毕后立即结束,不会等待轮询间隔
+     */
+    @Test
+    public void test25() throws Exception {
+        File file = this.produceExcel(10, 10);
+        List<Map<String, Object>> expected = XLSXReader.readExcelToMapList(file);
+        try (Stream<Map<String, Object>> stream = XLSXReader.readExcelToStream(file)) {
+            Assert.assertEquals(expected, stream.collect(Collectors.toList()));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            try (Stream<Map<String, Object>> stream = XLSXReader.readExcelToStream(file)) {
+                Assert.assertEquals(10, stream.count());
+            }
+        }
+        //轮询方式下每次结束都要多等待最多100ms
+        Assert.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+    }
+
+    /**
+     * 功能测试:
+     * 预先分配datas的容量时不超过Sheet的行数,limit很大时不会分配巨大的数组
+     */
+    @Test
+    public void test26() throws Exception {
+        File file = this.produceExcel(10, 10);
+        List<Map<String, Object>> datas = new ArrayList<>();
+        XLSXReader.readExcel(file, Integer.MAX_VALUE, (currentRowInSheet, currentSheetInExcel, realRowInSheet,
+                                                       realRowInExcel, allSheetInExcel, titles, columns, batch) -> {
+            datas.addAll(batch);
+        });
+        Assert.assertEquals(XLSXReader.readExcelToMapList(file), datas);
+    }
+
+    /**
+     * 功能测试:
+     * 共享字符串表的uniqueCount远大于实际字符串个数时按实际个数分配位置数组,
+     * 关闭后释放所有线程的内存映射副本,其他线程再读取会抛出异常
+     */
+    @Test
+    public void test27() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        try (ZipFile zip = new ZipFile(this.file1);
+             ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(file))) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                zos.putNextEntry(new ZipEntry(entry.getName()));
+                byte[] bytes = IOUtils.toByteArray(zip.getInputStream(entry));
+                if (entry.getName().equals("xl/sharedStrings.xml")) {
+                    bytes = new String(bytes, "UTF-8").replaceFirst("uniqueCount=\"\\d+\"",
+                            "uniqueCount=\"" + Integer.MAX_VALUE + "\"").getBytes("UTF-8");
+                }
+                zos.write(bytes);
+                zos.closeEntry();
+            }
+        }
+        ReadOnlySharedStringsTable table;
+        OPCPackage p = OPCPackage.open(this.file1, PackageAccess.READ);
+        try {
+            table = new ReadOnlySharedStringsTable(p);
+        } finally {
+            p.close();
+        }
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        p = OPCPackage.open(file, PackageAccess.READ);
+        try {
+            MappedSharedStringsStore store = new MappedSharedStringsStore(p, 2);
+            Assert.assertEquals(table.getUniqueCount(), store.getCount());
+            Field offsets = MappedSharedStringsStore.class.getDeclaredField("offsets");
+            offsets.setAccessible(true);
+            Assert.assertEquals(store.getCount(), ((long[]) offsets.get(store)).length);
+            Assert.assertEquals(table.getEntryAt(0), single.submit(() -> store.getEntryAt(0)).get());
+            store.close();
+            try {
+                single.submit(() -> store.getEntryAt(0)).get();
+                Assert.fail();
+            } catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+        } finally {
+            single.shutdownNow();
+            p.close();
+        }
+    }
+
+    /**
+     * 功能测试:
+     * 列名行中不存在的列的过滤条件以null求值,与其他列的过滤条件同时生效
+     */
+    @Test
+    public void test28() throws ReadExcelException {
+        List<Map<String, Object>> all = XLSXReader.readExcelToMapList(this.file1);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.addFilter("missing", value -> value == null);
+        Assert.assertEquals(all, XLSXReader.readExcelToMapList(this.file1, null, options));
+
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value));
+        Assert.assertEquals(all.stream().filter(data -> Boolean.TRUE.equals(data.get("flag")))
+                .collect(Collectors.toList()), XLSXReader.readExcelToMapList(this.file1, null, options));
+
+        ExcelReadOptions none = new ExcelReadOptions();
+        none.setColumns(Collections.singletonList("name"));
+        none.addFilter("missing", value -> value != null);
+        Assert.assertTrue(XLSXReader.readExcelToMapList(this.file1, null, none).isEmpty());
+    }
+
+    /**
+     * 功能测试:
+     * 流式统计时数值直接参与统计,普通十进制数字的字符串参与统计,
+     * 含有逗号等区域格式的字符串不按猜测的格式解析,视为非数值
+     */
+    @Test
+    public void test29() throws Exception {
+        File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+        file.deleteOnExit();
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (Object price : new Object[]{3, "2.5", "-1E1", "1,5", "1,000", "abc", "1d", "NaN"}) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("price", price);
+            datas.add(data);
+        }
+        ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 1, ExcelWriter.XLSX, null);
+        writer.write(datas).endWrite(file);
+
+        ExcelAggregator.Group total =
+                XLSXReader.readExcelToAggregator(file, null, null, new ExcelAggregator(null, "price")).getTotal();
+        Assert.assertEquals(8, total.getCount());
+        Assert.assertEquals(-4.5D, total.getSum("price"), 0.000001D);
+        Assert.assertEquals(Double.valueOf(-10), total.getMin("price"));
+        Assert.assertEquals(Double.valueOf(3), total.getMax("price"));
+    }
+
+    /**
+     * 功能测试:
+     * 指定数字类型的列只接受普通的十进制数字,含有逗号的文本不按猜测的区域格式解析,转换失败时读取失败
+     */
+    @Test
+    public void test30() throws Exception {
+        for (String[] prices : new String[][]{{"1.5", "1000"}, {"1,5"}, {"1,000"}}) {
+            File file = File.createTempFile("XLSXReaderTest", ".xlsx");
+            file.deleteOnExit();
+            List<Map<String, Object>> datas = new ArrayList<>();
+            for (String price : prices) {
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("price", price);
+                datas.add(data);
+            }
+            ExcelWriter<Map<String, Object>> writer = new ExcelWriter<>(true, -1, 1, ExcelWriter.XLSX, null);
+            writer.write(datas).endWrite(file);
+
+            ExcelSchema schema = new ExcelSchema();
+            schema.addColumn("price", Double.class);
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setSchema(schema);
+                reader.process();
+                Assert.assertEquals(2, prices.length);
+                Assert.assertEquals(1.5D, reader.getDatas().get(0).get("price"));
+                Assert.assertEquals(1000D, reader.getDatas().get(1).get("price"));
+            } catch (ReadExcelException e) {
+                Assert.assertEquals(1, prices.length);
+                Assert.assertTrue(e.getMessage().startsWith("Can not convert " + prices[0] + " in column price"));
+            } finally {
+                p.close();
+            }
+        }
+    }
+
+    /**
+     * 功能测试:
+     * Sheet内切分成块并行解析时按读取选项跳过不需要的行和列,读取结果与顺序解析一致
+     */
+    @Test
+    public void test31() throws Exception {
+        File file = this.produceExcel(5000, 5000);
+        ExcelReadOptions options = new ExcelReadOptions();
+        options.setColumns(Arrays.asList("id", "name"));
+        options.setStartRow(100);
+        options.setEndRow(4000);
+        options.addFilter("flag", value -> Boolean.TRUE.equals(value) || "true".equals(value));
+        for (boolean typedValue : new boolean[]{false, true}) {
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXReader sequential = new XLSXReader(p);
+                sequential.setTypedValue(typedValue);
+                sequential.setOptions(options);
+                sequential.process();
+
+                XLSXReader chunked = new XLSXReader(p);
+                chunked.setTypedValue(typedValue);
+                chunked.setOptions(options);
+                chunked.setExecutor(this.executor);
+                chunked.setSheetChunkSize(4096);
+                chunked.process();
+
+                Assert.assertEquals(1951, sequential.getDatas().size());
+                Assert.assertEquals(sequential.getDatas(), chunked.getDatas());
+                Assert.assertEquals(new HashSet<>(Arrays.asList("id", "name", "flag")),
+                        chunked.getDatas().get(0).keySet());
+            } finally {
+                p.close();
+            }
+        }
+    }
+}
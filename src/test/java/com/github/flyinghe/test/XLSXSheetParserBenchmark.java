@@ -0,0 +1,104 @@
+package com.github.flyinghe.test;
+
+import com.github.flyinghe.depdcy.ExcelCompactRowHandler;
+import com.github.flyinghe.depdcy.ReusableExcelRow;
+import com.github.flyinghe.tools.XLSXReader;
+import com.github.flyinghe.tools.XLSXWriter;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Created by FlyingHe on 2019/12/20.
+ * 对比SAX引擎与StAX引擎({@link XLSXReader#setStaxParser(boolean)})解析宽表(列多行少)和长表(列少行多)的耗时,
+ * 分别在字符串模式和按类型生成值模式下测试。
+ * 运行方式:直接运行main函数
+ */
+public class XLSXSheetParserBenchmark {
+    //{列数,行数}
+    private static final int[][] SHAPES = {{200, 5000}, {5, 200000}};
+    private static final int ROUNDS = 3;
+
+    public static void main(String[] args) throws Exception {
+        System.out.printf("%8s %8s %8s %10s %10s%n", "columns", "rows", "typed", "sax(ms)", "stax(ms)");
+        for (int[] shape : SHAPES) {
+            File file = produceExcel(shape[0], shape[1]);
+            for (boolean typedValue : new boolean[]{false, true}) {
+                //预热
+                best(file, typedValue, false, 1);
+                best(file, typedValue, true, 1);
+                long sax = best(file, typedValue, false, ROUNDS);
+                long stax = best(file, typedValue, true, ROUNDS);
+                System.out.printf("%8d %8d %8s %10d %10d%n", shape[0], shape[1], typedValue, sax, stax);
+            }
+            file.delete();
+        }
+    }
+
+    /**
+     * 生成只有一个Sheet的测试文件,列交替为数值,字符串和布尔值
+     */
+    private static File produceExcel(int columns, int rows) throws Exception {
+        File file = File.createTempFile("XLSXSheetParserBenchmark", ".xlsx");
+        file.deleteOnExit();
+        XLSXWriter<Map<String, Object>> writer = new XLSXWriter<>(true, rows, 1, true, null);
+        List<Map<String, Object>> datas = new ArrayList<>(1000);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            for (int j = 0; j < columns; j++) {
+                switch (j % 3) {
+                    case 0:
+                        data.put("c" + j, i * 1.5D + j);
+                        break;
+                    case 1:
+                        data.put("c" + j, "v" + (i % 100));
+                        break;
+                    default:
+                        data.put("c" + j, (i + j) % 2 == 0);
+                        break;
+                }
+            }
+            datas.add(data);
+            if (datas.size() == 1000) {
+                writer.write(datas);
+                datas.clear();
+            }
+        }
+        if (!datas.isEmpty()) {
+            writer.write(datas);
+        }
+        writer.endWrite(file);
+        return file;
+    }
+
+    /**
+     * 多次读取取最短耗时
+     */
+    private static long best(File file, boolean typedValue, boolean staxParser, int rounds) throws Exception {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < rounds; i++) {
+            final long[] cells = new long[1];
+            long start = System.nanoTime();
+            OPCPackage p = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXReader reader = new XLSXReader(p);
+                reader.setTypedValue(typedValue);
+                reader.setStaxParser(staxParser);
+                reader.setCompactRowHandler(new ExcelCompactRowHandler() {
+                    @Override
+                    public boolean handleRow(int currentSheetInExcel, int currentRowInSheet, ReusableExcelRow row) {
+                        cells[0] += row.size();
+                        return true;
+                    }
+                });
+                reader.process();
+            } finally {
+                p.close();
+            }
+            best = Math.min(best, (System.nanoTime() - start) / 1000000);
+        }
+        return best;
+    }
+}
@@ -2,21 +2,27 @@ package com.github.flyinghe.test;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.flyinghe.depdcy.AbstractExcelWriter;
+import com.github.flyinghe.depdcy.DirectXLSXWorkbook;
 import com.github.flyinghe.domain.TestObj;
 import com.github.flyinghe.exception.WriteExcelException;
 import com.github.flyinghe.tools.CommonUtils;
+import com.github.flyinghe.tools.XLSXDirectWriter;
+import com.github.flyinghe.tools.XLSXReader;
 import com.github.flyinghe.tools.XLSXWriter;
 import org.apache.commons.lang3.time.DateFormatUtils;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
+import org.junit.Assert;
 import org.junit.Test;
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.text.SimpleDateFormat;
 import java.util.*;
+import java.util.stream.StreamSupport;
 
 /**
  * Created by FlyingHe on 2018/12/23.
@@ -737,4 +743,199 @@ public class XLSXWriterTest {
         System.out.println(String.format("共写入数据量(不包括标题):%d", xlsxWriter.getRealDataInExcel()));
         System.out.println(String.format("共耗时:%d ms", System.currentTimeMillis() - s));
     }
+
+    /**
+     * 测试XLSXDirectWriter:与XLSXWriter写入的内容一致,并且不产生缓存文件
+     */
+    @Test
+    public void test8() throws Exception {
+        List<List<TestObj>> batches = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            batches.add(this.getDomainDatas(200, true));
+        }
+        AbstractExcelWriter.WriteExcelCallback<TestObj> callback =
+                new AbstractExcelWriter.WriteExcelCallback<TestObj>() {
+                    @Override
+                    public void handleRowReserved(Sheet sheet, AbstractExcelWriter<TestObj> writer) {
+                        sheet.createRow(0).createCell(0).setCellValue("预留行<&>");
+                        sheet.addMergedRegion(new CellRangeAddress(0, 0, 0, 2));
+                        sheet.createFreezePane(0, 2);
+                    }
+                };
+        File expected = File.createTempFile("expected", ".xlsx");
+        XLSXWriter<TestObj> xlsxWriter = new XLSXWriter<>(true, true, 250, 1, true, null);
+        xlsxWriter.setWriteExcelCallback(callback);
+        for (List<TestObj> batch : batches) {
+            xlsxWriter.write(batch);
+        }
+        xlsxWriter.endWrite(expected);
+
+        File tempDir = new File(System.getProperty("java.io.tmpdir"), "poifiles");
+        for (boolean useSharedStrings : new boolean[]{false, true}) {
+            File actual = File.createTempFile("actual", ".xlsx");
+            int tempFiles = null == tempDir.list() ? 0 : tempDir.list().length;
+            XLSXDirectWriter<TestObj> directWriter =
+                    new XLSXDirectWriter<>(new FileOutputStream(actual), true, true, 250, 1, useSharedStrings,
+                            null);
+            directWriter.setWriteExcelCallback(callback);
+            for (List<TestObj> batch : batches) {
+                directWriter.write(batch);
+                Assert.assertEquals(tempFiles, null == tempDir.list() ? 0 : tempDir.list().length);
+            }
+            Assert.assertTrue(directWriter.endWrite());
+            Assert.assertEquals(xlsxWriter.getAllSheetInExcel(), directWriter.getAllSheetInExcel());
+            Assert.assertEquals(xlsxWriter.getRealRowInExcel(), directWriter.getRealRowInExcel());
+
+            try (Workbook expectedWorkbook = WorkbookFactory.create(expected);
+                 Workbook actualWorkbook = WorkbookFactory.create(actual)) {
+                DataFormatter formatter = new DataFormatter();
+                Assert.assertEquals(expectedWorkbook.getNumberOfSheets(), actualWorkbook.getNumberOfSheets());
+                for (int i = 0; i < expectedWorkbook.getNumberOfSheets(); i++) {
+                    Sheet expectedSheet = expectedWorkbook.getSheetAt(i);
+                    Sheet actualSheet = actualWorkbook.getSheetAt(i);
+                    Assert.assertEquals(expectedSheet.getLastRowNum(), actualSheet.getLastRowNum());
+                    Assert.assertEquals(expectedSheet.getColumnWidth(1), actualSheet.getColumnWidth(1));
+                    Assert.assertEquals(1, actualSheet.getNumMergedRegions());
+                    Assert.assertEquals(2, actualSheet.getPaneInformation().getHorizontalSplitPosition());
+                    for (int r = 0; r <= expectedSheet.getLastRowNum(); r++) {
+                        Row expectedRow = expectedSheet.getRow(r);
+                        Row actualRow = actualSheet.getRow(r);
+                        if (null == expectedRow) {
+                            Assert.assertNull(actualRow);
+                            continue;
+                        }
+                        Assert.assertEquals(expectedRow.getLastCellNum(), actualRow.getLastCellNum());
+                        for (int c = 0; c < expectedRow.getLastCellNum(); c++) {
+                            Cell expectedCell = expectedRow.getCell(c);
+                            Cell actualCell = actualRow.getCell(c);
+                            Assert.assertEquals(formatter.formatCellValue(expectedCell),
+                                    formatter.formatCellValue(actualCell));
+                            if (null != expectedCell) {
+                                Assert.assertEquals(expectedCell.getCellStyle().getFillForegroundColor(),
+                                        actualCell.getCellStyle().getFillForegroundColor());
+                            }
+                        }
+                    }
+                }
+            }
+            actual.delete();
+        }
+        expected.delete();
+    }
+
+    /**
+     * 测试从Iterator/Stream/Iterable逐个写入:数据按需获取,属性根据第一个数据获取,每写入flushSize个数据刷出一次
+     */
+    @Test
+    public void test9() throws Exception {
+        int[] written = {0};
+        AbstractExcelWriter.WriteExcelCallback<Map<String, Object>> callback =
+                new AbstractExcelWriter.WriteExcelCallback<Map<String, Object>>() {
+                    @Override
+                    public void afterWritePerRow(Map<String, Object> data, int currentRowInSheet, Row currentRow,
+                                                 Sheet currentSheet, AbstractExcelWriter<Map<String, Object>> writer) {
+                        written[0]++;
+                        //内存中最多保留标题行和flushSize个数据行
+                        int rowsInMemory = 0;
+                        for (Iterator<Row> it = currentSheet.rowIterator(); it.hasNext(); it.next()) {
+                            rowsInMemory++;
+                        }
+                        Assert.assertTrue(rowsInMemory <= 11);
+                    }
+                };
+        Iterator<Map<String, Object>> source = new Iterator<Map<String, Object>>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < 95;
+            }
+
+            @Override
+            public Map<String, Object> next() {
+                //上一个数据写入之后才获取下一个数据
+                Assert.assertEquals(next, written[0]);
+                Map<String, Object> data = new LinkedHashMap<>();
+                data.put("id", next);
+                data.put("name", "name" + next++);
+                return data;
+            }
+        };
+
+        File file = File.createTempFile("XLSXWriterTest", ".xlsx");
+        XLSXWriter<Map<String, Object>> xlsxWriter = new XLSXWriter<>(50);
+        xlsxWriter.setFlushSize(10);
+        xlsxWriter.setWriteExcelCallback(callback);
+        xlsxWriter.write(StreamSupport.stream(Spliterators.spliteratorUnknownSize(source, 0), false));
+        Assert.assertTrue(xlsxWriter.endWrite(file));
+        Assert.assertEquals(95, written[0]);
+        Assert.assertEquals(2, xlsxWriter.getAllSheetInExcel());
+        Assert.assertEquals(95, xlsxWriter.getRealDataInExcel());
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Assert.assertEquals("id", workbook.getSheetAt(0).getRow(0).getCell(0).getStringCellValue());
+            Assert.assertEquals("name94", workbook.getSheetAt(1).getRow(45).getCell(1).getStringCellValue());
+        }
+
+        List<Map<String, Object>> datas = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            datas.add(Collections.singletonMap("id", i));
+        }
+        written[0] = 0;
+        XLSXDirectWriter<Map<String, Object>> directWriter = new XLSXDirectWriter<>(new FileOutputStream(file));
+        directWriter.setFlushSize(10);
+        directWriter.setWriteExcelCallback(callback);
+        directWriter.write(datas.iterator()).write((Iterable<Map<String, Object>>) datas);
+        Assert.assertTrue(directWriter.endWrite());
+        Assert.assertEquals(50, written[0]);
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Assert.assertEquals(50, workbook.getSheetAt(0).getLastRowNum());
+        }
+        file.delete();
+    }
+
+    /**
+     * 功能测试:
+     * 直接写入输出流时,公式单元格的字符串和布尔值计算结果与数值一样随公式写入
+     */
+    @Test
+    public void test10() throws Exception {
+        File file = File.createTempFile("XLSXWriterTest", ".xlsx");
+        file.deleteOnExit();
+        try (FileOutputStream os = new FileOutputStream(file)) {
+            DirectXLSXWorkbook workbook = new DirectXLSXWorkbook(os, false);
+            Sheet sheet = workbook.createSheet();
+            sheet.createRow(0).createCell(0).setCellValue("title");
+            Row columns = sheet.createRow(1);
+            String[] names = {"num", "str", "bool"};
+            for (int i = 0; i < names.length; i++) {
+                columns.createCell(i).setCellValue(names[i]);
+            }
+            Row row = sheet.createRow(2);
+            Cell num = row.createCell(0);
+            num.setCellFormula("1+1");
+            num.setCellValue(2);
+            Cell str = row.createCell(1);
+            str.setCellFormula("\"a<\"&\"b\"");
+            str.setCellValue("a<b");
+            Cell bool = row.createCell(2);
+            bool.setCellFormula("1=1");
+            bool.setCellValue(true);
+            workbook.write(os);
+            workbook.dispose();
+        }
+
+        try (Workbook workbook = WorkbookFactory.create(file)) {
+            Row row = workbook.getSheetAt(0).getRow(2);
+            Assert.assertEquals(CellType.NUMERIC, row.getCell(0).getCachedFormulaResultTypeEnum());
+            Assert.assertEquals(CellType.STRING, row.getCell(1).getCachedFormulaResultTypeEnum());
+            Assert.assertEquals("a<b", row.getCell(1).getStringCellValue());
+            Assert.assertEquals(CellType.BOOLEAN, row.getCell(2).getCachedFormulaResultTypeEnum());
+            Assert.assertTrue(row.getCell(2).getBooleanCellValue());
+        }
+        List<Map<String, Object>> datas = XLSXReader.readExcelToMapList(file);
+        Assert.assertEquals(1, datas.size());
+        Assert.assertEquals("2", datas.get(0).get("num"));
+        Assert.assertEquals("a<b", datas.get(0).get("str"));
+        Assert.assertNotNull(datas.get(0).get("bool"));
+    }
 }